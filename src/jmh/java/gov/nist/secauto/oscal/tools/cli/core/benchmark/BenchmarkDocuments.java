@@ -0,0 +1,143 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.benchmark;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.oscal.tools.cli.core.CLI;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticDocuments;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Provides the documents used by the benchmarks.
+ * <p>
+ * A document is identified by its model's command name, such as
+ * {@code catalog}, which refers to the valid example fixture in
+ * {@code src/test/resources/cli}. A name can be suffixed with a size, such as
+ * {@code catalog-10000}, which refers to a synthetic document of that size
+ * generated into the work directory, along with the documents it imports (see
+ * {@link SyntheticModel}).
+ */
+final class BenchmarkDocuments {
+  @NonNull
+  private static final Path FIXTURES = Paths.get("src/test/resources/cli");
+
+  private BenchmarkDocuments() {
+    // disable construction
+  }
+
+  /**
+   * Get the command name of the model of the provided document.
+   *
+   * @param document
+   *          the document name
+   * @return the model's command name
+   */
+  @NonNull
+  static String getModel(@NonNull String document) {
+    int index = document.lastIndexOf('-');
+    return index > 0 && isCount(document.substring(index + 1)) ? document.substring(0, index) : document;
+  }
+
+  /**
+   * Get the path of the provided document in the provided format, generating it
+   * if needed.
+   *
+   * @param document
+   *          the document name
+   * @param format
+   *          the format of the document
+   * @param workDirectory
+   *          the directory to generate documents into
+   * @return the document's path
+   * @throws IOException
+   *           if an error occurred while generating the document
+   */
+  @NonNull
+  static Path get(@NonNull String document, @NonNull Format format, @NonNull Path workDirectory)
+      throws IOException {
+    String model = getModel(document);
+    if (model.equals(document)) {
+      return FIXTURES.resolve("example_" + model + "_valid" + format.getDefaultExtension()).toAbsolutePath();
+    }
+
+    SyntheticModel syntheticModel = SyntheticModel.forCommandName(model);
+    if (syntheticModel == null) {
+      throw new IllegalArgumentException("No synthetic documents are available for the model: " + model);
+    }
+    int size = Integer.parseInt(document.substring(model.length() + 1));
+    return SyntheticDocuments.generate(syntheticModel, size, format, workDirectory);
+  }
+
+  /**
+   * Run a command, failing if it does not succeed, so that a benchmark does not
+   * measure an error path.
+   *
+   * @param args
+   *          the command's arguments
+   * @throws IllegalStateException
+   *           if the command did not succeed
+   */
+  static void checkCommand(@NonNull String... args) {
+    ExitStatus status = CLI.runCli(args);
+    if (status.getExitCode() != ExitCode.OK) {
+      status.generateMessage(true);
+      throw new IllegalStateException("The command failed: " + Arrays.toString(args));
+    }
+  }
+
+  /**
+   * Delete a work directory and its contents.
+   *
+   * @param directory
+   *          the directory to delete
+   * @throws IOException
+   *           if an error occurred while deleting the directory
+   */
+  static void delete(@NonNull Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static boolean isCount(@NonNull String text) {
+    return !text.isEmpty() && text.chars().allMatch(Character::isDigit);
+  }
+}
@@ -0,0 +1,147 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.benchmark;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the wall-clock time of launching the assembled distribution's
+ * {@code bin/oscal-cli}, with and without the class data sharing archive
+ * created by the {@code appcds} profile.
+ * <p>
+ * Requires the distribution to have been built using
+ * {@code mvn -Pappcds -DskipTests package}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+  private static final String ARCHIVE = "oscal-cli.jsa";
+
+  @Param({ "none", "appcds" })
+  public String archive;
+  @Param({ "version", "validate" })
+  public String command;
+
+  private Path workDirectory;
+  private List<String> args;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    Path distribution = findDistribution();
+    if (!Files.exists(distribution.resolve("lib").resolve(ARCHIVE))) {
+      throw new IllegalStateException(
+          String.format("The distribution '%s' has no '%s'. Build it using the appcds profile.", distribution,
+              ARCHIVE));
+    }
+
+    workDirectory = Files.createTempDirectory("oscal-cli-benchmark");
+    if ("none".equals(archive)) {
+      // a copy of the distribution without the archive
+      Path copy = workDirectory.resolve("oscal-cli");
+      try (Stream<Path> paths = Files.walk(distribution)) {
+        for (Path path : (Iterable<Path>) paths::iterator) {
+          Path target = copy.resolve(distribution.relativize(path).toString());
+          if (Files.isDirectory(path)) {
+            Files.createDirectories(target);
+          } else if (!ARCHIVE.equals(path.getFileName().toString())) {
+            Files.copy(path, target);
+          }
+        }
+      }
+      distribution = copy;
+    }
+
+    args = new ArrayList<>();
+    args.add("sh");
+    args.add(distribution.resolve("bin").resolve("oscal-cli").toString());
+    if ("version".equals(command)) {
+      args.add("--version");
+    } else {
+      Path source = BenchmarkDocuments.get("catalog", Format.XML,
+          workDirectory);
+      args.add("-q");
+      args.add("catalog");
+      args.add("validate");
+      args.add(source.toString());
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    BenchmarkDocuments.delete(workDirectory);
+  }
+
+  @Benchmark
+  public int launch() throws IOException, InterruptedException {
+    Process process = new ProcessBuilder(args)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .redirectError(ProcessBuilder.Redirect.DISCARD)
+        .start();
+    int exitCode = process.waitFor();
+    if (exitCode != 0) {
+      throw new IllegalStateException(String.format("The command %s exited with %d.", args, exitCode));
+    }
+    return exitCode;
+  }
+
+  private static Path findDistribution() throws IOException {
+    try (Stream<Path> paths = Files.list(Paths.get("target"))) {
+      return paths
+          .filter(path -> Files.isDirectory(path) && path.getFileName().toString().endsWith("-oscal-cli"))
+          .findFirst()
+          .orElseThrow(() -> new IllegalStateException(
+              "The assembled distribution was not found in 'target'. Build it using the appcds profile."));
+    }
+  }
+}
@@ -28,12 +28,14 @@ package gov.nist.secauto.oscal.tools.cli.core;
 
 import gov.nist.secauto.metaschema.cli.processor.CLIProcessor;
 import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.cli.processor.command.ICommand;
 import gov.nist.secauto.metaschema.model.MetaschemaVersion;
 import gov.nist.secauto.metaschema.model.common.util.IVersionInfo;
 import gov.nist.secauto.metaschema.model.common.util.MetaschemaJavaVersion;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.LibOscalVersion;
 import gov.nist.secauto.oscal.lib.OscalVersion;
+import gov.nist.secauto.oscal.tools.cli.core.commands.LazyCommand;
 import gov.nist.secauto.oscal.tools.cli.core.commands.assessmentplan.AssessmentPlanCommand;
 import gov.nist.secauto.oscal.tools.cli.core.commands.assessmentresults.AssessmentResultsCommand;
 import gov.nist.secauto.oscal.tools.cli.core.commands.catalog.CatalogCommand;
@@ -41,6 +43,7 @@ import gov.nist.secauto.oscal.tools.cli.core.commands.componentdefinition.Compon
 import gov.nist.secauto.oscal.tools.cli.core.commands.metaschema.MetaschemaCommand;
 import gov.nist.secauto.oscal.tools.cli.core.commands.poam.PlanOfActionsAndMilestonesCommand;
 import gov.nist.secauto.oscal.tools.cli.core.commands.profile.ProfileCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.serve.ServeCommand;
 import gov.nist.secauto.oscal.tools.cli.core.commands.ssp.SystemSecurityPlanCommand;
 
 import java.util.List;
@@ -67,17 +70,37 @@ public final class CLI {
             new MetaschemaJavaVersion(),
             new MetaschemaVersion()));
     CLIProcessor processor = new CLIProcessor("oscal-cli", versions);
-    processor.addCommandHandler(new CatalogCommand());
-    processor.addCommandHandler(new ProfileCommand());
-    processor.addCommandHandler(new ComponentDefinitionCommand());
-    processor.addCommandHandler(new SystemSecurityPlanCommand());
-    processor.addCommandHandler(new AssessmentPlanCommand());
-    processor.addCommandHandler(new AssessmentResultsCommand());
-    processor.addCommandHandler(new PlanOfActionsAndMilestonesCommand());
-    processor.addCommandHandler(new MetaschemaCommand());
+    newCommandHandlers().forEach(processor::addCommandHandler);
     return processor.process(args);
   }
 
+  /**
+   * Construct the top-level commands of the CLI.
+   * <p>
+   * The command trees are only constructed when called, to avoid loading the
+   * classes of every model.
+   *
+   * @return the commands
+   */
+  @NonNull
+  public static List<ICommand> newCommandHandlers() {
+    return ObjectUtils.notNull(List.of(
+        new LazyCommand(CatalogCommand.COMMAND, CatalogCommand.DESCRIPTION, () -> new CatalogCommand()),
+        new LazyCommand(ProfileCommand.COMMAND, ProfileCommand.DESCRIPTION, () -> new ProfileCommand()),
+        new LazyCommand(ComponentDefinitionCommand.COMMAND, ComponentDefinitionCommand.DESCRIPTION,
+            () -> new ComponentDefinitionCommand()),
+        new LazyCommand(SystemSecurityPlanCommand.COMMAND, SystemSecurityPlanCommand.DESCRIPTION,
+            () -> new SystemSecurityPlanCommand()),
+        new LazyCommand(AssessmentPlanCommand.COMMAND, AssessmentPlanCommand.DESCRIPTION,
+            () -> new AssessmentPlanCommand()),
+        new LazyCommand(AssessmentResultsCommand.COMMAND, AssessmentResultsCommand.DESCRIPTION,
+            () -> new AssessmentResultsCommand()),
+        new LazyCommand(PlanOfActionsAndMilestonesCommand.COMMAND, PlanOfActionsAndMilestonesCommand.DESCRIPTION,
+            () -> new PlanOfActionsAndMilestonesCommand()),
+        new LazyCommand(MetaschemaCommand.COMMAND, MetaschemaCommand.DESCRIPTION, () -> new MetaschemaCommand()),
+        new LazyCommand(ServeCommand.COMMAND, ServeCommand.DESCRIPTION, () -> new ServeCommand())));
+  }
+
   private CLI() {
     // disable construction
   }
@@ -0,0 +1,164 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.cds;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.tools.cli.core.CLI;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticDocumentGenerator;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Runs every sub-command once in a single JVM, so that the classes they load
+ * can be captured in a class data sharing (CDS) archive.
+ * <p>
+ * This is the main class of the {@code oscal-cli-cds} launcher, which runs it
+ * with {@code -XX:ArchiveClassesAtExit} to write the archive used by the
+ * {@code oscal-cli} launcher. Since an archive is only usable with the class
+ * path it was created with, the launcher needs to be run again after the
+ * distribution is moved.
+ */
+public final class ArchiveTraining {
+  private static final Logger LOGGER = LogManager.getLogger(ArchiveTraining.class);
+  private static final int SIZE = 10;
+
+  private ArchiveTraining() {
+    // disable construction
+  }
+
+  /**
+   * Run the training.
+   *
+   * @param args
+   *          unused
+   */
+  public static void main(String[] args) {
+    int exitCode;
+    try {
+      exitCode = train() ? ExitCode.OK.getStatusCode() : ExitCode.PROCESSING_ERROR.getStatusCode();
+    } catch (IOException ex) {
+      if (LOGGER.isErrorEnabled()) {
+        LOGGER.error("Unable to generate the training documents.", ex);
+      }
+      exitCode = ExitCode.IO_ERROR.getStatusCode();
+    }
+    System.exit(exitCode);
+  }
+
+  private static boolean train() throws IOException {
+    Path directory = ObjectUtils.notNull(Files.createTempDirectory("oscal-cli-cds"));
+    try {
+      List<String[]> commands = new ArrayList<>();
+      commands.add(new String[] { "--version" });
+      commands.add(new String[] { "--help" });
+      for (SyntheticModel model : SyntheticModel.values()) {
+        addCommands(model, directory, commands);
+      }
+
+      boolean retval = true;
+      for (String[] command : commands) {
+        retval = run(ObjectUtils.notNull(command)) && retval;
+      }
+      return retval;
+    } finally {
+      delete(directory);
+    }
+  }
+
+  private static void addCommands(
+      @NonNull SyntheticModel model,
+      @NonNull Path directory,
+      @NonNull List<String[]> commands) throws IOException {
+    String name = model.getCommandName();
+    for (Format format : Format.values()) {
+      Path source = directory.resolve(model.getFileName(SIZE) + format.getDefaultExtension());
+      new SyntheticDocumentGenerator(model, SIZE, format).generate(ObjectUtils.notNull(source));
+
+      commands.add(new String[] { name, "validate", "-q", source.toString() });
+      for (Format toFormat : Format.values()) {
+        if (toFormat != format) {
+          commands.add(new String[] {
+              name,
+              "convert",
+              "-q",
+              "--overwrite",
+              "--to=" + toFormat.name().toLowerCase(Locale.ROOT),
+              source.toString(),
+              directory.resolve("converted" + toFormat.getDefaultExtension()).toString() });
+        }
+      }
+    }
+
+    if (SyntheticModel.PROFILE.equals(model)) {
+      Path xml = directory.resolve(model.getFileName(SIZE) + Format.XML.getDefaultExtension());
+      for (Format toFormat : Format.values()) {
+        commands.add(new String[] {
+            name,
+            "resolve",
+            "-q",
+            "--overwrite",
+            "--to=" + toFormat.name().toLowerCase(Locale.ROOT),
+            xml.toString(),
+            directory.resolve("resolved" + toFormat.getDefaultExtension()).toString() });
+      }
+    }
+  }
+
+  private static boolean run(@NonNull String... args) {
+    ExitStatus status = CLI.runCli(args);
+    boolean retval = status.getExitCode() == ExitCode.OK;
+    if (!retval && LOGGER.isErrorEnabled()) {
+      LOGGER.error("The training command failed: {}", Arrays.toString(args));
+    }
+    return retval;
+  }
+
+  private static void delete(@NonNull Path directory) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(path);
+      }
+    }
+  }
+}
@@ -36,14 +36,21 @@ import gov.nist.secauto.metaschema.cli.processor.command.DefaultExtraArgument;
 import gov.nist.secauto.metaschema.cli.processor.command.ExtraArgument;
 import gov.nist.secauto.metaschema.cli.processor.command.ICommandExecutor;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.tools.cli.core.util.Compression;
+import gov.nist.secauto.oscal.tools.cli.core.util.OptionValues;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles;
+import gov.nist.secauto.oscal.tools.cli.core.util.StandardStreams;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -51,6 +58,8 @@ import java.util.Collection;
 import java.util.List;
 
 import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -63,8 +72,8 @@ public abstract class AbstractRenderSubcommand
   private static final String COMMAND = "render";
   @NonNull
   private static final List<ExtraArgument> EXTRA_ARGUMENTS = ObjectUtils.notNull(List.of(
-      new DefaultExtraArgument("source file", true),
-      new DefaultExtraArgument("destination file", false)));
+      new DefaultExtraArgument("source file, or - for standard input", true),
+      new DefaultExtraArgument("destination file, or - for standard output", false)));
 
   @NonNull
   private static final Option OVERWRITE_OPTION = ObjectUtils.notNull(
@@ -72,6 +81,14 @@ public abstract class AbstractRenderSubcommand
           .longOpt("overwrite")
           .desc("overwrite the destination if it exists")
           .build());
+  @NonNull
+  private static final Option COMPRESS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("compress")
+          .hasArg()
+          .argName("COMPRESSION")
+          .desc("compress the output: gzip, zstd, or none (default: based on the destination's extension)")
+          .build());
 
   @Override
   public String getName() {
@@ -81,7 +98,7 @@ public abstract class AbstractRenderSubcommand
   @SuppressWarnings("null")
   @Override
   public Collection<? extends Option> gatherOptions() {
-    return List.of(OVERWRITE_OPTION);
+    return List.of(OVERWRITE_OPTION, COMPRESS_OPTION);
   }
 
   @Override
@@ -96,6 +113,11 @@ public abstract class AbstractRenderSubcommand
     if (extraArgs.size() != 2) {
       throw new InvalidArgumentException("Both a source and destination argument must be provided.");
     }
+    OptionValues.getCompression(cmdLine, COMPRESS_OPTION);
+
+    if (SourceFiles.isStdin(ObjectUtils.notNull(extraArgs.get(0)))) {
+      return;
+    }
 
     File source = new File(extraArgs.get(0));
     if (!source.exists()) {
@@ -119,9 +141,12 @@ public abstract class AbstractRenderSubcommand
       @NonNull CallingContext callingContext,
       @NonNull CommandLine cmdLine) {
     List<String> extraArgs = cmdLine.getArgList();
-    Path destination = resolvePathAgainstCWD(ObjectUtils.notNull(Paths.get(extraArgs.get(1)))); // .toAbsolutePath();
+    String destinationArg = ObjectUtils.notNull(extraArgs.get(1));
+    Path destination = StandardStreams.isStdout(destinationArg)
+        ? null
+        : resolvePathAgainstCWD(ObjectUtils.notNull(Paths.get(destinationArg)));
 
-    if (Files.exists(destination)) {
+    if (destination != null && Files.exists(destination)) {
       if (!cmdLine.hasOption(OVERWRITE_OPTION)) {
         return ExitCode.INVALID_ARGUMENTS.exitMessage(
             String.format("The provided destination '%s' already exists and the '%s' option was not provided.",
@@ -133,18 +158,49 @@ public abstract class AbstractRenderSubcommand
       }
     }
 
-    Path input = resolvePathAgainstCWD(ObjectUtils.notNull(Paths.get(extraArgs.get(0))));
+    Compression compression;
     try {
-      performRender(input, destination);
+      compression = Compression.forDestination(OptionValues.getCompression(cmdLine, COMPRESS_OPTION), destination);
+    } catch (InvalidArgumentException ex) {
+      return ExitCode.INVALID_ARGUMENTS.exitMessage(ex.getMessage());
+    }
+
+    String sourceArg = ObjectUtils.notNull(extraArgs.get(0));
+    Path source = SourceFiles.isStdin(sourceArg)
+        ? null
+        : resolvePathAgainstCWD(ObjectUtils.notNull(Paths.get(sourceArg)));
+    // the source is decompressed as it is read, if it is compressed
+    try (InputStream is = Compression.decompressing(source == null
+        ? ObjectUtils.notNull(CloseShieldInputStream.wrap(System.in))
+        : ObjectUtils.notNull(Files.newInputStream(source)));
+        OutputStream os = destination == null
+            ? compression.compress(StandardStreams.newStdoutStream())
+            : compression.newOutputStream(destination)) {
+      StreamSource input = new StreamSource(is,
+          (source == null ? SourceFiles.getStdinUri() : source.toUri()).toString());
+      performRender(input, new StreamResult(os));
     } catch (IOException | TransformerException ex) {
       return ExitCode.PROCESSING_ERROR.exit().withThrowable(ex);
     }
 
-    if (LOGGER.isInfoEnabled()) {
+    if (destination != null && LOGGER.isInfoEnabled()) {
       LOGGER.info("Generated HTML file: " + destination.toString());
     }
     return ExitCode.OK.exit();
   }
 
-  protected abstract void performRender(Path input, Path result) throws IOException, TransformerException;
+  /**
+   * Render the source as HTML.
+   *
+   * @param input
+   *          the source, which is a file or standard input
+   * @param result
+   *          the destination, which is a file or standard output
+   * @throws IOException
+   *           if an error occurred while reading or writing
+   * @throws TransformerException
+   *           if an error occurred while rendering
+   */
+  protected abstract void performRender(@NonNull StreamSource input, @NonNull StreamResult result)
+      throws IOException, TransformerException;
 }
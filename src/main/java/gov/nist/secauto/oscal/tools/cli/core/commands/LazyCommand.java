@@ -0,0 +1,143 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands;
+
+import gov.nist.secauto.metaschema.cli.processor.CLIProcessor.CallingContext;
+import gov.nist.secauto.metaschema.cli.processor.InvalidArgumentException;
+import gov.nist.secauto.metaschema.cli.processor.command.ExtraArgument;
+import gov.nist.secauto.metaschema.cli.processor.command.ICommand;
+import gov.nist.secauto.metaschema.cli.processor.command.ICommandExecutor;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A command whose name and description are known up front, but which only
+ * constructs the command it stands in for when it is called.
+ * <p>
+ * Constructing a command tree loads the OSCAL model classes used by its
+ * sub-commands. Registering a command using this class allows the commands that
+ * are not called to be listed in the help output without paying that cost.
+ */
+public class LazyCommand implements ICommand {
+  @NonNull
+  private final String name;
+  @NonNull
+  private final String description;
+  @NonNull
+  private final Supplier<ICommand> supplier;
+  private ICommand delegate;
+
+  /**
+   * Construct a new lazily constructed command.
+   *
+   * @param name
+   *          the name of the command, which must match the name of the supplied
+   *          command
+   * @param description
+   *          the description of the command
+   * @param supplier
+   *          used to construct the command the first time it is needed
+   */
+  public LazyCommand(@NonNull String name, @NonNull String description, @NonNull Supplier<ICommand> supplier) {
+    this.name = name;
+    this.description = description;
+    this.supplier = supplier;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public String getDescription() {
+    return description;
+  }
+
+  /**
+   * Get the command this command stands in for, constructing it if needed.
+   *
+   * @return the command
+   */
+  @NonNull
+  protected synchronized ICommand getDelegate() {
+    ICommand retval = delegate;
+    if (retval == null) {
+      retval = ObjectUtils.requireNonNull(supplier.get());
+      delegate = retval;
+    }
+    return retval;
+  }
+
+  @Override
+  public List<ExtraArgument> getExtraArguments() {
+    return getDelegate().getExtraArguments();
+  }
+
+  @Override
+  public int requiredExtraArgumentsCount() {
+    return getDelegate().requiredExtraArgumentsCount();
+  }
+
+  @Override
+  public Collection<? extends Option> gatherOptions() {
+    return getDelegate().gatherOptions();
+  }
+
+  @Override
+  public Collection<ICommand> getSubCommands() {
+    return getDelegate().getSubCommands();
+  }
+
+  @Override
+  public boolean isSubCommandRequired() {
+    return getDelegate().isSubCommandRequired();
+  }
+
+  @Override
+  public ICommand getSubCommandByName(String name) {
+    return getDelegate().getSubCommandByName(name);
+  }
+
+  @Override
+  public void validateOptions(CallingContext callingContext, CommandLine cmdLine) throws InvalidArgumentException {
+    getDelegate().validateOptions(callingContext, cmdLine);
+  }
+
+  @Override
+  public ICommandExecutor newExecutor(CallingContext callingContext, CommandLine cmdLine) {
+    return getDelegate().newExecutor(callingContext, cmdLine);
+  }
+}
@@ -26,17 +26,21 @@
 
 package gov.nist.secauto.oscal.tools.cli.core.commands.assessmentplan;
 
-import gov.nist.secauto.metaschema.cli.processor.command.AbstractParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.AbstractOscalParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.GenerateSubcommand;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
 
 public class AssessmentPlanCommand
-    extends AbstractParentCommand {
-  private static final String COMMAND = "ap";
+    extends AbstractOscalParentCommand {
+  public static final String COMMAND = "ap";
+  public static final String DESCRIPTION = "Perform an operation on an OSCAL Assessment Plan";
 
   public AssessmentPlanCommand() {
     super(true);
     addCommandHandler(new ValidateSubcommand());
     // addCommandHandler(new RenderSubcommand());
     addCommandHandler(new ConvertSubcommand());
+    addHiddenCommandHandler(GenerateSubcommand.COMMAND, () -> new GenerateSubcommand(SyntheticModel.ASSESSMENT_PLAN));
   }
 
   @Override
@@ -46,6 +50,6 @@ public class AssessmentPlanCommand
 
   @Override
   public String getDescription() {
-    return "Perform an operation on an OSCAL Assessment Plan";
+    return DESCRIPTION;
   }
 }
@@ -26,17 +26,22 @@
 
 package gov.nist.secauto.oscal.tools.cli.core.commands.assessmentresults;
 
-import gov.nist.secauto.metaschema.cli.processor.command.AbstractParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.AbstractOscalParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.GenerateSubcommand;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
 
 public class AssessmentResultsCommand
-    extends AbstractParentCommand {
-  private static final String COMMAND = "ar";
+    extends AbstractOscalParentCommand {
+  public static final String COMMAND = "ar";
+  public static final String DESCRIPTION = "Perform an operation on an OSCAL Assessment Results";
 
   public AssessmentResultsCommand() {
     super(true);
     addCommandHandler(new ValidateSubcommand());
     // addCommandHandler(new RenderSubcommand());
     addCommandHandler(new ConvertSubcommand());
+    addHiddenCommandHandler(GenerateSubcommand.COMMAND,
+        () -> new GenerateSubcommand(SyntheticModel.ASSESSMENT_RESULTS));
   }
 
   @Override
@@ -46,6 +51,6 @@ public class AssessmentResultsCommand
 
   @Override
   public String getDescription() {
-    return "Perform an operation on an OSCAL Assessment Results";
+    return DESCRIPTION;
   }
 }
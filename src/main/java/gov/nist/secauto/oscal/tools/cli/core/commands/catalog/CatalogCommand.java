@@ -28,19 +28,23 @@ package gov.nist.secauto.oscal.tools.cli.core.commands.catalog;
 
 import com.google.auto.service.AutoService;
 
-import gov.nist.secauto.metaschema.cli.processor.command.AbstractParentCommand;
 import gov.nist.secauto.metaschema.cli.processor.command.ICommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.AbstractOscalParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.GenerateSubcommand;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
 
 @AutoService(ICommand.class)
 public class CatalogCommand
-    extends AbstractParentCommand {
-  private static final String COMMAND = "catalog";
+    extends AbstractOscalParentCommand {
+  public static final String COMMAND = "catalog";
+  public static final String DESCRIPTION = "Perform an operation on an OSCAL Catalog";
 
   public CatalogCommand() {
     super(true);
     addCommandHandler(new ValidateSubcommand());
     // addCommandHandler(new RenderSubcommand());
     addCommandHandler(new ConvertSubcommand());
+    addHiddenCommandHandler(GenerateSubcommand.COMMAND, () -> new GenerateSubcommand(SyntheticModel.CATALOG));
   }
 
   @Override
@@ -50,7 +54,7 @@ public class CatalogCommand
 
   @Override
   public String getDescription() {
-    return "Perform an operation on an OSCAL Catalog";
+    return DESCRIPTION;
   }
 
 }
@@ -26,17 +26,22 @@
 
 package gov.nist.secauto.oscal.tools.cli.core.commands.componentdefinition;
 
-import gov.nist.secauto.metaschema.cli.processor.command.AbstractParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.AbstractOscalParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.GenerateSubcommand;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
 
 public class ComponentDefinitionCommand
-    extends AbstractParentCommand {
-  private static final String COMMAND = "component-definition";
+    extends AbstractOscalParentCommand {
+  public static final String COMMAND = "component-definition";
+  public static final String DESCRIPTION = "Perform an operation on an OSCAL Component Definition";
 
   public ComponentDefinitionCommand() {
     super(true);
     addCommandHandler(new ValidateSubcommand());
     // addCommandHandler(new RenderSubcommand());
     addCommandHandler(new ConvertSubcommand());
+    addHiddenCommandHandler(GenerateSubcommand.COMMAND,
+        () -> new GenerateSubcommand(SyntheticModel.COMPONENT_DEFINITION));
   }
 
   @Override
@@ -46,7 +51,7 @@ public class ComponentDefinitionCommand
 
   @Override
   public String getDescription() {
-    return "Perform an operation on an OSCAL Component Definition";
+    return DESCRIPTION;
   }
 
 }
@@ -37,7 +37,8 @@ import gov.nist.secauto.metaschema.cli.processor.command.ICommand;
 @AutoService(ICommand.class)
 public class MetaschemaCommand
     extends AbstractParentCommand {
-  private static final String COMMAND = "metaschema";
+  public static final String COMMAND = "metaschema";
+  public static final String DESCRIPTION = "Perform an operation on a Metaschema";
 
   public MetaschemaCommand() {
     super(true);
@@ -53,6 +54,6 @@ public class MetaschemaCommand
 
   @Override
   public String getDescription() {
-    return "Perform an operation on a Metaschema";
+    return DESCRIPTION;
   }
 }
@@ -27,21 +27,184 @@
 package gov.nist.secauto.oscal.tools.cli.core.commands.oscal;
 
 import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.binding.io.ISerializer;
 import gov.nist.secauto.metaschema.cli.commands.AbstractConvertSubcommand;
+import gov.nist.secauto.metaschema.cli.processor.CLIProcessor;
 import gov.nist.secauto.metaschema.cli.processor.CLIProcessor.CallingContext;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.cli.processor.InvalidArgumentException;
+import gov.nist.secauto.metaschema.cli.processor.OptionUtils;
 import gov.nist.secauto.metaschema.cli.processor.command.ICommandExecutor;
+import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.tools.cli.core.util.Compression;
+import gov.nist.secauto.oscal.tools.cli.core.util.MappedFile;
+import gov.nist.secauto.oscal.tools.cli.core.util.OptionValues;
+import gov.nist.secauto.oscal.tools.cli.core.util.SniffedSource;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles.SourceFile;
+import gov.nist.secauto.oscal.tools.cli.core.util.StandardStreams;
 
 import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 
 public abstract class AbstractOscalConvertSubcommand
     extends AbstractConvertSubcommand {
+  private static final Logger LOGGER = LogManager.getLogger(AbstractOscalConvertSubcommand.class);
+
+  @NonNull
+  private static final String TO_OPTION_NAME = "to";
+  @NonNull
+  private static final String OVERWRITE_OPTION_NAME = "overwrite";
+  @NonNull
+  private static final Option AS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("as")
+          .hasArg()
+          .argName("FORMAT")
+          .desc("source format: xml, json, or yaml, which is required when it cannot be detected")
+          .build());
+  @NonNull
+  private static final Option COMPRESS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("compress")
+          .hasArg()
+          .argName("COMPRESSION")
+          .desc("compress the output: gzip, zstd, or none (default: based on the destination's extension)")
+          .build());
+  @NonNull
+  private static final Option OUTPUT_DIR_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("output-dir")
+          .hasArg()
+          .argName("DIR")
+          .desc("convert all sources, which may be files, directories, or globs, into this directory")
+          .build());
+  @NonNull
+  private static final Option THREADS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("threads")
+          .hasArg()
+          .argName("COUNT")
+          .desc("with --output-dir, the number of files to convert concurrently (default: the number of processors)")
+          .build());
 
   @NonNull
   public abstract Class<?> getOscalClass();
 
+  @Override
+  public Collection<? extends Option> gatherOptions() {
+    List<Option> retval = new ArrayList<>(super.gatherOptions());
+    retval.add(AS_OPTION);
+    retval.add(COMPRESS_OPTION);
+    retval.add(OUTPUT_DIR_OPTION);
+    retval.add(THREADS_OPTION);
+    return retval;
+  }
+
+  @SuppressWarnings("PMD.PreserveStackTrace") // intended
+  @Override
+  public void validateOptions(CallingContext callingContext, CommandLine cmdLine) throws InvalidArgumentException {
+    List<String> extraArgs = cmdLine.getArgList();
+    boolean bulk = cmdLine.hasOption(OUTPUT_DIR_OPTION);
+    if (cmdLine.hasOption(AS_OPTION)) {
+      if (bulk) {
+        throw new InvalidArgumentException(
+            "The '" + OptionUtils.toArgument(AS_OPTION) + "' option cannot be used with '"
+                + OptionUtils.toArgument(OUTPUT_DIR_OPTION) + "'.");
+      }
+      try {
+        Format.valueOf(cmdLine.getOptionValue(AS_OPTION).toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException ex) {
+        InvalidArgumentException newEx = new InvalidArgumentException(
+            String.format("Invalid '%s' argument. The format must be one of: %s.",
+                OptionUtils.toArgument(AS_OPTION),
+                Format.names().stream()
+                    .collect(CustomCollectors.joiningWithOxfordComma("and"))));
+        newEx.setOption(AS_OPTION);
+        newEx.addSuppressed(ex);
+        throw newEx;
+      }
+    }
+    OptionValues.getCompression(cmdLine, COMPRESS_OPTION);
+
+    if (!bulk && (extraArgs.isEmpty() || !SourceFiles.isStdin(ObjectUtils.notNull(extraArgs.get(0))))) {
+      super.validateOptions(callingContext, cmdLine);
+      return;
+    }
+
+    try {
+      Format.valueOf(cmdLine.getOptionValue(TO_OPTION_NAME).toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException ex) {
+      InvalidArgumentException newEx = new InvalidArgumentException(
+          String.format("Invalid '--%s' argument. The format must be one of: %s.",
+              TO_OPTION_NAME,
+              Format.names().stream()
+                  .collect(CustomCollectors.joiningWithOxfordComma("and"))));
+      newEx.addSuppressed(ex);
+      throw newEx;
+    }
+
+    if (!bulk) {
+      // standard input is converted to the destination, if any
+      if (extraArgs.size() > 2) {
+        throw new InvalidArgumentException("Illegal number of arguments.");
+      }
+      return;
+    }
+
+    if (extraArgs.isEmpty()) {
+      throw new InvalidArgumentException("The source to convert must be provided.");
+    }
+
+    for (String arg : extraArgs) {
+      if (SourceFiles.isStdin(ObjectUtils.notNull(arg))) {
+        throw new InvalidArgumentException(
+            "Standard input cannot be converted with '" + OptionUtils.toArgument(OUTPUT_DIR_OPTION) + "'.");
+      }
+      if (!SourceFiles.isGlob(arg)) {
+        Path source = Paths.get(arg);
+        if (!Files.exists(source)) {
+          throw new InvalidArgumentException("The provided source '" + source + "' does not exist.");
+        }
+        if (!Files.isReadable(source)) {
+          throw new InvalidArgumentException("The provided source '" + source + "' is not readable.");
+        }
+      }
+    }
+
+    Path outputDirectory = Paths.get(cmdLine.getOptionValue(OUTPUT_DIR_OPTION));
+    if (Files.exists(outputDirectory) && !Files.isDirectory(outputDirectory)) {
+      InvalidArgumentException ex = new InvalidArgumentException(
+          String.format("The provided %s '%s' is not a directory.",
+              OptionUtils.toArgument(OUTPUT_DIR_OPTION),
+              outputDirectory));
+      ex.setOption(OUTPUT_DIR_OPTION);
+      throw ex;
+    }
+
+    OptionValues.getPositiveInteger(cmdLine, THREADS_OPTION, 1);
+  }
+
   @Override
   public ICommandExecutor newExecutor(CallingContext callingContext, CommandLine commandLine) {
     return new OscalCommandExecutor(callingContext, commandLine);
@@ -65,5 +228,148 @@ public abstract class AbstractOscalConvertSubcommand
     protected Class<?> getLoadedClass() {
       return getOscalClass();
     }
+
+    @Override
+    public ExitStatus execute() {
+      CommandLine cmdLine = getCommandLine();
+      return cmdLine.hasOption(OUTPUT_DIR_OPTION) ? executeBulk(cmdLine) : executeSingle(cmdLine);
+    }
+
+    /**
+     * Convert a single source, which may be standard input, reading it only once to
+     * both detect its format and parse it. The destination may be standard output.
+     *
+     * @param cmdLine
+     *          the parsed command line
+     * @return the exit status
+     */
+    @SuppressWarnings("PMD.OnlyOneReturn") // readability
+    @NonNull
+    private ExitStatus executeSingle(@NonNull CommandLine cmdLine) {
+      List<String> extraArgs = cmdLine.getArgList();
+      Path destination = null;
+      if (extraArgs.size() > 1 && !StandardStreams.isStdout(ObjectUtils.notNull(extraArgs.get(1)))) {
+        destination = Paths.get(extraArgs.get(1)).toAbsolutePath();
+      }
+
+      if (destination != null) {
+        if (Files.exists(destination)) {
+          if (!cmdLine.hasOption(OVERWRITE_OPTION_NAME)) {
+            return ExitCode.INVALID_ARGUMENTS.exitMessage(
+                String.format("The provided destination '%s' already exists and the '--%s' option was not provided.",
+                    destination,
+                    OVERWRITE_OPTION_NAME));
+          }
+          if (!Files.isWritable(destination)) {
+            return ExitCode.IO_ERROR.exitMessage("The provided destination '" + destination + "' is not writable.");
+          }
+        } else {
+          Path parent = destination.getParent();
+          if (parent != null) {
+            try {
+              Files.createDirectories(parent);
+            } catch (IOException ex) {
+              return ExitCode.INVALID_TARGET.exit().withThrowable(ex);
+            }
+          }
+        }
+      }
+
+      Compression compression;
+      try {
+        compression = Compression.forDestination(OptionValues.getCompression(cmdLine, COMPRESS_OPTION), destination);
+      } catch (InvalidArgumentException ex) {
+        return ExitCode.INVALID_ARGUMENTS.exitMessage(ex.getMessage());
+      }
+
+      String source = ObjectUtils.notNull(extraArgs.get(0));
+      Format toFormat = Format.valueOf(cmdLine.getOptionValue(TO_OPTION_NAME).toUpperCase(Locale.ROOT));
+      IBoundLoader loader = getBindingContext().newBoundLoader();
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("Converting '{}'.", source);
+      }
+      try (SniffedSource input = SourceFiles.isStdin(source)
+          ? SniffedSource.stdin()
+          : SniffedSource.open(MappedFile.open(ObjectUtils.notNull(Paths.get(source).toAbsolutePath())))) {
+        Format asFormat;
+        if (cmdLine.hasOption(AS_OPTION)) {
+          asFormat = Format.valueOf(cmdLine.getOptionValue(AS_OPTION).toUpperCase(Locale.ROOT));
+        } else {
+          try {
+            asFormat = input.detectFormat(loader);
+          } catch (IllegalArgumentException | UnsupportedOperationException ex) {
+            return ExitCode.INVALID_ARGUMENTS.exitMessage(
+                String.format("Unable to detect the format of '%s'. Use '%s' to specify the format.",
+                    source,
+                    OptionUtils.toArgument(AS_OPTION)));
+          }
+        }
+        convert(input, asFormat, destination, toFormat, compression, loader, getLoadedClass());
+      } catch (IOException | IllegalArgumentException ex) {
+        return ExitCode.PROCESSING_ERROR.exit().withThrowable(ex);
+      }
+
+      if (destination != null && LOGGER.isInfoEnabled()) {
+        LOGGER.info("Generated {} file: {}", toFormat.toString(), destination);
+      }
+      return ExitCode.OK.exit();
+    }
+
+    private <CLASS> void convert(
+        @NonNull SniffedSource input,
+        @NonNull Format asFormat,
+        @Nullable Path destination,
+        @NonNull Format toFormat,
+        @NonNull Compression compression,
+        @NonNull IBoundLoader loader,
+        @NonNull Class<CLASS> clazz) throws IOException {
+      CLASS object = input.load(loader, clazz, asFormat);
+      ISerializer<CLASS> serializer = loader.getBindingContext().newSerializer(toFormat, clazz);
+      try (OutputStream os = destination == null
+          ? compression.compress(StandardStreams.newStdoutStream())
+          : compression.newOutputStream(destination)) {
+        serializer.serialize(object, os);
+      }
+    }
+
+    @SuppressWarnings("PMD.OnlyOneReturn") // readability
+    @NonNull
+    private ExitStatus executeBulk(@NonNull CommandLine cmdLine) {
+      Format toFormat = Format.valueOf(cmdLine.getOptionValue(TO_OPTION_NAME).toUpperCase(Locale.ROOT));
+      Path outputDirectory = ObjectUtils.notNull(Paths.get(cmdLine.getOptionValue(OUTPUT_DIR_OPTION)).toAbsolutePath());
+
+      int threads;
+      Compression compression;
+      List<SourceFile> sources;
+      try {
+        Compression requested = OptionValues.getCompression(cmdLine, COMPRESS_OPTION);
+        compression = requested == null ? Compression.NONE : requested;
+        threads = OptionValues.getPositiveInteger(cmdLine, THREADS_OPTION, Runtime.getRuntime().availableProcessors());
+        sources = SourceFiles.expand(ObjectUtils.notNull(cmdLine.getArgList()));
+      } catch (InvalidArgumentException ex) {
+        return ExitCode.INVALID_ARGUMENTS.exitMessage(ex.getMessage());
+      } catch (IOException ex) {
+        return ExitCode.IO_ERROR.exit().withThrowable(ex);
+      }
+
+      if (sources.isEmpty()) {
+        return ExitCode.INVALID_ARGUMENTS.exitMessage("No files matched the provided sources.");
+      }
+
+      BulkConverter converter = new BulkConverter(
+          getBindingContext(),
+          getLoadedClass(),
+          toFormat,
+          compression,
+          outputDirectory,
+          cmdLine.hasOption(OVERWRITE_OPTION_NAME),
+          threads);
+      try {
+        return converter.convert(sources, cmdLine.hasOption(CLIProcessor.SHOW_STACK_TRACE_OPTION));
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return ExitCode.RUNTIME_ERROR.exitMessage("Conversion was interrupted.").withThrowable(ex);
+      }
+    }
   }
 }
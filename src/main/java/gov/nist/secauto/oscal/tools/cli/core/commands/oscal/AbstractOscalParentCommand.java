@@ -0,0 +1,79 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.oscal;
+
+import gov.nist.secauto.metaschema.cli.processor.command.AbstractParentCommand;
+import gov.nist.secauto.metaschema.cli.processor.command.ICommand;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A parent command for an OSCAL model, which can have sub-commands that are not
+ * listed in the help output.
+ */
+public abstract class AbstractOscalParentCommand
+    extends AbstractParentCommand {
+  @NonNull
+  private final Map<String, Supplier<ICommand>> hiddenCommandSuppliers = new ConcurrentHashMap<>();
+  @NonNull
+  private final Map<String, ICommand> hiddenCommands = new ConcurrentHashMap<>();
+
+  protected AbstractOscalParentCommand(boolean subCommandRequired) {
+    super(subCommandRequired);
+  }
+
+  /**
+   * Add a sub-command that can be called by name, but is not listed in the help
+   * output. This is used for tooling intended for developers.
+   * <p>
+   * The sub-command is only constructed when it is called.
+   *
+   * @param name
+   *          the name of the sub-command
+   * @param supplier
+   *          used to construct the sub-command
+   */
+  protected void addHiddenCommandHandler(@NonNull String name, @NonNull Supplier<ICommand> supplier) {
+    hiddenCommandSuppliers.put(name, supplier);
+  }
+
+  @Override
+  public ICommand getSubCommandByName(String name) {
+    ICommand retval = super.getSubCommandByName(name);
+    if (retval == null) {
+      Supplier<ICommand> supplier = hiddenCommandSuppliers.get(name);
+      if (supplier != null) {
+        retval = hiddenCommands.computeIfAbsent(name, key -> supplier.get());
+      }
+    }
+    return retval;
+  }
+}
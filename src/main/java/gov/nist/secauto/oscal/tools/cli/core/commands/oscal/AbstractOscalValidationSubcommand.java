@@ -27,17 +27,45 @@
 package gov.nist.secauto.oscal.tools.cli.core.commands.oscal;
 
 import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.Format;
 import gov.nist.secauto.metaschema.cli.commands.AbstractValidateContentCommand;
+import gov.nist.secauto.metaschema.cli.processor.CLIProcessor;
 import gov.nist.secauto.metaschema.cli.processor.CLIProcessor.CallingContext;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.cli.processor.InvalidArgumentException;
+import gov.nist.secauto.metaschema.cli.processor.OptionUtils;
+import gov.nist.secauto.metaschema.cli.processor.command.DefaultExtraArgument;
+import gov.nist.secauto.metaschema.cli.processor.command.ExtraArgument;
 import gov.nist.secauto.metaschema.cli.processor.command.ICommandExecutor;
+import gov.nist.secauto.metaschema.model.common.MetaschemaException;
 import gov.nist.secauto.metaschema.model.common.constraint.IConstraintSet;
-import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.tools.cli.core.util.ConstraintRegistry;
+import gov.nist.secauto.oscal.tools.cli.core.util.OptionValues;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles.SourceFile;
+import gov.nist.secauto.oscal.tools.cli.core.util.ValidationFindingWriter;
+import gov.nist.secauto.oscal.tools.cli.core.util.ValidationReporter;
+import gov.nist.secauto.oscal.tools.cli.core.util.ValidationResultCache;
 
 import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 import javax.xml.transform.Source;
@@ -46,6 +74,144 @@ import edu.umd.cs.findbugs.annotations.NonNull;
 
 public abstract class AbstractOscalValidationSubcommand
     extends AbstractValidateContentCommand {
+  @NonNull
+  private static final List<ExtraArgument> EXTRA_ARGUMENTS = ObjectUtils.notNull(List.of(
+      new DefaultExtraArgument("file, directory, glob, or - to validate", true, Integer.MAX_VALUE)));
+
+  @NonNull
+  private static final String ENGINE_TREE = "tree";
+  @NonNull
+  private static final String ENGINE_STREAMING = "streaming";
+  @NonNull
+  private static final String OUTPUT_TEXT = "text";
+  @NonNull
+  private static final String OUTPUT_SARIF = "sarif";
+  @NonNull
+  private static final String OUTPUT_JSONL = "jsonl";
+
+  @NonNull
+  private static final Option AS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("as")
+          .hasArg()
+          .argName("FORMAT")
+          .desc("source format: xml, json, or yaml")
+          .build());
+  @NonNull
+  private static final Option CONSTRAINTS_OPTION = ObjectUtils.notNull(
+      Option.builder("c")
+          .hasArg()
+          .argName("FILE")
+          .desc("additional constraint definitions")
+          .build());
+  @NonNull
+  private static final Option THREADS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("threads")
+          .hasArg()
+          .argName("COUNT")
+          .desc("the number of files to validate concurrently (default: 1)")
+          .build());
+  @NonNull
+  private static final Option CONSTRAINT_THREADS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("constraint-threads")
+          .hasArg()
+          .argName("COUNT")
+          .desc("the number of threads used to check the constraints of each file (default: 1)")
+          .build());
+  @NonNull
+  private static final Option SCHEMA_ONLY_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("schema-only")
+          .desc("only check that the source is well-formed and schema valid, without loading it to check constraints")
+          .build());
+  @NonNull
+  private static final Option MAX_ERRORS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("max-errors")
+          .hasArg()
+          .argName("COUNT")
+          .desc("stop schema validation of a file once this many errors are found (default: no limit)")
+          .build());
+  @NonNull
+  private static final Option MAX_FINDINGS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("max-findings")
+          .hasArg()
+          .argName("COUNT")
+          .desc("stop validating a file once this many findings are reported (default: no limit)")
+          .build());
+  @NonNull
+  private static final Option MAX_FINDINGS_PER_CONSTRAINT_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("max-findings-per-constraint")
+          .hasArg()
+          .argName("COUNT")
+          .desc("report at most this many findings of each constraint in a file, only counting the rest"
+              + " (default: no limit)")
+          .build());
+  @NonNull
+  private static final Option FAIL_FAST_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("fail-fast")
+          .desc("stop at the first error, without validating the rest of the file or any remaining files")
+          .build());
+  @NonNull
+  private static final Option JSON_SCHEMA_ENGINE_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("json-schema-engine")
+          .hasArg()
+          .argName("ENGINE")
+          .desc("validate JSON and YAML against the schema using: tree (default), which builds the document in memory,"
+              + " or streaming, which uses bounded memory")
+          .build());
+
+  @NonNull
+  private static final Option CACHE_DIR_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("cache-dir")
+          .hasArg()
+          .argName("DIR")
+          .desc("reuse the results of files validated before with the same content and options, which are stored in"
+              + " this directory")
+          .build());
+  @NonNull
+  private static final Option CACHE_MAX_ENTRIES_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("cache-max-entries")
+          .hasArg()
+          .argName("COUNT")
+          .desc("with --cache-dir, the number of results to keep, removing the least recently used (default: "
+              + ValidationResultCache.DEFAULT_MAX_ENTRIES + ")")
+          .build());
+  @NonNull
+  private static final Option INCREMENTAL_DIR_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("incremental-dir")
+          .hasArg()
+          .argName("DIR")
+          .desc("only check the constraints of the parts of a file that changed since it was last validated, using"
+              + " the outcomes stored in this directory")
+          .build());
+
+  @NonNull
+  private static final Option OUTPUT_FORMAT_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("output-format")
+          .hasArg()
+          .argName("FORMAT")
+          .desc("report findings as: text (default), which is logged, or sarif or jsonl, which are written to standard"
+              + " output or the --output-file as they are found")
+          .build());
+  @NonNull
+  private static final Option OUTPUT_FILE_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("output-file")
+          .hasArg()
+          .argName("FILE")
+          .desc("with --output-format sarif or jsonl, write the findings to this file instead of standard output")
+          .build());
 
   @NonNull
   protected abstract List<Source> getOscalXmlSchemas() throws IOException;
@@ -53,6 +219,134 @@ public abstract class AbstractOscalValidationSubcommand
   @NonNull
   protected abstract JSONObject getOscalJsonSchema();
 
+  @Override
+  public Collection<? extends Option> gatherOptions() {
+    return ObjectUtils.notNull(List.of(
+        AS_OPTION,
+        CONSTRAINTS_OPTION,
+        THREADS_OPTION,
+        CONSTRAINT_THREADS_OPTION,
+        SCHEMA_ONLY_OPTION,
+        MAX_ERRORS_OPTION,
+        MAX_FINDINGS_OPTION,
+        MAX_FINDINGS_PER_CONSTRAINT_OPTION,
+        FAIL_FAST_OPTION,
+        JSON_SCHEMA_ENGINE_OPTION,
+        CACHE_DIR_OPTION,
+        CACHE_MAX_ENTRIES_OPTION,
+        INCREMENTAL_DIR_OPTION,
+        OUTPUT_FORMAT_OPTION,
+        OUTPUT_FILE_OPTION));
+  }
+
+  @Override
+  public List<ExtraArgument> getExtraArguments() {
+    return EXTRA_ARGUMENTS;
+  }
+
+  @SuppressWarnings({
+      "PMD.CyclomaticComplexity", "PMD.CognitiveComplexity", // reasonable
+      "PMD.PreserveStackTrace" // intended
+  })
+  @Override
+  public void validateOptions(CallingContext callingContext, CommandLine cmdLine) throws InvalidArgumentException {
+    if (cmdLine.hasOption(CONSTRAINTS_OPTION)) {
+      for (String arg : cmdLine.getOptionValues(CONSTRAINTS_OPTION)) {
+        Path constraint = Paths.get(arg);
+        if (!Files.exists(constraint)) {
+          throw new InvalidArgumentException(
+              "The provided external constraint file '" + constraint + "' does not exist.");
+        }
+        if (!Files.isRegularFile(constraint)) {
+          throw new InvalidArgumentException(
+              "The provided external constraint file '" + constraint + "' is not a file.");
+        }
+        if (!Files.isReadable(constraint)) {
+          throw new InvalidArgumentException(
+              "The provided external constraint file '" + constraint + "' is not readable.");
+        }
+      }
+    }
+
+    List<String> extraArgs = cmdLine.getArgList();
+    if (extraArgs.isEmpty()) {
+      throw new InvalidArgumentException("The source to validate must be provided.");
+    }
+
+    for (String arg : extraArgs) {
+      if (!SourceFiles.isStdin(ObjectUtils.notNull(arg)) && !SourceFiles.isGlob(arg)) {
+        Path source = Paths.get(arg);
+        if (!Files.exists(source)) {
+          throw new InvalidArgumentException("The provided source file '" + source + "' does not exist.");
+        }
+        if (!Files.isReadable(source)) {
+          throw new InvalidArgumentException("The provided source file '" + source + "' is not readable.");
+        }
+      }
+    }
+
+    if (cmdLine.hasOption(AS_OPTION)) {
+      try {
+        String toFormatText = cmdLine.getOptionValue(AS_OPTION);
+        Format.valueOf(toFormatText.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException ex) {
+        InvalidArgumentException newEx = new InvalidArgumentException(
+            String.format("Invalid '%s' argument. The format must be one of: %s.",
+                OptionUtils.toArgument(AS_OPTION),
+                Arrays.asList(Format.values()).stream()
+                    .map(format -> format.name())
+                    .collect(CustomCollectors.joiningWithOxfordComma("and"))));
+        newEx.setOption(AS_OPTION);
+        newEx.addSuppressed(ex);
+        throw newEx;
+      }
+    }
+
+    OptionValues.getPositiveInteger(cmdLine, THREADS_OPTION, 1);
+    OptionValues.getPositiveInteger(cmdLine, CONSTRAINT_THREADS_OPTION, 1);
+    OptionValues.getPositiveInteger(cmdLine, MAX_ERRORS_OPTION, Integer.MAX_VALUE);
+    OptionValues.getPositiveInteger(cmdLine, MAX_FINDINGS_OPTION, Integer.MAX_VALUE);
+    OptionValues.getPositiveInteger(cmdLine, MAX_FINDINGS_PER_CONSTRAINT_OPTION, Integer.MAX_VALUE);
+    OptionValues.getPositiveInteger(cmdLine, CACHE_MAX_ENTRIES_OPTION, ValidationResultCache.DEFAULT_MAX_ENTRIES);
+
+    if (cmdLine.hasOption(JSON_SCHEMA_ENGINE_OPTION)) {
+      String engine = cmdLine.getOptionValue(JSON_SCHEMA_ENGINE_OPTION);
+      if (!ENGINE_TREE.equals(engine) && !ENGINE_STREAMING.equals(engine)) {
+        InvalidArgumentException ex = new InvalidArgumentException(
+            String.format("Invalid '%s' argument '%s'. The engine must be one of: %s or %s.",
+                OptionUtils.toArgument(JSON_SCHEMA_ENGINE_OPTION),
+                engine,
+                ENGINE_TREE,
+                ENGINE_STREAMING));
+        ex.setOption(JSON_SCHEMA_ENGINE_OPTION);
+        throw ex;
+      }
+    }
+
+    String outputFormat = cmdLine.getOptionValue(OUTPUT_FORMAT_OPTION, OUTPUT_TEXT);
+    if (!OUTPUT_TEXT.equals(outputFormat)
+        && !OUTPUT_SARIF.equals(outputFormat)
+        && !OUTPUT_JSONL.equals(outputFormat)) {
+      InvalidArgumentException ex = new InvalidArgumentException(
+          String.format("Invalid '%s' argument '%s'. The format must be one of: %s, %s, or %s.",
+              OptionUtils.toArgument(OUTPUT_FORMAT_OPTION),
+              outputFormat,
+              OUTPUT_TEXT,
+              OUTPUT_SARIF,
+              OUTPUT_JSONL));
+      ex.setOption(OUTPUT_FORMAT_OPTION);
+      throw ex;
+    }
+    if (cmdLine.hasOption(OUTPUT_FILE_OPTION) && OUTPUT_TEXT.equals(outputFormat)) {
+      InvalidArgumentException ex = new InvalidArgumentException(
+          String.format("The '%s' option requires '%s' to be sarif or jsonl.",
+              OptionUtils.toArgument(OUTPUT_FILE_OPTION),
+              OptionUtils.toArgument(OUTPUT_FORMAT_OPTION)));
+      ex.setOption(OUTPUT_FILE_OPTION);
+      throw ex;
+    }
+  }
+
   @Override
   public ICommandExecutor newExecutor(CallingContext callingContext, CommandLine commandLine) {
     return new OscalCommandExecutor(callingContext, commandLine);
@@ -69,7 +363,7 @@ public abstract class AbstractOscalValidationSubcommand
 
     @Override
     protected IBindingContext getBindingContext(@NonNull Set<IConstraintSet> constraintSets) {
-      return constraintSets.isEmpty() ? OscalBindingContext.instance() : new OscalBindingContext(constraintSets);
+      return ConstraintRegistry.instance().getBindingContext(constraintSets);
     }
 
     @Override
@@ -83,5 +377,154 @@ public abstract class AbstractOscalValidationSubcommand
     public JSONObject getJsonSchema() {
       return getOscalJsonSchema();
     }
+
+    @SuppressWarnings({
+        "PMD.OnlyOneReturn", // readability
+        "PMD.CyclomaticComplexity", "PMD.CognitiveComplexity", "PMD.NPathComplexity" // reasonable
+    })
+    @Override
+    public ExitStatus execute() {
+      CommandLine cmdLine = getCommandLine();
+
+      List<Path> constraintFiles = new ArrayList<>();
+      Set<IConstraintSet> constraintSets;
+      if (cmdLine.hasOption(CONSTRAINTS_OPTION)) {
+        constraintSets = new LinkedHashSet<>();
+        for (String arg : cmdLine.getOptionValues(CONSTRAINTS_OPTION)) {
+          Path constraintPath = Paths.get(arg);
+          assert constraintPath != null;
+          try {
+            constraintSets.add(ConstraintRegistry.instance().getConstraintSet(constraintPath));
+          } catch (MetaschemaException | IOException ex) {
+            return ExitCode.IO_ERROR.exitMessage("Unable to load constraint set '" + arg + "'.").withThrowable(ex);
+          }
+          constraintFiles.add(constraintPath);
+        }
+      } else {
+        constraintSets = CollectionUtil.emptySet();
+      }
+
+      IBindingContext bindingContext = getBindingContext(constraintSets);
+
+      List<SourceFile> sources;
+      try {
+        sources = SourceFiles.expand(ObjectUtils.notNull(cmdLine.getArgList()));
+      } catch (IOException ex) {
+        return ExitCode.IO_ERROR.exit().withThrowable(ex);
+      }
+
+      if (sources.isEmpty()) {
+        return ExitCode.INVALID_ARGUMENTS.exitMessage("No files matched the provided sources.");
+      }
+
+      ValidationOptions options;
+      int cacheMaxEntries;
+      try {
+        options = parseOptions(cmdLine, constraintFiles);
+        cacheMaxEntries = OptionValues.getPositiveInteger(
+            cmdLine,
+            CACHE_MAX_ENTRIES_OPTION,
+            ValidationResultCache.DEFAULT_MAX_ENTRIES);
+      } catch (InvalidArgumentException ex) {
+        return ExitCode.INVALID_ARGUMENTS.exitMessage(ex.getMessage());
+      }
+
+      ValidationResultCache cache = null;
+      if (cmdLine.hasOption(CACHE_DIR_OPTION)) {
+        try {
+          cache = new ValidationResultCache(
+              ObjectUtils.notNull(Paths.get(cmdLine.getOptionValue(CACHE_DIR_OPTION))),
+              cacheMaxEntries);
+        } catch (IOException ex) {
+          return ExitCode.IO_ERROR.exitMessage("Unable to use the validation cache.").withThrowable(ex);
+        }
+      }
+
+      String outputFormat = cmdLine.getOptionValue(OUTPUT_FORMAT_OPTION, OUTPUT_TEXT);
+      OutputStream findingStream = null;
+      ValidationFindingWriter findingWriter = null;
+      if (!OUTPUT_TEXT.equals(outputFormat)) {
+        try {
+          findingStream = cmdLine.hasOption(OUTPUT_FILE_OPTION)
+              ? Files.newOutputStream(Paths.get(cmdLine.getOptionValue(OUTPUT_FILE_OPTION)))
+              : System.out;
+          findingWriter = OUTPUT_SARIF.equals(outputFormat)
+              ? ValidationFindingWriter.newSarifWriter(ObjectUtils.notNull(findingStream))
+              : ValidationFindingWriter.newJsonLinesWriter(ObjectUtils.notNull(findingStream));
+        } catch (IOException ex) {
+          return ExitCode.IO_ERROR.exitMessage("Unable to write the validation findings.").withThrowable(ex);
+        }
+      }
+
+      ValidationReporter reporter = new ValidationReporter(
+          findingWriter,
+          sources.size(),
+          cmdLine.hasOption(CLIProcessor.QUIET_OPTION),
+          cmdLine.hasOption(CLIProcessor.SHOW_STACK_TRACE_OPTION));
+
+      try {
+        new ValidationRunner(
+            AbstractOscalValidationSubcommand.this.getClass(),
+            this::getXmlSchemas,
+            this::getJsonSchema,
+            options,
+            cache,
+            reporter).validate(sources, bindingContext);
+      } catch (IOException ex) {
+        return ExitCode.IO_ERROR.exitMessage("Unable to read the external constraints.").withThrowable(ex);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return ExitCode.RUNTIME_ERROR.exitMessage("Validation was interrupted.").withThrowable(ex);
+      }
+
+      ExitStatus retval = reporter.summarize();
+
+      if (findingWriter != null) {
+        try {
+          findingWriter.close();
+          if (findingStream != System.out) {
+            findingStream.close();
+          }
+        } catch (IOException ex) {
+          retval = ExitCode.IO_ERROR.exitMessage("Unable to write the validation findings.").withThrowable(ex);
+        }
+      }
+      return retval;
+    }
+
+    /**
+     * Read the options that control how each file is validated.
+     *
+     * @param cmdLine
+     *          the parsed command line
+     * @param constraintFiles
+     *          the files defining the external constraints
+     * @return the options
+     * @throws InvalidArgumentException
+     *           if an option has a value that is not valid
+     */
+    @NonNull
+    private ValidationOptions parseOptions(
+        @NonNull CommandLine cmdLine,
+        @NonNull List<Path> constraintFiles) throws InvalidArgumentException {
+      Format asFormat = null;
+      if (cmdLine.hasOption(AS_OPTION)) {
+        String asFormatText = cmdLine.getOptionValue(AS_OPTION);
+        asFormat = Format.valueOf(asFormatText.toUpperCase(Locale.ROOT));
+      }
+
+      return new ValidationOptions(
+          asFormat,
+          OptionValues.getPositiveInteger(cmdLine, THREADS_OPTION, 1),
+          OptionValues.getPositiveInteger(cmdLine, CONSTRAINT_THREADS_OPTION, 1),
+          cmdLine.hasOption(SCHEMA_ONLY_OPTION),
+          ENGINE_STREAMING.equals(cmdLine.getOptionValue(JSON_SCHEMA_ENGINE_OPTION)),
+          OptionValues.getPositiveInteger(cmdLine, MAX_ERRORS_OPTION, Integer.MAX_VALUE),
+          OptionValues.getPositiveInteger(cmdLine, MAX_FINDINGS_OPTION, Integer.MAX_VALUE),
+          OptionValues.getPositiveInteger(cmdLine, MAX_FINDINGS_PER_CONSTRAINT_OPTION, Integer.MAX_VALUE),
+          cmdLine.hasOption(FAIL_FAST_OPTION),
+          constraintFiles,
+          cmdLine.hasOption(INCREMENTAL_DIR_OPTION) ? Paths.get(cmdLine.getOptionValue(INCREMENTAL_DIR_OPTION)) : null);
+    }
   }
 }
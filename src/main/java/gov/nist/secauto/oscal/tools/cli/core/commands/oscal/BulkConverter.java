@@ -0,0 +1,287 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.oscal;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.tools.cli.core.serve.RequestScope;
+import gov.nist.secauto.oscal.tools.cli.core.util.Compression;
+import gov.nist.secauto.oscal.tools.cli.core.util.MappedFile;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles.SourceFile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Converts a set of files in parallel, writing each converted file to an output
+ * directory that mirrors the directory structure the files were found in.
+ * <p>
+ * Each worker detects the format of, parses, and serializes one file at a time,
+ * so at most one document per worker is held in memory. Progress is reported
+ * periodically as the number of documents and bytes converted per second.
+ */
+final class BulkConverter {
+  private static final Logger LOGGER = LogManager.getLogger(BulkConverter.class);
+  private static final long PROGRESS_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final double BYTES_PER_MB = 1_000_000.0;
+
+  @NonNull
+  private final IBindingContext bindingContext;
+  @NonNull
+  private final Class<?> rootClass;
+  @NonNull
+  private final Format toFormat;
+  @NonNull
+  private final Compression compression;
+  @NonNull
+  private final Path outputDirectory;
+  private final boolean overwrite;
+  private final int threads;
+
+  @NonNull
+  private final AtomicInteger documents = new AtomicInteger();
+  @NonNull
+  private final AtomicLong bytes = new AtomicLong();
+  @NonNull
+  private final AtomicLong nextReport = new AtomicLong();
+  private long startNanos;
+
+  /**
+   * Construct a new bulk converter.
+   *
+   * @param bindingContext
+   *          the binding context shared by all conversions
+   * @param rootClass
+   *          the bound class of the documents to convert
+   * @param toFormat
+   *          the format to convert to
+   * @param compression
+   *          the compression format the converted files are written in
+   * @param outputDirectory
+   *          the directory to write the converted files to
+   * @param overwrite
+   *          {@code true} if existing files in the output directory can be
+   *          replaced
+   * @param threads
+   *          the number of files to convert concurrently
+   */
+  BulkConverter(
+      @NonNull IBindingContext bindingContext,
+      @NonNull Class<?> rootClass,
+      @NonNull Format toFormat,
+      @NonNull Compression compression,
+      @NonNull Path outputDirectory,
+      boolean overwrite,
+      int threads) {
+    this.bindingContext = bindingContext;
+    this.rootClass = rootClass;
+    this.toFormat = toFormat;
+    this.compression = compression;
+    this.outputDirectory = outputDirectory;
+    this.overwrite = overwrite;
+    this.threads = threads;
+  }
+
+  /**
+   * Convert the provided files.
+   *
+   * @param sources
+   *          the files to convert
+   * @param showStackTrace
+   *          {@code true} if stack traces should be included when reporting
+   *          errors
+   * @return the status of the whole operation
+   * @throws InterruptedException
+   *           if interrupted while waiting for the conversions to complete
+   */
+  @NonNull
+  public ExitStatus convert(@NonNull List<SourceFile> sources, boolean showStackTrace) throws InterruptedException {
+    startNanos = System.nanoTime();
+    nextReport.set(startNanos + PROGRESS_INTERVAL_NANOS);
+
+    // destinations are assigned up front, so that collisions are reported
+    // consistently regardless of the order the conversions complete in
+    List<ExitStatus> results = new ArrayList<>(sources.size());
+    List<Path> destinations = new ArrayList<>(sources.size());
+    Set<Path> assigned = new HashSet<>();
+    for (SourceFile source : sources) {
+      Path destination = source.getDestination(outputDirectory,
+          toFormat.getDefaultExtension() + compression.getExtension());
+      ExitStatus status = null;
+      if (!assigned.add(destination)) {
+        status = ExitCode.INVALID_TARGET.exitMessage(
+            String.format("The destination '%s' for '%s' is the destination of another file.",
+                destination,
+                source.getPath()));
+      } else if (!overwrite && Files.exists(destination)) {
+        status = ExitCode.INVALID_ARGUMENTS.exitMessage(
+            String.format("The destination '%s' already exists and the --overwrite option was not provided.",
+                destination));
+      }
+      destinations.add(destination);
+      results.add(status);
+    }
+
+    AtomicInteger threadCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, sources.size()), runnable -> {
+      Thread thread = new Thread(runnable, "oscal-convert-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    ThreadLocal<IBoundLoader> loaders = ThreadLocal.withInitial(bindingContext::newBoundLoader);
+    try {
+      List<Future<ExitStatus>> futures = new ArrayList<>(sources.size());
+      for (int index = 0; index < sources.size(); index++) {
+        if (results.get(index) == null) {
+          Path source = ObjectUtils.notNull(sources.get(index).getPath());
+          Path destination = ObjectUtils.notNull(destinations.get(index));
+          futures.add(executor.submit(RequestScope.propagate(
+              () -> convert(source, destination, ObjectUtils.notNull(loaders.get())))));
+        } else {
+          futures.add(null);
+        }
+      }
+      for (int index = 0; index < futures.size(); index++) {
+        Future<ExitStatus> future = futures.get(index);
+        if (future != null) {
+          try {
+            results.set(index, future.get());
+          } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            results.set(index, ExitCode.RUNTIME_ERROR
+                .exitMessage(String.format("An uncaught runtime error occured. %s",
+                    cause == null ? ex.getLocalizedMessage() : cause.getLocalizedMessage()))
+                .withThrowable(cause == null ? ex : cause));
+          }
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    int failed = 0;
+    for (int index = 0; index < results.size(); index++) {
+      ExitStatus status = results.get(index);
+      if (status.getExitCode() == ExitCode.OK) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("Converted '{}' to '{}'.", sources.get(index).getPath(), destinations.get(index));
+        }
+      } else {
+        failed++;
+        status.generateMessage(showStackTrace);
+      }
+    }
+
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Converted {} of {} files to {} ({} failed, {}).",
+          results.size() - failed,
+          results.size(),
+          toFormat.name(),
+          failed,
+          summarizeThroughput(System.nanoTime()));
+    }
+
+    return failed == 0
+        ? ExitCode.OK.exit()
+        : ExitCode.PROCESSING_ERROR.exitMessage(
+            String.format("%d of %d files could not be converted.", failed, results.size()));
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @NonNull
+  private ExitStatus convert(@NonNull Path source, @NonNull Path destination, @NonNull IBoundLoader loader) {
+    try {
+      Path parent = destination.getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      try (MappedFile input = MappedFile.open(source)) {
+        convert(input, destination, loader, rootClass);
+        recordProgress(input.getSize());
+      }
+    } catch (IOException | IllegalArgumentException ex) {
+      return ExitCode.PROCESSING_ERROR
+          .exitMessage(String.format("Unable to convert '%s'. %s", source, ex.getLocalizedMessage()))
+          .withThrowable(ex);
+    }
+    return ExitCode.OK.exit();
+  }
+
+  private <CLASS> void convert(
+      @NonNull MappedFile input,
+      @NonNull Path destination,
+      @NonNull IBoundLoader loader,
+      @NonNull Class<CLASS> clazz) throws IOException {
+    CLASS object = input.load(loader, clazz);
+    try (OutputStream os = compression.newOutputStream(destination)) {
+      loader.getBindingContext().newSerializer(toFormat, clazz).serialize(object, os);
+    }
+  }
+
+  private void recordProgress(long size) {
+    documents.incrementAndGet();
+    bytes.addAndGet(size);
+
+    long now = System.nanoTime();
+    long next = nextReport.get();
+    // only one worker reports for each interval
+    if (now - next >= 0 && nextReport.compareAndSet(next, now + PROGRESS_INTERVAL_NANOS)
+        && LOGGER.isInfoEnabled()) {
+      LOGGER.info("Converted {} files ({}).", documents.get(), summarizeThroughput(now));
+    }
+  }
+
+  @NonNull
+  private String summarizeThroughput(long now) {
+    double seconds = Math.max(now - startNanos, 1L) / (double) TimeUnit.SECONDS.toNanos(1);
+    return String.format("%.1f documents/sec, %.2f MB/sec",
+        documents.get() / seconds,
+        bytes.get() / BYTES_PER_MB / seconds);
+  }
+}
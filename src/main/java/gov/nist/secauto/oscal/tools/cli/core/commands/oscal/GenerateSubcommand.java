@@ -0,0 +1,207 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.oscal;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.cli.processor.CLIProcessor.CallingContext;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.cli.processor.InvalidArgumentException;
+import gov.nist.secauto.metaschema.cli.processor.OptionUtils;
+import gov.nist.secauto.metaschema.cli.processor.command.AbstractTerminalCommand;
+import gov.nist.secauto.metaschema.cli.processor.command.DefaultExtraArgument;
+import gov.nist.secauto.metaschema.cli.processor.command.ExtraArgument;
+import gov.nist.secauto.metaschema.cli.processor.command.ICommandExecutor;
+import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticDocumentGenerator;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
+import gov.nist.secauto.oscal.tools.cli.core.util.OptionValues;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Generates a synthetic document of a model for scale testing. This command is
+ * not listed in the help output.
+ */
+public class GenerateSubcommand
+    extends AbstractTerminalCommand {
+  @NonNull
+  public static final String COMMAND = "generate";
+  private static final Logger LOGGER = LogManager.getLogger(GenerateSubcommand.class);
+
+  @NonNull
+  private static final List<ExtraArgument> EXTRA_ARGUMENTS = ObjectUtils.notNull(List.of(
+      new DefaultExtraArgument("destination file", true)));
+  @NonNull
+  private static final Option SIZE_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("size")
+          .required()
+          .hasArg()
+          .argName("COUNT")
+          .desc("the number of items to generate")
+          .build());
+  @NonNull
+  private static final Option TO_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("to")
+          .hasArg()
+          .argName("FORMAT")
+          .desc("generate format: xml, json, or yaml (default: xml)")
+          .build());
+  @NonNull
+  private static final Option OVERWRITE_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("overwrite")
+          .desc("overwrite the destination if it exists")
+          .build());
+  @NonNull
+  private static final List<Option> OPTIONS = ObjectUtils.notNull(
+      List.of(
+          SIZE_OPTION,
+          TO_OPTION,
+          OVERWRITE_OPTION));
+
+  @NonNull
+  private final SyntheticModel model;
+
+  /**
+   * Construct a new command that generates documents of the provided model.
+   *
+   * @param model
+   *          the model to generate
+   */
+  public GenerateSubcommand(@NonNull SyntheticModel model) {
+    super();
+    this.model = model;
+  }
+
+  @Override
+  public String getName() {
+    return COMMAND;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Generate a synthetic " + model.getRootName() + " of a given size for scale testing";
+  }
+
+  @Override
+  public Collection<? extends Option> gatherOptions() {
+    return OPTIONS;
+  }
+
+  @Override
+  public List<ExtraArgument> getExtraArguments() {
+    return EXTRA_ARGUMENTS;
+  }
+
+  @SuppressWarnings("PMD.PreserveStackTrace") // intended
+  @Override
+  public void validateOptions(CallingContext callingContext, CommandLine cmdLine) throws InvalidArgumentException {
+    OptionValues.getPositiveInteger(cmdLine, SIZE_OPTION, 1);
+
+    if (cmdLine.hasOption(TO_OPTION)) {
+      try {
+        Format.valueOf(cmdLine.getOptionValue(TO_OPTION).toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException ex) {
+        InvalidArgumentException newEx = new InvalidArgumentException(
+            String.format("Invalid '%s' argument. The format must be one of: %s.",
+                OptionUtils.toArgument(TO_OPTION),
+                Format.names().stream()
+                    .collect(CustomCollectors.joiningWithOxfordComma("and"))));
+        newEx.setOption(TO_OPTION);
+        newEx.addSuppressed(ex);
+        throw newEx;
+      }
+    }
+
+    if (cmdLine.getArgList().size() != 1) {
+      throw new InvalidArgumentException("The destination file must be provided.");
+    }
+  }
+
+  @Override
+  public ICommandExecutor newExecutor(CallingContext callingContext, CommandLine cmdLine) {
+    return ICommandExecutor.using(callingContext, cmdLine, this::executeCommand);
+  }
+
+  @SuppressWarnings({
+      "PMD.OnlyOneReturn", // readability
+      "unused"
+  })
+  protected ExitStatus executeCommand(
+      @NonNull CallingContext callingContext,
+      @NonNull CommandLine cmdLine) {
+    int size;
+    try {
+      size = OptionValues.getPositiveInteger(cmdLine, SIZE_OPTION, 1);
+    } catch (InvalidArgumentException ex) {
+      return ExitCode.INVALID_ARGUMENTS.exitMessage(ex.getMessage());
+    }
+    Format format = cmdLine.hasOption(TO_OPTION)
+        ? Format.valueOf(cmdLine.getOptionValue(TO_OPTION).toUpperCase(Locale.ROOT))
+        : Format.XML;
+
+    Path destination = Paths.get(cmdLine.getArgList().get(0)).toAbsolutePath();
+    if (Files.exists(destination) && !cmdLine.hasOption(OVERWRITE_OPTION)) {
+      return ExitCode.INVALID_ARGUMENTS.exitMessage(
+          String.format("The provided destination '%s' already exists and the '%s' option was not provided.",
+              destination,
+              OptionUtils.toArgument(OVERWRITE_OPTION)));
+    }
+
+    try {
+      Path parent = destination.getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      new SyntheticDocumentGenerator(model, size, format).generate(ObjectUtils.notNull(destination));
+    } catch (IOException ex) {
+      return ExitCode.IO_ERROR.exit().withThrowable(ex);
+    }
+
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Generated {} {} with {} items: {}", format.name(), model.getRootName(), size, destination);
+    }
+    return ExitCode.OK.exit();
+  }
+}
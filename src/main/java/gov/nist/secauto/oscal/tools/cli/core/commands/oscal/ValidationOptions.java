@@ -0,0 +1,244 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.oscal;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.tools.cli.core.util.Digests;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * The parsed options that control how each file is validated.
+ */
+final class ValidationOptions {
+  @Nullable
+  private final Format asFormat;
+  private final int threads;
+  private final int constraintThreads;
+  private final boolean schemaOnly;
+  private final boolean streamingJson;
+  private final int maxErrors;
+  private final int maxFindings;
+  private final int maxFindingsPerConstraint;
+  private final boolean failFast;
+  @NonNull
+  private final List<Path> constraintFiles;
+  @Nullable
+  private final Path incrementalDir;
+
+  /**
+   * Construct a new set of options.
+   *
+   * @param asFormat
+   *          the format of the files, or {@code null} to detect the format of
+   *          each file
+   * @param threads
+   *          the number of files to validate concurrently
+   * @param constraintThreads
+   *          the number of threads used to check the constraints of each file
+   * @param schemaOnly
+   *          {@code true} if files are only checked against the schema, or
+   *          {@code false} if their constraints are also checked
+   * @param streamingJson
+   *          {@code true} if JSON and YAML are validated using bounded memory, or
+   *          {@code false} if they are built in memory
+   * @param maxErrors
+   *          the number of schema errors in a file after which its validation
+   *          stops, or {@link Integer#MAX_VALUE} for no limit
+   * @param maxFindings
+   *          the number of findings in a file after which its validation stops,
+   *          or {@link Integer#MAX_VALUE} for no limit
+   * @param maxFindingsPerConstraint
+   *          the number of findings of each constraint in a file that are
+   *          reported, or {@link Integer#MAX_VALUE} for no limit
+   * @param failFast
+   *          {@code true} if validation stops at the first error, or
+   *          {@code false} otherwise
+   * @param constraintFiles
+   *          the files defining the external constraints
+   * @param incrementalDir
+   *          the directory storing the outcomes of previous validations, or
+   *          {@code null} to check every constraint
+   */
+  @SuppressWarnings("PMD.ExcessiveParameterList") // one per option
+  ValidationOptions(
+      @Nullable Format asFormat,
+      int threads,
+      int constraintThreads,
+      boolean schemaOnly,
+      boolean streamingJson,
+      int maxErrors,
+      int maxFindings,
+      int maxFindingsPerConstraint,
+      boolean failFast,
+      @NonNull List<Path> constraintFiles,
+      @Nullable Path incrementalDir) {
+    this.asFormat = asFormat;
+    this.threads = threads;
+    this.constraintThreads = constraintThreads;
+    this.schemaOnly = schemaOnly;
+    this.streamingJson = streamingJson;
+    this.maxErrors = maxErrors;
+    this.maxFindings = maxFindings;
+    this.maxFindingsPerConstraint = maxFindingsPerConstraint;
+    this.failFast = failFast;
+    this.constraintFiles = ObjectUtils.notNull(List.copyOf(constraintFiles));
+    this.incrementalDir = incrementalDir;
+  }
+
+  /**
+   * Get the format of the files.
+   *
+   * @return the format, or {@code null} if the format of each file is detected
+   */
+  @Nullable
+  public Format getAsFormat() {
+    return asFormat;
+  }
+
+  /**
+   * Get the number of files to validate concurrently.
+   *
+   * @return the number of files
+   */
+  public int getThreads() {
+    return threads;
+  }
+
+  /**
+   * Get the number of threads used to check the constraints of each file.
+   *
+   * @return the number of threads
+   */
+  public int getConstraintThreads() {
+    return constraintThreads;
+  }
+
+  /**
+   * Determine if files are only checked against the schema.
+   *
+   * @return {@code true} if the constraints are not checked, or {@code false}
+   *         otherwise
+   */
+  public boolean isSchemaOnly() {
+    return schemaOnly;
+  }
+
+  /**
+   * Determine if JSON and YAML are validated using bounded memory.
+   *
+   * @return {@code true} if they are streamed, or {@code false} if they are built
+   *         in memory
+   */
+  public boolean isStreamingJson() {
+    return streamingJson;
+  }
+
+  /**
+   * Get the number of schema errors in a file after which its validation stops.
+   * <p>
+   * Schema validation stops at the first of the error limit, the finding limit,
+   * or the first error when failing fast.
+   *
+   * @return the number of errors, or {@link Integer#MAX_VALUE} for no limit
+   */
+  public int getMaxErrors() {
+    return failFast ? 1 : Math.min(maxErrors, maxFindings);
+  }
+
+  /**
+   * Get the number of findings in a file after which its validation stops.
+   *
+   * @return the number of findings, or {@link Integer#MAX_VALUE} for no limit
+   */
+  public int getMaxFindings() {
+    return maxFindings;
+  }
+
+  /**
+   * Get the number of findings of each constraint in a file that are reported.
+   *
+   * @return the number of findings, or {@link Integer#MAX_VALUE} for no limit
+   */
+  public int getMaxFindingsPerConstraint() {
+    return maxFindingsPerConstraint;
+  }
+
+  /**
+   * Determine if validation stops at the first error.
+   *
+   * @return {@code true} if validation fails fast, or {@code false} otherwise
+   */
+  public boolean isFailFast() {
+    return failFast;
+  }
+
+  /**
+   * Get the directory storing the outcomes of previous validations.
+   *
+   * @return the directory, or {@code null} if every constraint is checked
+   */
+  @Nullable
+  public Path getIncrementalDir() {
+    return incrementalDir;
+  }
+
+  /**
+   * Identify everything other than the content of a file that affects its
+   * validation result, so that a cached result or stored outcome is only used
+   * when it would be the same.
+   *
+   * @param command
+   *          the command validating the files, which determines the model
+   * @return the context
+   * @throws IOException
+   *           if an error occurred while reading a constraint file
+   */
+  @NonNull
+  public String newCacheContext(@NonNull Class<?> command) throws IOException {
+    List<String> parts = new ArrayList<>();
+    parts.add(command.getName());
+    parts.add(asFormat == null ? "" : asFormat.name());
+    parts.add(Boolean.toString(schemaOnly));
+    parts.add(Boolean.toString(streamingJson));
+    parts.add(Integer.toString(getMaxErrors()));
+    parts.add(Integer.toString(maxFindings));
+    parts.add(Integer.toString(maxFindingsPerConstraint));
+    parts.add(Boolean.toString(failFast));
+    for (Path constraintFile : constraintFiles) {
+      parts.add(Digests.sha256(ObjectUtils.notNull(constraintFile)));
+    }
+    return ObjectUtils.notNull(String.join("|", parts));
+  }
+}
@@ -0,0 +1,357 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.oscal;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.AggregateValidationResult;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.oscal.tools.cli.core.serve.RequestScope;
+import gov.nist.secauto.oscal.tools.cli.core.util.FileConstraintValidator;
+import gov.nist.secauto.oscal.tools.cli.core.util.FileSchemaValidator;
+import gov.nist.secauto.oscal.tools.cli.core.util.MappedFile;
+import gov.nist.secauto.oscal.tools.cli.core.util.SchemaRegistry;
+import gov.nist.secauto.oscal.tools.cli.core.util.SchemaRegistry.JsonSchemaSupplier;
+import gov.nist.secauto.oscal.tools.cli.core.util.SchemaRegistry.XmlSchemaSupplier;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles.SourceFile;
+import gov.nist.secauto.oscal.tools.cli.core.util.ValidationReporter;
+import gov.nist.secauto.oscal.tools.cli.core.util.ValidationResultCache;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Validates a set of files, reporting each one as soon as it has been
+ * validated.
+ * <p>
+ * Each file is checked against the schema for its format and then against the
+ * model's constraints, unless only the schema is checked. When a cache is
+ * provided, a file whose content and options match a previous validation is
+ * reported from the cache instead. When failing fast, the remaining files are
+ * skipped once a file that is not valid is found.
+ */
+final class ValidationRunner {
+  private static final Logger LOGGER = LogManager.getLogger(ValidationRunner.class);
+
+  @NonNull
+  private final ValidationOptions options;
+  @Nullable
+  private final ValidationResultCache cache;
+  @NonNull
+  private final String cacheContext;
+  @NonNull
+  private final FileSchemaValidator schemaValidator;
+  @NonNull
+  private final FileConstraintValidator constraintValidator;
+  @NonNull
+  private final ValidationReporter reporter;
+  @NonNull
+  private final AtomicBoolean stopped = new AtomicBoolean();
+
+  /**
+   * Construct a new runner.
+   *
+   * @param command
+   *          the command validating the files, which identifies the model's
+   *          schemas in the {@link SchemaRegistry}
+   * @param xmlSchemas
+   *          supplies the XML schema sources, if the schema has not yet been
+   *          compiled
+   * @param jsonSchema
+   *          supplies the JSON schema, if the schema has not yet been compiled
+   * @param options
+   *          the options that control how each file is validated
+   * @param cache
+   *          the cache of previous validation results, or {@code null} to
+   *          validate every file
+   * @param reporter
+   *          the reporter of the outcome of each file
+   * @throws IOException
+   *           if an error occurred while reading an external constraint file to
+   *           identify the cached results
+   */
+  ValidationRunner(
+      @NonNull Class<?> command,
+      @NonNull XmlSchemaSupplier xmlSchemas,
+      @NonNull JsonSchemaSupplier jsonSchema,
+      @NonNull ValidationOptions options,
+      @Nullable ValidationResultCache cache,
+      @NonNull ValidationReporter reporter) throws IOException {
+    this.options = options;
+    this.cache = cache;
+    this.cacheContext = cache == null && options.getIncrementalDir() == null
+        ? ""
+        : options.newCacheContext(command);
+    this.schemaValidator = new FileSchemaValidator(
+        command,
+        xmlSchemas,
+        jsonSchema,
+        options.isStreamingJson(),
+        options.getMaxErrors());
+    this.constraintValidator = new FileConstraintValidator(
+        options.getConstraintThreads(),
+        options.getMaxFindings(),
+        options.getMaxFindingsPerConstraint(),
+        options.isFailFast(),
+        options.getIncrementalDir(),
+        cacheContext);
+    this.reporter = reporter;
+  }
+
+  /**
+   * Validate the sources, reporting each one as soon as it has been validated.
+   *
+   * @param sources
+   *          the files to validate
+   * @param bindingContext
+   *          the binding context used to load the files
+   * @throws InterruptedException
+   *           if the validation was interrupted
+   */
+  public void validate(
+      @NonNull List<SourceFile> sources,
+      @NonNull IBindingContext bindingContext) throws InterruptedException {
+    int threads = options.getThreads();
+    if (threads == 1 || sources.size() == 1) {
+      for (SourceFile source : sources) {
+        if (validateUnlessStopped(ObjectUtils.notNull(source.getPath()), bindingContext) == null) {
+          break;
+        }
+      }
+    } else {
+      AtomicInteger threadCount = new AtomicInteger();
+      ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, sources.size()), runnable -> {
+        Thread thread = new Thread(runnable, "oscal-validate-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+      try {
+        List<Future<ExitStatus>> futures = new ArrayList<>(sources.size());
+        for (SourceFile source : sources) {
+          futures.add(executor.submit(RequestScope.propagate(
+              () -> validateUnlessStopped(ObjectUtils.notNull(source.getPath()), bindingContext))));
+        }
+        for (int index = 0; index < futures.size(); index++) {
+          try {
+            futures.get(index).get();
+          } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            reporter.report(
+                ObjectUtils.notNull(sources.get(index).getPath()),
+                null,
+                null,
+                ExitCode.RUNTIME_ERROR
+                    .exitMessage(String.format("An uncaught runtime error occured. %s",
+                        cause == null ? ex.getLocalizedMessage() : cause.getLocalizedMessage()))
+                    .withThrowable(cause == null ? ex : cause));
+          }
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    int skipped = sources.size() - reporter.getReported();
+    if (skipped > 0 && LOGGER.isWarnEnabled()) {
+      LOGGER.warn("Stopped at the first file that is not valid. {} files were not validated.", skipped);
+    }
+
+    ValidationResultCache cache = this.cache;
+    if (cache != null) {
+      evictCache(cache);
+    }
+  }
+
+  private static void evictCache(@NonNull ValidationResultCache cache) {
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Validation cache hits: {}, misses: {}.", cache.getHits(), cache.getMisses());
+    }
+    try {
+      cache.evict();
+    } catch (IOException ex) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Unable to evict entries from the validation cache. {}", ex.getLocalizedMessage());
+      }
+    }
+  }
+
+  /**
+   * Validate the source, unless failing fast and a file that is not valid has
+   * already been found.
+   *
+   * @param source
+   *          the file to validate
+   * @param bindingContext
+   *          the binding context used to load the file
+   * @return the status of the reported file, or {@code null} if the file was
+   *         skipped
+   */
+  @Nullable
+  private ExitStatus validateUnlessStopped(
+      @NonNull Path source,
+      @NonNull IBindingContext bindingContext) {
+    ExitStatus retval = null;
+    if (!stopped.get()) {
+      retval = validateFile(source, bindingContext);
+      if (options.isFailFast() && !ExitCode.OK.equals(retval.getExitCode())) {
+        stopped.set(true);
+      }
+    }
+    return retval;
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @NonNull
+  private ExitStatus validateFile(
+      @NonNull Path source,
+      @NonNull IBindingContext bindingContext) {
+    // the file is mapped once for all of the passes over it, and standard input
+    // is kept in memory, since it can only be read once
+    MappedFile input;
+    try {
+      input = SourceFiles.isStdin(source)
+          ? MappedFile.read(ObjectUtils.notNull(System.in), source, SourceFiles.getStdinUri())
+          : MappedFile.open(source);
+    } catch (NoSuchFileException ex) {
+      return reporter.report(source, null, null,
+          ExitCode.IO_ERROR.exitMessage("The provided source file '" + source + "' does not exist."));
+    } catch (IOException ex) {
+      return reporter.report(source, null, null, ExitCode.PROCESSING_ERROR.exit().withThrowable(ex));
+    }
+
+    try (input) {
+      return validateInput(source, input, bindingContext);
+    }
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @NonNull
+  private ExitStatus validateInput(
+      @NonNull Path source,
+      @NonNull MappedFile input,
+      @NonNull IBindingContext bindingContext) {
+    ValidationResultCache cache = this.cache;
+    String cacheKey = null;
+    if (cache != null) {
+      try {
+        cacheKey = cache.newKey(input, cacheContext);
+        ValidationResultCache.CachedResult cached = cache.get(cacheKey);
+        if (cached != null) {
+          reporter.writeFindings(source, cached);
+          return reporter.report(source, cached.getFormat(), cached,
+              (cached.isPassing() ? ExitCode.OK : ExitCode.FAIL).exit());
+        }
+      } catch (IOException ex) {
+        // the file is validated without the cache, which reports the error
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("Unable to compute the validation cache key for '{}'. {}", source,
+              ex.getLocalizedMessage());
+        }
+      }
+    }
+
+    Format format = options.getAsFormat();
+    if (format == null) {
+      IBoundLoader loader = bindingContext.newBoundLoader();
+      try {
+        format = input.detectFormat(loader);
+      } catch (IOException ex) {
+        return reporter.report(source, null, null, ExitCode.PROCESSING_ERROR.exit().withThrowable(ex));
+      } catch (IllegalArgumentException ex) {
+        return reporter.report(source, null, null,
+            ExitCode.IO_ERROR.exitMessage(
+                "Source file '" + source
+                    + "' has unrecognizable format. Use '--as' to specify the format. The format must be one of: "
+                    + Arrays.stream(Format.values())
+                        .map(value -> value.name())
+                        .collect(CustomCollectors.joiningWithOxfordComma("or"))));
+      }
+    }
+
+    IValidationResult validationResult;
+    try {
+      validationResult = schemaValidator.validate(input, format);
+      reporter.writeFindings(source, validationResult);
+      if (validationResult.isPassing() && !options.isSchemaOnly()) {
+        IValidationResult constraintResult = constraintValidator.validate(
+            input,
+            format,
+            bindingContext,
+            // the findings are only kept by a writer if they are cached
+            reporter.newConstraintValidationHandler(source, cache != null),
+            validationResult.getFindings().size());
+        // streamed findings are not retained unless they are cached, but the
+        // severity of the result is, which an aggregate would lose
+        validationResult = reporter.isWritingFindings() && cache == null
+            ? constraintResult
+            : AggregateValidationResult.aggregate(validationResult, constraintResult);
+      }
+    } catch (IOException | SAXException ex) {
+      return reporter.report(source, format, null, ExitCode.PROCESSING_ERROR.exit().withThrowable(ex));
+    } catch (UncheckedIOException ex) {
+      // an error writing a finding
+      return reporter.report(source, format, null,
+          ExitCode.IO_ERROR.exitMessage("Unable to write the validation findings.").withThrowable(ex));
+    }
+
+    if (cache != null && cacheKey != null) {
+      try {
+        cache.put(cacheKey, format, validationResult);
+      } catch (IOException ex) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("Unable to cache the validation result of '{}'. {}", source, ex.getLocalizedMessage());
+        }
+      }
+    }
+    return reporter.report(source, format, validationResult,
+        (validationResult.isPassing() ? ExitCode.OK : ExitCode.FAIL).exit());
+  }
+}
@@ -26,17 +26,21 @@
 
 package gov.nist.secauto.oscal.tools.cli.core.commands.poam;
 
-import gov.nist.secauto.metaschema.cli.processor.command.AbstractParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.AbstractOscalParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.GenerateSubcommand;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
 
 public class PlanOfActionsAndMilestonesCommand
-    extends AbstractParentCommand {
-  private static final String COMMAND = "poam";
+    extends AbstractOscalParentCommand {
+  public static final String COMMAND = "poam";
+  public static final String DESCRIPTION = "Perform an operation on an OSCAL Plan of Actions and Milestones";
 
   public PlanOfActionsAndMilestonesCommand() {
     super(true);
     addCommandHandler(new ValidateSubcommand());
     // addCommandHandler(new RenderSubcommand());
     addCommandHandler(new ConvertSubcommand());
+    addHiddenCommandHandler(GenerateSubcommand.COMMAND, () -> new GenerateSubcommand(SyntheticModel.POAM));
   }
 
   @Override
@@ -46,7 +50,7 @@ public class PlanOfActionsAndMilestonesCommand
 
   @Override
   public String getDescription() {
-    return "Perform an operation on an OSCAL Plan of Actions and Milestones";
+    return DESCRIPTION;
   }
 
 }
@@ -0,0 +1,530 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.profile;
+
+import gov.nist.secauto.metaschema.binding.io.DeserializationFeature;
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.Profile;
+import gov.nist.secauto.oscal.lib.model.ProfileImport;
+import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionException;
+import gov.nist.secauto.oscal.tools.cli.core.serve.RequestScope;
+import gov.nist.secauto.oscal.tools.cli.core.util.Compression;
+import gov.nist.secauto.oscal.tools.cli.core.util.MappedFile;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles.SourceFile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Resolves a set of profiles in parallel, writing each resolved catalog to an
+ * output directory.
+ * <p>
+ * The profiles in the set that import each other form a dependency graph. Each
+ * profile is resolved once the profiles it imports from the set have been
+ * resolved, and their resolved catalogs are used in place of resolving them
+ * again. A resolved catalog is held only until every profile in the set that
+ * imports it has been resolved. Profiles that import each other in a cycle are
+ * resolved without this reuse, so that the cycle is reported by the resolver.
+ * <p>
+ * The profiles are first parsed in parallel to find their imports, without
+ * holding on to the parsed profiles. Each profile is then parsed again by the
+ * task that resolves it, so only the profiles being resolved are held in
+ * memory.
+ */
+final class BulkProfileResolver {
+  private static final Logger LOGGER = LogManager.getLogger(BulkProfileResolver.class);
+
+  @Nullable
+  private final Format asFormat;
+  @NonNull
+  private final Format toFormat;
+  @NonNull
+  private final Compression compression;
+  @NonNull
+  private final Path outputDirectory;
+  private final boolean overwrite;
+  private final int threads;
+
+  /**
+   * Construct a new bulk resolver.
+   *
+   * @param asFormat
+   *          the format of the profiles, or {@code null} to detect the format of
+   *          each profile
+   * @param toFormat
+   *          the format to write the resolved catalogs in
+   * @param compression
+   *          the compression format the resolved catalogs are written in
+   * @param outputDirectory
+   *          the directory to write the resolved catalogs to
+   * @param overwrite
+   *          {@code true} if existing files in the output directory can be
+   *          replaced
+   * @param threads
+   *          the number of profiles to resolve concurrently
+   */
+  BulkProfileResolver(
+      @Nullable Format asFormat,
+      @NonNull Format toFormat,
+      @NonNull Compression compression,
+      @NonNull Path outputDirectory,
+      boolean overwrite,
+      int threads) {
+    this.asFormat = asFormat;
+    this.toFormat = toFormat;
+    this.compression = compression;
+    this.outputDirectory = outputDirectory;
+    this.overwrite = overwrite;
+    this.threads = threads;
+  }
+
+  /**
+   * Resolve the provided profiles.
+   *
+   * @param sources
+   *          the profiles to resolve
+   * @param showStackTrace
+   *          {@code true} if stack traces should be included when reporting
+   *          errors
+   * @return the status of the whole operation
+   */
+  @SuppressWarnings("PMD.CognitiveComplexity") // reasonable
+  @NonNull
+  public ExitStatus resolve(@NonNull List<SourceFile> sources, boolean showStackTrace) {
+    // profiles in the set often import the same catalogs, so the cache is enabled
+    // for this run only
+    ImportDocumentCache cache = ImportDocumentCache.instance();
+    boolean cacheEnabled = cache.isEnabled();
+    cache.setEnabled(true);
+
+    List<Node> ordered = new ArrayList<>(sources.size());
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    // send the output of the tasks to the server client that requested them
+    Executor executor = RequestScope.propagate(pool);
+    try {
+      List<CompletableFuture<Node>> scans = new ArrayList<>(sources.size());
+      for (SourceFile source : sources) {
+        scans.add(CompletableFuture.supplyAsync(() -> scan(source), executor));
+      }
+
+      Map<String, Node> nodes = new LinkedHashMap<>();
+      Set<Path> destinations = new HashSet<>();
+      for (CompletableFuture<Node> scan : scans) {
+        Node node = scan.join();
+        ordered.add(node);
+        if (node.isLoaded()) {
+          Path destination = ObjectUtils.requireNonNull(node.getDestination());
+          if (destinations.add(destination)) {
+            nodes.put(node.getUri(), node);
+          } else {
+            node.fail(ExitCode.INVALID_TARGET.exitMessage(
+                String.format("The destination '%s' for '%s' is the destination of another profile.",
+                    destination,
+                    node.getSource().getPath())));
+          }
+        }
+      }
+
+      // count the profiles in the set that use each resolved profile, so it can be
+      // released afterwards
+      for (Node node : nodes.values()) {
+        for (String uri : node.getImports()) {
+          Node dependency = nodes.get(uri);
+          if (dependency != null) {
+            dependency.getDependents().incrementAndGet();
+          }
+        }
+      }
+
+      List<CompletableFuture<Void>> futures = new ArrayList<>(nodes.size());
+      Set<Node> visiting = new HashSet<>();
+      for (Node node : nodes.values()) {
+        futures.add(schedule(node, nodes, visiting, executor));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+          .handle((result, ex) -> null)
+          .join();
+    } finally {
+      pool.shutdown();
+      cache.setEnabled(cacheEnabled);
+    }
+
+    int resolved = 0;
+    int skipped = 0;
+    int failed = 0;
+    for (Node node : ordered) {
+      ExitStatus status = node.getStatus();
+      if (status == null && node.isLoaded()) {
+        // the profile was scheduled, but its resolution ended without recording an
+        // outcome
+        status = ExitCode.RUNTIME_ERROR.exitMessage(
+            String.format("The profile '%s' was not resolved.", node.getSource().getPath()));
+      }
+      if (status == null) {
+        skipped++;
+      } else if (status.getExitCode() == ExitCode.OK) {
+        resolved++;
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("Resolved '{}' to '{}'.", node.getSource().getPath(), node.getDestination());
+        }
+      } else {
+        failed++;
+        status.generateMessage(showStackTrace);
+      }
+    }
+
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Resolved {} of {} profiles ({} skipped, {} failed).",
+          resolved,
+          ordered.size(),
+          skipped,
+          failed);
+    }
+
+    return failed == 0
+        ? ExitCode.OK.exit()
+        : ExitCode.PROCESSING_ERROR.exitMessage(
+            String.format("%d of %d profiles could not be resolved.", failed, ordered.size()));
+  }
+
+  @NonNull
+  private static IBoundLoader newLoader() {
+    IBoundLoader retval = OscalBindingContext.instance().newBoundLoader();
+    retval.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
+    return retval;
+  }
+
+  @NonNull
+  private IDocumentNodeItem parse(@NonNull Path path, @NonNull IBoundLoader loader) throws IOException {
+    try (MappedFile input = MappedFile.open(path)) {
+      Format format = asFormat == null ? input.detectFormat(loader) : asFormat;
+      return input.loadAsNodeItem(loader, format);
+    }
+  }
+
+  /**
+   * Parse the provided source to find the profiles it imports and where its
+   * resolved catalog is written to.
+   *
+   * @param source
+   *          the source to scan
+   * @return the node for the source, which is loaded if the source is a profile
+   *         that can be resolved
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @NonNull
+  private Node scan(@NonNull SourceFile source) {
+    Path path = ObjectUtils.notNull(source.getPath());
+    Node retval = new Node(source);
+
+    IBoundLoader loader = newLoader();
+    IDocumentNodeItem document;
+    try {
+      document = parse(path, loader);
+    } catch (IOException | IllegalArgumentException ex) {
+      retval.fail(ExitCode.IO_ERROR
+          .exitMessage(String.format("Unable to load '%s'. %s", path, ex.getLocalizedMessage()))
+          .withThrowable(ex));
+      return retval;
+    }
+
+    Object value = document.getValue();
+    if (!(value instanceof Profile)) {
+      if (LOGGER.isInfoEnabled()) {
+        LOGGER.info("Skipping '{}', since it is not a profile.", path);
+      }
+      return retval;
+    }
+
+    Path destination = source.getDestination(outputDirectory,
+        toFormat.getDefaultExtension() + compression.getExtension());
+    if (!overwrite && Files.exists(destination)) {
+      retval.fail(ExitCode.INVALID_ARGUMENTS.exitMessage(
+          String.format("The destination '%s' already exists and the --overwrite option was not provided.",
+              destination)));
+      return retval;
+    }
+
+    URI documentUri = ObjectUtils.notNull(document.getDocumentUri());
+    MemoryBoundedProfileResolver resolver = MemoryBoundedProfileResolver.newInstance(documentUri, loader, uri -> null);
+    Set<String> imports = new LinkedHashSet<>();
+    for (ProfileImport profileImport : ((Profile) value).getImports()) {
+      URI href = profileImport.getHref();
+      if (href != null) {
+        try {
+          imports.add(ImportDocumentCache.toCanonicalUri(resolver.getImportUri(href, document)));
+        } catch (IOException ex) {
+          // the import will fail to resolve, which is reported when the profile is
+          // resolved
+        }
+      }
+    }
+    retval.setLoaded(ImportDocumentCache.toCanonicalUri(documentUri), imports, destination);
+    return retval;
+  }
+
+  @NonNull
+  private CompletableFuture<Void> schedule(
+      @NonNull Node node,
+      @NonNull Map<String, Node> nodes,
+      @NonNull Set<Node> visiting,
+      @NonNull Executor executor) {
+    CompletableFuture<Void> retval = node.getFuture();
+    if (retval == null) {
+      visiting.add(node);
+      List<Node> dependencies = new ArrayList<>();
+      List<CompletableFuture<?>> dependencyFutures = new ArrayList<>();
+      for (String uri : node.getImports()) {
+        Node dependency = nodes.get(uri);
+        if (dependency != null) {
+          // every dependency counted this profile as a dependent, including those
+          // skipped below, so each is released once this profile is resolved
+          dependencies.add(dependency);
+          // a dependency being visited is part of a cycle, which the resolver will report
+          if (!visiting.contains(dependency)) {
+            // a failed dependency is resolved again as part of this profile, which
+            // reports the failure
+            dependencyFutures.add(schedule(dependency, nodes, visiting, executor).handle((result, ex) -> null));
+          }
+        }
+      }
+      visiting.remove(node);
+
+      retval = CompletableFuture.allOf(dependencyFutures.toArray(new CompletableFuture<?>[0]))
+          .thenRunAsync(() -> resolveProfile(node, nodes), executor)
+          .whenComplete((result, ex) -> {
+            for (Node dependency : dependencies) {
+              dependency.releaseDependent();
+            }
+          });
+      node.setFuture(retval);
+    }
+    return retval;
+  }
+
+  private void resolveProfile(@NonNull Node node, @NonNull Map<String, Node> nodes) {
+    Path path = ObjectUtils.notNull(node.getSource().getPath());
+    IBoundLoader loader = newLoader();
+
+    MemoryBoundedProfileResolver resolver = MemoryBoundedProfileResolver.newInstance(
+        ObjectUtils.notNull(path.toUri()),
+        loader,
+        uri -> {
+          Node dependency = nodes.get(ImportDocumentCache.toCanonicalUri(uri));
+          return dependency == null ? null : dependency.getResolved();
+        });
+
+    try {
+      IDocumentNodeItem resolved = resolver.resolve(parse(path, loader));
+      write(resolved, ObjectUtils.requireNonNull(node.getDestination()));
+      node.succeed(resolved);
+    } catch (IOException | IllegalArgumentException | ProfileResolutionException ex) {
+      node.fail(ExitCode.PROCESSING_ERROR
+          .exitMessage(String.format("Unable to resolve profile '%s'. %s", path, ex.getMessage()))
+          .withThrowable(ex));
+      throw new CompletionException(ex);
+    } catch (RuntimeException ex) {
+      node.fail(ExitCode.RUNTIME_ERROR
+          .exitMessage(String.format("An uncaught runtime error occured while resolving profile '%s'. %s",
+              path,
+              ex.getLocalizedMessage()))
+          .withThrowable(ex));
+      throw new CompletionException(ex);
+    }
+  }
+
+  /**
+   * Write the resolved catalog to the destination, removing a partly written
+   * destination if the catalog could not be written.
+   *
+   * @param resolved
+   *          the resolved catalog
+   * @param destination
+   *          the file to write to
+   * @throws IOException
+   *           if an error occurred while writing the catalog
+   */
+  private void write(@NonNull IDocumentNodeItem resolved, @NonNull Path destination) throws IOException {
+    Path parent = destination.getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (OutputStream os = compression.newOutputStream(destination)) {
+      OscalBindingContext.instance().newSerializer(toFormat, Catalog.class)
+          .serialize((Catalog) ObjectUtils.requireNonNull(resolved.getValue()), os);
+    } catch (IOException | RuntimeException ex) {
+      try {
+        Files.deleteIfExists(destination);
+      } catch (IOException deleteEx) {
+        ex.addSuppressed(deleteEx);
+      }
+      throw ex;
+    }
+  }
+
+  private static final class Node {
+    @NonNull
+    private final SourceFile source;
+    private String uri;
+    @NonNull
+    private Set<String> imports = new LinkedHashSet<>();
+    private Path destination;
+    private CompletableFuture<Void> future;
+    private ExitStatus status;
+    /**
+     * The number of profiles in the set that import this profile and have not yet
+     * been resolved.
+     */
+    @NonNull
+    private final AtomicInteger dependents = new AtomicInteger();
+    /**
+     * The resolved catalog, held while profiles that import this profile are being
+     * resolved.
+     */
+    @NonNull
+    private final AtomicReference<IDocumentNodeItem> resolved = new AtomicReference<>();
+
+    private Node(@NonNull SourceFile source) {
+      this.source = source;
+    }
+
+    private synchronized void setLoaded(
+        @NonNull String uri,
+        @NonNull Set<String> imports,
+        @NonNull Path destination) {
+      this.uri = uri;
+      this.imports = imports;
+      this.destination = destination;
+    }
+
+    @NonNull
+    public SourceFile getSource() {
+      return source;
+    }
+
+    public synchronized String getUri() {
+      return uri;
+    }
+
+    /**
+     * Determine if the source is a profile whose imports are known and that has not
+     * failed.
+     *
+     * @return {@code true} if the profile can be scheduled for resolution, or
+     *         {@code false} otherwise
+     */
+    public synchronized boolean isLoaded() {
+      return uri != null && status == null;
+    }
+
+    @NonNull
+    public synchronized Set<String> getImports() {
+      return imports;
+    }
+
+    @Nullable
+    public synchronized Path getDestination() {
+      return destination;
+    }
+
+    @Nullable
+    public CompletableFuture<Void> getFuture() {
+      return future;
+    }
+
+    public void setFuture(@NonNull CompletableFuture<Void> future) {
+      this.future = future;
+    }
+
+    @Nullable
+    public synchronized ExitStatus getStatus() {
+      return status;
+    }
+
+    @NonNull
+    public AtomicInteger getDependents() {
+      return dependents;
+    }
+
+    @Nullable
+    public IDocumentNodeItem getResolved() {
+      return resolved.get();
+    }
+
+    public void succeed(@NonNull IDocumentNodeItem resolvedCatalog) {
+      if (dependents.get() > 0) {
+        resolved.set(resolvedCatalog);
+      }
+      synchronized (this) {
+        status = ExitCode.OK.exit();
+      }
+    }
+
+    public synchronized void fail(@NonNull ExitStatus status) {
+      this.status = status;
+    }
+
+    /**
+     * Record that a profile importing this profile has been resolved, releasing the
+     * resolved catalog once it is no longer needed.
+     */
+    public void releaseDependent() {
+      if (dependents.decrementAndGet() <= 0) {
+        resolved.set(null);
+      }
+    }
+  }
+}
@@ -0,0 +1,329 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.profile;
+
+import gov.nist.secauto.metaschema.binding.io.BindingException;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.item.DefaultNodeItemFactory;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.tools.cli.core.util.Compression;
+import gov.nist.secauto.oscal.tools.cli.core.util.Digests;
+
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+/**
+ * A process-wide cache of the documents imported by profiles, so that a catalog
+ * imported by many profiles is parsed once.
+ * <p>
+ * The cache only pays off when one process resolves many profiles, so it is
+ * disabled until {@link #setEnabled(boolean)} is called, as is done when
+ * resolving profiles in bulk and when running the server. While disabled, each
+ * load parses the document and keeps no reference to it.
+ * <p>
+ * Documents are keyed by their canonical URI and checked against the SHA-256
+ * digest of their content, so a changed document is never served from the
+ * cache. The digest is computed while the document is parsed, and a later load
+ * reads the document once more only to digest it. Cached documents are held by
+ * soft references, so they are reclaimed when memory runs low, and the least
+ * recently used documents are evicted once the cache holds more than
+ * {@value #DEFAULT_MAX_ENTRIES} documents, or the number set by the
+ * {@value #MAX_ENTRIES_PROPERTY} system property.
+ * <p>
+ * Compressed documents are decompressed as they are parsed. Profile resolution
+ * modifies the documents it imports, so each load from an enabled cache returns
+ * a new copy of the cached document.
+ */
+public final class ImportDocumentCache {
+  private static final Logger LOGGER = LogManager.getLogger(ImportDocumentCache.class);
+
+  /**
+   * The system property used to set the maximum number of cached documents.
+   */
+  public static final String MAX_ENTRIES_PROPERTY = "oscal-cli.import-cache.max-entries";
+  private static final int DEFAULT_MAX_ENTRIES = 16;
+  @NonNull
+  private static final ImportDocumentCache INSTANCE
+      = new ImportDocumentCache(Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+
+  @NonNull
+  private final Map<String, CachedDocument> documents;
+  @NonNull
+  private final AtomicBoolean enabled = new AtomicBoolean();
+  @NonNull
+  private final AtomicLong hits = new AtomicLong();
+  @NonNull
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Get the singleton instance of the cache.
+   *
+   * @return the cache
+   */
+  @SuppressFBWarnings(value = "MS_EXPOSE_REP", justification = "the cache is intended to be shared")
+  @NonNull
+  public static ImportDocumentCache instance() {
+    return INSTANCE;
+  }
+
+  @SuppressWarnings("serial")
+  ImportDocumentCache(int maxEntries) {
+    this.documents = new LinkedHashMap<>(maxEntries + 1, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedDocument> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Determine if loaded documents are cached.
+   *
+   * @return {@code true} if documents are cached, or {@code false} otherwise
+   */
+  public boolean isEnabled() {
+    return enabled.get();
+  }
+
+  /**
+   * Set whether loaded documents are cached. Disabling the cache releases the
+   * cached documents.
+   *
+   * @param enabled
+   *          {@code true} if documents are to be cached, or {@code false}
+   *          otherwise
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled.set(enabled);
+    if (!enabled) {
+      synchronized (documents) {
+        documents.clear();
+      }
+    }
+  }
+
+  /**
+   * Get the number of loads served from the cache.
+   *
+   * @return the number of cache hits
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Get the number of loads that required parsing the document while the cache
+   * was enabled.
+   *
+   * @return the number of cache misses
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Load the document identified by the provided source, using the cached
+   * document if the cache is enabled and the document's content is unchanged.
+   *
+   * @param loader
+   *          the loader used to parse the document on a cache miss
+   * @param source
+   *          the document to load
+   * @return a new, unshared copy of the document
+   * @throws IOException
+   *           if an error occurred while reading or parsing the document
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @NonNull
+  public IDocumentNodeItem load(@NonNull IBoundLoader loader, @NonNull InputSource source) throws IOException {
+    if (source.getCharacterStream() != null) {
+      // the content is only available as characters, so it cannot be decompressed
+      // or digested
+      return loader.loadAsNodeItem(source);
+    }
+
+    URI documentUri = ObjectUtils.notNull(URI.create(source.getSystemId()));
+    InputStream byteStream = source.getByteStream();
+    if (byteStream != null || !isEnabled()) {
+      // embedded content can only be read once, so it is not cached
+      try (InputStream is = byteStream == null ? documentUri.toURL().openStream() : byteStream) {
+        return parse(loader, ObjectUtils.notNull(is), documentUri);
+      }
+    }
+
+    String key = toCanonicalUri(documentUri);
+    CachedDocument entry;
+    synchronized (documents) {
+      entry = documents.get(key);
+    }
+
+    IDocumentNodeItem cached = entry == null ? null : entry.getDocument();
+    if (cached != null) {
+      String digest;
+      try (InputStream is = documentUri.toURL().openStream()) {
+        digest = Digests.sha256(ObjectUtils.notNull(is));
+      }
+      if (!digest.equals(entry.getDigest())) {
+        cached = null;
+      }
+    }
+
+    if (cached == null) {
+      misses.incrementAndGet();
+      MessageDigest digest = Digests.newDigest();
+      try (DigestInputStream is = new DigestInputStream(documentUri.toURL().openStream(), digest)) {
+        cached = parse(loader, is, documentUri);
+        // the parser may stop reading before the end of the content
+        is.transferTo(OutputStream.nullOutputStream());
+      }
+      CachedDocument newEntry = new CachedDocument(Digests.toHex(digest), cached);
+      synchronized (documents) {
+        documents.put(key, newEntry);
+      }
+    } else {
+      hits.incrementAndGet();
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Loaded import '{}' (cache hits: {}, misses: {}).", documentUri, hits.get(), misses.get());
+    }
+    return copy(cached);
+  }
+
+  /**
+   * Parse the document read from the provided stream, decompressing it if needed.
+   *
+   * @param loader
+   *          the loader used to parse the document
+   * @param is
+   *          the stream to read the document from, which is not closed
+   * @param documentUri
+   *          the URI of the document
+   * @return the document
+   * @throws IOException
+   *           if an error occurred while reading or parsing the document
+   */
+  @NonNull
+  private static IDocumentNodeItem parse(
+      @NonNull IBoundLoader loader,
+      @NonNull InputStream is,
+      @NonNull URI documentUri) throws IOException {
+    // the loader closes the stream, which must not close a stream the caller still
+    // reads
+    InputSource source = new InputSource(Compression.decompressing(
+        ObjectUtils.notNull(CloseShieldInputStream.wrap(is))));
+    source.setSystemId(documentUri.toString());
+    return loader.loadAsNodeItem(source);
+  }
+
+  /**
+   * Make a deep copy of the provided document.
+   *
+   * @param document
+   *          the document to copy
+   * @return the copy
+   * @throws IOException
+   *           if an error occurred while copying the document
+   */
+  @NonNull
+  static IDocumentNodeItem copy(@NonNull IDocumentNodeItem document) throws IOException {
+    try {
+      return DefaultNodeItemFactory.instance().newDocumentNodeItem(
+          ObjectUtils.notNull(document.getRootAssemblyNodeItem().getDefinition()),
+          ObjectUtils.notNull(OscalBindingContext.instance().copyBoundObject(document.getValue(), null)),
+          ObjectUtils.notNull(document.getDocumentUri()));
+    } catch (BindingException ex) {
+      throw new IOException(ex);
+    }
+  }
+
+  /**
+   * Get the canonical form of the provided URI. For a file that exists, this is
+   * the URI of its real path.
+   *
+   * @param uri
+   *          the URI to canonicalize
+   * @return the canonical URI
+   */
+  @NonNull
+  static String toCanonicalUri(@NonNull URI uri) {
+    URI retval = uri.normalize();
+    if ("file".equals(retval.getScheme())) {
+      try {
+        Path path = Paths.get(retval).toRealPath();
+        retval = path.toUri();
+      } catch (IOException | IllegalArgumentException ex) {
+        // use the normalized URI
+      }
+    }
+    return ObjectUtils.notNull(retval.toString());
+  }
+
+  private static final class CachedDocument {
+    @NonNull
+    private final String digest;
+    @NonNull
+    private final SoftReference<IDocumentNodeItem> document;
+
+    private CachedDocument(@NonNull String digest, @NonNull IDocumentNodeItem document) {
+      this.digest = digest;
+      this.document = new SoftReference<>(document);
+    }
+
+    @NonNull
+    public String getDigest() {
+      return digest;
+    }
+
+    @Nullable
+    public IDocumentNodeItem getDocument() {
+      return document.get();
+    }
+  }
+}
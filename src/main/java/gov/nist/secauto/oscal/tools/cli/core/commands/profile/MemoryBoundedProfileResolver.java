@@ -0,0 +1,189 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.profile;
+
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.DynamicContext;
+import gov.nist.secauto.metaschema.model.common.metapath.StaticContext;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IRequiredValueModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.ProfileImport;
+import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionException;
+import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolver;
+import gov.nist.secauto.oscal.lib.profile.resolver.selection.Import;
+import gov.nist.secauto.oscal.lib.profile.resolver.selection.ImportCycleException;
+import gov.nist.secauto.oscal.lib.profile.resolver.support.IIndexer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Stack;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A profile resolver that holds each imported document only for as long as
+ * resolution needs it.
+ * <p>
+ * The base resolver loads imports through the dynamic context, which caches
+ * every loaded document until resolution completes, and then selects from a
+ * deep copy of each import so that the cached instance is not modified. This
+ * resolver loads each import as an unshared copy from the
+ * {@link ImportDocumentCache} and selects from it in place, so an import is
+ * held by this resolution once rather than twice and becomes collectable as
+ * soon as nothing selected from it is still referenced.
+ */
+public class MemoryBoundedProfileResolver
+    extends ProfileResolver {
+  private static final Logger LOGGER = LogManager.getLogger(MemoryBoundedProfileResolver.class);
+
+  @NonNull
+  private final Function<URI, IDocumentNodeItem> resolvedImports;
+
+  /**
+   * Construct a new resolver that resolves all imports.
+   */
+  public MemoryBoundedProfileResolver() {
+    this(uri -> null);
+  }
+
+  /**
+   * Construct a new resolver that uses already resolved profiles in place of
+   * resolving them again when they are imported.
+   *
+   * @param resolvedImports
+   *          provides the resolved catalog for a profile URI, or {@code null} if
+   *          the profile has not been resolved
+   */
+  public MemoryBoundedProfileResolver(@NonNull Function<URI, IDocumentNodeItem> resolvedImports) {
+    this.resolvedImports = resolvedImports;
+  }
+
+  /**
+   * Create a new resolver for the profile with the provided URI.
+   *
+   * @param profileUri
+   *          the URI of the profile to resolve
+   * @param loader
+   *          the loader used to load imports
+   * @param resolvedImports
+   *          provides the resolved catalog for a profile URI, or {@code null} if
+   *          the profile has not been resolved
+   * @return the resolver
+   */
+  @NonNull
+  public static MemoryBoundedProfileResolver newInstance(
+      @NonNull URI profileUri,
+      @NonNull IBoundLoader loader,
+      @NonNull Function<URI, IDocumentNodeItem> resolvedImports) {
+    StaticContext staticContext = new StaticContext();
+    staticContext.setBaseUri(profileUri);
+    DynamicContext dynamicContext = staticContext.newDynamicContext();
+    dynamicContext.setDocumentLoader(loader);
+
+    MemoryBoundedProfileResolver retval = new MemoryBoundedProfileResolver(resolvedImports);
+    retval.setBoundLoader(loader);
+    retval.setDynamicContext(dynamicContext);
+    return retval;
+  }
+
+  /**
+   * Get the URI of the document a profile import refers to, as it is loaded
+   * during resolution.
+   *
+   * @param importHref
+   *          the import's href, which may refer to a back-matter resource
+   * @param profileDocument
+   *          the profile containing the import
+   * @return the URI of the imported document
+   * @throws IOException
+   *           if the import could not be resolved to a document
+   */
+  @NonNull
+  URI getImportUri(@NonNull URI importHref, @NonNull IDocumentNodeItem profileDocument) throws IOException {
+    return ObjectUtils.notNull(URI.create(newImportSource(importHref, profileDocument).getSystemId()));
+  }
+
+  @Override
+  protected IIndexer resolveImport(
+      @NonNull IRequiredValueModelNodeItem profileImportItem,
+      @NonNull IDocumentNodeItem profileDocument,
+      @NonNull Stack<URI> importHistory,
+      @NonNull Catalog resolvedCatalog) throws IOException, ProfileResolutionException {
+    ProfileImport profileImport = (ProfileImport) profileImportItem.getValue();
+
+    URI importUri = profileImport.getHref();
+    if (importUri == null) {
+      throw new ProfileResolutionException("profileImport.getHref() must return a non-null URI");
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.atDebug().log("resolving profile import '{}'", importUri);
+    }
+
+    InputSource source = newImportSource(importUri, profileDocument);
+    URI sourceUri = ObjectUtils.notNull(URI.create(source.getSystemId()));
+
+    int index = importHistory.indexOf(sourceUri);
+    if (index != -1) {
+      List<URI> cycle = importHistory.subList(0, index + 1);
+      throw new IOException(new ImportCycleException(
+          String.format("Importing resource '%s' would result in the import cycle: %s",
+              sourceUri,
+              cycle.stream()
+                  .map(cycleUri -> cycleUri.toString())
+                  .collect(Collectors.joining(" -> ", " -> ", "")))));
+    }
+
+    importHistory.push(sourceUri);
+    try {
+      IDocumentNodeItem importedCatalog;
+      IDocumentNodeItem resolvedImport = resolvedImports.apply(sourceUri);
+      if (resolvedImport == null) {
+        // not loaded through the dynamic context, so this document is not shared and
+        // can be used without making another copy
+        IDocumentNodeItem document = ImportDocumentCache.instance().load(getBoundLoader(), source);
+        importedCatalog = resolve(document, importHistory);
+      } else {
+        // the resolved profile is shared with other resolutions
+        importedCatalog = ImportDocumentCache.copy(resolvedImport);
+      }
+      return new Import(profileDocument, profileImportItem).resolve(importedCatalog, resolvedCatalog);
+    } finally {
+      URI poppedUri = ObjectUtils.notNull(importHistory.pop());
+      assert sourceUri.equals(poppedUri);
+    }
+  }
+}
@@ -26,11 +26,14 @@
 
 package gov.nist.secauto.oscal.tools.cli.core.commands.profile;
 
-import gov.nist.secauto.metaschema.cli.processor.command.AbstractParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.AbstractOscalParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.GenerateSubcommand;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
 
 public class ProfileCommand
-    extends AbstractParentCommand {
-  private static final String COMMAND = "profile";
+    extends AbstractOscalParentCommand {
+  public static final String COMMAND = "profile";
+  public static final String DESCRIPTION = "Perform an operation on an OSCAL Profile";
 
   public ProfileCommand() {
     super(true);
@@ -38,6 +41,7 @@ public class ProfileCommand
     // addCommandHandler(new RenderSubcommand());
     addCommandHandler(new ConvertSubcommand());
     addCommandHandler(new ResolveSubcommand());
+    addHiddenCommandHandler(GenerateSubcommand.COMMAND, () -> new GenerateSubcommand(SyntheticModel.PROFILE));
   }
 
   @Override
@@ -47,7 +51,7 @@ public class ProfileCommand
 
   @Override
   public String getDescription() {
-    return "Perform an operation on an OSCAL Profile";
+    return DESCRIPTION;
   }
 
 }
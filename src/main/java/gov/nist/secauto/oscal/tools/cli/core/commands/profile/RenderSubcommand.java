@@ -30,9 +30,10 @@ import gov.nist.secauto.oscal.tools.cli.core.commands.AbstractRenderSubcommand;
 import gov.nist.secauto.oscal.tools.cli.core.operations.XMLOperations;
 
 import java.io.IOException;
-import java.nio.file.Path;
 
 import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
 
 public class RenderSubcommand
     extends AbstractRenderSubcommand {
@@ -42,7 +43,7 @@ public class RenderSubcommand
   }
 
   @Override
-  protected void performRender(Path input, Path result) throws IOException, TransformerException {
-    XMLOperations.renderProfileHTML(input.toFile(), result.toFile());
+  protected void performRender(StreamSource input, StreamResult result) throws IOException, TransformerException {
+    XMLOperations.renderProfileHTML(input, result);
   }
 }
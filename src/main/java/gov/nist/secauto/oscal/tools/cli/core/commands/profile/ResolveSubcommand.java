@@ -30,6 +30,7 @@ import gov.nist.secauto.metaschema.binding.io.DeserializationFeature;
 import gov.nist.secauto.metaschema.binding.io.Format;
 import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
 import gov.nist.secauto.metaschema.binding.io.ISerializer;
+import gov.nist.secauto.metaschema.cli.processor.CLIProcessor;
 import gov.nist.secauto.metaschema.cli.processor.CLIProcessor.CallingContext;
 import gov.nist.secauto.metaschema.cli.processor.ExitCode;
 import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
@@ -39,25 +40,37 @@ import gov.nist.secauto.metaschema.cli.processor.command.AbstractTerminalCommand
 import gov.nist.secauto.metaschema.cli.processor.command.DefaultExtraArgument;
 import gov.nist.secauto.metaschema.cli.processor.command.ExtraArgument;
 import gov.nist.secauto.metaschema.cli.processor.command.ICommandExecutor;
-import gov.nist.secauto.metaschema.model.common.metapath.DynamicContext;
-import gov.nist.secauto.metaschema.model.common.metapath.StaticContext;
+import gov.nist.secauto.metaschema.cli.util.LoggingValidationHandler;
 import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
 import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
 import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
 import gov.nist.secauto.oscal.lib.OscalBindingContext;
 import gov.nist.secauto.oscal.lib.model.Catalog;
 import gov.nist.secauto.oscal.lib.model.Profile;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionException;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolver;
+import gov.nist.secauto.oscal.tools.cli.core.util.Compression;
+import gov.nist.secauto.oscal.tools.cli.core.util.ExecutionStats;
+import gov.nist.secauto.oscal.tools.cli.core.util.MappedFile;
+import gov.nist.secauto.oscal.tools.cli.core.util.OptionValues;
+import gov.nist.secauto.oscal.tools.cli.core.util.ParallelConstraintValidator;
+import gov.nist.secauto.oscal.tools.cli.core.util.SniffedSource;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles;
+import gov.nist.secauto.oscal.tools.cli.core.util.SourceFiles.SourceFile;
+import gov.nist.secauto.oscal.tools.cli.core.util.StandardStreams;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -66,16 +79,18 @@ import java.util.List;
 import java.util.Locale;
 
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
 
 public class ResolveSubcommand
     extends AbstractTerminalCommand {
+  private static final Logger LOGGER = LogManager.getLogger(ResolveSubcommand.class);
 
   @NonNull
   private static final String COMMAND = "resolve";
   @NonNull
   private static final List<ExtraArgument> EXTRA_ARGUMENTS = ObjectUtils.notNull(List.of(
-      new DefaultExtraArgument("file to resolve", true),
-      new DefaultExtraArgument("destination file", false)));
+      new DefaultExtraArgument("file to resolve, or - for standard input", true),
+      new DefaultExtraArgument("destination file, or - for standard output", false)));
   @NonNull
   private static final Option AS_OPTION = ObjectUtils.notNull(
       Option.builder()
@@ -99,11 +114,61 @@ public class ResolveSubcommand
           .desc("overwrite the destination if it exists")
           .build());
   @NonNull
+  private static final Option COMPRESS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("compress")
+          .hasArg()
+          .argName("COMPRESSION")
+          .desc("compress the output: gzip, zstd, or none (default: based on the destination's extension)")
+          .build());
+  @NonNull
+  private static final Option STATS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("stats")
+          .desc("report the elapsed time and peak heap usage after resolving")
+          .build());
+  @NonNull
+  private static final Option OUTPUT_DIR_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("output-dir")
+          .hasArg()
+          .argName("DIR")
+          .desc("resolve all sources, which may be files, directories, or globs, into this directory")
+          .build());
+  @NonNull
+  private static final Option THREADS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("threads")
+          .hasArg()
+          .argName("COUNT")
+          .desc("with --output-dir, the number of profiles to resolve concurrently (default: the number of processors)")
+          .build());
+  @NonNull
+  private static final Option VALIDATE_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("validate")
+          .desc("check the constraints of the resolved catalog before writing it")
+          .build());
+  @NonNull
+  private static final Option CONSTRAINT_THREADS_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("constraint-threads")
+          .hasArg()
+          .argName("COUNT")
+          .desc("with --validate, the number of threads used to check the constraints (default: 1)")
+          .build());
+  @NonNull
   private static final List<Option> OPTIONS = ObjectUtils.notNull(
       List.of(
           AS_OPTION,
           TO_OPTION,
-          OVERWRITE_OPTION));
+          OVERWRITE_OPTION,
+          COMPRESS_OPTION,
+          STATS_OPTION,
+          OUTPUT_DIR_OPTION,
+          THREADS_OPTION,
+          VALIDATE_OPTION,
+          CONSTRAINT_THREADS_OPTION));
 
   @Override
   public String getName() {
@@ -169,7 +234,39 @@ public class ResolveSubcommand
       throw new InvalidArgumentException("The source to resolve must be provided.");
     }
 
-    File source = new File(extraArgs.get(0));
+    OptionValues.getPositiveInteger(cmdLine, THREADS_OPTION, 1);
+    OptionValues.getPositiveInteger(cmdLine, CONSTRAINT_THREADS_OPTION, 1);
+    OptionValues.getCompression(cmdLine, COMPRESS_OPTION);
+
+    if (cmdLine.hasOption(OUTPUT_DIR_OPTION)) {
+      if (cmdLine.hasOption(VALIDATE_OPTION)) {
+        throw new InvalidArgumentException(
+            "The '" + OptionUtils.toArgument(VALIDATE_OPTION) + "' option cannot be used with '"
+                + OptionUtils.toArgument(OUTPUT_DIR_OPTION) + "'.");
+      }
+      // all arguments are sources, which may be globs
+      for (String arg : extraArgs) {
+        if (SourceFiles.isStdin(ObjectUtils.notNull(arg))) {
+          throw new InvalidArgumentException(
+              "Standard input cannot be resolved with '" + OptionUtils.toArgument(OUTPUT_DIR_OPTION) + "'.");
+        }
+        if (!SourceFiles.isGlob(ObjectUtils.notNull(arg))) {
+          checkSource(new File(arg));
+        }
+      }
+    } else {
+      if (extraArgs.size() > 2) {
+        throw new InvalidArgumentException(
+            "Only one source can be resolved to a destination file. Use '"
+                + OptionUtils.toArgument(OUTPUT_DIR_OPTION) + "' to resolve multiple sources.");
+      }
+      if (!SourceFiles.isStdin(ObjectUtils.notNull(extraArgs.get(0)))) {
+        checkSource(new File(extraArgs.get(0)));
+      }
+    }
+  }
+
+  private static void checkSource(@NonNull File source) throws InvalidArgumentException {
     if (!source.exists()) {
       throw new InvalidArgumentException("The provided source '" + source.getPath() + "' does not exist.");
     }
@@ -190,54 +287,20 @@ public class ResolveSubcommand
   protected ExitStatus executeCommand(
       @NonNull CallingContext callingContext,
       @NonNull CommandLine cmdLine) {
-    List<String> extraArgs = cmdLine.getArgList();
-    Path source = resolvePathAgainstCWD(ObjectUtils.notNull(Paths.get(extraArgs.get(0))));
-
-    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
-    loader.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
-
-    Format asFormat;
-    // attempt to determine the format
-    if (cmdLine.hasOption(AS_OPTION)) {
-      try {
-        String asFormatText = cmdLine.getOptionValue(AS_OPTION);
-        asFormat = Format.valueOf(asFormatText.toUpperCase(Locale.ROOT));
-      } catch (IllegalArgumentException ex) {
-        return ExitCode.INVALID_ARGUMENTS
-            .exitMessage("Invalid '--as' argument. The format must be one of: " + Arrays.stream(Format.values())
-                .map(format -> format.name())
-                .collect(CustomCollectors.joiningWithOxfordComma("or")));
-      }
-    } else {
-      // attempt to determine the format
-      try {
-        asFormat = loader.detectFormat(ObjectUtils.notNull(source));
-      } catch (FileNotFoundException ex) {
-        // this case was already checked for
-        return ExitCode.IO_ERROR.exitMessage("The provided source file '" + source + "' does not exist.");
-      } catch (IOException ex) {
-        return ExitCode.PROCESSING_ERROR.exit().withThrowable(ex);
-      } catch (IllegalArgumentException ex) {
-        return ExitCode.INVALID_ARGUMENTS.exitMessage(
-            "Source file has unrecognizable format. Use '--as' to specify the format. The format must be one of: "
-                + Arrays.stream(Format.values())
-                    .map(format -> format.name())
-                    .collect(CustomCollectors.joiningWithOxfordComma("or")));
-      }
+    if (cmdLine.hasOption(OUTPUT_DIR_OPTION)) {
+      return executeBulk(cmdLine);
     }
 
-    source = source.toAbsolutePath();
+    List<String> extraArgs = cmdLine.getArgList();
+    String sourceArg = ObjectUtils.notNull(extraArgs.get(0));
+    Path source = SourceFiles.isStdin(sourceArg)
+        ? null
+        : resolvePathAgainstCWD(ObjectUtils.notNull(Paths.get(sourceArg))).toAbsolutePath();
 
-    Format toFormat;
-    if (cmdLine.hasOption(TO_OPTION)) {
-      String toFormatText = cmdLine.getOptionValue(TO_OPTION);
-      toFormat = Format.valueOf(toFormatText.toUpperCase(Locale.ROOT));
-    } else {
-      toFormat = asFormat;
-    }
+    Format toFormat = Format.valueOf(cmdLine.getOptionValue(TO_OPTION).toUpperCase(Locale.ROOT));
 
     Path destination = null;
-    if (extraArgs.size() == 2) {
+    if (extraArgs.size() == 2 && !StandardStreams.isStdout(ObjectUtils.notNull(extraArgs.get(1)))) {
       destination = Paths.get(extraArgs.get(1)).toAbsolutePath();
     }
 
@@ -262,52 +325,222 @@ public class ResolveSubcommand
       }
     }
 
-    IDocumentNodeItem document;
+    Compression compression;
     try {
-      document = loader.loadAsNodeItem(asFormat, loader.toInputSource(ObjectUtils.notNull(source.toUri())));
+      compression = Compression.forDestination(OptionValues.getCompression(cmdLine, COMPRESS_OPTION), destination);
+    } catch (InvalidArgumentException ex) {
+      return ExitCode.INVALID_ARGUMENTS.exitMessage(ex.getMessage());
+    }
+
+    ExecutionStats stats = cmdLine.hasOption(STATS_OPTION) ? ExecutionStats.start() : null;
+
+    // the source profile and its node item trees are released once this returns,
+    // so only the resolved catalog is held while it is written out
+    Catalog resolvedCatalog;
+    try {
+      resolvedCatalog = loadResolvedCatalog(source, cmdLine);
+    } catch (ResolveException ex) {
+      return ex.getStatus();
+    }
+    if (resolvedCatalog == null) {
+      // neither a catalog nor a profile
+      return ExitCode.OK.exit();
+    }
+
+    ISerializer<Catalog> serializer
+        = OscalBindingContext.instance().newSerializer(toFormat, Catalog.class);
+    try (OutputStream os = destination == null
+        ? compression.compress(StandardStreams.newStdoutStream())
+        : compression.newOutputStream(destination)) {
+      serializer.serialize(resolvedCatalog, os);
     } catch (IOException ex) {
-      return ExitCode.IO_ERROR.exit().withThrowable(ex);
+      return ExitCode.PROCESSING_ERROR.exit().withThrowable(ex);
+    }
+
+    if (stats != null && LOGGER.isInfoEnabled()) {
+      LOGGER.info("Resolved profile '{}' ({}).", source == null ? sourceArg : source, stats.summarize());
+    }
+    return ExitCode.OK.exit();
+  }
+
+  /**
+   * Parse the source profile, resolve it, and validate the resolved catalog if
+   * requested.
+   *
+   * @param source
+   *          the source file, or {@code null} to read standard input
+   * @param cmdLine
+   *          the parsed command line
+   * @return the resolved catalog, or {@code null} if the source is neither a
+   *         catalog nor a profile
+   * @throws ResolveException
+   *           if the profile cannot be resolved, or the resolved catalog is not
+   *           valid
+   */
+  @Nullable
+  private static Catalog loadResolvedCatalog(@Nullable Path source, @NonNull CommandLine cmdLine)
+      throws ResolveException {
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    loader.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
+
+    // the source is read once, for both format detection and parsing
+    URI sourceUri;
+    IDocumentNodeItem document;
+    try (SniffedSource input = source == null ? SniffedSource.stdin() : SniffedSource.open(MappedFile.open(source))) {
+      sourceUri = input.getUri();
+
+      Format asFormat;
+      if (cmdLine.hasOption(AS_OPTION)) {
+        try {
+          String asFormatText = cmdLine.getOptionValue(AS_OPTION);
+          asFormat = Format.valueOf(asFormatText.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+          throw new ResolveException(ExitCode.INVALID_ARGUMENTS
+              .exitMessage("Invalid '--as' argument. The format must be one of: " + Arrays.stream(Format.values())
+                  .map(format -> format.name())
+                  .collect(CustomCollectors.joiningWithOxfordComma("or"))));
+        }
+      } else {
+        // attempt to determine the format
+        try {
+          asFormat = input.detectFormat(loader);
+        } catch (IllegalArgumentException ex) {
+          throw new ResolveException(ExitCode.INVALID_ARGUMENTS.exitMessage(
+              "Source file has unrecognizable format. Use '--as' to specify the format. The format must be one of: "
+                  + Arrays.stream(Format.values())
+                      .map(format -> format.name())
+                      .collect(CustomCollectors.joiningWithOxfordComma("or"))));
+        }
+      }
+
+      document = input.loadAsNodeItem(loader, asFormat);
+    } catch (NoSuchFileException ex) {
+      // this case was already checked for
+      throw new ResolveException(
+          ExitCode.IO_ERROR.exitMessage("The provided source file '" + source + "' does not exist."));
+    } catch (IOException ex) {
+      throw new ResolveException(ExitCode.IO_ERROR.exit().withThrowable(ex));
     }
+
     Object object = document.getValue();
     if (object instanceof Catalog) {
       // this is a catalog
-      return ExitCode.INVALID_ARGUMENTS.exitMessage("The target file is already a catalog");
-    } else if (object instanceof Profile) {
-      // this is a profile
-      StaticContext staticContext = new StaticContext();
-      URI sourceUri = ObjectUtils.notNull(source.toUri());
-      staticContext.setBaseUri(sourceUri);
-      DynamicContext dynamicContext = staticContext.newDynamicContext();
-      dynamicContext.setDocumentLoader(loader);
-      ProfileResolver resolver = new ProfileResolver();
-      resolver.setDynamicContext(dynamicContext);
-
-      IDocumentNodeItem resolvedProfile;
-      try {
-        resolvedProfile = resolver.resolve(document);
-      } catch (IOException | ProfileResolutionException ex) {
-        return ExitCode.PROCESSING_ERROR
-            .exitMessage(
-                String.format("Unable to resolve profile '%s'. %s", document.getDocumentUri(), ex.getMessage()))
-            .withThrowable(ex);
-      }
+      throw new ResolveException(ExitCode.INVALID_ARGUMENTS.exitMessage("The target file is already a catalog"));
+    }
+    if (!(object instanceof Profile)) {
+      return null;
+    }
 
-      // DefaultConstraintValidator validator = new DefaultConstraintValidator(dynamicContext);
-      // ((IBoundXdmNodeItem)resolvedProfile).validate(validator);
-      // validator.finalizeValidation();
+    // this is a profile
+    ProfileResolver resolver = MemoryBoundedProfileResolver.newInstance(
+        sourceUri,
+        loader,
+        uri -> null);
 
-      ISerializer<Catalog> serializer
-          = OscalBindingContext.instance().newSerializer(toFormat, Catalog.class);
-      try {
-        if (destination == null) {
-          serializer.serialize((Catalog) resolvedProfile.getValue(), ObjectUtils.notNull(System.out));
-        } else {
-          serializer.serialize((Catalog) resolvedProfile.getValue(), destination);
-        }
-      } catch (IOException ex) {
-        return ExitCode.PROCESSING_ERROR.exit().withThrowable(ex);
+    IDocumentNodeItem resolvedDocument;
+    try {
+      resolvedDocument = resolver.resolve(document);
+    } catch (IOException | ProfileResolutionException ex) {
+      throw new ResolveException(ExitCode.PROCESSING_ERROR
+          .exitMessage(
+              String.format("Unable to resolve profile '%s'. %s", document.getDocumentUri(), ex.getMessage()))
+          .withThrowable(ex));
+    }
+
+    if (cmdLine.hasOption(VALIDATE_OPTION)) {
+      ExitStatus status = validateResolved(resolvedDocument, cmdLine);
+      if (status.getExitCode() != ExitCode.OK) {
+        throw new ResolveException(status);
       }
     }
-    return ExitCode.OK.exit();
+    return (Catalog) resolvedDocument.getValue();
+  }
+
+  @NonNull
+  private static ExitStatus validateResolved(@NonNull IDocumentNodeItem resolvedDocument,
+      @NonNull CommandLine cmdLine) {
+    int threads;
+    try {
+      threads = OptionValues.getPositiveInteger(cmdLine, CONSTRAINT_THREADS_OPTION, 1);
+    } catch (InvalidArgumentException ex) {
+      return ExitCode.INVALID_ARGUMENTS.exitMessage(ex.getMessage());
+    }
+
+    IValidationResult result = ParallelConstraintValidator.validate(
+        OscalBindingContext.instance(),
+        resolvedDocument,
+        threads);
+    LoggingValidationHandler.instance().handleValidationResults(result);
+    return result.isPassing()
+        ? ExitCode.OK.exit()
+        : ExitCode.FAIL.exitMessage("The resolved catalog is not valid.");
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @NonNull
+  private ExitStatus executeBulk(@NonNull CommandLine cmdLine) {
+    Format asFormat = null;
+    if (cmdLine.hasOption(AS_OPTION)) {
+      asFormat = Format.valueOf(cmdLine.getOptionValue(AS_OPTION).toUpperCase(Locale.ROOT));
+    }
+    Format toFormat = Format.valueOf(cmdLine.getOptionValue(TO_OPTION).toUpperCase(Locale.ROOT));
+    Path outputDirectory
+        = resolvePathAgainstCWD(ObjectUtils.notNull(Paths.get(cmdLine.getOptionValue(OUTPUT_DIR_OPTION))));
+
+    int threads;
+    Compression compression;
+    List<SourceFile> sources;
+    try {
+      Compression requested = OptionValues.getCompression(cmdLine, COMPRESS_OPTION);
+      compression = requested == null ? Compression.NONE : requested;
+      threads = OptionValues.getPositiveInteger(cmdLine, THREADS_OPTION, Runtime.getRuntime().availableProcessors());
+      sources = SourceFiles.expand(ObjectUtils.notNull(cmdLine.getArgList()));
+    } catch (InvalidArgumentException ex) {
+      return ExitCode.INVALID_ARGUMENTS.exitMessage(ex.getMessage());
+    } catch (IOException ex) {
+      return ExitCode.IO_ERROR.exit().withThrowable(ex);
+    }
+
+    if (sources.isEmpty()) {
+      return ExitCode.INVALID_ARGUMENTS.exitMessage("No files matched the provided sources.");
+    }
+
+    ExecutionStats stats = cmdLine.hasOption(STATS_OPTION) ? ExecutionStats.start() : null;
+
+    ExitStatus retval = new BulkProfileResolver(
+        asFormat,
+        toFormat,
+        compression,
+        outputDirectory,
+        cmdLine.hasOption(OVERWRITE_OPTION),
+        threads)
+            .resolve(sources, cmdLine.hasOption(CLIProcessor.SHOW_STACK_TRACE_OPTION));
+
+    if (stats != null && LOGGER.isInfoEnabled()) {
+      LOGGER.info("Resolved {} sources ({}).", sources.size(), stats.summarize());
+    }
+    return retval;
+  }
+
+  /**
+   * Thrown when the source profile cannot be resolved, providing the status to
+   * exit with.
+   */
+  private static final class ResolveException
+      extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    @NonNull
+    private final transient ExitStatus status;
+
+    private ResolveException(@NonNull ExitStatus status) {
+      super(null, null, false, false);
+      this.status = status;
+    }
+
+    @NonNull
+    public ExitStatus getStatus() {
+      return status;
+    }
   }
 }
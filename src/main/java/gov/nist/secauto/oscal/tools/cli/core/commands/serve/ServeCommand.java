@@ -0,0 +1,148 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.serve;
+
+import gov.nist.secauto.metaschema.cli.processor.CLIProcessor.CallingContext;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.cli.processor.InvalidArgumentException;
+import gov.nist.secauto.metaschema.cli.processor.command.AbstractTerminalCommand;
+import gov.nist.secauto.metaschema.cli.processor.command.ICommandExecutor;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.tools.cli.core.serve.OscalCliServer;
+import gov.nist.secauto.oscal.tools.cli.core.util.OptionValues;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+public class ServeCommand
+    extends AbstractTerminalCommand {
+
+  @NonNull
+  public static final String COMMAND = "serve";
+  @NonNull
+  public static final String DESCRIPTION
+      = "Run a local server that executes commands in a warm process, for use with oscal-cli-client";
+  private static final int DEFAULT_MAX_QUEUED = 64;
+  private static final int MAX_PORT = 65_535;
+  @NonNull
+  private static final Option PORT_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("port")
+          .hasArg()
+          .argName("PORT")
+          .desc("the localhost port to listen on, or 0 for any free port (default: " + OscalCliServer.DEFAULT_PORT
+              + ")")
+          .build());
+  @NonNull
+  private static final Option MAX_CONCURRENT_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("max-concurrent")
+          .hasArg()
+          .argName("COUNT")
+          .desc("the maximum number of requests to run at the same time (default: the number of processors)")
+          .build());
+  @NonNull
+  private static final Option MAX_QUEUED_OPTION = ObjectUtils.notNull(
+      Option.builder()
+          .longOpt("max-queued")
+          .hasArg()
+          .argName("COUNT")
+          .desc("the maximum number of requests waiting to run before new requests are rejected (default: "
+              + DEFAULT_MAX_QUEUED + ")")
+          .build());
+  @NonNull
+  private static final List<Option> OPTIONS = ObjectUtils.notNull(
+      List.of(
+          PORT_OPTION,
+          MAX_CONCURRENT_OPTION,
+          MAX_QUEUED_OPTION));
+
+  @Override
+  public String getName() {
+    return COMMAND;
+  }
+
+  @Override
+  public String getDescription() {
+    return DESCRIPTION;
+  }
+
+  @Override
+  public Collection<? extends Option> gatherOptions() {
+    return OPTIONS;
+  }
+
+  @Override
+  public void validateOptions(CallingContext callingContext, CommandLine cmdLine) throws InvalidArgumentException {
+    OptionValues.getIntegerInRange(cmdLine, PORT_OPTION, OscalCliServer.DEFAULT_PORT, 0, MAX_PORT);
+    OptionValues.getPositiveInteger(cmdLine, MAX_CONCURRENT_OPTION, 1);
+    OptionValues.getNonNegativeInteger(cmdLine, MAX_QUEUED_OPTION, DEFAULT_MAX_QUEUED);
+  }
+
+  @Override
+  public ICommandExecutor newExecutor(CallingContext callingContext, CommandLine cmdLine) {
+    return ICommandExecutor.using(callingContext, cmdLine, this::executeCommand);
+  }
+
+  @SuppressWarnings({
+      "PMD.OnlyOneReturn", // readability
+      "unused"
+  })
+  protected ExitStatus executeCommand(
+      @NonNull CallingContext callingContext,
+      @NonNull CommandLine cmdLine) {
+    OscalCliServer server;
+    try {
+      server = new OscalCliServer(
+          OptionValues.getIntegerInRange(cmdLine, PORT_OPTION, OscalCliServer.DEFAULT_PORT, 0, MAX_PORT),
+          OptionValues.getPositiveInteger(cmdLine, MAX_CONCURRENT_OPTION, Runtime.getRuntime().availableProcessors()),
+          OptionValues.getNonNegativeInteger(cmdLine, MAX_QUEUED_OPTION, DEFAULT_MAX_QUEUED));
+      server.start();
+    } catch (InvalidArgumentException ex) {
+      return ExitCode.INVALID_ARGUMENTS.exitMessage(ex.getMessage());
+    } catch (IOException ex) {
+      return ExitCode.IO_ERROR.exitMessage("Unable to start the server. " + ex.getLocalizedMessage())
+          .withThrowable(ex);
+    }
+
+    Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+    try {
+      server.awaitShutdown();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      server.stop();
+    }
+    return ExitCode.OK.exit();
+  }
+}
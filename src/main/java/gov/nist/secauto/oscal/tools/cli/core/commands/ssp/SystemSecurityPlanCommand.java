@@ -26,17 +26,21 @@
 
 package gov.nist.secauto.oscal.tools.cli.core.commands.ssp;
 
-import gov.nist.secauto.metaschema.cli.processor.command.AbstractParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.AbstractOscalParentCommand;
+import gov.nist.secauto.oscal.tools.cli.core.commands.oscal.GenerateSubcommand;
+import gov.nist.secauto.oscal.tools.cli.core.generate.SyntheticModel;
 
 public class SystemSecurityPlanCommand
-    extends AbstractParentCommand {
-  private static final String COMMAND = "ssp";
+    extends AbstractOscalParentCommand {
+  public static final String COMMAND = "ssp";
+  public static final String DESCRIPTION = "Perform an operation on an OSCAL System Security Plan";
 
   public SystemSecurityPlanCommand() {
     super(true);
     addCommandHandler(new ValidateSubcommand());
     // addCommandHandler(new RenderSubcommand());
     addCommandHandler(new ConvertSubcommand());
+    addHiddenCommandHandler(GenerateSubcommand.COMMAND, () -> new GenerateSubcommand(SyntheticModel.SSP));
   }
 
   @Override
@@ -46,6 +50,6 @@ public class SystemSecurityPlanCommand
 
   @Override
   public String getDescription() {
-    return "Perform an operation on an OSCAL System Security Plan";
+    return DESCRIPTION;
   }
 }
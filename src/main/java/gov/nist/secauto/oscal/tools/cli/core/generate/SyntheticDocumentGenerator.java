@@ -0,0 +1,420 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.generate;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Generates synthetic OSCAL documents of a given size for scale testing.
+ * <p>
+ * Generated documents are deterministic, so the same model, size, and format
+ * always produce the same content. Identifiers are derived from the model, the
+ * size, and the position of each item. A document that imports another
+ * document, such as a profile importing a catalog, refers to it using a
+ * back-matter resource named for a generated document of the imported model
+ * with the same size and format (see {@link SyntheticModel#getFileName(int)}),
+ * so a set of documents generated with these names resolve against each other.
+ */
+public final class SyntheticDocumentGenerator {
+  private static final int CONTROLS_PER_GROUP = 10;
+  @NonNull
+  private static final String TIMESTAMP = "2023-10-24T00:00:00.000000-00:00";
+  @NonNull
+  private static final String ROLE_ID = "maintainer";
+
+  @NonNull
+  private final SyntheticModel model;
+  private final int size;
+  @NonNull
+  private final Format format;
+
+  /**
+   * Construct a new generator.
+   *
+   * @param model
+   *          the model of the document to generate
+   * @param size
+   *          the number of items to generate, as described by the model
+   * @param format
+   *          the format to generate
+   */
+  public SyntheticDocumentGenerator(@NonNull SyntheticModel model, int size, @NonNull Format format) {
+    if (size < 1) {
+      throw new IllegalArgumentException("The size must be a positive integer.");
+    }
+    this.model = model;
+    this.size = size;
+    this.format = format;
+  }
+
+  /**
+   * Generate the document to the provided file.
+   *
+   * @param destination
+   *          the file to write
+   * @throws IOException
+   *           if an error occurred while writing the document
+   */
+  public void generate(@NonNull Path destination) throws IOException {
+    if (format == Format.XML) {
+      try (Writer writer = Files.newBufferedWriter(destination, StandardCharsets.UTF_8)) {
+        writeXml(writer);
+      }
+    } else {
+      // the document is written as XML and converted, which ensures that the
+      // content is the same in every format
+      Path xml = Files.createTempFile("oscal-cli-generate", Format.XML.getDefaultExtension());
+      try {
+        try (Writer writer = Files.newBufferedWriter(xml, StandardCharsets.UTF_8)) {
+          writeXml(writer);
+        }
+        IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+        loader.convert(xml, destination, format, model.getRootClass());
+      } finally {
+        Files.deleteIfExists(xml);
+      }
+    }
+  }
+
+  /**
+   * Write the document as XML.
+   *
+   * @param writer
+   *          the writer to write to
+   * @throws IOException
+   *           if an error occurred while writing the document
+   */
+  public void writeXml(@NonNull Writer writer) throws IOException {
+    writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+    writer.write("<" + model.getRootName() + " xmlns=\"http://csrc.nist.gov/ns/oscal/1.0\" uuid=\""
+        + uuid("document") + "\">\n");
+    writeMetadata(writer);
+    switch (model) {
+    case ASSESSMENT_PLAN:
+      writeAssessmentPlan(writer);
+      break;
+    case ASSESSMENT_RESULTS:
+      writeAssessmentResults(writer);
+      break;
+    case CATALOG:
+      writeCatalog(writer);
+      break;
+    case COMPONENT_DEFINITION:
+      writeComponentDefinition(writer);
+      break;
+    case POAM:
+      writePoam(writer);
+      break;
+    case PROFILE:
+      writeProfile(writer);
+      break;
+    case SSP:
+      writeSystemSecurityPlan(writer);
+      break;
+    default:
+      // every model is handled above
+      throw new IllegalStateException("Unhandled model " + model);
+    }
+    writeBackMatter(writer);
+    writer.write("</" + model.getRootName() + ">\n");
+  }
+
+  @NonNull
+  private String uuid(@NonNull String seed) {
+    return nameUuid(model.getCommandName() + "/" + size + "/" + seed);
+  }
+
+  /**
+   * Create a version 5 (name-based, using SHA-1) UUID, since OSCAL only allows
+   * version 4 and 5 UUIDs.
+   *
+   * @param name
+   *          the name to derive the UUID from
+   * @return the UUID
+   */
+  @NonNull
+  private static String nameUuid(@NonNull String name) {
+    byte[] hash;
+    try {
+      hash = MessageDigest.getInstance("SHA-1").digest(name.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+    long msb = ByteBuffer.wrap(hash, 0, Long.BYTES).getLong();
+    long lsb = ByteBuffer.wrap(hash, Long.BYTES, Long.BYTES).getLong();
+    msb = msb & ~0xF000L | 0x5000L;
+    lsb = lsb & 0x3FFF_FFFF_FFFF_FFFFL | 0x8000_0000_0000_0000L;
+    return ObjectUtils.notNull(new UUID(msb, lsb).toString());
+  }
+
+  @NonNull
+  private static String controlId(int control) {
+    return "c-" + control;
+  }
+
+  @NonNull
+  private static String partyUuid() {
+    // shared by all models, so that generated documents agree on the party
+    return nameUuid("party");
+  }
+
+  private void writeMetadata(@NonNull Writer writer) throws IOException {
+    writer.write("  <metadata>\n"
+        + "    <title>Synthetic " + model.getRootName() + " with " + size + " Items</title>\n"
+        + "    <last-modified>" + TIMESTAMP + "</last-modified>\n"
+        + "    <version>1.0</version>\n"
+        + "    <oscal-version>1.1.1</oscal-version>\n"
+        + "    <role id=\"" + ROLE_ID + "\">\n"
+        + "      <title>Maintainer</title>\n"
+        + "    </role>\n"
+        + "    <party uuid=\"" + partyUuid() + "\" type=\"organization\">\n"
+        + "      <name>Synthetic Organization</name>\n"
+        + "    </party>\n"
+        + "    <responsible-party role-id=\"" + ROLE_ID + "\">\n"
+        + "      <party-uuid>" + partyUuid() + "</party-uuid>\n"
+        + "    </responsible-party>\n"
+        + "  </metadata>\n");
+  }
+
+  private void writeBackMatter(@NonNull Writer writer) throws IOException {
+    SyntheticModel importedModel = model.getImportedModel();
+    if (importedModel != null) {
+      writer.write("  <back-matter>\n"
+          + "    <resource uuid=\"" + uuid("import") + "\">\n"
+          + "      <rlink href=\"" + importedModel.getFileName(size) + format.getDefaultExtension() + "\"/>\n"
+          + "    </resource>\n"
+          + "  </back-matter>\n");
+    }
+  }
+
+  @NonNull
+  private String importHref() {
+    return "#" + uuid("import");
+  }
+
+  private void writeAssessmentPlan(@NonNull Writer writer) throws IOException {
+    writer.write("  <import-ssp href=\"" + importHref() + "\"/>\n"
+        + "  <reviewed-controls>\n"
+        + "    <control-selection>\n");
+    for (int control = 1; control <= size; control++) {
+      writer.write("      <include-control control-id=\"" + controlId(control) + "\"/>\n");
+    }
+    writer.write("    </control-selection>\n"
+        + "  </reviewed-controls>\n");
+  }
+
+  private void writeAssessmentResults(@NonNull Writer writer) throws IOException {
+    writer.write("  <import-ap href=\"" + importHref() + "\"/>\n"
+        + "  <result uuid=\"" + uuid("result") + "\">\n"
+        + "    <title>Synthetic Result</title>\n"
+        + "    <description>\n"
+        + "      <p>The results of a synthetic assessment.</p>\n"
+        + "    </description>\n"
+        + "    <start>" + TIMESTAMP + "</start>\n"
+        + "    <end>" + TIMESTAMP + "</end>\n"
+        + "    <reviewed-controls>\n"
+        + "      <control-selection>\n"
+        + "        <include-all/>\n"
+        + "      </control-selection>\n"
+        + "    </reviewed-controls>\n");
+    for (int observation = 1; observation <= size; observation++) {
+      writer.write("    <observation uuid=\"" + uuid("observation-" + observation) + "\">\n"
+          + "      <description>\n"
+          + "        <p>Observation " + observation + " of the synthetic assessment.</p>\n"
+          + "      </description>\n"
+          + "      <method>TEST</method>\n"
+          + "      <collected>" + TIMESTAMP + "</collected>\n"
+          + "    </observation>\n");
+    }
+    writer.write("  </result>\n");
+  }
+
+  private void writeCatalog(@NonNull Writer writer) throws IOException {
+    for (int control = 1; control <= size; control++) {
+      if (control % CONTROLS_PER_GROUP == 1) {
+        int group = control / CONTROLS_PER_GROUP + 1;
+        writer.write("  <group id=\"g-" + group + "\">\n"
+            + "    <title>Group " + group + "</title>\n");
+      }
+      String id = controlId(control);
+      writer.write("    <control id=\"" + id + "\">\n"
+          + "      <title>Control " + control + "</title>\n"
+          + "      <param id=\"" + id + "_prm_1\">\n"
+          + "        <label>frequency</label>\n"
+          + "      </param>\n"
+          + "      <part id=\"" + id + "_smt\" name=\"statement\">\n"
+          + "        <p>This statement is a requirement for Control " + control
+          + ", which is reviewed <insert type=\"param\" id-ref=\"" + id + "_prm_1\"/>.</p>\n"
+          + "      </part>\n"
+          + "    </control>\n");
+      if (control % CONTROLS_PER_GROUP == 0 || control == size) {
+        writer.write("  </group>\n");
+      }
+    }
+  }
+
+  private void writeComponentDefinition(@NonNull Writer writer) throws IOException {
+    writer.write("  <component uuid=\"" + uuid("component") + "\" type=\"software\">\n"
+        + "    <title>Synthetic Component</title>\n"
+        + "    <description>\n"
+        + "      <p>A synthetic software component.</p>\n"
+        + "    </description>\n"
+        + "    <control-implementation uuid=\"" + uuid("control-implementation") + "\" source=\"" + importHref()
+        + "\">\n"
+        + "      <description>\n"
+        + "        <p>The controls implemented by the synthetic component.</p>\n"
+        + "      </description>\n");
+    for (int control = 1; control <= size; control++) {
+      writer.write("      <implemented-requirement uuid=\"" + uuid("requirement-" + control) + "\" control-id=\""
+          + controlId(control) + "\">\n"
+          + "        <description>\n"
+          + "          <p>How the synthetic component implements Control " + control + ".</p>\n"
+          + "        </description>\n"
+          + "      </implemented-requirement>\n");
+    }
+    writer.write("    </control-implementation>\n"
+        + "  </component>\n");
+  }
+
+  private void writePoam(@NonNull Writer writer) throws IOException {
+    writer.write("  <import-ssp href=\"" + importHref() + "\"/>\n");
+    for (int item = 1; item <= size; item++) {
+      writer.write("  <poam-item uuid=\"" + uuid("poam-item-" + item) + "\">\n"
+          + "    <title>POA&amp;M Item " + item + "</title>\n"
+          + "    <description>\n"
+          + "      <p>The action planned to remediate synthetic issue " + item + ".</p>\n"
+          + "    </description>\n"
+          + "  </poam-item>\n");
+    }
+  }
+
+  private void writeProfile(@NonNull Writer writer) throws IOException {
+    writer.write("  <import href=\"" + importHref() + "\">\n"
+        + "    <include-controls>\n");
+    for (int control = 1; control <= size; control++) {
+      writer.write("      <with-id>" + controlId(control) + "</with-id>\n");
+    }
+    writer.write("    </include-controls>\n"
+        + "  </import>\n"
+        + "  <modify>\n");
+    for (int control = 1; control <= size; control++) {
+      writer.write("    <set-parameter param-id=\"" + controlId(control) + "_prm_1\">\n"
+          + "      <value>at least every " + (control % 12 + 1) + " months</value>\n"
+          + "    </set-parameter>\n");
+    }
+    writer.write("  </modify>\n");
+  }
+
+  private void writeSystemSecurityPlan(@NonNull Writer writer) throws IOException {
+    String componentUuid = uuid("component");
+    writer.write("  <import-profile href=\"" + importHref() + "\"/>\n"
+        + "  <system-characteristics>\n"
+        + "    <system-id identifier-type=\"http://ietf.org/rfc/rfc4122\">" + uuid("system") + "</system-id>\n"
+        + "    <system-name>Synthetic System</system-name>\n"
+        + "    <description>\n"
+        + "      <p>A synthetic system.</p>\n"
+        + "    </description>\n"
+        + "    <security-sensitivity-level>moderate</security-sensitivity-level>\n"
+        + "    <system-information>\n"
+        + "      <information-type uuid=\"" + uuid("information-type") + "\">\n"
+        + "        <title>Synthetic Information Type</title>\n"
+        + "        <description>\n"
+        + "          <p>The information processed by the synthetic system.</p>\n"
+        + "        </description>\n"
+        + "        <categorization system=\"https://doi.org/10.6028/NIST.SP.800-60v2r1\">\n"
+        + "          <information-type-id>C.2.8.12</information-type-id>\n"
+        + "        </categorization>\n"
+        + "        <confidentiality-impact>\n"
+        + "          <base>fips-199-moderate</base>\n"
+        + "        </confidentiality-impact>\n"
+        + "        <integrity-impact>\n"
+        + "          <base>fips-199-moderate</base>\n"
+        + "        </integrity-impact>\n"
+        + "        <availability-impact>\n"
+        + "          <base>fips-199-moderate</base>\n"
+        + "        </availability-impact>\n"
+        + "      </information-type>\n"
+        + "    </system-information>\n"
+        + "    <security-impact-level>\n"
+        + "      <security-objective-confidentiality>moderate</security-objective-confidentiality>\n"
+        + "      <security-objective-integrity>moderate</security-objective-integrity>\n"
+        + "      <security-objective-availability>moderate</security-objective-availability>\n"
+        + "    </security-impact-level>\n"
+        + "    <status state=\"operational\"/>\n"
+        + "    <authorization-boundary>\n"
+        + "      <description>\n"
+        + "        <p>The authorization boundary of the synthetic system.</p>\n"
+        + "      </description>\n"
+        + "    </authorization-boundary>\n"
+        + "  </system-characteristics>\n"
+        + "  <system-implementation>\n"
+        + "    <user uuid=\"" + uuid("user") + "\">\n"
+        + "      <title>System Administrator</title>\n"
+        + "      <role-id>" + ROLE_ID + "</role-id>\n"
+        + "    </user>\n"
+        + "    <component uuid=\"" + componentUuid + "\" type=\"this-system\">\n"
+        + "      <title>Synthetic System</title>\n"
+        + "      <description>\n"
+        + "        <p>The synthetic system as a whole.</p>\n"
+        + "      </description>\n"
+        + "      <status state=\"operational\"/>\n"
+        + "    </component>\n"
+        + "  </system-implementation>\n"
+        + "  <control-implementation>\n"
+        + "    <description>\n"
+        + "      <p>The controls implemented by the synthetic system.</p>\n"
+        + "    </description>\n");
+    for (int control = 1; control <= size; control++) {
+      writer.write("    <implemented-requirement uuid=\"" + uuid("requirement-" + control) + "\" control-id=\""
+          + controlId(control) + "\">\n"
+          + "      <by-component component-uuid=\"" + componentUuid + "\" uuid=\""
+          + uuid("by-component-" + control) + "\">\n"
+          + "        <description>\n"
+          + "          <p>How the synthetic system implements Control " + control + ".</p>\n"
+          + "        </description>\n"
+          + "        <implementation-status state=\"implemented\"/>\n"
+          + "      </by-component>\n"
+          + "    </implemented-requirement>\n");
+    }
+    writer.write("  </control-implementation>\n");
+  }
+}
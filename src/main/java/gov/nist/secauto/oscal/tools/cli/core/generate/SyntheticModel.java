@@ -0,0 +1,169 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.generate;
+
+import gov.nist.secauto.oscal.lib.model.AssessmentPlan;
+import gov.nist.secauto.oscal.lib.model.AssessmentResults;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+import gov.nist.secauto.oscal.lib.model.ComponentDefinition;
+import gov.nist.secauto.oscal.lib.model.PlanOfActionAndMilestones;
+import gov.nist.secauto.oscal.lib.model.Profile;
+import gov.nist.secauto.oscal.lib.model.SystemSecurityPlan;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * The OSCAL models that synthetic documents can be generated for, along with
+ * what the size of a generated document counts.
+ */
+public enum SyntheticModel {
+  /**
+   * An assessment plan, sized by the number of controls selected for review.
+   */
+  ASSESSMENT_PLAN("ap", "assessment-plan", AssessmentPlan.class, "SSP"),
+  /**
+   * An assessment results, sized by the number of observations in its result.
+   */
+  ASSESSMENT_RESULTS("ar", "assessment-results", AssessmentResults.class, "ASSESSMENT_PLAN"),
+  /**
+   * A catalog, sized by the number of controls, which are organized in groups of
+   * ten.
+   */
+  CATALOG("catalog", "catalog", Catalog.class, null),
+  /**
+   * A component definition, sized by the number of implemented requirements of
+   * its component.
+   */
+  COMPONENT_DEFINITION("component-definition", "component-definition", ComponentDefinition.class, "CATALOG"),
+  /**
+   * A plan of action and milestones, sized by the number of POA&amp;M items.
+   */
+  POAM("poam", "plan-of-action-and-milestones", PlanOfActionAndMilestones.class, "SSP"),
+  /**
+   * A profile, sized by the number of controls included and parameters set.
+   */
+  PROFILE("profile", "profile", Profile.class, "CATALOG"),
+  /**
+   * A system security plan, sized by the number of implemented requirements.
+   */
+  SSP("ssp", "system-security-plan", SystemSecurityPlan.class, "PROFILE");
+
+  @NonNull
+  private final String commandName;
+  @NonNull
+  private final String rootName;
+  @NonNull
+  private final Class<?> rootClass;
+  @Nullable
+  private final String importedModel;
+
+  SyntheticModel(
+      @NonNull String commandName,
+      @NonNull String rootName,
+      @NonNull Class<?> rootClass,
+      @Nullable String importedModel) {
+    this.commandName = commandName;
+    this.rootName = rootName;
+    this.rootClass = rootClass;
+    this.importedModel = importedModel;
+  }
+
+  /**
+   * Get the name of the CLI command for the model.
+   *
+   * @return the command name
+   */
+  @NonNull
+  public String getCommandName() {
+    return commandName;
+  }
+
+  /**
+   * Get the name of the model's root element.
+   *
+   * @return the root name
+   */
+  @NonNull
+  public String getRootName() {
+    return rootName;
+  }
+
+  /**
+   * Get the bound class of the model's root element.
+   *
+   * @return the bound class
+   */
+  @NonNull
+  public Class<?> getRootClass() {
+    return rootClass;
+  }
+
+  /**
+   * Get the model of the document imported by documents of this model.
+   *
+   * @return the imported model, or {@code null} if this model does not import
+   *         another document
+   */
+  @Nullable
+  public SyntheticModel getImportedModel() {
+    return importedModel == null ? null : valueOf(importedModel);
+  }
+
+  /**
+   * Get the file name, without an extension, of a generated document of this
+   * model with the provided size. Generated documents refer to the documents they
+   * import using this name.
+   *
+   * @param size
+   *          the size of the document
+   * @return the file name
+   */
+  @NonNull
+  public String getFileName(int size) {
+    return commandName + "-" + size;
+  }
+
+  /**
+   * Get the model with the provided command name.
+   *
+   * @param commandName
+   *          the command name
+   * @return the model, or {@code null} if no model has the command name
+   */
+  @Nullable
+  public static SyntheticModel forCommandName(@NonNull String commandName) {
+    SyntheticModel retval = null;
+    for (SyntheticModel model : values()) {
+      if (model.getCommandName().equals(commandName)) {
+        retval = model;
+        break;
+      }
+    }
+    return retval;
+  }
+}
@@ -27,6 +27,7 @@
 package gov.nist.secauto.oscal.tools.cli.core.operations;
 
 import gov.nist.secauto.metaschema.binding.io.xml.XmlUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 
 import net.sf.saxon.jaxp.SaxonTransformerFactory;
 
@@ -35,69 +36,238 @@ import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.xml.transform.Result;
 import javax.xml.transform.Source;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 
+import edu.umd.cs.findbugs.annotations.NonNull;
+
 public final class XMLOperations {
   private static final Logger LOGGER = LogManager.getLogger(XMLOperations.class);
 
+  /**
+   * Compiled stylesheets bundled with this tool, keyed by the stylesheet's system
+   * identifier. A {@link Templates} is thread-safe, so a single compiled instance
+   * can be shared by all renders in the process.
+   */
+  @NonNull
+  private static final Map<String, Templates> TEMPLATES_CACHE = new ConcurrentHashMap<>();
+  @NonNull
+  private static final AtomicLong TEMPLATES_CACHE_HITS = new AtomicLong();
+  @NonNull
+  private static final AtomicLong TEMPLATES_CACHE_MISSES = new AtomicLong();
+
   private XMLOperations() {
     // disable construction
   }
 
   public static void renderCatalogHTML(File input, File result) throws IOException, TransformerException {
-    render(input, result,
-        XmlUtil.getStreamSource(XMLOperations.class.getResource("/xsl/oscal-for-bootstrap-html.xsl")));
+    renderCatalogHTML(new StreamSource(input), new StreamResult(result));
+  }
+
+  /**
+   * Render the provided catalog as HTML.
+   *
+   * @param input
+   *          the catalog, which may be read from a stream
+   * @param result
+   *          the destination of the HTML, which may be a stream
+   * @throws IOException
+   *           if an error occurred while reading the stylesheet
+   * @throws TransformerException
+   *           if an error occurred while rendering
+   */
+  public static void renderCatalogHTML(@NonNull Source input, @NonNull Result result)
+      throws IOException, TransformerException {
+    render(input, result, getTemplates(getStylesheet("/xsl/oscal-for-bootstrap-html.xsl")));
   }
 
   public static void renderProfileHTML(File input, File result) throws IOException, TransformerException {
-    SaxonTransformerFactory transfomerFactory = (SaxonTransformerFactory) TransformerFactory.newInstance();
-    // Templates resolver = transfomerFactory.newTemplates();
-    // Templates renderer = transfomerFactory.newTemplates();
-
-    File temp = File.createTempFile("resolved-profile", ".xml");
-
-    try {
-      Transformer transformer = transfomerFactory
-          .newTransformer(XmlUtil.getStreamSource(XMLOperations.class.getResource("/xsl/profile-resolver.xsl")));
-      transformer.transform(new StreamSource(input), new StreamResult(temp));
-
-      transformer = transfomerFactory.newTransformer(
-          XmlUtil.getStreamSource(XMLOperations.class.getResource("/xsl/oscal-for-bootstrap-html.xsl")));
-      transformer.transform(new StreamSource(temp), new StreamResult(result));
-    } finally {
-      if (!temp.delete()) {
-        LOGGER.atError().log("failed to delete file: {}", temp);
+    renderProfileHTML(new StreamSource(input), new StreamResult(result));
+  }
+
+  /**
+   * Resolve the provided profile and render the resulting catalog as HTML.
+   *
+   * @param input
+   *          the profile, which may be read from a stream, whose system
+   *          identifier is used to resolve its imports
+   * @param result
+   *          the destination of the HTML, which may be a stream
+   * @throws IOException
+   *           if an error occurred while reading the stylesheets
+   * @throws TransformerException
+   *           if an error occurred while resolving or rendering
+   */
+  public static void renderProfileHTML(@NonNull Source input, @NonNull Result result)
+      throws IOException, TransformerException {
+    Templates resolver = getTemplates(getStylesheet("/xsl/profile-resolver.xsl"));
+    Templates renderer = getTemplates(getStylesheet("/xsl/oscal-for-bootstrap-html.xsl"));
+
+    // the resolved profile is streamed as SAX events directly into the renderer,
+    // avoiding serializing and re-parsing the intermediate document
+    TransformerHandler rendererHandler = newTransformerFactory().newTransformerHandler(renderer);
+    rendererHandler.setSystemId(input.getSystemId());
+    rendererHandler.setResult(result);
+
+    Transformer transformer = resolver.newTransformer();
+    transformer.transform(input, new SAXResult(rendererHandler));
+  }
+
+  /**
+   * Transform the provided file using the provided stylesheet.
+   * <p>
+   * The stylesheet is compiled for this transformation only. Unlike the
+   * stylesheets bundled with this tool, it is not cached, since its content may
+   * change under the same system identifier. The stylesheet source is left open
+   * for the caller to close.
+   *
+   * @param input
+   *          the document to transform
+   * @param result
+   *          the file to write the output to
+   * @param transform
+   *          the stylesheet
+   * @throws TransformerException
+   *           if an error occurred while compiling the stylesheet or transforming
+   */
+  public static void render(File input, File result, Source transform) throws TransformerException {
+    render(input, result, ObjectUtils.notNull(newTransformerFactory().newTemplates(transform)));
+  }
+
+  public static void render(File input, File result, @NonNull Templates templates) throws TransformerException {
+    render(new StreamSource(input), new StreamResult(result), templates);
+  }
+
+  /**
+   * Transform the provided source using a compiled stylesheet.
+   *
+   * @param input
+   *          the document to transform, which may be read from a stream
+   * @param result
+   *          the destination of the output, which may be a stream
+   * @param templates
+   *          the compiled stylesheet
+   * @throws TransformerException
+   *           if an error occurred while transforming
+   */
+  public static void render(@NonNull Source input, @NonNull Result result, @NonNull Templates templates)
+      throws TransformerException {
+    Transformer transformer = templates.newTransformer();
+    transformer.transform(input, result);
+  }
+
+  /**
+   * Get the compiled form of the provided stylesheet, compiling it on first use.
+   *
+   * @param stylesheet
+   *          the location of the stylesheet
+   * @return the compiled stylesheet
+   * @throws IOException
+   *           if an error occurred while reading the stylesheet
+   * @throws TransformerException
+   *           if an error occurred while compiling the stylesheet
+   */
+  @NonNull
+  public static Templates getTemplates(@NonNull URL stylesheet) throws IOException, TransformerException {
+    return getTemplates(ObjectUtils.notNull(stylesheet.toString()), () -> XmlUtil.getStreamSource(stylesheet));
+  }
+
+  @NonNull
+  private static Templates getTemplates(@NonNull String systemId, @NonNull SourceSupplier supplier)
+      throws IOException, TransformerException {
+    Templates retval = TEMPLATES_CACHE.get(systemId);
+    if (retval == null) {
+      TEMPLATES_CACHE_MISSES.incrementAndGet();
+
+      Source source = supplier.get();
+      try {
+        retval = newTransformerFactory().newTemplates(source);
+      } finally {
+        closeSource(source);
       }
+
+      // another thread may have compiled the same stylesheet concurrently
+      Templates existing = TEMPLATES_CACHE.putIfAbsent(systemId, retval);
+      if (existing != null) {
+        retval = existing;
+      }
+    } else {
+      TEMPLATES_CACHE_HITS.incrementAndGet();
     }
 
-    // TransformerHandler resolverHandler = transfomerFactory.newTransformerHandler(resolver);
-    // TransformerHandler rendererHandler = transfomerFactory.newTransformerHandler(renderer);
-    //
-    // resolverHandler.setResult(new SAXResult(rendererHandler));
-    // rendererHandler.setResult(new StreamResult(result));
-    //
-    // Transformer t = transfomerFactory.newTransformer();
-    // File sourceFile = input.getAbsoluteFile();
-    // StreamSource source = new StreamSource();
-    // String sourceSystemId = sourceFile.toURI().toASCIIString();
-    // log.info("Source: "+sourceSystemId);
-    // source.setSystemId(sourceSystemId);
-    // t.setURIResolver(new LoggingURIResolver(t.getURIResolver()));
-    // resolver.setParameter("document-uri", sourceSystemId);
-    // t.transform(source, new SAXResult(resolverHandler));
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Stylesheet cache lookup for '{}' (hits: {}, misses: {}).",
+          systemId,
+          getTemplatesCacheHits(),
+          getTemplatesCacheMisses());
+    }
+    return ObjectUtils.notNull(retval);
   }
 
-  public static void render(File input, File result, Source transform) throws TransformerException {
-    TransformerFactory transfomerFactory = TransformerFactory.newInstance();
-    assert transfomerFactory instanceof SaxonTransformerFactory;
-    Transformer transformer = transfomerFactory.newTransformer(transform);
-    transformer.transform(new StreamSource(input), new StreamResult(result));
+  /**
+   * Get the number of stylesheet lookups that were satisfied by a previously
+   * compiled stylesheet.
+   *
+   * @return the hit count
+   */
+  public static long getTemplatesCacheHits() {
+    return TEMPLATES_CACHE_HITS.get();
+  }
+
+  /**
+   * Get the number of stylesheet lookups that required the stylesheet to be
+   * compiled.
+   *
+   * @return the miss count
+   */
+  public static long getTemplatesCacheMisses() {
+    return TEMPLATES_CACHE_MISSES.get();
+  }
+
+  @NonNull
+  private static URL getStylesheet(@NonNull String resource) {
+    return ObjectUtils.requireNonNull(XMLOperations.class.getResource(resource));
+  }
+
+  @NonNull
+  private static SAXTransformerFactory newTransformerFactory() {
+    TransformerFactory retval = TransformerFactory.newInstance();
+    assert retval instanceof SaxonTransformerFactory;
+    return (SAXTransformerFactory) retval;
+  }
+
+  private static void closeSource(@NonNull Source source) {
+    if (source instanceof StreamSource) {
+      InputStream is = ((StreamSource) source).getInputStream();
+      if (is != null) {
+        try {
+          is.close();
+        } catch (IOException ex) {
+          LOGGER.atWarn().withThrowable(ex).log("Unable to close stylesheet '{}'.", source.getSystemId());
+        }
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface SourceSupplier {
+    @NonNull
+    Source get() throws IOException;
   }
 
   // private static class LoggingURIResolver implements URIResolver {
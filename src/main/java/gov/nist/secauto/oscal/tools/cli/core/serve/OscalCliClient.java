@@ -0,0 +1,226 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.serve;
+
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.oscal.tools.cli.core.CLI;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A thin client that forwards a CLI invocation to a running
+ * {@link OscalCliServer}, avoiding the startup cost of a full CLI process.
+ * <p>
+ * The server port is read from the {@code oscal-cli.port} system property or
+ * the {@code OSCAL_CLI_PORT} environment variable, and defaults to
+ * {@link OscalCliServer#DEFAULT_PORT}. The client authenticates using the token
+ * the server wrote to {@link OscalCliServer#getTokenFile(int)}. If no server
+ * was started on the port by the current user, or no server is listening, the
+ * invocation runs in this process instead.
+ */
+public final class OscalCliClient {
+  @NonNull
+  private static final String PORT_PROPERTY = "oscal-cli.port";
+  @NonNull
+  private static final String PORT_ENVIRONMENT_VARIABLE = "OSCAL_CLI_PORT";
+  private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+  private static final int MAX_PORT = 65_535;
+
+  private OscalCliClient() {
+    // disable construction
+  }
+
+  @SuppressWarnings("PMD.SystemPrintln") // the client has no logger configured
+  public static void main(String[] args) {
+    int port;
+    try {
+      port = getPort();
+    } catch (IllegalArgumentException ex) {
+      System.err.println(ex.getLocalizedMessage());
+      System.exit(ExitCode.INVALID_ARGUMENTS.getStatusCode());
+      return;
+    }
+
+    int exitCode;
+    try {
+      String token = readToken(port);
+      if (token == null) {
+        CLI.main(args);
+        return;
+      }
+      exitCode = run(port, token, Paths.get("").toAbsolutePath(), Arrays.asList(args), System.out, System.err);
+    } catch (ConnectException ex) {
+      CLI.main(args);
+      return;
+    } catch (IOException ex) {
+      System.err.println("Unable to communicate with the oscal-cli server. " + ex.getLocalizedMessage());
+      exitCode = ExitCode.IO_ERROR.getStatusCode();
+    }
+    System.exit(exitCode);
+  }
+
+  /**
+   * Get the port of the server.
+   *
+   * @return the port
+   * @throws IllegalArgumentException
+   *           if the configured port is not a valid port number
+   */
+  static int getPort() {
+    String value = System.getProperty(PORT_PROPERTY, System.getenv(PORT_ENVIRONMENT_VARIABLE));
+    int retval = OscalCliServer.DEFAULT_PORT;
+    if (value != null) {
+      boolean valid;
+      try {
+        retval = Integer.parseInt(value.trim());
+        valid = retval >= 1 && retval <= MAX_PORT;
+      } catch (NumberFormatException ex) {
+        valid = false;
+      }
+      if (!valid) {
+        throw new IllegalArgumentException(String.format(
+            "Invalid port '%s' in the %s property or %s environment variable."
+                + " The port must be an integer from 1 to %d.",
+            value,
+            PORT_PROPERTY,
+            PORT_ENVIRONMENT_VARIABLE,
+            MAX_PORT));
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Read the token of the server listening on the provided port.
+   *
+   * @param port
+   *          the port the server is listening on
+   * @return the token, or {@code null} if no server was started on the port by
+   *         the current user
+   * @throws IOException
+   *           if the token file could not be read
+   */
+  @Nullable
+  static String readToken(int port) throws IOException {
+    String retval;
+    try {
+      retval = new String(Files.readAllBytes(OscalCliServer.getTokenFile(port)), StandardCharsets.UTF_8).trim();
+    } catch (NoSuchFileException ex) {
+      retval = null;
+    }
+    return retval;
+  }
+
+  /**
+   * Run the CLI invocation on the server listening on the provided port.
+   *
+   * @param port
+   *          the port the server is listening on
+   * @param token
+   *          the token of the server
+   * @param cwd
+   *          the directory the server resolves relative paths against
+   * @param args
+   *          the CLI arguments
+   * @param out
+   *          the stream to write the invocation's standard output to
+   * @param err
+   *          the stream to write the invocation's standard error to
+   * @return the exit code of the invocation
+   * @throws ConnectException
+   *           if no server is listening on the port
+   * @throws IOException
+   *           if an error occurred while communicating with the server
+   */
+  public static int run(
+      int port,
+      @NonNull String token,
+      @NonNull Path cwd,
+      @NonNull List<String> args,
+      @NonNull PrintStream out,
+      @NonNull PrintStream err) throws IOException {
+    JSONObject request = new JSONObject();
+    request.put("cwd", cwd.toString());
+    request.put("args", new JSONArray(args));
+
+    URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), port, OscalCliServer.RUN_PATH);
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    try {
+      connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+      connection.setRequestMethod("POST");
+      connection.setDoOutput(true);
+      connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+      connection.setRequestProperty("Authorization", "Bearer " + token);
+      try (OutputStream os = connection.getOutputStream()) {
+        os.write(request.toString().getBytes(StandardCharsets.UTF_8));
+      }
+
+      int statusCode = connection.getResponseCode();
+      if (statusCode != HttpURLConnection.HTTP_OK) {
+        try (InputStream is = connection.getErrorStream()) {
+          JSONObject response = new JSONObject(new JSONTokener(is));
+          err.println(response.optString("error", "The server responded with status " + statusCode + "."));
+        }
+        return ExitCode.RUNTIME_ERROR.getStatusCode();
+      }
+
+      JSONObject response;
+      try (InputStream is = connection.getInputStream()) {
+        response = new JSONObject(new JSONTokener(is));
+      }
+      out.write(Base64.getDecoder().decode(response.getString("stdout")));
+      out.flush();
+      err.write(Base64.getDecoder().decode(response.getString("stderr")));
+      err.flush();
+      return response.getInt("exitCode");
+    } finally {
+      connection.disconnect();
+    }
+  }
+}
@@ -0,0 +1,689 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.serve;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import gov.nist.secauto.metaschema.cli.processor.CLIProcessor;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.cli.processor.command.ICommand;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.tools.cli.core.CLI;
+import gov.nist.secauto.oscal.tools.cli.core.commands.profile.ImportDocumentCache;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+import org.fusesource.jansi.AnsiConsole;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A long-running server that executes CLI invocations in a warm process.
+ * <p>
+ * The server listens on the loopback interface only and provides the following
+ * endpoints:
+ * <ul>
+ * <li>{@code POST /run}: runs the CLI with the arguments provided in a JSON
+ * request body of the form
+ * <code>{"cwd": "/home/user/work", "args": ["catalog", "validate", "catalog.xml"]}</code>.
+ * The response is a JSON object providing the {@code exitCode} and the base64
+ * encoded {@code stdout} and {@code stderr} bytes produced by the invocation.
+ * Commands run by the server cannot read standard input.</li>
+ * <li>{@code GET /health}: reports the server status.</li>
+ * <li>{@code POST /shutdown}: stops the server.</li>
+ * </ul>
+ * <p>
+ * On start, the server generates a secret token and writes it to a file only
+ * readable by the current user (see {@link #getTokenFile(int)}). Every request
+ * must provide this token in an {@code Authorization: Bearer} header, must name
+ * a loopback host in its {@code Host} header, and must not provide an
+ * {@code Origin} header. {@code POST} requests must also use the
+ * {@code application/json} content type. Together, these checks keep web pages
+ * opened in a local browser and other users on the same machine from running
+ * commands.
+ * <p>
+ * Relative paths in the arguments are resolved against the {@code cwd} of the
+ * request, which must be an absolute path.
+ */
+public class OscalCliServer {
+  private static final Logger LOGGER = LogManager.getLogger(OscalCliServer.class);
+
+  /**
+   * The port used when none is specified.
+   */
+  public static final int DEFAULT_PORT = 8765;
+  @NonNull
+  static final String RUN_PATH = "/run";
+  @NonNull
+  static final String HEALTH_PATH = "/health";
+  @NonNull
+  static final String SHUTDOWN_PATH = "/shutdown";
+  @NonNull
+  private static final String SERVE_COMMAND = "serve";
+  @NonNull
+  private static final String BEARER_PREFIX = "Bearer ";
+  @NonNull
+  private static final String JSON_MEDIA_TYPE = "application/json";
+  @NonNull
+  private static final Set<String> LOOPBACK_HOSTS = ObjectUtils.notNull(Set.of("localhost", "127.0.0.1", "[::1]"));
+  private static final int TOKEN_BYTES = 32;
+  @NonNull
+  private static final SecureRandom TOKEN_RANDOM = new SecureRandom();
+
+  @NonNull
+  private static final AtomicBoolean REQUEST_STREAMS_INSTALLED = new AtomicBoolean();
+
+  @NonNull
+  private final HttpServer server;
+  @NonNull
+  private final String token;
+  /**
+   * The commands used to find the paths in request arguments.
+   */
+  @NonNull
+  private final List<ICommand> commands = CLI.newCommandHandlers();
+  @NonNull
+  private final Path tokenFile;
+  @NonNull
+  private final ExecutorService executor;
+  /**
+   * Limits the number of requests that are running or waiting to run.
+   */
+  @NonNull
+  private final Semaphore admitted;
+  /**
+   * Limits the number of requests that are running.
+   */
+  @NonNull
+  private final Semaphore running;
+  private final int maxConcurrent;
+  @NonNull
+  private final AtomicLong served = new AtomicLong();
+  @NonNull
+  private final CountDownLatch stopped = new CountDownLatch(1);
+
+  /**
+   * Construct a new server bound to the loopback interface.
+   *
+   * @param port
+   *          the port to listen on, or {@code 0} to use an ephemeral port
+   * @param maxConcurrent
+   *          the maximum number of requests to run at the same time
+   * @param maxQueued
+   *          the maximum number of requests to hold while waiting to run, after
+   *          which requests are rejected as busy
+   * @throws IOException
+   *           if the server socket could not be bound
+   */
+  public OscalCliServer(int port, int maxConcurrent, int maxQueued) throws IOException {
+    this.server = ObjectUtils.notNull(
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0));
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = ObjectUtils.notNull(Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "oscal-cli-serve-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }));
+    this.maxConcurrent = maxConcurrent;
+    byte[] tokenBytes = new byte[TOKEN_BYTES];
+    TOKEN_RANDOM.nextBytes(tokenBytes);
+    this.token = ObjectUtils.notNull(Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes));
+    this.tokenFile = getTokenFile(server.getAddress().getPort());
+    this.admitted = new Semaphore(maxConcurrent + maxQueued);
+    this.running = new Semaphore(maxConcurrent, true);
+
+    server.setExecutor(executor);
+    server.createContext(RUN_PATH, this::handleRun);
+    server.createContext(HEALTH_PATH, this::handleHealth);
+    server.createContext(SHUTDOWN_PATH, this::handleShutdown);
+  }
+
+  /**
+   * Get the port the server is listening on.
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Get the file the token of a server listening on the provided port is written
+   * to.
+   *
+   * @param port
+   *          the port the server is listening on
+   * @return the token file
+   */
+  @NonNull
+  public static Path getTokenFile(int port) {
+    return ObjectUtils.notNull(Paths.get(System.getProperty("user.home"), ".oscal-cli", "serve-" + port + ".token"));
+  }
+
+  /**
+   * Start accepting requests.
+   * <p>
+   * The OSCAL binding context is initialized before the server starts, so that
+   * the first request does not pay for it. Imports are cached across requests.
+   *
+   * @throws IOException
+   *           if the token file could not be written
+   */
+  public void start() throws IOException {
+    installRequestStreams();
+    OscalBindingContext.instance();
+    ImportDocumentCache.instance().setEnabled(true);
+    writeToken(tokenFile, token);
+    server.start();
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Listening on {}:{} with {} concurrent requests.",
+          server.getAddress().getHostString(),
+          getPort(),
+          maxConcurrent);
+    }
+  }
+
+  /**
+   * Stop the server, waiting briefly for running requests to complete.
+   */
+  public void stop() {
+    server.stop(1);
+    executor.shutdownNow();
+    deleteToken();
+    stopped.countDown();
+  }
+
+  /**
+   * Wait until the server has been stopped.
+   *
+   * @throws InterruptedException
+   *           if the current thread was interrupted while waiting
+   */
+  public void awaitShutdown() throws InterruptedException {
+    stopped.await();
+  }
+
+  private void handleRun(@NonNull HttpExchange exchange) throws IOException {
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        sendError(exchange, HttpURLConnection.HTTP_BAD_METHOD, "Use POST.");
+        return;
+      }
+      if (!authorize(exchange)) {
+        return;
+      }
+
+      List<String> args;
+      Path cwd;
+      try (InputStream is = exchange.getRequestBody()) {
+        JSONObject request = new JSONObject(new JSONTokener(is));
+        args = parseArgs(request);
+        cwd = Paths.get(request.getString("cwd"));
+      } catch (JSONException | InvalidPathException ex) {
+        sendError(exchange, HttpURLConnection.HTTP_BAD_REQUEST, "Invalid request. " + ex.getMessage());
+        return;
+      }
+      if (!cwd.isAbsolute()) {
+        sendError(exchange, HttpURLConnection.HTTP_BAD_REQUEST, "The cwd must be an absolute path.");
+        return;
+      }
+
+      if (!args.isEmpty() && SERVE_COMMAND.equals(args.get(0))) {
+        sendError(exchange, HttpURLConnection.HTTP_BAD_REQUEST, "The serve command cannot be run by the server.");
+        return;
+      }
+
+      if (!admitted.tryAcquire()) {
+        sendError(exchange, HttpURLConnection.HTTP_UNAVAILABLE, "The server is busy.");
+        return;
+      }
+      try {
+        running.acquire();
+        try {
+          send(exchange, HttpURLConnection.HTTP_OK, run(ObjectUtils.notNull(cwd), args));
+        } finally {
+          running.release();
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        sendError(exchange, HttpURLConnection.HTTP_UNAVAILABLE, "The server is shutting down.");
+      } finally {
+        admitted.release();
+      }
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void handleHealth(@NonNull HttpExchange exchange) throws IOException {
+    try {
+      if (!authorize(exchange)) {
+        return;
+      }
+      JSONObject response = new JSONObject();
+      response.put("status", "ok");
+      response.put("running", maxConcurrent - running.availablePermits());
+      response.put("served", served.get());
+      send(exchange, HttpURLConnection.HTTP_OK, response);
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void handleShutdown(@NonNull HttpExchange exchange) throws IOException {
+    try {
+      if (!"POST".equals(exchange.getRequestMethod())) {
+        sendError(exchange, HttpURLConnection.HTTP_BAD_METHOD, "Use POST.");
+        return;
+      }
+      if (!authorize(exchange)) {
+        return;
+      }
+      JSONObject response = new JSONObject();
+      response.put("status", "stopping");
+      send(exchange, HttpURLConnection.HTTP_OK, response);
+    } finally {
+      exchange.close();
+    }
+    // stop from another thread, since stopping waits for this exchange's thread
+    Thread stopper = new Thread(this::stop, "oscal-cli-serve-shutdown");
+    stopper.setDaemon(true);
+    stopper.start();
+  }
+
+  /**
+   * Write the token to a file that only the current user can read, replacing the
+   * file of any server that previously used the same port.
+   *
+   * @param file
+   *          the file to write
+   * @param token
+   *          the token to write
+   * @throws IOException
+   *           if the file could not be written
+   */
+  private static void writeToken(@NonNull Path file, @NonNull String token) throws IOException {
+    Path dir = ObjectUtils.notNull(file.getParent());
+    Path temp;
+    if (dir.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+      Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+      temp = Files.createTempFile(dir, "serve-", ".tmp",
+          PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } else {
+      Files.createDirectories(dir);
+      temp = Files.createTempFile(dir, "serve-", ".tmp");
+    }
+    try {
+      Files.write(temp, token.getBytes(StandardCharsets.UTF_8));
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Delete the token file, unless it has since been replaced by another server.
+   */
+  private void deleteToken() {
+    try {
+      if (token.equals(new String(Files.readAllBytes(tokenFile), StandardCharsets.UTF_8))) {
+        Files.delete(tokenFile);
+      }
+    } catch (NoSuchFileException ex) {
+      // already deleted
+    } catch (IOException ex) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Unable to delete the token file '{}'. {}", tokenFile, ex.getLocalizedMessage());
+      }
+    }
+  }
+
+  /**
+   * Check that the request comes from a local client of the user that started the
+   * server, sending an error response if not.
+   *
+   * @param exchange
+   *          the request
+   * @return {@code true} if the request can be handled, or {@code false} if an
+   *         error response was sent
+   * @throws IOException
+   *           if an error occurred while sending the error response
+   */
+  private boolean authorize(@NonNull HttpExchange exchange) throws IOException {
+    Headers headers = exchange.getRequestHeaders();
+    int statusCode = HttpURLConnection.HTTP_FORBIDDEN;
+    String error = null;
+    if (headers.containsKey("Origin")) {
+      error = "Cross-origin requests are not allowed.";
+    } else if (!isLoopbackHost(headers.getFirst("Host"))) {
+      error = "The Host header must name the loopback interface.";
+    } else if (!hasToken(headers.getFirst("Authorization"))) {
+      statusCode = HttpURLConnection.HTTP_UNAUTHORIZED;
+      error = "The request does not provide the server's token.";
+    } else if ("POST".equals(exchange.getRequestMethod()) && !isJson(headers.getFirst("Content-Type"))) {
+      statusCode = HttpURLConnection.HTTP_UNSUPPORTED_TYPE;
+      error = "The request content type must be " + JSON_MEDIA_TYPE + ".";
+    }
+
+    if (error != null) {
+      sendError(exchange, statusCode, error);
+    }
+    return error == null;
+  }
+
+  private static boolean isLoopbackHost(@Nullable String host) {
+    boolean retval = false;
+    if (host != null) {
+      String name = host;
+      int portIndex = host.lastIndexOf(':');
+      // a colon inside brackets is part of an IPv6 address
+      if (portIndex > host.lastIndexOf(']')) {
+        name = host.substring(0, portIndex);
+      }
+      retval = LOOPBACK_HOSTS.contains(name.toLowerCase(Locale.ROOT));
+    }
+    return retval;
+  }
+
+  private boolean hasToken(@Nullable String authorization) {
+    // compare in constant time to avoid leaking the token through response timing
+    return authorization != null
+        && authorization.startsWith(BEARER_PREFIX)
+        && MessageDigest.isEqual(
+            authorization.substring(BEARER_PREFIX.length()).getBytes(StandardCharsets.UTF_8),
+            token.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static boolean isJson(@Nullable String contentType) {
+    return contentType != null
+        && JSON_MEDIA_TYPE.equalsIgnoreCase(contentType.split(";", 2)[0].trim());
+  }
+
+  @NonNull
+  private static List<String> parseArgs(@NonNull JSONObject request) {
+    JSONArray array = request.getJSONArray("args");
+    List<String> retval = new ArrayList<>(array.length());
+    for (int index = 0; index < array.length(); index++) {
+      retval.add(array.getString(index));
+    }
+    return retval;
+  }
+
+  /**
+   * Run the CLI with the provided arguments, capturing the output written by the
+   * current thread.
+   *
+   * @param cwd
+   *          the directory to resolve relative paths against
+   * @param args
+   *          the CLI arguments
+   * @return the JSON response describing the result
+   */
+  @NonNull
+  private JSONObject run(@NonNull Path cwd, @NonNull List<String> args) {
+    boolean quiet = false;
+    List<String> effectiveArgs = new ArrayList<>(args.size());
+    for (String arg : args) {
+      // quiet is handled per request, since the CLI implements it by changing the
+      // global log level
+      if (isQuietOption(arg)) {
+        quiet = true;
+      } else {
+        effectiveArgs.add(arg);
+      }
+    }
+
+    Request request = new Request(quiet);
+    RequestScope.set(request);
+    int exitCode;
+    try {
+      ExitStatus status = CLI.runCli(PathArguments.resolve(cwd, effectiveArgs, commands).toArray(new String[0]));
+      exitCode = status.getExitCode().getStatusCode();
+    } catch (RuntimeException ex) {
+      if (LOGGER.isErrorEnabled()) {
+        LOGGER.error(String.format("An uncaught runtime error occured. %s", ex.getLocalizedMessage()), ex);
+      }
+      exitCode = ExitCode.RUNTIME_ERROR.getStatusCode();
+    } finally {
+      System.out.flush();
+      System.err.flush();
+      RequestScope.clear();
+    }
+    served.incrementAndGet();
+
+    JSONObject response = new JSONObject();
+    response.put("exitCode", exitCode);
+    // the output is encoded, since it may be binary, such as compressed output
+    response.put("stdout", Base64.getEncoder().encodeToString(request.getStdout().toByteArray()));
+    response.put("stderr", Base64.getEncoder().encodeToString(request.getStderr().toByteArray()));
+    return response;
+  }
+
+  private static boolean isQuietOption(@NonNull String arg) {
+    String shortOpt = CLIProcessor.QUIET_OPTION.getOpt();
+    String longOpt = CLIProcessor.QUIET_OPTION.getLongOpt();
+    return arg.equals("-" + shortOpt) || arg.equals("--" + longOpt);
+  }
+
+  private static void sendError(@NonNull HttpExchange exchange, int statusCode, @NonNull String message)
+      throws IOException {
+    JSONObject response = new JSONObject();
+    response.put("error", message);
+    send(exchange, statusCode, response);
+  }
+
+  private static void send(@NonNull HttpExchange exchange, int statusCode, @NonNull JSONObject response)
+      throws IOException {
+    byte[] body = response.toString().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+    exchange.sendResponseHeaders(statusCode, body.length);
+    try (OutputStream os = exchange.getResponseBody()) {
+      os.write(body);
+    }
+  }
+
+  /**
+   * Route {@link System#out}, {@link System#err}, and log output to the request
+   * being handled by the current thread. Output from threads not handling a
+   * request is passed through unchanged.
+   * <p>
+   * Reading {@link System#in} fails for threads handling a request, since the
+   * server's standard input does not belong to the client.
+   */
+  private static void installRequestStreams() {
+    if (REQUEST_STREAMS_INSTALLED.compareAndSet(false, true)) {
+      // install the ANSI console streams now, since the CLI processor would
+      // otherwise replace the routing streams when it first installs them
+      AnsiConsole.systemInstall();
+      System.setOut(new PrintStream(new RequestOutputStream(System.out, Request::getStdout), true,
+          StandardCharsets.UTF_8));
+      System.setErr(new PrintStream(new RequestOutputStream(System.err, Request::getStderr), true,
+          StandardCharsets.UTF_8));
+      System.setIn(new RequestInputStream(System.in));
+
+      LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
+      ctx.getConfiguration().getRootLogger().addFilter(new QuietRequestFilter());
+      ctx.updateLoggers();
+    }
+  }
+
+  static final class Request {
+    private final boolean quiet;
+    @NonNull
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    @NonNull
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+    private Request(boolean quiet) {
+      this.quiet = quiet;
+    }
+
+    public boolean isQuiet() {
+      return quiet;
+    }
+
+    @NonNull
+    public ByteArrayOutputStream getStdout() {
+      return stdout;
+    }
+
+    @NonNull
+    public ByteArrayOutputStream getStderr() {
+      return stderr;
+    }
+  }
+
+  private static final class RequestOutputStream
+      extends OutputStream {
+    @NonNull
+    private final OutputStream defaultStream;
+    @NonNull
+    private final Function<Request, OutputStream> requestStream;
+
+    private RequestOutputStream(
+        @NonNull OutputStream defaultStream,
+        @NonNull Function<Request, OutputStream> requestStream) {
+      this.defaultStream = defaultStream;
+      this.requestStream = requestStream;
+    }
+
+    @NonNull
+    private OutputStream target() {
+      Request request = RequestScope.get();
+      return request == null ? defaultStream : ObjectUtils.notNull(requestStream.apply(request));
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+      target().write(value);
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+      target().write(bytes, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      target().flush();
+    }
+  }
+
+  private static final class RequestInputStream
+      extends InputStream {
+    @NonNull
+    private final InputStream defaultStream;
+
+    private RequestInputStream(@NonNull InputStream defaultStream) {
+      this.defaultStream = defaultStream;
+    }
+
+    @NonNull
+    private InputStream source() throws IOException {
+      if (RequestScope.get() != null) {
+        throw new IOException("Standard input cannot be read by commands run by the oscal-cli server."
+            + " Run oscal-cli directly to read from standard input.");
+      }
+      return defaultStream;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return source().read();
+    }
+
+    @Override
+    public int read(byte[] bytes, int off, int len) throws IOException {
+      return source().read(bytes, off, len);
+    }
+
+    @Override
+    public int available() throws IOException {
+      return source().available();
+    }
+  }
+
+  /**
+   * Drops non-error log events for requests that asked for quiet output.
+   */
+  private static final class QuietRequestFilter
+      extends AbstractFilter {
+
+    @Override
+    public Result filter(@Nullable LogEvent event) {
+      Request request = RequestScope.get();
+      return request != null && request.isQuiet() && event != null && !event.getLevel().isMoreSpecificThan(Level.ERROR)
+          ? Result.DENY
+          : Result.NEUTRAL;
+    }
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.serve;
+
+import gov.nist.secauto.metaschema.cli.processor.CLIProcessor;
+import gov.nist.secauto.metaschema.cli.processor.command.ICommand;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Resolves the relative paths in a CLI invocation against the working directory
+ * of the client that sent it.
+ * <p>
+ * The arguments are parsed using the options of the called command, in the same
+ * way as the {@link CLIProcessor}. Every extra argument is treated as a path,
+ * as is the value of every option whose argument is named {@code DIR} or
+ * {@code FILE}. URIs and {@code -} are left unchanged.
+ */
+final class PathArguments {
+  @NonNull
+  private static final Set<String> PATH_ARGUMENT_NAMES = ObjectUtils.notNull(Set.of("DIR", "FILE"));
+  /**
+   * Matches a URI scheme, while excluding Windows drive letters.
+   */
+  @NonNull
+  private static final Pattern URI_PATTERN = Pattern.compile("^[a-zA-Z][a-zA-Z0-9+.-]+:");
+
+  private PathArguments() {
+    // disable construction
+  }
+
+  /**
+   * Resolve the relative paths in the provided arguments.
+   * <p>
+   * The returned arguments list the commands, then the options, then the extra
+   * arguments following {@code --}. If the arguments cannot be parsed, they are
+   * returned unchanged, so that the CLI reports the error.
+   *
+   * @param cwd
+   *          the directory to resolve relative paths against
+   * @param args
+   *          the CLI arguments
+   * @param commands
+   *          the top-level commands of the CLI
+   * @return the arguments with relative paths resolved
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  @NonNull
+  public static List<String> resolve(
+      @NonNull Path cwd,
+      @NonNull List<String> args,
+      @NonNull Collection<? extends ICommand> commands) {
+    List<String> retval = new ArrayList<>(args.size() + 1);
+    List<Option> options = new ArrayList<>(CLIProcessor.OPTIONS);
+    List<String> remaining = new ArrayList<>(args.size());
+
+    // find the called command in the same way as the CLI processor
+    ICommand command = null;
+    boolean commandsEnded = false;
+    for (String arg : args) {
+      if (commandsEnded || arg.startsWith("-")) {
+        remaining.add(arg);
+      } else {
+        ICommand next = command == null ? getCommand(commands, arg) : command.getSubCommandByName(arg);
+        if (next == null) {
+          remaining.add(arg);
+          commandsEnded = true;
+        } else {
+          retval.add(arg);
+          options.addAll(next.gatherOptions());
+          command = next;
+        }
+      }
+    }
+
+    Options parserOptions = new Options();
+    options.forEach(parserOptions::addOption);
+    CommandLine cmdLine;
+    try {
+      cmdLine = new DefaultParser().parse(parserOptions, remaining.toArray(new String[0]));
+    } catch (ParseException ex) {
+      return args;
+    }
+
+    for (Option option : cmdLine.getOptions()) {
+      String longOpt = option.getLongOpt();
+      List<String> values = option.getValuesList();
+      if (values.isEmpty()) {
+        retval.add(longOpt == null ? "-" + option.getOpt() : "--" + longOpt);
+      }
+      for (String value : values) {
+        String resolved = PATH_ARGUMENT_NAMES.contains(option.getArgName())
+            ? resolvePath(cwd, ObjectUtils.notNull(value))
+            : value;
+        retval.add(longOpt == null ? "-" + option.getOpt() + resolved : "--" + longOpt + "=" + resolved);
+      }
+    }
+
+    List<String> extraArgs = cmdLine.getArgList();
+    if (!extraArgs.isEmpty()) {
+      retval.add("--");
+      for (String arg : extraArgs) {
+        retval.add(resolvePath(cwd, ObjectUtils.notNull(arg)));
+      }
+    }
+    return retval;
+  }
+
+  private static ICommand getCommand(@NonNull Collection<? extends ICommand> commands, @NonNull String name) {
+    return commands.stream()
+        .filter(command -> name.equals(command.getName()))
+        .findFirst()
+        .orElse(null);
+  }
+
+  @NonNull
+  private static String resolvePath(@NonNull Path cwd, @NonNull String value) {
+    String retval = value;
+    if (!"-".equals(value) && !URI_PATTERN.matcher(value).find()) {
+      // avoid Paths.get, since glob characters are not valid in paths on all
+      // platforms
+      File file = new File(value);
+      if (!file.isAbsolute()) {
+        retval = new File(cwd.toFile(), value).getPath();
+      }
+    }
+    return retval;
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.serve;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Tracks the request being handled by each thread of the
+ * {@link OscalCliServer}, which receives the output written by that thread.
+ * <p>
+ * Threads do not inherit the request of the thread that created them. Commands
+ * that run work on other threads use {@link #propagate(Callable)} or
+ * {@link #propagate(Executor)}, so that the output of this work is sent to the
+ * client that requested it. Outside of the server, these methods have no
+ * effect.
+ */
+public final class RequestScope {
+  @NonNull
+  private static final ThreadLocal<OscalCliServer.Request> CURRENT_REQUEST = new ThreadLocal<>();
+
+  private RequestScope() {
+    // disable construction
+  }
+
+  @Nullable
+  static OscalCliServer.Request get() {
+    return CURRENT_REQUEST.get();
+  }
+
+  static void set(@NonNull OscalCliServer.Request request) {
+    CURRENT_REQUEST.set(request);
+  }
+
+  static void clear() {
+    CURRENT_REQUEST.remove();
+  }
+
+  /**
+   * Wrap the task so that it runs in the request being handled by the current
+   * thread, if any.
+   *
+   * @param <T>
+   *          the type of the task's result
+   * @param task
+   *          the task to wrap
+   * @return the wrapped task
+   */
+  @NonNull
+  public static <T> Callable<T> propagate(@NonNull Callable<T> task) {
+    OscalCliServer.Request request = get();
+    if (request == null) {
+      return task;
+    }
+    return () -> {
+      set(request);
+      try {
+        return task.call();
+      } finally {
+        clear();
+      }
+    };
+  }
+
+  /**
+   * Wrap the executor so that the tasks it runs run in the request being handled
+   * by the current thread, if any.
+   *
+   * @param executor
+   *          the executor to wrap
+   * @return the wrapped executor
+   */
+  @NonNull
+  public static Executor propagate(@NonNull Executor executor) {
+    OscalCliServer.Request request = get();
+    if (request == null) {
+      return executor;
+    }
+    return task -> executor.execute(() -> {
+      set(request);
+      try {
+        task.run();
+      } finally {
+        clear();
+      }
+    });
+  }
+}
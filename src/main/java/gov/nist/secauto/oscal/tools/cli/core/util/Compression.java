@@ -0,0 +1,331 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * The compression formats that content can be read and written in.
+ * <p>
+ * Compressed content is read by detecting the format's magic bytes at the
+ * beginning of the content, so a compressed file is read the same way
+ * regardless of its name. Content is decompressed as it is read and compressed
+ * as it is written, so it is never held in memory in full.
+ */
+public enum Compression {
+  /**
+   * Content that is not compressed.
+   */
+  NONE("none", "", new byte[0]) {
+    @Override
+    public InputStream decompress(InputStream is) {
+      return is;
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) {
+      return os;
+    }
+  },
+  /**
+   * Content compressed using gzip.
+   */
+  GZIP("gzip", ".gz", new byte[] { 0x1f, (byte) 0x8b }) {
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+      return new GZIPInputStream(is, BUFFER_SIZE);
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+      return new GZIPOutputStream(os, BUFFER_SIZE);
+    }
+  },
+  /**
+   * Content compressed using Zstandard.
+   */
+  ZSTD("zstd", ".zst", new byte[] { 0x28, (byte) 0xb5, 0x2f, (byte) 0xfd }) {
+    @Override
+    public InputStream decompress(InputStream is) throws IOException {
+      return new ZstdInputStream(is);
+    }
+
+    @Override
+    public OutputStream compress(OutputStream os) throws IOException {
+      return new ZstdOutputStream(os);
+    }
+  };
+
+  /**
+   * The size of the buffers used to read and write files.
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+  /**
+   * The number of bytes at the beginning of content needed to detect its
+   * compression.
+   */
+  private static final int MAGIC_BYTES = 4;
+
+  @NonNull
+  private final String name;
+  @NonNull
+  private final String extension;
+  @NonNull
+  private final byte[] magic;
+
+  Compression(@NonNull String name, @NonNull String extension, @NonNull byte[] magic) {
+    this.name = name;
+    this.extension = extension;
+    this.magic = magic;
+  }
+
+  /**
+   * Get the name of the compression format, as used on the command line.
+   *
+   * @return the name
+   */
+  @NonNull
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get the file extension of the compression format, including the leading
+   * {@code .}.
+   *
+   * @return the extension, which is empty for {@link #NONE}
+   */
+  @NonNull
+  public String getExtension() {
+    return extension;
+  }
+
+  /**
+   * Wrap the provided stream so that the content read from it is decompressed.
+   *
+   * @param is
+   *          the stream of compressed content, which is closed when the returned
+   *          stream is closed
+   * @return the stream of decompressed content
+   * @throws IOException
+   *           if an error occurred while reading the compression header
+   */
+  @NonNull
+  public abstract InputStream decompress(@NonNull InputStream is) throws IOException;
+
+  /**
+   * Wrap the provided stream so that the content written to it is compressed.
+   *
+   * @param os
+   *          the stream to write the compressed content to, which is closed when
+   *          the returned stream is closed
+   * @return the stream to write uncompressed content to
+   * @throws IOException
+   *           if an error occurred while writing the compression header
+   */
+  @NonNull
+  public abstract OutputStream compress(@NonNull OutputStream os) throws IOException;
+
+  /**
+   * Open a buffered stream that writes compressed content to the provided file,
+   * replacing it if it exists.
+   *
+   * @param file
+   *          the file to write
+   * @return the stream, which must be closed by the caller
+   * @throws IOException
+   *           if an error occurred while opening the file
+   */
+  @NonNull
+  public OutputStream newOutputStream(@NonNull Path file) throws IOException {
+    return compress(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+  }
+
+  private boolean matches(@NonNull byte[] header, int length) {
+    boolean retval = magic.length > 0 && length >= magic.length;
+    for (int index = 0; retval && index < magic.length; index++) {
+      retval = header[index] == magic[index];
+    }
+    return retval;
+  }
+
+  /**
+   * Get the compression format with the provided name.
+   *
+   * @param name
+   *          the name, which is not case sensitive
+   * @return the compression format
+   * @throws IllegalArgumentException
+   *           if no compression format has the provided name
+   */
+  @NonNull
+  public static Compression forName(@NonNull String name) {
+    for (Compression compression : values()) {
+      if (compression.name.equalsIgnoreCase(name)) {
+        return compression;
+      }
+    }
+    throw new IllegalArgumentException("Unknown compression format: " + name);
+  }
+
+  /**
+   * Get the compression format identified by the extension of the provided file.
+   *
+   * @param file
+   *          the file
+   * @return the compression format, which is {@link #NONE} if the file does not
+   *         have a compressed file extension
+   */
+  @NonNull
+  public static Compression forFile(@NonNull Path file) {
+    Path fileName = file.getFileName();
+    Compression retval = NONE;
+    if (fileName != null) {
+      String name = fileName.toString().toLowerCase(Locale.ROOT);
+      for (Compression compression : values()) {
+        if (compression != NONE && name.endsWith(compression.extension)) {
+          retval = compression;
+          break;
+        }
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Get the compression format used to write a destination, which is the provided
+   * format if one is provided, or otherwise the format identified by the
+   * destination's extension.
+   *
+   * @param compression
+   *          the compression format requested on the command line, or
+   *          {@code null} if none was requested
+   * @param destination
+   *          the destination file, or {@code null} for standard output
+   * @return the compression format
+   */
+  @NonNull
+  public static Compression forDestination(@Nullable Compression compression, @Nullable Path destination) {
+    Compression retval = compression;
+    if (retval == null) {
+      retval = destination == null ? NONE : forFile(destination);
+    }
+    return retval;
+  }
+
+  /**
+   * Remove a compressed file extension from the provided file name, so that the
+   * extension of the compressed content remains.
+   *
+   * @param fileName
+   *          the file name
+   * @return the file name without a compressed file extension
+   */
+  @NonNull
+  public static String removeExtension(@NonNull String fileName) {
+    Compression compression = forFile(ObjectUtils.notNull(Path.of(fileName)));
+    return ObjectUtils.notNull(fileName.substring(0, fileName.length() - compression.extension.length()));
+  }
+
+  /**
+   * Detect the compression format from the first bytes of some content.
+   *
+   * @param header
+   *          the first bytes of the content
+   * @param length
+   *          the number of bytes read into the header
+   * @return the compression format, which is {@link #NONE} if the content is not
+   *         compressed
+   */
+  @NonNull
+  public static Compression detect(@NonNull byte[] header, int length) {
+    Compression retval = NONE;
+    for (Compression compression : values()) {
+      if (compression.matches(header, length)) {
+        retval = compression;
+        break;
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Detect the compression format from the beginning of the provided stream,
+   * which is consumed.
+   *
+   * @param is
+   *          the stream
+   * @return the compression format, which is {@link #NONE} if the content is not
+   *         compressed
+   * @throws IOException
+   *           if an error occurred while reading the stream
+   */
+  @NonNull
+  public static Compression detect(@NonNull InputStream is) throws IOException {
+    byte[] header = new byte[MAGIC_BYTES];
+    return detect(header, is.readNBytes(header, 0, MAGIC_BYTES));
+  }
+
+  /**
+   * Wrap the provided stream so that the content read from it is decompressed if
+   * it starts with the magic bytes of a compression format, or is otherwise read
+   * as is.
+   *
+   * @param is
+   *          the stream, which is closed when the returned stream is closed
+   * @return the stream of decompressed content
+   * @throws IOException
+   *           if an error occurred while reading the beginning of the stream
+   */
+  @NonNull
+  public static InputStream decompressing(@NonNull InputStream is) throws IOException {
+    // only the magic bytes are pushed back, so the remaining content is read
+    // directly from the provided stream
+    PushbackInputStream stream = new PushbackInputStream(is, MAGIC_BYTES);
+    byte[] header = new byte[MAGIC_BYTES];
+    int length = stream.readNBytes(header, 0, MAGIC_BYTES);
+    stream.unread(header, 0, length);
+    return detect(header, length).decompress(stream);
+  }
+}
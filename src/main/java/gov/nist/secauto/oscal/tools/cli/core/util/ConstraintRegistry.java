@@ -0,0 +1,182 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.model.ConstraintLoader;
+import gov.nist.secauto.metaschema.model.common.MetaschemaException;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraintSet;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Holds the external constraint sets and the binding contexts built from them,
+ * so that validating many documents against the same constraint files loads
+ * each file and compiles its Metapath expressions at most once per process.
+ * <p>
+ * Constraint sets are keyed by the location and the SHA-256 digest of the
+ * constraint file, so a changed file is loaded again. Files imported by a
+ * constraint file are not part of the key. Binding contexts are keyed by the
+ * constraint sets they were built with. The cached objects can be shared across
+ * threads.
+ */
+public final class ConstraintRegistry {
+  private static final Logger LOGGER = LogManager.getLogger(ConstraintRegistry.class);
+  @NonNull
+  private static final ConstraintRegistry INSTANCE = new ConstraintRegistry();
+
+  @NonNull
+  private final ConcurrentMap<String, IConstraintSet> constraintSets = new ConcurrentHashMap<>();
+  @NonNull
+  private final ConcurrentMap<Set<IConstraintSet>, IBindingContext> bindingContexts = new ConcurrentHashMap<>();
+  @NonNull
+  private final Statistics constraintSetStatistics = new Statistics("constraint set");
+  @NonNull
+  private final Statistics bindingContextStatistics = new Statistics("binding context");
+
+  /**
+   * Get the singleton instance of the registry.
+   *
+   * @return the registry
+   */
+  @NonNull
+  public static ConstraintRegistry instance() {
+    return INSTANCE;
+  }
+
+  private ConstraintRegistry() {
+    // disable construction
+  }
+
+  /**
+   * Get the constraint set defined by the provided file, loading it if the file
+   * has not been loaded before with the same content.
+   *
+   * @param path
+   *          the constraint file
+   * @return the constraint set
+   * @throws IOException
+   *           if an error occurred while reading the file
+   * @throws MetaschemaException
+   *           if the constraint set is not valid
+   */
+  @NonNull
+  public IConstraintSet getConstraintSet(@NonNull Path path) throws IOException, MetaschemaException {
+    Path realPath = path.toRealPath();
+    String key = realPath.toUri() + "#" + Digests.sha256(realPath);
+
+    IConstraintSet retval = constraintSets.get(key);
+    if (retval == null) {
+      IConstraintSet loaded = new ConstraintLoader().load(ObjectUtils.notNull(realPath));
+      retval = constraintSets.putIfAbsent(key, loaded);
+      if (retval == null) {
+        retval = loaded;
+      }
+      constraintSetStatistics.miss(realPath);
+    } else {
+      constraintSetStatistics.hit(realPath);
+    }
+    return retval;
+  }
+
+  /**
+   * Get the binding context that applies the provided constraint sets, building
+   * it if it has not yet been built.
+   * <p>
+   * The constraint sets must have been provided by
+   * {@link #getConstraintSet(Path)} for a cached context to be found.
+   *
+   * @param constraintSets
+   *          the external constraint sets to apply
+   * @return the binding context
+   */
+  @NonNull
+  public IBindingContext getBindingContext(@NonNull Set<IConstraintSet> constraintSets) {
+    IBindingContext retval;
+    if (constraintSets.isEmpty()) {
+      retval = OscalBindingContext.instance();
+    } else {
+      Set<IConstraintSet> key = ObjectUtils.notNull(Set.copyOf(constraintSets));
+      retval = bindingContexts.get(key);
+      if (retval == null) {
+        retval = bindingContexts.computeIfAbsent(key, OscalBindingContext::new);
+        bindingContextStatistics.miss(key.size() + " constraint set(s)");
+      } else {
+        bindingContextStatistics.hit(key.size() + " constraint set(s)");
+      }
+    }
+    return ObjectUtils.notNull(retval);
+  }
+
+  /**
+   * Counts cache hits and misses, logging the running hit rate at debug level.
+   */
+  private static final class Statistics {
+    @NonNull
+    private final String name;
+    @NonNull
+    private final AtomicLong hits = new AtomicLong();
+    @NonNull
+    private final AtomicLong misses = new AtomicLong();
+
+    private Statistics(@NonNull String name) {
+      this.name = name;
+    }
+
+    private void hit(@NonNull Object item) {
+      log("hit", item, hits.incrementAndGet(), misses.get());
+    }
+
+    private void miss(@NonNull Object item) {
+      log("miss", item, hits.get(), misses.incrementAndGet());
+    }
+
+    private void log(@NonNull String outcome, @NonNull Object item, long hitCount, long missCount) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Cached {} {} for {} ({} hits, {} misses, {}% hit rate).",
+            name,
+            outcome,
+            item,
+            hitCount,
+            missCount,
+            hitCount * 100 / (hitCount + missCount));
+      }
+    }
+  }
+}
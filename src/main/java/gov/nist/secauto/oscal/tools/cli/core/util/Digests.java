@@ -0,0 +1,163 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Computes the SHA-256 digests used to detect changed content.
+ */
+public final class Digests {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private Digests() {
+    // disable construction
+  }
+
+  /**
+   * Get the SHA-256 digest of the provided content.
+   *
+   * @param content
+   *          the content to digest
+   * @return the digest as a lower case hexadecimal string
+   */
+  @NonNull
+  public static String sha256(@NonNull byte[] content) {
+    return toHex(ObjectUtils.notNull(newDigest().digest(content)));
+  }
+
+  /**
+   * Get the SHA-256 digest of the content of the provided file, reading the file
+   * in chunks so it is never held in memory.
+   *
+   * @param file
+   *          the file to digest
+   * @return the digest as a lower case hexadecimal string
+   * @throws IOException
+   *           if an error occurred while reading the file
+   */
+  @NonNull
+  public static String sha256(@NonNull Path file) throws IOException {
+    try (InputStream is = Files.newInputStream(file)) {
+      return sha256(ObjectUtils.notNull(is));
+    }
+  }
+
+  /**
+   * Get the SHA-256 digest of the remaining content of the provided stream,
+   * reading the stream in chunks so its content is never held in memory. The
+   * stream is not closed.
+   *
+   * @param is
+   *          the stream to digest
+   * @return the digest as a lower case hexadecimal string
+   * @throws IOException
+   *           if an error occurred while reading the stream
+   */
+  @NonNull
+  public static String sha256(@NonNull InputStream is) throws IOException {
+    MessageDigest digest = newDigest();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    int read;
+    while ((read = is.read(buffer)) != -1) {
+      digest.update(buffer, 0, read);
+    }
+    return toHex(digest);
+  }
+
+  /**
+   * Get the SHA-256 digest of the content of the provided file, digesting content
+   * held in memory or mapped directly.
+   * <p>
+   * Compressed content that was decompressed once is digested decompressed.
+   *
+   * @param file
+   *          the file to digest
+   * @return the digest as a lower case hexadecimal string
+   * @throws IOException
+   *           if an error occurred while reading the file
+   */
+  @NonNull
+  public static String sha256(@NonNull MappedFile file) throws IOException {
+    String retval;
+    if (file.isResident()) {
+      MessageDigest digest = newDigest();
+      for (ByteBuffer segment : file.getSegments()) {
+        digest.update(segment);
+      }
+      retval = toHex(digest);
+    } else {
+      retval = sha256(file.getFile());
+    }
+    return retval;
+  }
+
+  /**
+   * Create a new SHA-256 message digest.
+   *
+   * @return the message digest
+   */
+  @NonNull
+  public static MessageDigest newDigest() {
+    try {
+      return ObjectUtils.notNull(MessageDigest.getInstance("SHA-256"));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /**
+   * Complete the provided message digest.
+   *
+   * @param digest
+   *          the message digest to complete
+   * @return the digest as a lower case hexadecimal string
+   */
+  @NonNull
+  public static String toHex(@NonNull MessageDigest digest) {
+    return toHex(ObjectUtils.notNull(digest.digest()));
+  }
+
+  @NonNull
+  private static String toHex(@NonNull byte[] digest) {
+    StringBuilder builder = new StringBuilder(digest.length * 2);
+    for (byte value : digest) {
+      builder.append(String.format("%02x", value));
+    }
+    return ObjectUtils.notNull(builder.toString());
+  }
+}
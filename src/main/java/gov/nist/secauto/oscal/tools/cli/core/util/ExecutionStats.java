@@ -0,0 +1,112 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Tracks the elapsed time and peak heap usage of an operation, for use in a
+ * {@code --stats} summary.
+ * <p>
+ * Peak heap usage is the sum of the peak usage of each heap memory pool since
+ * the operation started. Since the pools may peak at different times, this is
+ * an upper bound on the actual peak.
+ */
+public final class ExecutionStats {
+  private static final long BYTES_PER_MEBIBYTE = 1024L * 1024L;
+
+  private final long startNanos;
+
+  /**
+   * Start tracking a new operation, resetting the peak usage of the heap memory
+   * pools.
+   *
+   * @return the stats for the operation
+   */
+  @NonNull
+  public static ExecutionStats start() {
+    for (MemoryPoolMXBean pool : getHeapPools()) {
+      pool.resetPeakUsage();
+    }
+    return new ExecutionStats(System.nanoTime());
+  }
+
+  private ExecutionStats(long startNanos) {
+    this.startNanos = startNanos;
+  }
+
+  /**
+   * Get the time elapsed since the operation started.
+   *
+   * @return the elapsed time in milliseconds
+   */
+  public long getElapsedMillis() {
+    return (System.nanoTime() - startNanos) / 1_000_000L;
+  }
+
+  /**
+   * Get the peak heap usage since the operation started.
+   *
+   * @return the peak usage in bytes
+   */
+  public long getPeakHeapBytes() {
+    long retval = 0;
+    for (MemoryPoolMXBean pool : getHeapPools()) {
+      MemoryUsage usage = pool.getPeakUsage();
+      if (usage != null) {
+        retval += usage.getUsed();
+      }
+    }
+    return retval;
+  }
+
+  /**
+   * Get a one line summary of the stats.
+   *
+   * @return the summary
+   */
+  @NonNull
+  public String summarize() {
+    return String.format("elapsed time: %d ms, peak heap usage: %d MiB",
+        getElapsedMillis(),
+        (getPeakHeapBytes() + BYTES_PER_MEBIBYTE - 1) / BYTES_PER_MEBIBYTE);
+  }
+
+  @NonNull
+  private static List<MemoryPoolMXBean> getHeapPools() {
+    List<MemoryPoolMXBean> pools = new ArrayList<>(ManagementFactory.getMemoryPoolMXBeans());
+    pools.removeIf(pool -> pool.getType() != MemoryType.HEAP || !pool.isValid());
+    return pools;
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.DeserializationFeature;
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.constraint.FindingCollectingConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraintValidator;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Validates files against a model's constraints.
+ * <p>
+ * When an incremental directory is provided, the outcomes of the parts of a
+ * file that did not change since its previous validation are reused, and the
+ * outcomes of this validation are stored for the next one.
+ * <p>
+ * When a finding limit is provided, or the validation fails fast, the
+ * validation of a file stops as soon as the limit is reached, without
+ * evaluating the remaining constraints.
+ * <p>
+ * A validator can be shared by the threads validating different files.
+ */
+public class FileConstraintValidator {
+  private static final Logger LOGGER = LogManager.getLogger(FileConstraintValidator.class);
+
+  private final int threads;
+  private final int maxFindings;
+  private final int maxFindingsPerConstraint;
+  private final boolean failFast;
+  @Nullable
+  private final Path incrementalDir;
+  @NonNull
+  private final String context;
+
+  /**
+   * Construct a new validator.
+   *
+   * @param threads
+   *          the number of threads used to check the constraints of each file
+   * @param maxFindings
+   *          the number of findings in a file after which validation of the file
+   *          stops, or {@link Integer#MAX_VALUE} for no limit
+   * @param maxFindingsPerConstraint
+   *          the number of findings of each constraint in a file that are
+   *          reported, or {@link Integer#MAX_VALUE} for no limit
+   * @param failFast
+   *          {@code true} if validation of a file stops at its first error, or
+   *          {@code false} otherwise
+   * @param incrementalDir
+   *          the directory storing the outcomes of previous validations, or
+   *          {@code null} to check every constraint
+   * @param context
+   *          identifies the options that affect the stored outcomes, so that they
+   *          are only reused when they would be the same
+   */
+  public FileConstraintValidator(
+      int threads,
+      int maxFindings,
+      int maxFindingsPerConstraint,
+      boolean failFast,
+      @Nullable Path incrementalDir,
+      @NonNull String context) {
+    this.threads = threads;
+    this.maxFindings = maxFindings;
+    this.maxFindingsPerConstraint = maxFindingsPerConstraint;
+    this.failFast = failFast;
+    this.incrementalDir = incrementalDir;
+    this.context = context;
+  }
+
+  /**
+   * Validate the file against the constraints of the binding context.
+   *
+   * @param input
+   *          the file to validate
+   * @param format
+   *          the format of the file
+   * @param bindingContext
+   *          the binding context used to load the file
+   * @param handler
+   *          the handler that receives the findings
+   * @param reportedFindings
+   *          the number of findings in the file already reported by schema
+   *          validation, which count toward the finding limit
+   * @return the handler, which is the constraint validation result
+   * @throws IOException
+   *           if an error occurred while loading the file
+   */
+  @NonNull
+  public IValidationResult validate(
+      @NonNull MappedFile input,
+      @NonNull Format format,
+      @NonNull IBindingContext bindingContext,
+      @NonNull FindingCollectingConstraintValidationHandler handler,
+      int reportedFindings) throws IOException {
+    Path source = input.getFile();
+
+    FindingLimitingConstraintValidationHandler limiter = null;
+    IConstraintValidationHandler validationHandler = handler;
+    if (failFast || maxFindings < Integer.MAX_VALUE || maxFindingsPerConstraint < Integer.MAX_VALUE) {
+      limiter = new FindingLimitingConstraintValidationHandler(
+          handler,
+          Math.max(1, maxFindings - reportedFindings),
+          maxFindingsPerConstraint,
+          failFast);
+      validationHandler = limiter;
+    }
+
+    Path incrementalDir = this.incrementalDir;
+    // buffered content has no file to track between validations
+    IncrementalValidationIndex index = incrementalDir == null || input.isBuffered()
+        ? null
+        : openIndex(incrementalDir, source);
+    IBoundLoader loader = bindingContext.newBoundLoader();
+    loader.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
+    IDocumentNodeItem nodeItem = input.loadAsNodeItem(loader, format);
+
+    try {
+      if (threads == 1 && index == null) {
+        IConstraintValidator validator = bindingContext.newValidator(validationHandler);
+        validator.validate(nodeItem);
+        validator.finalizeValidation();
+      } else {
+        ParallelConstraintValidator.validate(bindingContext, nodeItem, threads, index, validationHandler);
+      }
+    } catch (FindingLimitingConstraintValidationHandler.LimitReachedException ex) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Stopped checking the constraints of '{}' once the finding limit was reached.", source);
+      }
+    }
+    saveIndex(index, source);
+
+    if (limiter != null && limiter.getSuppressedFindings() > 0 && LOGGER.isWarnEnabled()) {
+      LOGGER.warn("{} more findings of constraints already reported {} times in '{}' were not reported.",
+          limiter.getSuppressedFindings(),
+          maxFindingsPerConstraint,
+          source);
+    }
+    return handler;
+  }
+
+  @Nullable
+  private IncrementalValidationIndex openIndex(@NonNull Path incrementalDir, @NonNull Path source) {
+    IncrementalValidationIndex retval = null;
+    try {
+      retval = IncrementalValidationIndex.open(incrementalDir, source, context);
+    } catch (IOException ex) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Unable to use the incremental validation index for '{}'. {}", source,
+            ex.getLocalizedMessage());
+      }
+    }
+    return retval;
+  }
+
+  private static void saveIndex(@Nullable IncrementalValidationIndex index, @NonNull Path source) {
+    if (index != null) {
+      try {
+        index.save();
+      } catch (IOException ex) {
+        if (LOGGER.isWarnEnabled()) {
+          LOGGER.warn("Unable to store the incremental validation index of '{}'. {}", source,
+              ex.getLocalizedMessage());
+        }
+      }
+    }
+  }
+}
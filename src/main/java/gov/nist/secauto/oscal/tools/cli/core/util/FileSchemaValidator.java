@@ -0,0 +1,209 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.yaml.YamlOperations;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.oscal.tools.cli.core.util.SchemaRegistry.JsonSchemaSupplier;
+import gov.nist.secauto.oscal.tools.cli.core.util.SchemaRegistry.XmlSchemaSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+import org.xml.sax.SAXException;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.representer.Representer;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Validates files against a model's schema, using the schemas compiled once per
+ * process by the {@link SchemaRegistry}.
+ * <p>
+ * XML is validated in a single streaming pass, which stops once the error limit
+ * is reached. JSON and YAML are validated the same way when the streaming
+ * engine is selected. Otherwise, JSON and YAML are validated by building the
+ * document in memory.
+ * <p>
+ * A validator can be shared by the threads validating different files.
+ */
+public class FileSchemaValidator {
+  private static final Logger LOGGER = LogManager.getLogger(FileSchemaValidator.class);
+
+  @NonNull
+  private final Object key;
+  @NonNull
+  private final XmlSchemaSupplier xmlSchemas;
+  @NonNull
+  private final JsonSchemaSupplier jsonSchema;
+  private final boolean streamingJson;
+  private final int maxErrors;
+
+  /**
+   * Construct a new validator.
+   *
+   * @param key
+   *          the key identifying the model's schemas in the
+   *          {@link SchemaRegistry}
+   * @param xmlSchemas
+   *          supplies the XML schema sources, if the schema has not yet been
+   *          compiled
+   * @param jsonSchema
+   *          supplies the JSON schema, if the schema has not yet been compiled
+   * @param streamingJson
+   *          {@code true} if JSON and YAML are validated using bounded memory, or
+   *          {@code false} if they are built in memory
+   * @param maxErrors
+   *          the number of errors after which validation of a file stops
+   */
+  public FileSchemaValidator(
+      @NonNull Object key,
+      @NonNull XmlSchemaSupplier xmlSchemas,
+      @NonNull JsonSchemaSupplier jsonSchema,
+      boolean streamingJson,
+      int maxErrors) {
+    this.key = key;
+    this.xmlSchemas = xmlSchemas;
+    this.jsonSchema = jsonSchema;
+    this.streamingJson = streamingJson;
+    this.maxErrors = maxErrors;
+  }
+
+  /**
+   * Validate the file against the schema for its format.
+   *
+   * @param input
+   *          the file to validate
+   * @param format
+   *          the format of the file
+   * @return the schema validation result
+   * @throws IOException
+   *           if an error occurred while reading the file or schema
+   * @throws SAXException
+   *           if an error occurred while compiling the XML schema
+   */
+  @NonNull
+  public IValidationResult validate(@NonNull MappedFile input, @NonNull Format format)
+      throws IOException, SAXException {
+    IValidationResult retval;
+    if (format == Format.XML) {
+      retval = validateXml(input);
+    } else if (streamingJson) {
+      retval = validateStreaming(input, format);
+    } else if (format == Format.JSON) {
+      retval = validateJson(input);
+    } else {
+      retval = validateYaml(input);
+    }
+    return retval;
+  }
+
+  @NonNull
+  private IValidationResult validateXml(@NonNull MappedFile input) throws IOException, SAXException {
+    StreamingXmlSchemaValidator validator = new StreamingXmlSchemaValidator(
+        ObjectUtils.notNull(SchemaRegistry.instance().getXmlSchemaValidator(key, xmlSchemas).getSchema()),
+        maxErrors);
+    StreamingXmlSchemaValidator.Result retval;
+    try (InputStream is = input.newInputStream()) {
+      retval = validator.validate(ObjectUtils.notNull(is), input.getUri());
+    }
+    warnIfTruncated(input.getFile(), retval.isTruncated());
+    return retval;
+  }
+
+  @NonNull
+  private IValidationResult validateStreaming(@NonNull MappedFile input, @NonNull Format format) throws IOException {
+    StreamingJsonSchemaValidator.Result retval;
+    try (InputStream is = input.newInputStream()) {
+      retval = SchemaRegistry.instance().getStreamingJsonSchemaValidator(key, jsonSchema)
+          .validate(is, input.getUri(), format, maxErrors);
+    }
+    warnIfTruncated(input.getFile(), retval.isTruncated());
+    return retval;
+  }
+
+  @NonNull
+  private IValidationResult validateJson(@NonNull MappedFile input) throws IOException {
+    try (InputStream is = input.newInputStream()) {
+      return SchemaRegistry.instance().getJsonSchemaValidator(key, jsonSchema).validate(input.newInputSource(is));
+    }
+  }
+
+  @NonNull
+  private IValidationResult validateYaml(@NonNull MappedFile input) throws IOException {
+    Map<String, Object> yaml;
+    try (Reader reader = new InputStreamReader(input.newInputStream(), StandardCharsets.UTF_8)) {
+      // a parser is not thread safe
+      yaml = new Yaml(
+          new Constructor(new LoaderOptions()),
+          new Representer(new DumperOptions()),
+          new DumperOptions(),
+          new JsonResolver()).load(reader);
+    }
+    JSONObject json = YamlOperations.yamlToJson(yaml);
+    return SchemaRegistry.instance().getJsonSchemaValidator(key, jsonSchema)
+        .validate(json, input.getUri());
+  }
+
+  private void warnIfTruncated(@NonNull Path source, boolean truncated) {
+    if (truncated && LOGGER.isWarnEnabled()) {
+      LOGGER.warn("Stopped validating '{}' after {} errors.", source, maxErrors);
+    }
+  }
+
+  /**
+   * Resolves the same implicit types as {@link YamlOperations#parseYaml(Path)},
+   * which leaves timestamps as strings, since JSON has no date type.
+   */
+  private static final class JsonResolver
+      extends Resolver {
+    @Override
+    protected void addImplicitResolvers() {
+      addImplicitResolver(Tag.BOOL, BOOL, "yYnNtTfFoO");
+      addImplicitResolver(Tag.INT, INT, "-+0123456789");
+      addImplicitResolver(Tag.FLOAT, FLOAT, "-+0123456789.");
+      addImplicitResolver(Tag.MERGE, MERGE, "<");
+      addImplicitResolver(Tag.NULL, NULL, "~nN\0");
+      addImplicitResolver(Tag.NULL, EMPTY, null);
+    }
+  }
+}
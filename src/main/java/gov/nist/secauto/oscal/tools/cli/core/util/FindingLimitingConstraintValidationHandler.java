@@ -0,0 +1,252 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.model.common.constraint.FindingCollectingConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.constraint.IAllowedValuesConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.ICardinalityConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.constraint.IExpectConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IIndexConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IIndexHasKeyConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IKeyConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IMatchesConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IUniqueConstraint;
+import gov.nist.secauto.metaschema.model.common.metapath.DynamicContext;
+import gov.nist.secauto.metaschema.model.common.metapath.ISequence;
+import gov.nist.secauto.metaschema.model.common.metapath.MetapathException;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Passes the findings of a constraint validation on to another handler until a
+ * limit is reached.
+ * <p>
+ * Once the limit is reached, a {@link LimitReachedException} is thrown to stop
+ * the validation, so the remaining constraints are not evaluated. A systemic
+ * problem is usually reported many times by the same constraint, so the number
+ * of findings passed on for each constraint can also be limited. The findings
+ * beyond this limit are counted, but are not passed on and do not count towards
+ * the overall limit.
+ */
+public class FindingLimitingConstraintValidationHandler implements IConstraintValidationHandler {
+  @NonNull
+  private final FindingCollectingConstraintValidationHandler delegate;
+  private final int maxFindings;
+  private final int maxFindingsPerConstraint;
+  private final boolean failFast;
+  @NonNull
+  private final Map<Object, Integer> constraintFindings = new HashMap<>();
+  private int findings;
+  private int suppressed;
+
+  /**
+   * Construct a new handler.
+   *
+   * @param delegate
+   *          the handler the findings are passed on to
+   * @param maxFindings
+   *          the number of findings passed on before validation is stopped
+   * @param maxFindingsPerConstraint
+   *          the number of findings of each constraint that are passed on
+   * @param failFast
+   *          {@code true} if validation is stopped once the delegate is no longer
+   *          passing, or {@code false} otherwise
+   */
+  public FindingLimitingConstraintValidationHandler(
+      @NonNull FindingCollectingConstraintValidationHandler delegate,
+      int maxFindings,
+      int maxFindingsPerConstraint,
+      boolean failFast) {
+    this.delegate = delegate;
+    this.maxFindings = maxFindings;
+    this.maxFindingsPerConstraint = maxFindingsPerConstraint;
+    this.failFast = failFast;
+  }
+
+  /**
+   * Get the number of findings that were not passed on, because their constraint
+   * reached its limit.
+   *
+   * @return the number of findings
+   */
+  public int getSuppressedFindings() {
+    return suppressed;
+  }
+
+  private boolean accept(@NonNull Object constraint) {
+    boolean retval = constraintFindings.merge(constraint, 1, Integer::sum) <= maxFindingsPerConstraint;
+    if (!retval) {
+      suppressed++;
+    }
+    return retval;
+  }
+
+  private void passedOn() {
+    findings++;
+    if (findings >= maxFindings || failFast && !delegate.isPassing()) {
+      throw new LimitReachedException();
+    }
+  }
+
+  @Override
+  public void handleCardinalityMinimumViolation(
+      ICardinalityConstraint constraint,
+      INodeItem node,
+      ISequence<? extends INodeItem> targets) {
+    if (accept(constraint)) {
+      delegate.handleCardinalityMinimumViolation(constraint, node, targets);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleCardinalityMaximumViolation(
+      ICardinalityConstraint constraint,
+      INodeItem node,
+      ISequence<? extends INodeItem> targets) {
+    if (accept(constraint)) {
+      delegate.handleCardinalityMaximumViolation(constraint, node, targets);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleIndexDuplicateViolation(IIndexConstraint constraint, INodeItem node) {
+    if (accept(constraint)) {
+      delegate.handleIndexDuplicateViolation(constraint, node);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleIndexDuplicateKeyViolation(
+      IIndexConstraint constraint,
+      INodeItem node,
+      INodeItem oldItem,
+      INodeItem target) {
+    if (accept(constraint)) {
+      delegate.handleIndexDuplicateKeyViolation(constraint, node, oldItem, target);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleUniqueKeyViolation(
+      IUniqueConstraint constraint,
+      INodeItem node,
+      INodeItem oldItem,
+      INodeItem target) {
+    if (accept(constraint)) {
+      delegate.handleUniqueKeyViolation(constraint, node, oldItem, target);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleMatchPatternViolation(
+      IMatchesConstraint constraint,
+      INodeItem node,
+      INodeItem target,
+      String value) {
+    if (accept(constraint)) {
+      delegate.handleMatchPatternViolation(constraint, node, target, value);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleMatchDatatypeViolation(
+      IMatchesConstraint constraint,
+      INodeItem node,
+      INodeItem target,
+      String value,
+      IllegalArgumentException cause) {
+    if (accept(constraint)) {
+      delegate.handleMatchDatatypeViolation(constraint, node, target, value, cause);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleExpectViolation(
+      IExpectConstraint constraint,
+      INodeItem node,
+      INodeItem target,
+      DynamicContext metapathContext) {
+    if (accept(constraint)) {
+      delegate.handleExpectViolation(constraint, node, target, metapathContext);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleKeyMatchError(
+      IKeyConstraint constraint,
+      INodeItem node,
+      INodeItem target,
+      MetapathException cause) {
+    if (accept(constraint)) {
+      delegate.handleKeyMatchError(constraint, node, target, cause);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleIndexMiss(IIndexHasKeyConstraint constraint, INodeItem node, INodeItem target) {
+    if (accept(constraint)) {
+      delegate.handleIndexMiss(constraint, node, target);
+      passedOn();
+    }
+  }
+
+  @Override
+  public void handleAllowedValuesViolation(List<IAllowedValuesConstraint> failedConstraints, INodeItem target) {
+    // the same values are usually allowed by the same constraints
+    if (accept(List.copyOf(failedConstraints))) {
+      delegate.handleAllowedValuesViolation(failedConstraints, target);
+      passedOn();
+    }
+  }
+
+  /**
+   * Thrown by the handler to stop the validation once the limit is reached.
+   */
+  public static final class LimitReachedException
+      extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private LimitReachedException() {
+      super("The finding limit was reached.");
+    }
+  }
+}
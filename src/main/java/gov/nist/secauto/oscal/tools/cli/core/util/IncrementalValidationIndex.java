@@ -0,0 +1,590 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.model.common.IAssemblyDefinition;
+import gov.nist.secauto.metaschema.model.common.IDefinition;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IExpectConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IKeyField;
+import gov.nist.secauto.metaschema.model.common.constraint.IUniqueConstraint;
+import gov.nist.secauto.metaschema.model.common.metapath.MetapathExpression;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IAnyAtomicItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IAtomicValuedItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDefinitionNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IFieldNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IFlagNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IMetaschemaNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IModelNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * An index of the constraint outcomes of the previous validation of a file,
+ * which allows only the changed parts of the file to be validated again.
+ * <p>
+ * Each flag, field, and assembly is identified by a fingerprint of its content,
+ * including all of its descendants, and of the names and definitions of its
+ * ancestors. When every constraint of a node's definition only selects the node
+ * and its descendants, the outcomes of these constraints depend only on this
+ * content, so the outcomes recorded for a node with the same fingerprint are
+ * reused. The constraints of all other nodes, and the steps that depend on the
+ * whole document, such as building indexes and resolving index keys, are always
+ * evaluated.
+ * <p>
+ * The index is stored in a single file. An index created with a different
+ * context, or by a different version of OSCAL, liboscal, or the CLI, is
+ * ignored. Once {@link #save()} is called, the file is replaced by an index of
+ * the latest validation.
+ */
+public class IncrementalValidationIndex {
+  private static final Logger LOGGER = LogManager.getLogger(IncrementalValidationIndex.class);
+  /**
+   * Identifies an index file.
+   */
+  private static final int MAGIC = 0x4f534349;
+  /**
+   * The version of the file format, which is changed when the format changes.
+   */
+  private static final int FORMAT_VERSION = 1;
+  private static final String FILE_SUFFIX = ".idx";
+  /**
+   * The upper bound of the size of a stored entry, used to detect a corrupt file.
+   */
+  private static final int MAX_ENTRY_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Text that may appear in a Metapath expression that selects nodes outside of
+   * the context node's subtree, or that depends on something other than the
+   * content of the subtree.
+   */
+  @NonNull
+  private static final List<String> NON_LOCAL_TOKENS = ObjectUtils.notNull(List.of(
+      "..",
+      "ancestor",
+      "parent",
+      "preceding",
+      "following",
+      "root(",
+      "doc(",
+      "uri(",
+      "current-",
+      "$"));
+
+  private static final byte FLAG = 1;
+  private static final byte FIELD = 2;
+  private static final byte ASSEMBLY = 3;
+
+  @NonNull
+  private final Path file;
+  @NonNull
+  private final String context;
+  @NonNull
+  private final Map<Fingerprint, byte[]> previous;
+  @NonNull
+  private final Map<Fingerprint, byte[]> current = new ConcurrentHashMap<>();
+  @NonNull
+  private final Map<IDefinition, Boolean> localDefinitions = new ConcurrentHashMap<>();
+  @NonNull
+  private final AtomicLong hits = new AtomicLong();
+  @NonNull
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Open the index of the provided file, which is stored in the provided
+   * directory.
+   * <p>
+   * The directory is created if needed. An index that does not exist, or that
+   * cannot be read, is treated as empty.
+   *
+   * @param directory
+   *          the directory to store indexes in
+   * @param source
+   *          the file that is validated
+   * @param context
+   *          identifies everything other than the file's content that affects the
+   *          validation result
+   * @return the index
+   * @throws IOException
+   *           if the directory could not be created, or the path of the file
+   *           could not be resolved
+   */
+  @NonNull
+  public static IncrementalValidationIndex open(
+      @NonNull Path directory,
+      @NonNull Path source,
+      @NonNull String context) throws IOException {
+    Files.createDirectories(directory);
+    // the index of a file is replaced as the file changes, so it is identified by
+    // the file's location instead of its content
+    String name = Digests.sha256(ObjectUtils.notNull(String.join("\n",
+        source.toRealPath().toString(),
+        context).getBytes(StandardCharsets.UTF_8)));
+    return new IncrementalValidationIndex(
+        ObjectUtils.notNull(directory.resolve(name + FILE_SUFFIX)),
+        ObjectUtils.notNull(String.join("\n", ValidationResultCache.toolVersions(), context)));
+  }
+
+  /**
+   * Construct a new index, loading the entries stored in the provided file.
+   * <p>
+   * An index file that does not exist, that cannot be read, or that was stored
+   * with a different context is treated as empty.
+   *
+   * @param file
+   *          the file the index is stored in
+   * @param context
+   *          identifies everything other than the content of the validated file
+   *          that affects the validation result
+   */
+  public IncrementalValidationIndex(@NonNull Path file, @NonNull String context) {
+    this.file = file;
+    this.context = context;
+    this.previous = load(file, context);
+  }
+
+  /**
+   * Get the file the index is stored in.
+   *
+   * @return the file
+   */
+  @NonNull
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Get the number of nodes whose outcomes were reused.
+   *
+   * @return the number of index hits
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Get the number of nodes that could be reused, but had no stored outcomes.
+   *
+   * @return the number of index misses
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  @NonNull
+  private static Map<Fingerprint, byte[]> load(@NonNull Path file, @NonNull String context) {
+    Map<Fingerprint, byte[]> retval = new HashMap<>();
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+        throw new IOException("Not an incremental validation index.");
+      }
+      if (!context.equals(readString(in))) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("Ignoring the incremental validation index '{}', which was created with different options.",
+              file);
+        }
+        return retval;
+      }
+      int size = in.readInt();
+      for (int index = 0; index < size; index++) {
+        Fingerprint key = new Fingerprint(in.readLong(), in.readLong());
+        retval.put(key, readBytes(in));
+      }
+    } catch (NoSuchFileException ex) {
+      // not indexed yet
+    } catch (IOException ex) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Ignoring the unreadable incremental validation index '{}'. {}", file,
+            ex.getLocalizedMessage());
+      }
+      retval.clear();
+    }
+    return retval;
+  }
+
+  /**
+   * Replace the stored index with the outcomes of the nodes validated since this
+   * index was loaded.
+   *
+   * @throws IOException
+   *           if an error occurred while writing the index
+   */
+  public void save() throws IOException {
+    Path directory = file.toAbsolutePath().getParent();
+    if (directory == null) {
+      throw new IOException(String.format("The index file '%s' is not in a directory.", file));
+    }
+    Path temp = Files.createTempFile(directory, "index", ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(temp))))) {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeString(out, context);
+        out.writeInt(current.size());
+        for (Map.Entry<Fingerprint, byte[]> entry : current.entrySet()) {
+          Fingerprint key = entry.getKey();
+          out.writeLong(key.high);
+          out.writeLong(key.low);
+          writeBytes(out, ObjectUtils.notNull(entry.getValue()));
+        }
+      }
+      // a concurrent reader never sees a partial index
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Incremental validation reused {} nodes and validated {} reusable nodes.", hits.get(),
+          misses.get());
+    }
+  }
+
+  /**
+   * Get the outcomes stored for the node with the provided fingerprint by the
+   * previous validation.
+   *
+   * @param key
+   *          the fingerprint of the node
+   * @return the encoded outcomes, or {@code null} if none were stored
+   */
+  @Nullable
+  byte[] get(@NonNull Fingerprint key) {
+    byte[] retval = previous.get(key);
+    if (retval == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return retval;
+  }
+
+  /**
+   * Store the outcomes of the node with the provided fingerprint, to be reused by
+   * the next validation.
+   *
+   * @param key
+   *          the fingerprint of the node
+   * @param outcomes
+   *          the encoded outcomes
+   */
+  void put(@NonNull Fingerprint key, @NonNull byte[] outcomes) {
+    current.put(key, outcomes);
+  }
+
+  /**
+   * Collect the flags, fields, and assemblies in the order they are validated,
+   * along with the fingerprint of each node whose outcomes can be reused.
+   *
+   * @param item
+   *          the node to validate
+   * @param nodes
+   *          the list to add the nodes to
+   * @param keys
+   *          the list to add the fingerprint of each node to, which is
+   *          {@code null} for nodes whose outcomes cannot be reused
+   */
+  void collect(@NonNull INodeItem item, @NonNull List<INodeItem> nodes, @NonNull List<Fingerprint> keys) {
+    if (item instanceof IMetaschemaNodeItem) {
+      // a Metaschema has no values to validate
+      return;
+    }
+    MessageDigest digest = Digests.newDigest();
+    INodeItem root = item instanceof IDocumentNodeItem ? ((IDocumentNodeItem) item).getRootAssemblyNodeItem() : item;
+    collect(ObjectUtils.notNull(root), new byte[0], digest, nodes, keys);
+  }
+
+  @NonNull
+  private byte[] collect(
+      @NonNull INodeItem item,
+      @NonNull byte[] parentPath,
+      @NonNull MessageDigest digest,
+      @NonNull List<INodeItem> nodes,
+      @NonNull List<Fingerprint> keys) {
+    IDefinitionNodeItem node = (IDefinitionNodeItem) item;
+    int position = nodes.size();
+    nodes.add(node);
+    keys.add(null);
+
+    // identifies the node's definition, which is determined by its ancestors
+    digest.update(parentPath);
+    updateNode(digest, node);
+    byte[] path = digest.digest();
+
+    List<byte[]> children = new ArrayList<>();
+    for (INodeItem child : children(node)) {
+      children.add(collect(ObjectUtils.notNull(child), path, digest, nodes, keys));
+    }
+
+    updateNode(digest, node);
+    if (node instanceof IAtomicValuedItem) {
+      IAnyAtomicItem value = ((IAtomicValuedItem) node).toAtomicItem();
+      digest.update((byte) (value == null ? 0 : 1));
+      if (value != null) {
+        updateString(digest, value.asString());
+      }
+    }
+    updateInt(digest, children.size());
+    for (byte[] child : children) {
+      digest.update(child);
+    }
+    byte[] retval = digest.digest();
+
+    if (isLocal(ObjectUtils.notNull(node.getDefinition()))) {
+      keys.set(position, Fingerprint.of(path, retval));
+    }
+    return retval;
+  }
+
+  private static void updateNode(@NonNull MessageDigest digest, @NonNull IDefinitionNodeItem node) {
+    byte type;
+    if (node instanceof IFlagNodeItem) {
+      type = FLAG;
+    } else if (node instanceof IFieldNodeItem) {
+      type = FIELD;
+    } else {
+      type = ASSEMBLY;
+    }
+    digest.update(type);
+    updateString(digest, node.getName());
+    updateString(digest, node.getDefinition().getName());
+  }
+
+  private static void updateString(@NonNull MessageDigest digest, @NonNull String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    updateInt(digest, bytes.length);
+    digest.update(bytes);
+  }
+
+  private static void updateInt(@NonNull MessageDigest digest, int value) {
+    digest.update(ObjectUtils.notNull(ByteBuffer.allocate(Integer.BYTES).putInt(value).array()));
+  }
+
+  /**
+   * Get the children of the provided node, in the order they are validated.
+   *
+   * @param item
+   *          the node
+   * @return the flags of the node, followed by its model items
+   */
+  @NonNull
+  static List<INodeItem> children(@NonNull INodeItem item) {
+    List<INodeItem> retval = new ArrayList<>(item.getFlags());
+    for (List<? extends IModelNodeItem> items : item.getModelItems()) {
+      retval.addAll(items);
+    }
+    return retval.isEmpty() ? CollectionUtil.emptyList() : retval;
+  }
+
+  /**
+   * Determine if the outcomes of the constraints of the provided definition only
+   * depend on the content of the node being validated.
+   *
+   * @param definition
+   *          the definition of the node
+   * @return {@code true} if the outcomes can be reused, or {@code false}
+   *         otherwise
+   */
+  boolean isLocal(@NonNull IDefinition definition) {
+    return ObjectUtils.notNull(
+        localDefinitions.computeIfAbsent(definition, IncrementalValidationIndex::isLocalDefinition));
+  }
+
+  private static boolean isLocalDefinition(@NonNull IDefinition definition) {
+    List<IConstraint> constraints = new ArrayList<>();
+    constraints.addAll(definition.getAllowedValuesConstraints());
+    constraints.addAll(definition.getMatchesConstraints());
+    constraints.addAll(definition.getIndexHasKeyConstraints());
+    constraints.addAll(definition.getExpectConstraints());
+    if (definition instanceof IAssemblyDefinition) {
+      IAssemblyDefinition assembly = (IAssemblyDefinition) definition;
+      constraints.addAll(assembly.getIndexConstraints());
+      constraints.addAll(assembly.getUniqueConstraints());
+      constraints.addAll(assembly.getHasCardinalityConstraints());
+    }
+
+    // the keys of indexes and index references are evaluated against the whole
+    // document each time, so only the expressions evaluated against the node are
+    // checked
+    List<MetapathExpression> expressions = new ArrayList<>();
+    for (IConstraint constraint : constraints) {
+      expressions.add(constraint.getTarget());
+      if (constraint instanceof IExpectConstraint) {
+        expressions.add(((IExpectConstraint) constraint).getTest());
+      } else if (constraint instanceof IUniqueConstraint) {
+        for (IKeyField keyField : ((IUniqueConstraint) constraint).getKeyFields()) {
+          expressions.add(keyField.getTarget());
+        }
+      }
+    }
+    return expressions.stream()
+        .allMatch(expression -> expression == null || isLocalExpression(ObjectUtils.notNull(expression.getPath())));
+  }
+
+  /**
+   * Determine if the provided Metapath expression only selects the context node
+   * and its descendants.
+   * <p>
+   * This is a conservative check of the text of the expression, which may
+   * consider some local expressions to not be local.
+   *
+   * @param metapath
+   *          the Metapath expression
+   * @return {@code true} if the expression is local, or {@code false} otherwise
+   */
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  static boolean isLocalExpression(@NonNull String metapath) {
+    // the content of string literals, such as namespace URIs, is not part of the
+    // path
+    String compact = metapath.replaceAll("'[^']*'|\"[^\"]*\"", "''").replaceAll("\\s+", "");
+    for (String token : NON_LOCAL_TOKENS) {
+      if (compact.contains(token)) {
+        return false;
+      }
+    }
+
+    // a '/' that does not follow a step, such as a leading '/', selects from the
+    // root of the document
+    char last = ' ';
+    for (int index = 0; index < compact.length(); index++) {
+      char ch = compact.charAt(index);
+      if (ch == '/' && !isStepEnd(last)) {
+        return false;
+      }
+      last = ch;
+    }
+    return true;
+  }
+
+  private static boolean isStepEnd(char ch) {
+    return Character.isLetterOrDigit(ch) || ch == '-' || ch == '_' || ch == '*' || ch == '.' || ch == ']'
+        || ch == ')' || ch == '/';
+  }
+
+  @NonNull
+  private static String readString(@NonNull DataInputStream in) throws IOException {
+    return new String(readBytes(in), StandardCharsets.UTF_8);
+  }
+
+  private static void writeString(@NonNull DataOutputStream out, @NonNull String value) throws IOException {
+    writeBytes(out, ObjectUtils.notNull(value.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @NonNull
+  private static byte[] readBytes(@NonNull DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > MAX_ENTRY_SIZE) {
+      throw new IOException("The index is corrupt.");
+    }
+    byte[] retval = new byte[length];
+    in.readFully(retval);
+    return retval;
+  }
+
+  private static void writeBytes(@NonNull DataOutputStream out, @NonNull byte[] value) throws IOException {
+    out.writeInt(value.length);
+    out.write(value);
+  }
+
+  /**
+   * A 128-bit fingerprint of a node.
+   */
+  static final class Fingerprint {
+    private final long high;
+    private final long low;
+
+    private Fingerprint(long high, long low) {
+      this.high = high;
+      this.low = low;
+    }
+
+    /**
+     * Combine the digests of the location and the content of a node.
+     *
+     * @param path
+     *          the digest of the location of the node
+     * @param content
+     *          the digest of the content of the node
+     * @return the fingerprint
+     */
+    @NonNull
+    private static Fingerprint of(@NonNull byte[] path, @NonNull byte[] content) {
+      ByteBuffer pathBuffer = ByteBuffer.wrap(path);
+      ByteBuffer contentBuffer = ByteBuffer.wrap(content);
+      return new Fingerprint(
+          pathBuffer.getLong() ^ contentBuffer.getLong(),
+          pathBuffer.getLong() ^ contentBuffer.getLong());
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(high) * 31 + Long.hashCode(low);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof Fingerprint)) {
+        return false;
+      }
+      Fingerprint other = (Fingerprint) obj;
+      return high == other.high && low == other.low;
+    }
+  }
+}
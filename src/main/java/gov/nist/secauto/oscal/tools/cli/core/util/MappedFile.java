@@ -0,0 +1,551 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * A local file that is read once, either into memory when it is small or
+ * through a memory mapping when it is large.
+ * <p>
+ * The content of a mapped file is read directly from the operating system's
+ * page cache, without a read system call and stream buffer for every chunk. The
+ * file is mapped once, and can then be read any number of times, such as by
+ * format detection, schema validation, and parsing, without reading it from
+ * disk again.
+ * <p>
+ * Files smaller than {@value #DEFAULT_THRESHOLD} bytes, or the number set by
+ * the {@value #THRESHOLD_PROPERTY} system property, are read into memory
+ * instead, since mapping them costs more than it saves.
+ * <p>
+ * Content that can only be read once, such as standard input, can also be
+ * {@link #read(InputStream, Path, URI) buffered} in memory, so that it can be
+ * read the same way.
+ * <p>
+ * Compressed content held in memory is decompressed once, when its decompressed
+ * size is also below the threshold. Otherwise, such as for a mapped file, it is
+ * kept compressed and is decompressed each time it is read, so that it is never
+ * held in memory in full.
+ * <p>
+ * Closing the file releases its content. A mapping cannot be unmapped
+ * explicitly, so it is released by the garbage collector once the file and the
+ * streams opened on it are closed. Until then, some platforms, such as Windows,
+ * do not allow the file to be replaced or deleted.
+ */
+public final class MappedFile implements AutoCloseable {
+  /**
+   * The system property used to set the size, in bytes, from which files are
+   * mapped.
+   */
+  public static final String THRESHOLD_PROPERTY = "oscal-cli.mmap-threshold";
+  /**
+   * The size, in bytes, from which files are mapped by default.
+   */
+  public static final long DEFAULT_THRESHOLD = 16L * 1024 * 1024;
+  /**
+   * The size of each mapped region, since a single mapping is limited to 2 GiB.
+   */
+  private static final long SEGMENT_SIZE = 1L << 30;
+
+  @NonNull
+  private final Path file;
+  @NonNull
+  private final URI uri;
+  private final long size;
+  @NonNull
+  private List<ByteBuffer> segments;
+  private boolean closed;
+  @NonNull
+  private final Compression compression;
+  private final boolean decompressed;
+  private final boolean mapped;
+  private final boolean buffered;
+  private final boolean resident;
+
+  /**
+   * Open the provided file, mapping it if it is at least as large as the
+   * configured threshold.
+   *
+   * @param file
+   *          the file to open
+   * @return the opened file
+   * @throws IOException
+   *           if the file does not exist or an error occurred while reading it
+   */
+  @NonNull
+  public static MappedFile open(@NonNull Path file) throws IOException {
+    return open(file, Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD));
+  }
+
+  /**
+   * Open the provided file, mapping it if it is at least as large as the provided
+   * threshold, or reading it into memory otherwise.
+   *
+   * @param file
+   *          the file to open
+   * @param threshold
+   *          the size, in bytes, from which the file is mapped
+   * @return the opened file
+   * @throws IOException
+   *           if the file does not exist or an error occurred while reading it
+   */
+  @NonNull
+  public static MappedFile open(@NonNull Path file, long threshold) throws IOException {
+    long size = Files.size(file);
+    MappedFile retval;
+    URI uri = ObjectUtils.notNull(file.toUri());
+    if (size < threshold) {
+      List<ByteBuffer> segments = CollectionUtil.singletonList(
+          ObjectUtils.notNull(ByteBuffer.wrap(Files.readAllBytes(file)).asReadOnlyBuffer()));
+      retval = inMemory(file, uri, size, segments, threshold, false);
+    } else {
+      List<ByteBuffer> segments = new ArrayList<>((int) (size / SEGMENT_SIZE) + 1);
+      // the mapping remains valid once the channel is closed
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+        for (long position = 0; position < size; position += SEGMENT_SIZE) {
+          segments.add(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position)));
+        }
+      }
+      Compression compression;
+      try (InputStream is = new MappedInputStream(duplicate(segments))) {
+        compression = Compression.detect(is);
+      }
+      retval = new MappedFile(file, uri, size, segments, compression, false, true, false);
+    }
+    return retval;
+  }
+
+  /**
+   * Read the remaining content of the provided stream into memory, so that it can
+   * be read any number of times.
+   *
+   * @param is
+   *          the stream to read, which is not closed
+   * @param name
+   *          the path used to identify the content in messages
+   * @param uri
+   *          the URI that identifies the parsed document
+   * @return the buffered content
+   * @throws IOException
+   *           if an error occurred while reading the stream
+   */
+  @NonNull
+  public static MappedFile read(@NonNull InputStream is, @NonNull Path name, @NonNull URI uri) throws IOException {
+    List<ByteBuffer> segments = new ArrayList<>(1);
+    long size = 0;
+    byte[] segment;
+    do {
+      segment = is.readNBytes((int) SEGMENT_SIZE);
+      if (segment.length > 0) {
+        segments.add(ByteBuffer.wrap(segment).asReadOnlyBuffer());
+        size += segment.length;
+      }
+    } while (segment.length == SEGMENT_SIZE);
+    return inMemory(name, uri, size, segments, Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD), true);
+  }
+
+  /**
+   * Hold content read into memory, decompressing it once if it is compressed and
+   * its decompressed size is below the threshold.
+   *
+   * @param file
+   *          the path of the file, or the name of buffered content
+   * @param uri
+   *          the URI that identifies the parsed document
+   * @param size
+   *          the size of the content as read
+   * @param segments
+   *          the content as read
+   * @param threshold
+   *          the size, in bytes, below which decompressed content is held in
+   *          memory
+   * @param buffered
+   *          {@code true} if the content was read from a stream, or {@code false}
+   *          if it was read from the file
+   * @return the content
+   * @throws IOException
+   *           if an error occurred while decompressing the content
+   */
+  @NonNull
+  private static MappedFile inMemory(
+      @NonNull Path file,
+      @NonNull URI uri,
+      long size,
+      @NonNull List<ByteBuffer> segments,
+      long threshold,
+      boolean buffered) throws IOException {
+    Compression compression;
+    try (InputStream is = new MappedInputStream(duplicate(segments))) {
+      compression = Compression.detect(is);
+    }
+
+    MappedFile retval = null;
+    if (Compression.NONE.equals(compression)) {
+      retval = new MappedFile(file, uri, size, segments, compression, false, false, buffered);
+    } else {
+      try (InputStream is = Compression.decompressing(new MappedInputStream(duplicate(segments)))) {
+        byte[] content = is.readNBytes((int) Math.min(threshold, SEGMENT_SIZE));
+        if (is.read() == -1) {
+          retval = new MappedFile(file, uri, size,
+              CollectionUtil.singletonList(ObjectUtils.notNull(ByteBuffer.wrap(content).asReadOnlyBuffer())),
+              compression, true, false, buffered);
+        }
+      }
+      if (retval == null) {
+        // too large to hold decompressed, so it is decompressed each time it is read,
+        // from memory if it can only be read once, or from the file otherwise
+        retval = new MappedFile(file, uri, size, buffered ? segments : CollectionUtil.emptyList(), compression,
+            false, false, buffered);
+      }
+    }
+    return retval;
+  }
+
+  @SuppressWarnings("PMD.ExcessiveParameterList") // private
+  private MappedFile(
+      @NonNull Path file,
+      @NonNull URI uri,
+      long size,
+      @NonNull List<ByteBuffer> segments,
+      @NonNull Compression compression,
+      boolean decompressed,
+      boolean mapped,
+      boolean buffered) {
+    this.file = file;
+    this.uri = uri;
+    this.size = size;
+    this.segments = segments;
+    this.compression = compression;
+    this.decompressed = decompressed;
+    this.mapped = mapped;
+    this.buffered = buffered;
+    this.resident = !segments.isEmpty() || buffered;
+  }
+
+  /**
+   * Get the path of the file, or the name of buffered content.
+   *
+   * @return the path
+   */
+  @NonNull
+  public Path getFile() {
+    return file;
+  }
+
+  /**
+   * Get the URI of the file, which identifies the parsed document.
+   *
+   * @return the URI
+   */
+  @NonNull
+  public URI getUri() {
+    return uri;
+  }
+
+  /**
+   * Get the size of the file when it was opened.
+   *
+   * @return the size in bytes
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Determine if the file is mapped.
+   *
+   * @return {@code true} if the file is mapped, or {@code false} if it is held in
+   *         memory or read from the file
+   */
+  public boolean isMapped() {
+    return mapped;
+  }
+
+  /**
+   * Determine if the content was read from a stream into memory, in which case
+   * there is no file to read it from.
+   *
+   * @return {@code true} if the content is buffered, or {@code false} if it is
+   *         read from a file
+   */
+  public boolean isBuffered() {
+    return buffered;
+  }
+
+  /**
+   * Determine if the content is read from memory or a mapping, instead of from
+   * the file.
+   *
+   * @return {@code true} if the content is read from memory or a mapping, or
+   *         {@code false} if it is read from the file
+   */
+  boolean isResident() {
+    return resident;
+  }
+
+  /**
+   * Get the compression format of the content, which was detected from its first
+   * bytes.
+   *
+   * @return the compression format, which is {@link Compression#NONE} if the
+   *         content is not compressed
+   */
+  @NonNull
+  public Compression getCompression() {
+    return compression;
+  }
+
+  /**
+   * Get independent views of the content, one for each region.
+   * <p>
+   * Compressed content that was decompressed once is viewed decompressed.
+   *
+   * @return the views, which are empty if the content is read from the file
+   * @throws IOException
+   *           if the file is closed
+   */
+  @NonNull
+  List<ByteBuffer> getSegments() throws IOException {
+    checkOpen();
+    return duplicate(segments);
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException("The file '" + file + "' is closed.");
+    }
+  }
+
+  @NonNull
+  private static List<ByteBuffer> duplicate(@NonNull List<ByteBuffer> segments) {
+    List<ByteBuffer> retval = new ArrayList<>(segments.size());
+    for (ByteBuffer segment : segments) {
+      retval.add(segment.duplicate());
+    }
+    return retval;
+  }
+
+  /**
+   * Open a new stream that reads the content from the beginning, decompressing it
+   * if it is compressed.
+   * <p>
+   * A stream over content in memory or a mapped file copies directly from memory,
+   * so it does not need to be buffered.
+   *
+   * @return the stream, which must be closed by the caller
+   * @throws IOException
+   *           if an error occurred while opening the file, or if it is closed
+   */
+  @NonNull
+  public InputStream newInputStream() throws IOException {
+    checkOpen();
+    InputStream raw = isResident()
+        ? new MappedInputStream(getSegments())
+        : ObjectUtils.notNull(Files.newInputStream(file));
+    return decompressed || Compression.NONE.equals(compression) ? raw : Compression.decompressing(raw);
+  }
+
+  /**
+   * Release the content of the file. Streams already opened on it can still be
+   * read until they are closed.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    segments = CollectionUtil.emptyList();
+  }
+
+  /**
+   * Create an input source that reads the provided stream of the file, for use
+   * with a parser or bound loader.
+   *
+   * @param stream
+   *          a stream opened using {@link #newInputStream()}
+   * @return the input source, which identifies the file as its system id
+   */
+  @NonNull
+  public InputSource newInputSource(@NonNull InputStream stream) {
+    InputSource retval = new InputSource(stream);
+    retval.setSystemId(getUri().toString());
+    return retval;
+  }
+
+  /**
+   * Detect the format of the file, which only reads its beginning.
+   *
+   * @param loader
+   *          the loader used to detect the format
+   * @return the format
+   * @throws IOException
+   *           if an error occurred while reading the file
+   * @throws IllegalArgumentException
+   *           if the format is not recognized
+   */
+  @NonNull
+  public Format detectFormat(@NonNull IBoundLoader loader) throws IOException {
+    try (InputStream is = newInputStream()) {
+      return ObjectUtils.notNull(loader.detectFormat(is));
+    }
+  }
+
+  /**
+   * Load the file as a document node.
+   *
+   * @param loader
+   *          the loader used to parse the file
+   * @param format
+   *          the format of the file
+   * @return the document node
+   * @throws IOException
+   *           if an error occurred while reading or parsing the file
+   */
+  @NonNull
+  public IDocumentNodeItem loadAsNodeItem(@NonNull IBoundLoader loader, @NonNull Format format) throws IOException {
+    try (InputStream is = newInputStream()) {
+      return ObjectUtils.notNull(loader.loadAsNodeItem(format, newInputSource(is)));
+    }
+  }
+
+  /**
+   * Load the file as a bound object.
+   *
+   * @param <CLASS>
+   *          the type of the bound object
+   * @param loader
+   *          the loader used to parse the file
+   * @param clazz
+   *          the class of the bound object
+   * @return the bound object
+   * @throws IOException
+   *           if an error occurred while reading or parsing the file
+   */
+  @NonNull
+  public <CLASS> CLASS load(@NonNull IBoundLoader loader, @NonNull Class<CLASS> clazz) throws IOException {
+    try (InputStream is = newInputStream()) {
+      return ObjectUtils.notNull(loader.load(clazz, newInputSource(is)));
+    }
+  }
+
+  /**
+   * Reads a sequence of mapped regions.
+   */
+  private static final class MappedInputStream
+      extends InputStream {
+    @NonNull
+    private final List<ByteBuffer> segments;
+    private int current;
+
+    private MappedInputStream(@NonNull List<ByteBuffer> segments) {
+      this.segments = segments;
+    }
+
+    /**
+     * Get the region to read from next.
+     *
+     * @return the region, or {@code null} at the end of the file
+     */
+    private ByteBuffer next() {
+      ByteBuffer retval = null;
+      while (current < segments.size()) {
+        ByteBuffer segment = segments.get(current);
+        if (segment.hasRemaining()) {
+          retval = segment;
+          break;
+        }
+        // release the region once it is read
+        segments.set(current++, null);
+      }
+      return retval;
+    }
+
+    @Override
+    public int read() {
+      ByteBuffer segment = next();
+      return segment == null ? -1 : segment.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      Objects.checkFromIndexSize(offset, length, bytes.length);
+      int retval = 0;
+      if (length > 0) {
+        ByteBuffer segment = next();
+        if (segment == null) {
+          retval = -1;
+        } else {
+          retval = Math.min(length, segment.remaining());
+          segment.get(bytes, offset, retval);
+        }
+      }
+      return retval;
+    }
+
+    @Override
+    public long skip(long count) {
+      long retval = 0;
+      ByteBuffer segment;
+      while (retval < count && (segment = next()) != null) {
+        int skipped = (int) Math.min(count - retval, segment.remaining());
+        segment.position(segment.position() + skipped);
+        retval += skipped;
+      }
+      return retval;
+    }
+
+    @Override
+    public int available() {
+      ByteBuffer segment = next();
+      return segment == null ? 0 : segment.remaining();
+    }
+
+    @Override
+    public void close() {
+      segments.clear();
+      current = 0;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.cli.processor.InvalidArgumentException;
+import gov.nist.secauto.metaschema.cli.processor.OptionUtils;
+import gov.nist.secauto.metaschema.model.common.util.CustomCollectors;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.Option;
+
+import java.util.Arrays;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Helpers for reading typed values from command line options.
+ */
+public final class OptionValues {
+  private OptionValues() {
+    // disable construction
+  }
+
+  /**
+   * Get the value of an option that requires a positive integer, or the provided
+   * default if the option is not set.
+   *
+   * @param cmdLine
+   *          the parsed command line
+   * @param option
+   *          the option to get the value for
+   * @param defaultValue
+   *          the value to use if the option is not set
+   * @return the value
+   * @throws InvalidArgumentException
+   *           if the value is not a positive integer
+   */
+  public static int getPositiveInteger(@NonNull CommandLine cmdLine, @NonNull Option option, int defaultValue)
+      throws InvalidArgumentException {
+    return cmdLine.hasOption(option) ? getInteger(cmdLine, option, 1, Integer.MAX_VALUE) : defaultValue;
+  }
+
+  /**
+   * Get the value of an option that requires a non-negative integer, or the
+   * provided default if the option is not set.
+   *
+   * @param cmdLine
+   *          the parsed command line
+   * @param option
+   *          the option to get the value for
+   * @param defaultValue
+   *          the value to use if the option is not set
+   * @return the value
+   * @throws InvalidArgumentException
+   *           if the value is not a non-negative integer
+   */
+  public static int getNonNegativeInteger(@NonNull CommandLine cmdLine, @NonNull Option option, int defaultValue)
+      throws InvalidArgumentException {
+    return cmdLine.hasOption(option) ? getInteger(cmdLine, option, 0, Integer.MAX_VALUE) : defaultValue;
+  }
+
+  /**
+   * Get the value of an option that requires an integer within a range, or the
+   * provided default if the option is not set.
+   *
+   * @param cmdLine
+   *          the parsed command line
+   * @param option
+   *          the option to get the value for
+   * @param defaultValue
+   *          the value to use if the option is not set
+   * @param minimum
+   *          the smallest allowed value
+   * @param maximum
+   *          the largest allowed value
+   * @return the value
+   * @throws InvalidArgumentException
+   *           if the value is not an integer within the range
+   */
+  public static int getIntegerInRange(
+      @NonNull CommandLine cmdLine,
+      @NonNull Option option,
+      int defaultValue,
+      int minimum,
+      int maximum)
+      throws InvalidArgumentException {
+    return cmdLine.hasOption(option) ? getInteger(cmdLine, option, minimum, maximum) : defaultValue;
+  }
+
+  /**
+   * Get the compression format named by an option, or {@code null} if the option
+   * is not set.
+   *
+   * @param cmdLine
+   *          the parsed command line
+   * @param option
+   *          the option to get the value for
+   * @return the compression format, or {@code null} if the option is not set
+   * @throws InvalidArgumentException
+   *           if the value is not the name of a compression format
+   */
+  @SuppressWarnings("PMD.PreserveStackTrace") // intended
+  @Nullable
+  public static Compression getCompression(@NonNull CommandLine cmdLine, @NonNull Option option)
+      throws InvalidArgumentException {
+    Compression retval = null;
+    if (cmdLine.hasOption(option)) {
+      String value = cmdLine.getOptionValue(option);
+      try {
+        retval = Compression.forName(ObjectUtils.notNull(value));
+      } catch (IllegalArgumentException ex) {
+        InvalidArgumentException newEx = new InvalidArgumentException(
+            String.format("Invalid '%s' argument '%s'. The compression must be one of: %s.",
+                OptionUtils.toArgument(option),
+                value,
+                Arrays.stream(Compression.values())
+                    .map(Compression::getName)
+                    .collect(CustomCollectors.joiningWithOxfordComma("or"))));
+        newEx.setOption(option);
+        newEx.addSuppressed(ex);
+        throw newEx;
+      }
+    }
+    return retval;
+  }
+
+  @SuppressWarnings("PMD.PreserveStackTrace") // intended
+  private static int getInteger(@NonNull CommandLine cmdLine, @NonNull Option option, int minimum, int maximum)
+      throws InvalidArgumentException {
+    String value = cmdLine.getOptionValue(option);
+    int retval;
+    boolean valid;
+    try {
+      retval = Integer.parseInt(value);
+      valid = retval >= minimum && retval <= maximum;
+    } catch (NumberFormatException ex) {
+      retval = minimum;
+      valid = false;
+    }
+    if (!valid) {
+      String range = maximum == Integer.MAX_VALUE
+          ? String.format("greater than or equal to %d", minimum)
+          : String.format("from %d to %d", minimum, maximum);
+      InvalidArgumentException newEx = new InvalidArgumentException(
+          String.format("Invalid '%s' argument '%s'. The value must be an integer %s.",
+              OptionUtils.toArgument(option),
+              value,
+              range));
+      newEx.setOption(option);
+      throw newEx;
+    }
+    return retval;
+  }
+}
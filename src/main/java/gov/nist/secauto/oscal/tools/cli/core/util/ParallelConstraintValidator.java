@@ -0,0 +1,1097 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.binding.IBindingContext;
+import gov.nist.secauto.metaschema.binding.io.DeserializationFeature;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.IAssemblyDefinition;
+import gov.nist.secauto.metaschema.model.common.IDefinition;
+import gov.nist.secauto.metaschema.model.common.constraint.DefaultConstraintValidator;
+import gov.nist.secauto.metaschema.model.common.constraint.FindingCollectingConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.constraint.IAllowedValuesConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.ICardinalityConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraintValidator;
+import gov.nist.secauto.metaschema.model.common.constraint.IExpectConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IIndexConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IIndexHasKeyConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IKeyConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IMatchesConstraint;
+import gov.nist.secauto.metaschema.model.common.constraint.IUniqueConstraint;
+import gov.nist.secauto.metaschema.model.common.metapath.DynamicContext;
+import gov.nist.secauto.metaschema.model.common.metapath.IDocumentLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.ISequence;
+import gov.nist.secauto.metaschema.model.common.metapath.MetapathException;
+import gov.nist.secauto.metaschema.model.common.metapath.StaticContext;
+import gov.nist.secauto.metaschema.model.common.metapath.item.AbstractNodeItemVisitor;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IAssemblyNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDefinitionNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IFieldNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IFlagNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IMetaschemaNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItem;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.oscal.tools.cli.core.util.IncrementalValidationIndex.Fingerprint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Validates Metaschema constraints using multiple threads, producing the same
+ * findings, in the same order, as a {@link DefaultConstraintValidator}.
+ * <p>
+ * The constraints of each flag, field, and assembly are evaluated concurrently
+ * on a work-stealing pool. The findings and other outcomes of each node are
+ * recorded, and are then replayed in document order on a single thread. The
+ * steps that depend on the whole document, such as building indexes, resolving
+ * index keys, and checking allowed values across constraints, are performed
+ * during this replay.
+ * <p>
+ * The outcomes of each group of nodes are replayed as soon as they are
+ * recorded, while the later nodes are still being validated. If the handler
+ * throws an exception, such as a
+ * {@link FindingLimitingConstraintValidationHandler.LimitReachedException}, the
+ * nodes that have not been validated yet are skipped.
+ * <p>
+ * When an {@link IncrementalValidationIndex} is provided, the recorded outcomes
+ * of nodes that have not changed since the previous validation are reused
+ * instead of evaluating their constraints again.
+ */
+public class ParallelConstraintValidator implements IConstraintValidator {
+  /**
+   * The number of consecutive nodes validated by each task. Tasks are small, so
+   * idle threads can take work from busy ones.
+   */
+  private static final int CHUNK_SIZE = 256;
+
+  @NonNull
+  private final Supplier<DynamicContext> contextFactory;
+  @NonNull
+  private final ReplayValidator replayValidator;
+  private final int threads;
+  @Nullable
+  private final IncrementalValidationIndex index;
+
+  /**
+   * Validate the constraints of the provided file.
+   * <p>
+   * This is equivalent to {@link IBindingContext#validateWithConstraints(Path)},
+   * but uses the provided number of threads.
+   *
+   * @param bindingContext
+   *          the binding context used to load the file and any documents it
+   *          references
+   * @param target
+   *          the file to validate
+   * @param threads
+   *          the number of threads to use
+   * @return the validation result
+   * @throws IOException
+   *           if an error occurred while loading the file
+   */
+  @NonNull
+  public static IValidationResult validateWithConstraints(
+      @NonNull IBindingContext bindingContext,
+      @NonNull Path target,
+      int threads) throws IOException {
+    return validateWithConstraints(bindingContext, target, threads, null);
+  }
+
+  /**
+   * Validate the constraints of the provided file, reusing the outcomes of the
+   * parts of the file that have not changed since it was last validated with the
+   * provided index.
+   * <p>
+   * The index is updated with the outcomes of this validation, but is not saved.
+   *
+   * @param bindingContext
+   *          the binding context used to load the file and any documents it
+   *          references
+   * @param target
+   *          the file to validate
+   * @param threads
+   *          the number of threads to use
+   * @param index
+   *          the outcomes of the previous validation, or {@code null} to validate
+   *          every node
+   * @return the validation result
+   * @throws IOException
+   *           if an error occurred while loading the file
+   */
+  @NonNull
+  public static IValidationResult validateWithConstraints(
+      @NonNull IBindingContext bindingContext,
+      @NonNull Path target,
+      int threads,
+      @Nullable IncrementalValidationIndex index) throws IOException {
+    FindingCollectingConstraintValidationHandler handler = new FindingCollectingConstraintValidationHandler();
+    validateWithConstraints(bindingContext, target, threads, index, handler);
+    return handler;
+  }
+
+  /**
+   * Validate the constraints of the provided file, reporting the findings to the
+   * provided handler.
+   *
+   * @param bindingContext
+   *          the binding context used to load the file and any documents it
+   *          references
+   * @param target
+   *          the file to validate
+   * @param threads
+   *          the number of threads to use
+   * @param index
+   *          the outcomes of the previous validation, or {@code null} to validate
+   *          every node
+   * @param handler
+   *          the handler that is notified of the findings
+   * @throws IOException
+   *           if an error occurred while loading the file
+   */
+  public static void validateWithConstraints(
+      @NonNull IBindingContext bindingContext,
+      @NonNull Path target,
+      int threads,
+      @Nullable IncrementalValidationIndex index,
+      @NonNull IConstraintValidationHandler handler) throws IOException {
+    IDocumentNodeItem nodeItem = newLoader(bindingContext).loadAsNodeItem(target);
+    validate(bindingContext, nodeItem, threads, index, handler);
+  }
+
+  /**
+   * Validate the constraints of the provided node and its descendants.
+   * <p>
+   * This is equivalent to {@link IBindingContext#validate(INodeItem)}, but uses
+   * the provided number of threads.
+   *
+   * @param bindingContext
+   *          the binding context used to load any documents referenced by
+   *          constraints
+   * @param nodeItem
+   *          the node to validate
+   * @param threads
+   *          the number of threads to use
+   * @return the validation result
+   */
+  @NonNull
+  public static IValidationResult validate(
+      @NonNull IBindingContext bindingContext,
+      @NonNull INodeItem nodeItem,
+      int threads) {
+    FindingCollectingConstraintValidationHandler handler = new FindingCollectingConstraintValidationHandler();
+    validate(bindingContext, nodeItem, threads, null, handler);
+    return handler;
+  }
+
+  /**
+   * Validate the constraints of the provided node and its descendants, reporting
+   * the findings to the provided handler.
+   *
+   * @param bindingContext
+   *          the binding context used to load any documents referenced by
+   *          constraints
+   * @param nodeItem
+   *          the node to validate
+   * @param threads
+   *          the number of threads to use
+   * @param index
+   *          the outcomes of the previous validation, or {@code null} to validate
+   *          every node
+   * @param handler
+   *          the handler that is notified of the findings
+   */
+  public static void validate(
+      @NonNull IBindingContext bindingContext,
+      @NonNull INodeItem nodeItem,
+      int threads,
+      @Nullable IncrementalValidationIndex index,
+      @NonNull IConstraintValidationHandler handler) {
+    IConstraintValidator validator = new ParallelConstraintValidator(
+        () -> newDynamicContext(bindingContext),
+        handler,
+        threads,
+        index);
+    validator.validate(nodeItem);
+    validator.finalizeValidation();
+  }
+
+  @NonNull
+  private static IBoundLoader newLoader(@NonNull IBindingContext bindingContext) {
+    IBoundLoader loader = bindingContext.newBoundLoader();
+    loader.disableFeature(DeserializationFeature.DESERIALIZE_VALIDATE_CONSTRAINTS);
+    return loader;
+  }
+
+  @NonNull
+  private static DynamicContext newDynamicContext(@NonNull IBindingContext bindingContext) {
+    DynamicContext retval = new StaticContext().newDynamicContext();
+    retval.setDocumentLoader((IDocumentLoader) newLoader(bindingContext));
+    return retval;
+  }
+
+  /**
+   * Construct a new validator.
+   * <p>
+   * A dynamic context is not safe for use by multiple threads, so each thread
+   * evaluates constraints using its own context.
+   *
+   * @param contextFactory
+   *          creates the dynamic context used by each thread
+   * @param handler
+   *          the handler that is notified of the findings
+   * @param threads
+   *          the number of threads to use
+   */
+  public ParallelConstraintValidator(
+      @NonNull Supplier<DynamicContext> contextFactory,
+      @NonNull IConstraintValidationHandler handler,
+      int threads) {
+    this(contextFactory, handler, threads, null);
+  }
+
+  /**
+   * Construct a new validator that reuses the outcomes of unchanged nodes stored
+   * in the provided index.
+   *
+   * @param contextFactory
+   *          creates the dynamic context used by each thread
+   * @param handler
+   *          the handler that is notified of the findings
+   * @param threads
+   *          the number of threads to use
+   * @param index
+   *          the outcomes of the previous validation, which is updated with the
+   *          outcomes of this validation, or {@code null} to validate every node
+   */
+  public ParallelConstraintValidator(
+      @NonNull Supplier<DynamicContext> contextFactory,
+      @NonNull IConstraintValidationHandler handler,
+      int threads,
+      @Nullable IncrementalValidationIndex index) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("The number of threads must be positive.");
+    }
+    this.contextFactory = contextFactory;
+    this.replayValidator = new ReplayValidator(ObjectUtils.notNull(contextFactory.get()), handler);
+    this.threads = threads;
+    this.index = index;
+  }
+
+  @Override
+  public void validate(@NonNull INodeItem item) {
+    // visiting every node up front also builds the node tree, which is built
+    // lazily, before it is shared by the worker threads
+    List<INodeItem> nodes = new ArrayList<>();
+    List<Fingerprint> keys = new ArrayList<>();
+    IncrementalValidationIndex index = this.index;
+    if (index == null) {
+      item.accept(new NodeCollector(), nodes);
+    } else {
+      index.collect(item, nodes, keys);
+    }
+
+    AtomicReferenceArray<List<Event>> events = new AtomicReferenceArray<>(nodes.size());
+    ThreadLocal<RecordingValidator> recorders
+        = ThreadLocal.withInitial(() -> new RecordingValidator(ObjectUtils.notNull(contextFactory.get())));
+
+    List<Callable<Void>> tasks = new ArrayList<>(nodes.size() / CHUNK_SIZE + 1);
+    for (int from = 0; from < nodes.size(); from += CHUNK_SIZE) {
+      int start = from;
+      int end = Math.min(from + CHUNK_SIZE, nodes.size());
+      tasks.add(() -> {
+        RecordingValidator recorder = recorders.get();
+        for (int position = start; position < end; position++) {
+          INodeItem node = ObjectUtils.notNull(nodes.get(position));
+          Fingerprint key = index == null ? null : keys.get(position);
+          events.set(position, index == null || key == null
+              ? recorder.record(node)
+              : record(recorder, node, key, index));
+        }
+        return null;
+      });
+    }
+
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      List<Future<Void>> futures = new ArrayList<>(tasks.size());
+      for (Callable<Void> task : tasks) {
+        futures.add(pool.submit(task));
+      }
+      item.accept(new ReplayVisitor(events, futures), null);
+    } finally {
+      // cancels the remaining tasks if the replay stopped early
+      pool.shutdownNow();
+    }
+  }
+
+  private static void await(@NonNull Future<Void> future) {
+    try {
+      future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Constraint validation was interrupted.", ex);
+    } catch (ExecutionException ex) {
+      // node failures are recorded as events, so this is an unexpected error
+      Throwable cause = ex.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    }
+  }
+
+  /**
+   * Get the outcomes of a node that may not have changed since the previous
+   * validation, reusing the stored outcomes if they exist.
+   *
+   * @param recorder
+   *          the validator used if the node has changed
+   * @param node
+   *          the node to validate
+   * @param key
+   *          the fingerprint of the node
+   * @param index
+   *          the outcomes of the previous validation
+   * @return the outcomes of the node
+   */
+  @NonNull
+  private static List<Event> record(
+      @NonNull RecordingValidator recorder,
+      @NonNull INodeItem node,
+      @NonNull Fingerprint key,
+      @NonNull IncrementalValidationIndex index) {
+    byte[] stored = index.get(key);
+    List<Event> retval = stored == null ? null : EventCodec.decode(node, stored);
+    if (retval == null) {
+      retval = recorder.record(node);
+      stored = EventCodec.encode(node, retval);
+    }
+    if (stored != null) {
+      index.put(key, stored);
+    }
+    return retval;
+  }
+
+  @Override
+  public void finalizeValidation() {
+    replayValidator.finalizeValidation();
+  }
+
+  /**
+   * An outcome of validating a node, which is replayed in document order.
+   */
+  @FunctionalInterface
+  private interface Event {
+    void replay(@NonNull ReplayValidator validator);
+  }
+
+  /**
+   * The kinds of outcomes of validating a node that only refer to the node, its
+   * descendants, and the constraints of its definition, which can be stored in an
+   * {@link IncrementalValidationIndex}.
+   */
+  private enum Kind {
+    CARDINALITY_MINIMUM,
+    CARDINALITY_MAXIMUM,
+    UNIQUE_KEY,
+    MATCH_PATTERN,
+    MATCH_DATATYPE,
+    EXPECT,
+    VALUE_STATUS,
+    INDEX,
+    INDEX_HAS_KEY;
+
+    /**
+     * Get the constraints of the provided definition that outcomes of this kind
+     * refer to.
+     *
+     * @param definition
+     *          the definition of the validated node
+     * @return the constraints
+     */
+    @NonNull
+    private List<? extends IConstraint> getConstraints(@NonNull IDefinition definition) {
+      List<? extends IConstraint> retval;
+      switch (this) {
+      case MATCH_PATTERN:
+      case MATCH_DATATYPE:
+        retval = definition.getMatchesConstraints();
+        break;
+      case EXPECT:
+        retval = definition.getExpectConstraints();
+        break;
+      case VALUE_STATUS:
+        retval = definition.getAllowedValuesConstraints();
+        break;
+      case INDEX_HAS_KEY:
+        retval = definition.getIndexHasKeyConstraints();
+        break;
+      default:
+        retval = definition instanceof IAssemblyDefinition
+            ? getAssemblyConstraints((IAssemblyDefinition) definition)
+            : CollectionUtil.emptyList();
+        break;
+      }
+      return retval;
+    }
+
+    @NonNull
+    private List<? extends IConstraint> getAssemblyConstraints(@NonNull IAssemblyDefinition definition) {
+      List<? extends IConstraint> retval;
+      switch (this) {
+      case CARDINALITY_MINIMUM:
+      case CARDINALITY_MAXIMUM:
+        retval = definition.getHasCardinalityConstraints();
+        break;
+      case UNIQUE_KEY:
+        retval = definition.getUniqueConstraints();
+        break;
+      case INDEX:
+        retval = definition.getIndexConstraints();
+        break;
+      default:
+        throw new IllegalStateException(name());
+      }
+      return retval;
+    }
+  }
+
+  /**
+   * An outcome of validating a node that only refers to the node, its
+   * descendants, and the constraints of its definition.
+   */
+  private static final class NodeEvent implements Event {
+    @NonNull
+    private final Kind kind;
+    @NonNull
+    private final IConstraint constraint;
+    @NonNull
+    private final INodeItem node;
+    @NonNull
+    private final List<? extends INodeItem> items;
+    @Nullable
+    private final String value;
+    @Nullable
+    private final IllegalArgumentException cause;
+
+    private NodeEvent(
+        @NonNull Kind kind,
+        @NonNull IConstraint constraint,
+        @NonNull INodeItem node,
+        @NonNull List<? extends INodeItem> items) {
+      this(kind, constraint, node, items, null, null);
+    }
+
+    private NodeEvent(
+        @NonNull Kind kind,
+        @NonNull IConstraint constraint,
+        @NonNull INodeItem node,
+        @NonNull List<? extends INodeItem> items,
+        @Nullable String value,
+        @Nullable IllegalArgumentException cause) {
+      this.kind = kind;
+      this.constraint = constraint;
+      this.node = node;
+      this.items = items;
+      this.value = value;
+      this.cause = cause;
+    }
+
+    @NonNull
+    private INodeItem getItem(int position) {
+      return ObjectUtils.notNull(items.get(position));
+    }
+
+    @SuppressWarnings("PMD.CyclomaticComplexity") // one case per kind
+    @Override
+    public void replay(@NonNull ReplayValidator validator) {
+      IConstraintValidationHandler handler = validator.getConstraintValidationHandler();
+      switch (kind) {
+      case CARDINALITY_MINIMUM:
+        handler.handleCardinalityMinimumViolation((ICardinalityConstraint) constraint, node, ISequence.of(items));
+        break;
+      case CARDINALITY_MAXIMUM:
+        handler.handleCardinalityMaximumViolation((ICardinalityConstraint) constraint, node, ISequence.of(items));
+        break;
+      case UNIQUE_KEY:
+        handler.handleUniqueKeyViolation((IUniqueConstraint) constraint, node, getItem(0), getItem(1));
+        break;
+      case MATCH_PATTERN:
+        handler.handleMatchPatternViolation((IMatchesConstraint) constraint, node, getItem(0),
+            ObjectUtils.requireNonNull(value));
+        break;
+      case MATCH_DATATYPE:
+        handler.handleMatchDatatypeViolation((IMatchesConstraint) constraint, node, getItem(0),
+            ObjectUtils.requireNonNull(value), ObjectUtils.requireNonNull(cause));
+        break;
+      case EXPECT:
+        handler.handleExpectViolation((IExpectConstraint) constraint, node, getItem(0), validator.getContext());
+        break;
+      case VALUE_STATUS:
+        validator.replayValueStatus(getItem(0), (IAllowedValuesConstraint) constraint);
+        break;
+      case INDEX:
+        validator.replayIndex((IIndexConstraint) constraint, (IAssemblyNodeItem) node, ISequence.of(items));
+        break;
+      case INDEX_HAS_KEY:
+        validator.replayIndexHasKey((IIndexHasKeyConstraint) constraint, (IDefinitionNodeItem) node,
+            ISequence.of(items));
+        break;
+      default:
+        throw new IllegalStateException(kind.name());
+      }
+    }
+  }
+
+  /**
+   * Encodes the outcomes of a node for storage in an
+   * {@link IncrementalValidationIndex}.
+   * <p>
+   * Constraints are identified by their position in the definition of the node,
+   * and nodes by their path from the node, so the outcomes can be applied to a
+   * node with the same content in a different document.
+   */
+  private static final class EventCodec {
+    private EventCodec() {
+      // disable construction
+    }
+
+    /**
+     * Encode the outcomes of the provided node.
+     *
+     * @param node
+     *          the validated node
+     * @param events
+     *          the outcomes of the node
+     * @return the encoded outcomes, or {@code null} if the outcomes cannot be
+     *         stored
+     */
+    @SuppressWarnings({
+        "PMD.OnlyOneReturn", // readability
+        "PMD.ReturnEmptyCollectionRatherThanNull" // not a collection
+    })
+    @Nullable
+    private static byte[] encode(@NonNull INodeItem node, @NonNull List<Event> events) {
+      IDefinition definition = ((IDefinitionNodeItem) node).getDefinition();
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeInt(events.size());
+        for (Event event : events) {
+          if (!(event instanceof NodeEvent)) {
+            // failures are not stored, so the node is validated again
+            return null;
+          }
+          NodeEvent nodeEvent = (NodeEvent) event;
+          int constraint = indexOf(nodeEvent.kind.getConstraints(definition), nodeEvent.constraint);
+          if (nodeEvent.node != node || constraint < 0) {
+            return null;
+          }
+          out.writeByte(nodeEvent.kind.ordinal());
+          out.writeInt(constraint);
+          out.writeInt(nodeEvent.items.size());
+          for (INodeItem item : nodeEvent.items) {
+            List<Integer> path = pathOf(node, ObjectUtils.notNull(item));
+            if (path == null) {
+              return null;
+            }
+            out.writeInt(path.size());
+            for (int position : path) {
+              out.writeInt(position);
+            }
+          }
+          writeString(out, nodeEvent.value);
+          IllegalArgumentException cause = nodeEvent.cause;
+          out.writeBoolean(cause != null);
+          if (cause != null) {
+            writeString(out, cause.getMessage());
+          }
+        }
+      } catch (IOException ex) {
+        // not thrown when writing to memory
+        throw new IllegalStateException(ex);
+      }
+      return bytes.toByteArray();
+    }
+
+    /**
+     * Decode the stored outcomes of a node.
+     *
+     * @param node
+     *          the validated node
+     * @param encoded
+     *          the encoded outcomes
+     * @return the outcomes of the node, or {@code null} if they do not apply to the
+     *         node
+     */
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull") // null means the node must be validated
+    @Nullable
+    private static List<Event> decode(@NonNull INodeItem node, @NonNull byte[] encoded) {
+      IDefinition definition = ((IDefinitionNodeItem) node).getDefinition();
+      List<Event> retval;
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encoded))) {
+        int size = in.readInt();
+        retval = new ArrayList<>(size);
+        for (int event = 0; event < size; event++) {
+          Kind kind = Kind.values()[in.readUnsignedByte()];
+          IConstraint constraint = kind.getConstraints(definition).get(in.readInt());
+          int count = in.readInt();
+          List<INodeItem> items = new ArrayList<>(count);
+          for (int item = 0; item < count; item++) {
+            INodeItem target = node;
+            int length = in.readInt();
+            for (int step = 0; step < length; step++) {
+              target = IncrementalValidationIndex.children(target).get(in.readInt());
+            }
+            items.add(target);
+          }
+          String value = readString(in);
+          IllegalArgumentException cause = in.readBoolean() ? new IllegalArgumentException(readString(in)) : null;
+          retval.add(new NodeEvent(kind, ObjectUtils.notNull(constraint), node, items, value, cause));
+        }
+      } catch (IOException | IndexOutOfBoundsException ex) {
+        // the stored outcomes do not match the node's definition
+        retval = null;
+      }
+      return retval == null || !retval.isEmpty() ? retval : CollectionUtil.emptyList();
+    }
+
+    private static int indexOf(@NonNull List<? extends IConstraint> constraints, @NonNull IConstraint constraint) {
+      int retval = -1;
+      for (int position = 0; position < constraints.size(); position++) {
+        if (constraints.get(position) == constraint) {
+          retval = position;
+          break;
+        }
+      }
+      return retval;
+    }
+
+    /**
+     * Get the positions of the children that lead from the provided node to the
+     * provided descendant.
+     *
+     * @param node
+     *          the node
+     * @param descendant
+     *          the node or one of its descendants
+     * @return the positions, or {@code null} if the item is not a descendant
+     */
+    @SuppressWarnings({
+        "PMD.OnlyOneReturn", // readability
+        "PMD.ReturnEmptyCollectionRatherThanNull" // null means not a descendant
+    })
+    @Nullable
+    private static List<Integer> pathOf(@NonNull INodeItem node, @NonNull INodeItem descendant) {
+      List<Integer> retval = new ArrayList<>();
+      INodeItem current = descendant;
+      while (current != node) {
+        INodeItem parent = current.getParentNodeItem();
+        if (parent == null) {
+          return null;
+        }
+        int position = IncrementalValidationIndex.children(parent).indexOf(current);
+        if (position < 0) {
+          return null;
+        }
+        retval.add(position);
+        current = parent;
+      }
+      Collections.reverse(retval);
+      return retval;
+    }
+
+    private static void writeString(@NonNull DataOutputStream out, @Nullable String value) throws IOException {
+      if (value == null) {
+        out.writeInt(-1);
+      } else {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+    }
+
+    @Nullable
+    private static String readString(@NonNull DataInputStream in) throws IOException {
+      int length = in.readInt();
+      String retval = null;
+      if (length >= 0) {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        retval = new String(bytes, StandardCharsets.UTF_8);
+      }
+      return retval;
+    }
+  }
+
+  /**
+   * Collects the flags, fields, and assemblies in the order they are validated.
+   */
+  private static final class NodeCollector
+      extends AbstractNodeItemVisitor<Void, List<INodeItem>> {
+
+    @Override
+    public Void visitFlag(IFlagNodeItem item, List<INodeItem> context) {
+      context.add(item);
+      return super.visitFlag(item, context);
+    }
+
+    @Override
+    public Void visitField(IFieldNodeItem item, List<INodeItem> context) {
+      context.add(item);
+      return super.visitField(item, context);
+    }
+
+    @Override
+    public Void visitAssembly(IAssemblyNodeItem item, List<INodeItem> context) {
+      context.add(item);
+      return super.visitAssembly(item, context);
+    }
+
+    @Override
+    public Void visitMetaschema(IMetaschemaNodeItem item, List<INodeItem> context) {
+      // a Metaschema describes definitions, which have no values to validate, and
+      // its recursive definitions would be walked without end
+      return null;
+    }
+
+    @Override
+    protected Void defaultResult() {
+      return null;
+    }
+  }
+
+  /**
+   * Evaluates the constraints of a single node, recording the outcomes instead of
+   * acting on them.
+   */
+  private static final class RecordingValidator
+      extends DefaultConstraintValidator {
+
+    /**
+     * The node being validated.
+     */
+    @Nullable
+    private INodeItem current;
+
+    private RecordingValidator(@NonNull DynamicContext metapathContext) {
+      super(metapathContext, new RecordingHandler());
+    }
+
+    @NonNull
+    private RecordingHandler getRecordingHandler() {
+      return (RecordingHandler) getConstraintValidationHandler();
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // replayed in order
+    @NonNull
+    private List<Event> record(@NonNull INodeItem item) {
+      List<Event> retval = new ArrayList<>();
+      getRecordingHandler().setEvents(retval);
+      current = item;
+      try {
+        if (item instanceof IFlagNodeItem) {
+          validateFlag((IFlagNodeItem) item);
+        } else if (item instanceof IFieldNodeItem) {
+          validateField((IFieldNodeItem) item);
+        } else {
+          validateAssembly((IAssemblyNodeItem) item);
+        }
+      } catch (RuntimeException ex) {
+        // a sequential validation would stop here, so stop when this is replayed
+        retval.add(validator -> {
+          throw ex;
+        });
+      } finally {
+        getRecordingHandler().setEvents(CollectionUtil.emptyList());
+        current = null;
+      }
+      return retval.isEmpty() ? CollectionUtil.emptyList() : retval;
+    }
+
+    private void add(@NonNull Event event) {
+      getRecordingHandler().add(event);
+    }
+
+    @Override
+    protected void updateValueStatus(
+        @NonNull INodeItem targetItem,
+        @NonNull IAllowedValuesConstraint allowedValues) {
+      add(new NodeEvent(Kind.VALUE_STATUS, allowedValues, ObjectUtils.requireNonNull(current), List.of(targetItem)));
+    }
+
+    @Override
+    protected void validateIndex(
+        @NonNull IIndexConstraint constraint,
+        @NonNull IAssemblyNodeItem node,
+        @NonNull ISequence<? extends INodeItem> targets) {
+      add(new NodeEvent(Kind.INDEX, constraint, node, targets.asList()));
+    }
+
+    @Override
+    protected void validateIndexHasKey(
+        @NonNull IIndexHasKeyConstraint constraint,
+        @NonNull IDefinitionNodeItem node,
+        @NonNull ISequence<? extends INodeItem> targets) {
+      add(new NodeEvent(Kind.INDEX_HAS_KEY, constraint, node, targets.asList()));
+    }
+  }
+
+  /**
+   * Records the findings of a node, to be passed to the real handler when
+   * replayed.
+   */
+  private static final class RecordingHandler implements IConstraintValidationHandler {
+    @NonNull
+    private List<Event> events = CollectionUtil.emptyList();
+
+    private void setEvents(@NonNull List<Event> events) {
+      this.events = events;
+    }
+
+    private void add(@NonNull Event event) {
+      events.add(event);
+    }
+
+    @Override
+    public void handleCardinalityMinimumViolation(
+        ICardinalityConstraint constraint,
+        INodeItem node,
+        ISequence<? extends INodeItem> targets) {
+      add(new NodeEvent(Kind.CARDINALITY_MINIMUM, constraint, node, targets.asList()));
+    }
+
+    @Override
+    public void handleCardinalityMaximumViolation(
+        ICardinalityConstraint constraint,
+        INodeItem node,
+        ISequence<? extends INodeItem> targets) {
+      add(new NodeEvent(Kind.CARDINALITY_MAXIMUM, constraint, node, targets.asList()));
+    }
+
+    @Override
+    public void handleIndexDuplicateViolation(IIndexConstraint constraint, INodeItem node) {
+      add(validator -> validator.getConstraintValidationHandler()
+          .handleIndexDuplicateViolation(constraint, node));
+    }
+
+    @Override
+    public void handleIndexDuplicateKeyViolation(
+        IIndexConstraint constraint,
+        INodeItem node,
+        INodeItem oldItem,
+        INodeItem target) {
+      add(validator -> validator.getConstraintValidationHandler()
+          .handleIndexDuplicateKeyViolation(constraint, node, oldItem, target));
+    }
+
+    @Override
+    public void handleUniqueKeyViolation(
+        IUniqueConstraint constraint,
+        INodeItem node,
+        INodeItem oldItem,
+        INodeItem target) {
+      add(new NodeEvent(Kind.UNIQUE_KEY, constraint, node, List.of(oldItem, target)));
+    }
+
+    @Override
+    public void handleMatchPatternViolation(
+        IMatchesConstraint constraint,
+        INodeItem node,
+        INodeItem target,
+        String value) {
+      add(new NodeEvent(Kind.MATCH_PATTERN, constraint, node, List.of(target), value, null));
+    }
+
+    @Override
+    public void handleMatchDatatypeViolation(
+        IMatchesConstraint constraint,
+        INodeItem node,
+        INodeItem target,
+        String value,
+        IllegalArgumentException cause) {
+      add(new NodeEvent(Kind.MATCH_DATATYPE, constraint, node, List.of(target), value, cause));
+    }
+
+    @Override
+    public void handleExpectViolation(
+        IExpectConstraint constraint,
+        INodeItem node,
+        INodeItem target,
+        DynamicContext metapathContext) {
+      // the message is built when replayed, using the replaying thread's context
+      add(new NodeEvent(Kind.EXPECT, constraint, node, List.of(target)));
+    }
+
+    @Override
+    public void handleKeyMatchError(
+        IKeyConstraint constraint,
+        INodeItem node,
+        INodeItem target,
+        MetapathException cause) {
+      add(validator -> validator.getConstraintValidationHandler()
+          .handleKeyMatchError(constraint, node, target, cause));
+    }
+
+    @Override
+    public void handleIndexMiss(IIndexHasKeyConstraint constraint, INodeItem node, INodeItem target) {
+      add(validator -> validator.getConstraintValidationHandler()
+          .handleIndexMiss(constraint, node, target));
+    }
+
+    @Override
+    public void handleAllowedValuesViolation(List<IAllowedValuesConstraint> failedConstraints, INodeItem target) {
+      add(validator -> validator.getConstraintValidationHandler()
+          .handleAllowedValuesViolation(failedConstraints, target));
+    }
+  }
+
+  /**
+   * Applies the recorded events to the real handler, maintaining the indexes and
+   * allowed value state of the document.
+   */
+  private static final class ReplayValidator
+      extends DefaultConstraintValidator {
+
+    private ReplayValidator(@NonNull DynamicContext metapathContext, @NonNull IConstraintValidationHandler handler) {
+      super(metapathContext, handler);
+    }
+
+    @NonNull
+    private DynamicContext getContext() {
+      return getMetapathContext();
+    }
+
+    private void replayValueStatus(@NonNull INodeItem targetItem, @NonNull IAllowedValuesConstraint allowedValues) {
+      updateValueStatus(targetItem, allowedValues);
+    }
+
+    private void replayIndex(
+        @NonNull IIndexConstraint constraint,
+        @NonNull IAssemblyNodeItem node,
+        @NonNull ISequence<? extends INodeItem> targets) {
+      validateIndex(constraint, node, targets);
+    }
+
+    private void replayIndexHasKey(
+        @NonNull IIndexHasKeyConstraint constraint,
+        @NonNull IDefinitionNodeItem node,
+        @NonNull ISequence<? extends INodeItem> targets) {
+      validateIndexHasKey(constraint, node, targets);
+    }
+
+    private void replayAllowedValues(@NonNull INodeItem item) {
+      handleAllowedValues(item);
+    }
+  }
+
+  /**
+   * Replays the recorded events, visiting the nodes in the same order as they
+   * were collected, and waiting for the task that records each group of nodes.
+   */
+  private final class ReplayVisitor
+      extends AbstractNodeItemVisitor<Void, Void> {
+    @NonNull
+    private final AtomicReferenceArray<List<Event>> events;
+    @NonNull
+    private final List<Future<Void>> futures;
+    private int index;
+    private int recorded;
+
+    private ReplayVisitor(@NonNull AtomicReferenceArray<List<Event>> events, @NonNull List<Future<Void>> futures) {
+      this.events = events;
+      this.futures = futures;
+    }
+
+    private void replayNext() {
+      if (index == recorded) {
+        await(ObjectUtils.notNull(futures.get(index / CHUNK_SIZE)));
+        recorded = Math.min(recorded + CHUNK_SIZE, events.length());
+      }
+      for (Event event : events.get(index)) {
+        event.replay(replayValidator);
+      }
+      // release the events of this node
+      events.set(index++, null);
+    }
+
+    @Override
+    public Void visitFlag(IFlagNodeItem item, Void context) {
+      replayNext();
+      super.visitFlag(item, context);
+      replayValidator.replayAllowedValues(item);
+      return null;
+    }
+
+    @Override
+    public Void visitField(IFieldNodeItem item, Void context) {
+      replayNext();
+      super.visitField(item, context);
+      replayValidator.replayAllowedValues(item);
+      return null;
+    }
+
+    @Override
+    public Void visitAssembly(IAssemblyNodeItem item, Void context) {
+      replayNext();
+      super.visitAssembly(item, context);
+      return null;
+    }
+
+    @Override
+    public Void visitMetaschema(IMetaschemaNodeItem item, Void context) {
+      // nothing was collected for a Metaschema, so there is nothing to replay
+      return null;
+    }
+
+    @Override
+    protected Void defaultResult() {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.JsonSchemaContentValidator;
+import gov.nist.secauto.metaschema.model.common.validation.XmlSchemaContentValidator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.json.JSONObject;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.transform.Source;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Holds the compiled XML and JSON schemas used for content validation, so that
+ * each schema is compiled at most once per process.
+ * <p>
+ * Schemas are compiled lazily on first use and are keyed by an arbitrary
+ * caller-provided key, typically the class of the command that owns the schema.
+ * The cached validators are stateless and can be shared across threads.
+ */
+public final class SchemaRegistry {
+  private static final Logger LOGGER = LogManager.getLogger(SchemaRegistry.class);
+  @NonNull
+  private static final SchemaRegistry INSTANCE = new SchemaRegistry();
+
+  @NonNull
+  private final ConcurrentMap<Object, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Get the singleton instance of the registry.
+   *
+   * @return the registry
+   */
+  @NonNull
+  public static SchemaRegistry instance() {
+    return INSTANCE;
+  }
+
+  private SchemaRegistry() {
+    // disable construction
+  }
+
+  /**
+   * Get the XML schema validator for the provided key, compiling the schema using
+   * the provided sources if it has not yet been compiled.
+   *
+   * @param key
+   *          the key identifying the schema
+   * @param sources
+   *          supplies the schema sources to compile
+   * @return the validator
+   * @throws IOException
+   *           if an error occurred while reading the schema sources
+   * @throws SAXException
+   *           if an error occurred while compiling the schema
+   */
+  @NonNull
+  public XmlSchemaContentValidator getXmlSchemaValidator(
+      @NonNull Object key,
+      @NonNull XmlSchemaSupplier sources) throws IOException, SAXException {
+    return getEntry(key).getXmlSchemaValidator(key, sources);
+  }
+
+  /**
+   * Get the JSON schema validator for the provided key, compiling the schema
+   * using the provided schema object if it has not yet been compiled.
+   *
+   * @param key
+   *          the key identifying the schema
+   * @param schema
+   *          supplies the JSON schema to compile
+   * @return the validator
+   * @throws IOException
+   *           if an error occurred while reading the schema
+   */
+  @NonNull
+  public JsonSchemaContentValidator getJsonSchemaValidator(
+      @NonNull Object key,
+      @NonNull JsonSchemaSupplier schema) throws IOException {
+    return getEntry(key).getJsonSchemaValidator(key, schema);
+  }
+
+  /**
+   * Get the streaming JSON schema validator for the provided key, compiling the
+   * schema using the provided schema object if it has not yet been compiled.
+   *
+   * @param key
+   *          the key identifying the schema
+   * @param schema
+   *          supplies the JSON schema to compile
+   * @return the validator
+   * @throws IOException
+   *           if an error occurred while reading the schema
+   */
+  @NonNull
+  public StreamingJsonSchemaValidator getStreamingJsonSchemaValidator(
+      @NonNull Object key,
+      @NonNull JsonSchemaSupplier schema) throws IOException {
+    return getEntry(key).getStreamingJsonSchemaValidator(key, schema);
+  }
+
+  @NonNull
+  private Entry getEntry(@NonNull Object key) {
+    return ObjectUtils.notNull(entries.computeIfAbsent(key, k -> new Entry()));
+  }
+
+  @FunctionalInterface
+  public interface XmlSchemaSupplier {
+    /**
+     * Get the XML schema sources to compile.
+     *
+     * @return the schema sources
+     * @throws IOException
+     *           if an error occurred while reading the schema sources
+     */
+    @NonNull
+    List<Source> get() throws IOException;
+  }
+
+  @FunctionalInterface
+  public interface JsonSchemaSupplier {
+    /**
+     * Get the JSON schema to compile.
+     *
+     * @return the schema
+     * @throws IOException
+     *           if an error occurred while reading the schema
+     */
+    @NonNull
+    JSONObject get() throws IOException;
+  }
+
+  @SuppressWarnings("PMD.AvoidUsingVolatile") // needed for double-checked locking
+  private static final class Entry {
+    private volatile XmlSchemaContentValidator xmlSchemaValidator;
+    private volatile JsonSchemaContentValidator jsonSchemaValidator;
+    private volatile StreamingJsonSchemaValidator streamingJsonSchemaValidator;
+
+    @NonNull
+    public XmlSchemaContentValidator getXmlSchemaValidator(
+        @NonNull Object key,
+        @NonNull XmlSchemaSupplier sources) throws IOException, SAXException {
+      XmlSchemaContentValidator retval = xmlSchemaValidator;
+      if (retval == null) {
+        synchronized (this) {
+          retval = xmlSchemaValidator;
+          if (retval == null) {
+            long start = System.nanoTime();
+            retval = new XmlSchemaContentValidator(sources.get());
+            if (LOGGER.isDebugEnabled()) {
+              LOGGER.debug("Compiled XML schema for '{}' in {} ms.", key, (System.nanoTime() - start) / 1_000_000);
+            }
+            xmlSchemaValidator = retval;
+          }
+        }
+      }
+      return retval;
+    }
+
+    @NonNull
+    public JsonSchemaContentValidator getJsonSchemaValidator(
+        @NonNull Object key,
+        @NonNull JsonSchemaSupplier schema) throws IOException {
+      JsonSchemaContentValidator retval = jsonSchemaValidator;
+      if (retval == null) {
+        synchronized (this) {
+          retval = jsonSchemaValidator;
+          if (retval == null) {
+            long start = System.nanoTime();
+            retval = new JsonSchemaContentValidator(schema.get());
+            if (LOGGER.isDebugEnabled()) {
+              LOGGER.debug("Compiled JSON schema for '{}' in {} ms.", key, (System.nanoTime() - start) / 1_000_000);
+            }
+            jsonSchemaValidator = retval;
+          }
+        }
+      }
+      return retval;
+    }
+
+    @NonNull
+    public StreamingJsonSchemaValidator getStreamingJsonSchemaValidator(
+        @NonNull Object key,
+        @NonNull JsonSchemaSupplier schema) throws IOException {
+      StreamingJsonSchemaValidator retval = streamingJsonSchemaValidator;
+      if (retval == null) {
+        synchronized (this) {
+          retval = streamingJsonSchemaValidator;
+          if (retval == null) {
+            long start = System.nanoTime();
+            retval = new StreamingJsonSchemaValidator(schema.get());
+            if (LOGGER.isDebugEnabled()) {
+              LOGGER.debug("Compiled streaming JSON schema for '{}' in {} ms.", key,
+                  (System.nanoTime() - start) / 1_000_000);
+            }
+            streamingJsonSchemaValidator = retval;
+          }
+        }
+      }
+      return retval;
+    }
+  }
+}
@@ -0,0 +1,239 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.binding.io.DefaultBoundLoader;
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.binding.io.IDeserializer;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.xml.sax.InputSource;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A source that is read from a single stream, which may not be possible to
+ * reopen, such as standard input or a pipe.
+ * <p>
+ * The beginning of the stream is kept in a buffer while its format is detected,
+ * and parsing then continues from the same stream. This way, the source is only
+ * read once, instead of being reopened to parse it after its format is
+ * detected.
+ * <p>
+ * Content compressed using one of the supported {@link Compression} formats is
+ * decompressed as it is read.
+ */
+public final class SniffedSource implements Closeable {
+  /**
+   * The number of bytes at the beginning of the stream that are kept for format
+   * detection.
+   */
+  public static final int LOOK_AHEAD_BYTES = DefaultBoundLoader.LOOK_AHEAD_BYTES;
+
+  @NonNull
+  private final BufferedInputStream stream;
+  @NonNull
+  private final URI uri;
+  @Nullable
+  private final MappedFile file;
+
+  /**
+   * Read the provided stream.
+   *
+   * @param is
+   *          the stream to read, which is closed when this source is closed
+   * @param uri
+   *          the URI that identifies the parsed document
+   * @return the source
+   * @throws IOException
+   *           if an error occurred while reading the beginning of the stream
+   */
+  @NonNull
+  public static SniffedSource of(@NonNull InputStream is, @NonNull URI uri) throws IOException {
+    return new SniffedSource(Compression.decompressing(is), uri, null);
+  }
+
+  /**
+   * Read the provided file, directly from its mapping if it is mapped.
+   *
+   * @param file
+   *          the file to read, which is closed when this source is closed
+   * @return the source
+   * @throws IOException
+   *           if an error occurred while opening the file
+   */
+  @NonNull
+  public static SniffedSource open(@NonNull MappedFile file) throws IOException {
+    // the file is already decompressed as it is read
+    InputStream is;
+    try {
+      is = file.newInputStream();
+    } catch (IOException ex) {
+      file.close();
+      throw ex;
+    }
+    return new SniffedSource(is, file.getUri(), file);
+  }
+
+  /**
+   * Read standard input, which is left open when this source is closed.
+   *
+   * @return the source
+   * @throws IOException
+   *           if an error occurred while reading the beginning of standard input
+   * @see SourceFiles#getStdinUri()
+   */
+  @NonNull
+  public static SniffedSource stdin() throws IOException {
+    return of(ObjectUtils.notNull(CloseShieldInputStream.wrap(System.in)), SourceFiles.getStdinUri());
+  }
+
+  private SniffedSource(@NonNull InputStream is, @NonNull URI uri, @Nullable MappedFile file) {
+    this.stream = new BufferedInputStream(is, LOOK_AHEAD_BYTES);
+    this.uri = uri;
+    this.file = file;
+  }
+
+  /**
+   * Get the URI that identifies the parsed document.
+   *
+   * @return the URI
+   */
+  @NonNull
+  public URI getUri() {
+    return uri;
+  }
+
+  /**
+   * Detect the format of the source from its beginning, which is kept to be
+   * parsed.
+   *
+   * @param loader
+   *          the loader used to detect the format
+   * @return the format
+   * @throws IOException
+   *           if an error occurred while reading the source
+   * @throws IllegalArgumentException
+   *           if the format is not recognized
+   */
+  @NonNull
+  public Format detectFormat(@NonNull IBoundLoader loader) throws IOException {
+    stream.mark(LOOK_AHEAD_BYTES);
+    try {
+      return ObjectUtils.notNull(loader.detectFormat(stream));
+    } finally {
+      stream.reset();
+    }
+  }
+
+  /**
+   * Load the source as a document node, continuing from where format detection
+   * left off.
+   *
+   * @param loader
+   *          the loader used to parse the source
+   * @param format
+   *          the format of the source
+   * @return the document node
+   * @throws IOException
+   *           if an error occurred while reading or parsing the source
+   */
+  @NonNull
+  public IDocumentNodeItem loadAsNodeItem(@NonNull IBoundLoader loader, @NonNull Format format) throws IOException {
+    return ObjectUtils.notNull(loader.loadAsNodeItem(format, newInputSource()));
+  }
+
+  /**
+   * Load the source as a bound object, detecting its format from the same stream.
+   *
+   * @param <CLASS>
+   *          the type of the bound object
+   * @param loader
+   *          the loader used to parse the source
+   * @param clazz
+   *          the class of the bound object
+   * @return the bound object
+   * @throws IOException
+   *           if an error occurred while reading or parsing the source
+   */
+  @NonNull
+  public <CLASS> CLASS load(@NonNull IBoundLoader loader, @NonNull Class<CLASS> clazz) throws IOException {
+    return ObjectUtils.notNull(loader.load(clazz, newInputSource()));
+  }
+
+  /**
+   * Load the source as a bound object in the provided format, without detecting
+   * its format.
+   *
+   * @param <CLASS>
+   *          the type of the bound object
+   * @param loader
+   *          the loader used to parse the source
+   * @param clazz
+   *          the class of the bound object
+   * @param format
+   *          the format of the source
+   * @return the bound object
+   * @throws IOException
+   *           if an error occurred while reading or parsing the source
+   */
+  @NonNull
+  public <CLASS> CLASS load(@NonNull IBoundLoader loader, @NonNull Class<CLASS> clazz, @NonNull Format format)
+      throws IOException {
+    IDeserializer<CLASS> deserializer = loader.getBindingContext().newDeserializer(format, clazz);
+    deserializer.applyConfiguration(loader);
+    return ObjectUtils.notNull(deserializer.deserialize(stream, uri));
+  }
+
+  @NonNull
+  private InputSource newInputSource() {
+    InputSource retval = new InputSource(stream);
+    retval.setSystemId(uri.toString());
+    return retval;
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      stream.close();
+    } finally {
+      if (file != null) {
+        file.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Expands command line source arguments, which may identify a file, a
+ * directory, a glob pattern, or standard input, into the set of files to
+ * process.
+ */
+public final class SourceFiles {
+  /**
+   * The source argument that identifies standard input.
+   */
+  @NonNull
+  public static final String STDIN = "-";
+  /**
+   * The file extensions of OSCAL content that is discovered when walking a
+   * directory.
+   */
+  @NonNull
+  private static final Set<String> CONTENT_EXTENSIONS = ObjectUtils.notNull(Set.of(".xml", ".json", ".yaml", ".yml"));
+
+  private SourceFiles() {
+    // disable construction
+  }
+
+  /**
+   * Determine if the provided argument is a glob pattern.
+   *
+   * @param argument
+   *          the command line argument
+   * @return {@code true} if the argument contains glob syntax, or {@code false}
+   *         otherwise
+   */
+  public static boolean isGlob(@NonNull String argument) {
+    return argument.chars().anyMatch(ch -> ch == '*' || ch == '?' || ch == '[' || ch == '{');
+  }
+
+  /**
+   * Determine if the provided argument identifies standard input.
+   *
+   * @param argument
+   *          the command line argument
+   * @return {@code true} if the argument is {@value #STDIN}, or {@code false}
+   *         otherwise
+   */
+  public static boolean isStdin(@NonNull String argument) {
+    return STDIN.equals(argument);
+  }
+
+  /**
+   * Determine if the provided source path identifies standard input.
+   *
+   * @param path
+   *          the path of an expanded source
+   * @return {@code true} if the path is {@value #STDIN}, or {@code false}
+   *         otherwise
+   */
+  public static boolean isStdin(@NonNull Path path) {
+    return STDIN.equals(path.toString());
+  }
+
+  /**
+   * Get the URI that identifies a document read from standard input.
+   * <p>
+   * This is the current directory, so that relative references in the document,
+   * such as profile imports, are resolved against it.
+   *
+   * @return the URI
+   */
+  @NonNull
+  public static URI getStdinUri() {
+    return ObjectUtils.notNull(Paths.get("").toAbsolutePath().toUri());
+  }
+
+  /**
+   * Expand the provided arguments into an ordered list of files.
+   * <p>
+   * The {@value #STDIN} argument is returned as a source with the path
+   * {@value #STDIN}. A file argument is used as is. A directory argument is
+   * walked recursively, collecting any files with an XML, JSON, or YAML
+   * extension, which may be followed by a {@link Compression compressed} file
+   * extension. A glob argument is matched against the files below the longest
+   * leading path that contains no glob syntax. Files are returned in argument
+   * order, with the files from each directory or glob sorted by path. A file
+   * matched by more than one argument is only returned once.
+   *
+   * @param arguments
+   *          the command line arguments to expand
+   * @return the matching files
+   * @throws IOException
+   *           if an error occurred while walking a directory
+   */
+  @NonNull
+  public static List<SourceFile> expand(@NonNull Collection<String> arguments) throws IOException {
+    Map<Path, SourceFile> retval = new LinkedHashMap<>();
+    for (String argument : arguments) {
+      assert argument != null;
+      for (SourceFile file : expand(argument)) {
+        retval.putIfAbsent(file.getPath(), file);
+      }
+    }
+    return new ArrayList<>(retval.values());
+  }
+
+  @NonNull
+  private static List<SourceFile> expand(@NonNull String argument) throws IOException {
+    List<SourceFile> retval;
+    if (isStdin(argument)) {
+      Path path = ObjectUtils.notNull(Paths.get(STDIN));
+      retval = List.of(new SourceFile(path, path));
+    } else if (isGlob(argument)) {
+      retval = expandGlob(argument);
+    } else {
+      Path path = resolveAgainstCWD(ObjectUtils.notNull(Paths.get(argument)));
+      if (Files.isDirectory(path)) {
+        retval = walk(path, file -> isContent(file));
+      } else {
+        Path parent = path.getParent();
+        retval = List.of(new SourceFile(path, parent == null ? path : parent));
+      }
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static List<SourceFile> expandGlob(@NonNull String argument) throws IOException {
+    // split the argument into the leading path and the glob pattern
+    String[] segments = argument.split("[/\\\\]");
+    int index = 0;
+    StringBuilder base = new StringBuilder();
+    if (argument.startsWith("/")) {
+      base.append('/');
+    }
+    for (; index < segments.length && !isGlob(ObjectUtils.notNull(segments[index])); index++) {
+      if (!segments[index].isEmpty()) {
+        base.append(segments[index]).append('/');
+      }
+    }
+    String pattern = Stream.of(segments).skip(index).collect(Collectors.joining("/"));
+
+    Path baseDir = resolveAgainstCWD(ObjectUtils.notNull(Paths.get(base.length() == 0 ? "." : base.toString())));
+    if (!Files.isDirectory(baseDir)) {
+      return List.of();
+    }
+
+    PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+    return walk(baseDir, file -> matcher.matches(baseDir.relativize(file)));
+  }
+
+  @NonNull
+  private static List<SourceFile> walk(@NonNull Path dir, @NonNull PathFilter filter) throws IOException {
+    try (Stream<Path> stream = Files.walk(dir)) {
+      return ObjectUtils.notNull(stream
+          .filter(Files::isRegularFile)
+          .filter(file -> filter.test(ObjectUtils.notNull(file)))
+          .sorted()
+          .map(file -> new SourceFile(ObjectUtils.notNull(file), dir))
+          .collect(Collectors.toList()));
+    }
+  }
+
+  private static boolean isContent(@NonNull Path file) {
+    Path fileName = file.getFileName();
+    boolean retval = false;
+    if (fileName != null) {
+      String name = Compression.removeExtension(fileName.toString().toLowerCase(Locale.ROOT));
+      int index = name.lastIndexOf('.');
+      retval = index >= 0 && CONTENT_EXTENSIONS.contains(name.substring(index));
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static Path resolveAgainstCWD(@NonNull Path path) {
+    return ObjectUtils.notNull(Paths.get("").toAbsolutePath().resolve(path).normalize());
+  }
+
+  @FunctionalInterface
+  private interface PathFilter {
+    boolean test(@NonNull Path path);
+  }
+
+  /**
+   * A file identified by a source argument.
+   */
+  public static final class SourceFile {
+    @NonNull
+    private final Path path;
+    @NonNull
+    private final Path baseDirectory;
+
+    private SourceFile(@NonNull Path path, @NonNull Path baseDirectory) {
+      this.path = path;
+      this.baseDirectory = baseDirectory;
+    }
+
+    /**
+     * Get the absolute path of the file.
+     *
+     * @return the path
+     */
+    @NonNull
+    public Path getPath() {
+      return path;
+    }
+
+    /**
+     * Get the path of the file relative to the directory or glob base it was found
+     * in. For a file argument, this is the file's name.
+     *
+     * @return the relative path
+     */
+    @NonNull
+    public Path getRelativePath() {
+      return ObjectUtils.notNull(baseDirectory.equals(path) ? path.getFileName() : baseDirectory.relativize(path));
+    }
+
+    /**
+     * Get the path of the file within an output directory that mirrors the
+     * directory structure the file was found in, with the file's extension replaced
+     * by the provided extension. A compressed file extension is removed along with
+     * the extension of the compressed content.
+     *
+     * @param outputDirectory
+     *          the output directory
+     * @param extension
+     *          the extension, including the leading {@code .}, to use
+     * @return the destination path
+     */
+    @NonNull
+    public Path getDestination(@NonNull Path outputDirectory, @NonNull String extension) {
+      Path relativePath = getRelativePath();
+      String fileName = Compression.removeExtension(ObjectUtils.notNull(relativePath.getFileName()).toString());
+      int index = fileName.lastIndexOf('.');
+      String baseName = index > 0 ? fileName.substring(0, index) : fileName;
+      Path parent = relativePath.getParent();
+      Path directory = parent == null ? outputDirectory : outputDirectory.resolve(parent);
+      return ObjectUtils.notNull(directory.resolve(baseName + extension).normalize());
+    }
+
+    @Override
+    public String toString() {
+      return path.toString();
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.apache.commons.io.output.CloseShieldOutputStream;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Supports destinations given as {@value #STDOUT}, which write to standard
+ * output so that commands can be used in pipelines.
+ *
+ * @see SourceFiles#STDIN
+ */
+public final class StandardStreams {
+  /**
+   * The destination argument that identifies standard output.
+   */
+  @NonNull
+  public static final String STDOUT = "-";
+  /**
+   * The size of the buffer used to write to standard output.
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private StandardStreams() {
+    // disable construction
+  }
+
+  /**
+   * Determine if the provided argument identifies standard output.
+   *
+   * @param argument
+   *          the command line argument
+   * @return {@code true} if the argument is {@value #STDOUT}, or {@code false}
+   *         otherwise
+   */
+  public static boolean isStdout(@NonNull String argument) {
+    return STDOUT.equals(argument);
+  }
+
+  /**
+   * Open a buffered stream that writes to standard output.
+   * <p>
+   * {@link System#out} flushes on every write, so output is collected into large
+   * blocks before it is passed on. Closing the stream flushes it, leaving
+   * {@link System#out} open.
+   *
+   * @return the stream, which must be closed by the caller
+   */
+  @NonNull
+  public static OutputStream newStdoutStream() {
+    return new BufferedOutputStream(ObjectUtils.notNull(CloseShieldOutputStream.wrap(System.out)), BUFFER_SIZE);
+  }
+}
@@ -0,0 +1,813 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraint;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.metaschema.model.common.validation.JsonSchemaContentValidator.JsonValidationFinding;
+
+import org.everit.json.schema.EmptySchema;
+import org.everit.json.schema.ValidationException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONPointer;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Validates JSON and YAML files against a JSON schema token-by-token using a
+ * Jackson {@link JsonParser}, without building the document in memory.
+ * <p>
+ * Memory use depends on the nesting depth of the document and the schema, not
+ * the size of the document. The keywords used by the OSCAL schemas are
+ * supported: {@code $ref}, {@code type}, {@code properties},
+ * {@code additionalProperties}, {@code required}, {@code items},
+ * {@code minItems}, {@code enum}, {@code pattern}, {@code format},
+ * {@code minimum}, {@code allOf}, {@code anyOf}, and {@code oneOf}. Other
+ * keywords are ignored.
+ * <p>
+ * Findings are reported using the same JSON Pointer locations and messages as
+ * the in-memory validator.
+ */
+public class StreamingJsonSchemaValidator {
+  @NonNull
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  @NonNull
+  private static final YAMLFactory YAML_FACTORY = new YAMLFactory();
+
+  @NonNull
+  private final Node root;
+
+  /**
+   * Construct a new validator, compiling the provided schema.
+   *
+   * @param schema
+   *          the JSON schema
+   */
+  public StreamingJsonSchemaValidator(@NonNull JSONObject schema) {
+    this.root = new Compiler(schema).compile(schema);
+  }
+
+  /**
+   * Validate the provided file.
+   *
+   * @param source
+   *          the file to validate
+   * @param format
+   *          the format of the file, which must be JSON or YAML
+   * @param maxErrors
+   *          the number of errors after which validation stops
+   * @return the validation result
+   * @throws IOException
+   *           if an error occurred while reading or parsing the file
+   */
+  @NonNull
+  public Result validate(@NonNull Path source, @NonNull Format format, int maxErrors) throws IOException {
+    try (InputStream is = new BufferedInputStream(Files.newInputStream(source))) {
+      return validate(ObjectUtils.notNull(is), ObjectUtils.notNull(source.toUri()), format, maxErrors);
+    }
+  }
+
+  /**
+   * Validate the content of the provided stream.
+   *
+   * @param is
+   *          the content to validate
+   * @param uri
+   *          the URI of the validated document
+   * @param format
+   *          the format of the content, which must be JSON or YAML
+   * @param maxErrors
+   *          the number of errors after which validation stops
+   * @return the validation result
+   * @throws IOException
+   *           if an error occurred while reading or parsing the content
+   */
+  @NonNull
+  public Result validate(@NonNull InputStream is, @NonNull URI uri, @NonNull Format format, int maxErrors)
+      throws IOException {
+    JsonFactory factory;
+    switch (format) {
+    case JSON:
+      factory = JSON_FACTORY;
+      break;
+    case YAML:
+      factory = YAML_FACTORY;
+      break;
+    default:
+      throw new IllegalArgumentException("Unsupported format: " + format.name());
+    }
+
+    Result retval = new Result(uri, maxErrors);
+    try (JsonParser parser = factory.createParser(is)) {
+      if (parser.nextToken() != null) {
+        // null values are dropped when YAML is converted to JSON for the in-memory
+        // validator
+        new Validation(parser, retval, Format.YAML.equals(format)).validateValue(
+            List.of(new Evaluation(root, retval)));
+      }
+    } catch (StopValidationException ex) {
+      // the error limit was reached
+    } catch (JsonProcessingException ex) {
+      throw new IOException(String.format("Unable to parse %s from '%s'", format.name(), uri), ex);
+    }
+    return retval;
+  }
+
+  /**
+   * Receives the errors found while evaluating a schema.
+   */
+  private interface Sink {
+    void report(@NonNull Deque<String> path, @NonNull String keyword, @NonNull String message);
+  }
+
+  /**
+   * Thrown to stop parsing once the error limit is reached.
+   */
+  private static final class StopValidationException
+      extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private StopValidationException() {
+      super("The error limit was reached.");
+    }
+  }
+
+  /**
+   * Records if any error was found, while evaluating one alternative of an
+   * {@code anyOf} or {@code oneOf}.
+   */
+  private static final class BranchSink implements Sink {
+    private boolean failed;
+
+    @Override
+    public void report(Deque<String> path, String keyword, String message) {
+      failed = true;
+    }
+  }
+
+  /**
+   * A schema to evaluate the current value against, with where to report the
+   * errors.
+   */
+  private static final class Evaluation {
+    @NonNull
+    private final Node node;
+    @NonNull
+    private final Sink sink;
+
+    private Evaluation(@NonNull Node node, @NonNull Sink sink) {
+      this.node = node;
+      this.sink = sink;
+    }
+  }
+
+  /**
+   * An {@code anyOf} or {@code oneOf}, which is decided once the value has been
+   * evaluated against each alternative.
+   */
+  private static final class Alternatives {
+    private final boolean exactlyOne;
+    @NonNull
+    private final Sink sink;
+    @NonNull
+    private final List<BranchSink> branches;
+
+    private Alternatives(boolean exactlyOne, @NonNull Sink sink, @NonNull List<BranchSink> branches) {
+      this.exactlyOne = exactlyOne;
+      this.sink = sink;
+      this.branches = branches;
+    }
+
+    private void decide(@NonNull Deque<String> path) {
+      long matched = branches.stream().filter(branch -> !branch.failed).count();
+      if (exactlyOne) {
+        if (matched != 1) {
+          sink.report(path, "oneOf", String.format("%d subschemas matched instead of one", matched));
+        }
+      } else if (matched == 0) {
+        sink.report(path, "anyOf",
+            String.format("#: no subschema matched out of the total %d subschemas", branches.size()));
+      }
+    }
+  }
+
+  /**
+   * The state of validating a single document.
+   */
+  private static final class Validation {
+    @NonNull
+    private final JsonParser parser;
+    @NonNull
+    private final Result result;
+    private final boolean skipNulls;
+    @NonNull
+    private final Deque<String> path = new ArrayDeque<>();
+
+    private Validation(@NonNull JsonParser parser, @NonNull Result result, boolean skipNulls) {
+      this.parser = parser;
+      this.result = result;
+      this.skipNulls = skipNulls;
+    }
+
+    /**
+     * Validate the value starting at the current token, leaving the parser on its
+     * last token.
+     */
+    private void validateValue(@NonNull List<Evaluation> evaluations) throws IOException {
+      List<Evaluation> active = new ArrayList<>(evaluations.size());
+      List<Alternatives> alternatives = new ArrayList<>();
+      for (Evaluation evaluation : evaluations) {
+        expand(evaluation.node, evaluation.sink, active, alternatives);
+      }
+
+      JsonToken token = ObjectUtils.notNull(parser.currentToken());
+      List<Evaluation> matching = new ArrayList<>(active.size());
+      for (Evaluation evaluation : active) {
+        if (checkType(evaluation, token)) {
+          matching.add(evaluation);
+        }
+      }
+
+      switch (token) {
+      case START_OBJECT:
+        validateObject(matching);
+        break;
+      case START_ARRAY:
+        validateArray(matching);
+        break;
+      default:
+        for (Evaluation evaluation : matching) {
+          validateScalar(evaluation, token);
+        }
+        break;
+      }
+
+      for (Alternatives alternative : alternatives) {
+        alternative.decide(path);
+      }
+    }
+
+    private void expand(
+        @NonNull Node node,
+        @NonNull Sink sink,
+        @NonNull List<Evaluation> active,
+        @NonNull List<Alternatives> alternatives) {
+      Node resolved = node.resolve();
+      active.add(new Evaluation(resolved, sink));
+      for (Node child : resolved.allOf) {
+        expand(child, sink, active, alternatives);
+      }
+      addAlternatives(resolved.anyOf, false, sink, active, alternatives);
+      addAlternatives(resolved.oneOf, true, sink, active, alternatives);
+    }
+
+    private void addAlternatives(
+        @NonNull List<Node> nodes,
+        boolean exactlyOne,
+        @NonNull Sink sink,
+        @NonNull List<Evaluation> active,
+        @NonNull List<Alternatives> alternatives) {
+      if (!nodes.isEmpty()) {
+        List<BranchSink> branches = new ArrayList<>(nodes.size());
+        for (Node child : nodes) {
+          BranchSink branch = new BranchSink();
+          branches.add(branch);
+          expand(child, branch, active, alternatives);
+        }
+        // added after any nested alternatives, which must be decided first
+        alternatives.add(new Alternatives(exactlyOne, sink, branches));
+      }
+    }
+
+    private boolean checkType(@NonNull Evaluation evaluation, @NonNull JsonToken token) {
+      Set<String> types = evaluation.node.types;
+      boolean retval = types.isEmpty();
+      if (!retval) {
+        String type = typeOf(token);
+        retval = types.contains(type) || "integer".equals(type) && types.contains("number");
+        if (!retval) {
+          evaluation.sink.report(path, "type", String.format("expected type: %s, found: %s",
+              typeName(ObjectUtils.notNull(types.iterator().next())),
+              foundName(token)));
+        }
+      }
+      return retval;
+    }
+
+    private void validateObject(@NonNull List<Evaluation> evaluations) throws IOException {
+      Set<String> seen = new HashSet<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String name = ObjectUtils.notNull(parser.getCurrentName());
+        JsonToken valueToken = parser.nextToken();
+        if (skipNulls && valueToken == JsonToken.VALUE_NULL) {
+          continue;
+        }
+        seen.add(name);
+
+        List<Evaluation> children = new ArrayList<>(evaluations.size());
+        for (Evaluation evaluation : evaluations) {
+          Node node = evaluation.node;
+          Node child = node.properties.get(name);
+          if (child == null) {
+            child = node.additionalProperties;
+          }
+          if (child != null) {
+            children.add(new Evaluation(child, evaluation.sink));
+          } else if (!node.additionalPropertiesAllowed) {
+            evaluation.sink.report(path, "additionalProperties",
+                String.format("extraneous key [%s] is not permitted", name));
+          }
+        }
+
+        if (children.isEmpty()) {
+          parser.skipChildren();
+        } else {
+          path.addLast(name);
+          validateValue(children);
+          path.removeLast();
+        }
+      }
+
+      for (Evaluation evaluation : evaluations) {
+        for (String required : evaluation.node.required) {
+          if (!seen.contains(required)) {
+            evaluation.sink.report(path, "required", String.format("required key [%s] not found", required));
+          }
+        }
+      }
+    }
+
+    private void validateArray(@NonNull List<Evaluation> evaluations) throws IOException {
+      int count = 0;
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        List<Evaluation> children = new ArrayList<>(evaluations.size());
+        for (Evaluation evaluation : evaluations) {
+          Node items = evaluation.node.items;
+          if (items != null) {
+            children.add(new Evaluation(items, evaluation.sink));
+          }
+        }
+
+        if (children.isEmpty()) {
+          parser.skipChildren();
+        } else {
+          path.addLast(Integer.toString(count));
+          validateValue(children);
+          path.removeLast();
+        }
+        count++;
+      }
+
+      for (Evaluation evaluation : evaluations) {
+        int minItems = evaluation.node.minItems;
+        if (count < minItems) {
+          evaluation.sink.report(path, "minItems",
+              String.format("expected minimum item count: %d, found: %d", minItems, count));
+        }
+      }
+    }
+
+    @SuppressWarnings("PMD.CognitiveComplexity") // reasonable
+    private void validateScalar(@NonNull Evaluation evaluation, @NonNull JsonToken token) throws IOException {
+      Node node = evaluation.node;
+      Object value = scalarValue(token);
+
+      if (node.enumValues != null && !node.enumValues.contains(value)) {
+        evaluation.sink.report(path, "enum", String.format("%s is not a valid enum value", parser.getText()));
+      }
+
+      if (value instanceof String) {
+        String text = (String) value;
+        if (node.pattern != null && !node.pattern.matcher(text).find()) {
+          evaluation.sink.report(path, "pattern",
+              String.format("string [%s] does not match pattern %s", text, node.pattern.pattern()));
+        }
+        if (node.format != null && !isValidFormat(node.format, text)) {
+          evaluation.sink.report(path, "format", String.format("[%s] is not a valid %s", text, node.format));
+        }
+      } else if (value instanceof BigDecimal && node.minimum != null
+          && ((BigDecimal) value).compareTo(node.minimum) < 0) {
+        evaluation.sink.report(path, "minimum",
+            String.format("%s is not greater or equal to %s", parser.getText(), node.minimum.toPlainString()));
+      }
+    }
+
+    @Nullable
+    private Object scalarValue(@NonNull JsonToken token) throws IOException {
+      Object retval;
+      switch (token) {
+      case VALUE_STRING:
+        retval = parser.getText();
+        break;
+      case VALUE_NUMBER_INT:
+      case VALUE_NUMBER_FLOAT:
+        retval = normalize(parser.getDecimalValue());
+        break;
+      case VALUE_TRUE:
+        retval = Boolean.TRUE;
+        break;
+      case VALUE_FALSE:
+        retval = Boolean.FALSE;
+        break;
+      default:
+        retval = null;
+        break;
+      }
+      return retval;
+    }
+  }
+
+  @NonNull
+  private static String typeOf(@NonNull JsonToken token) {
+    String retval;
+    switch (token) {
+    case START_OBJECT:
+      retval = "object";
+      break;
+    case START_ARRAY:
+      retval = "array";
+      break;
+    case VALUE_STRING:
+      retval = "string";
+      break;
+    case VALUE_NUMBER_INT:
+      retval = "integer";
+      break;
+    case VALUE_NUMBER_FLOAT:
+      retval = "number";
+      break;
+    case VALUE_TRUE:
+    case VALUE_FALSE:
+      retval = "boolean";
+      break;
+    default:
+      retval = "null";
+      break;
+    }
+    return retval;
+  }
+
+  /**
+   * Get the name used by the in-memory validator for an expected type.
+   */
+  @NonNull
+  private static String typeName(@NonNull String type) {
+    String retval;
+    switch (type) {
+    case "object":
+      retval = "JSONObject";
+      break;
+    case "array":
+      retval = "JSONArray";
+      break;
+    default:
+      retval = type.substring(0, 1).toUpperCase(Locale.ROOT) + type.substring(1);
+      break;
+    }
+    return retval;
+  }
+
+  /**
+   * Get the name used by the in-memory validator for the type of a found value.
+   */
+  @NonNull
+  private static String foundName(@NonNull JsonToken token) {
+    String retval;
+    switch (token) {
+    case VALUE_NUMBER_FLOAT:
+      retval = "BigDecimal";
+      break;
+    default:
+      retval = typeName(typeOf(token));
+      break;
+    }
+    return retval;
+  }
+
+  @SuppressWarnings("PMD.OnlyOneReturn") // readability
+  private static boolean isValidFormat(@NonNull String format, @NonNull String value) {
+    switch (format) {
+    case "date-time":
+      try {
+        OffsetDateTime.parse(value, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        return true;
+      } catch (DateTimeParseException ex) {
+        return false;
+      }
+    case "uri":
+    case "uri-reference":
+      try {
+        URI uri = new URI(value);
+        return "uri-reference".equals(format) || uri.isAbsolute();
+      } catch (URISyntaxException ex) {
+        return false;
+      }
+    case "email":
+      return value.indexOf('@') > 0 && value.indexOf('@') == value.lastIndexOf('@')
+          && value.lastIndexOf('@') < value.length() - 1;
+    default:
+      // unknown formats are not checked
+      return true;
+    }
+  }
+
+  @NonNull
+  private static BigDecimal normalize(@NonNull BigDecimal value) {
+    return ObjectUtils.notNull(value.stripTrailingZeros());
+  }
+
+  /**
+   * A compiled schema.
+   */
+  private static final class Node {
+    @Nullable
+    private String ref;
+    @Nullable
+    private Compiler compiler;
+    @Nullable
+    private Node resolved;
+    @NonNull
+    private Set<String> types = Collections.emptySet();
+    @NonNull
+    private Map<String, Node> properties = Collections.emptyMap();
+    @Nullable
+    private Node additionalProperties;
+    private boolean additionalPropertiesAllowed = true;
+    @NonNull
+    private List<String> required = Collections.emptyList();
+    @Nullable
+    private Node items;
+    private int minItems;
+    @Nullable
+    private Set<Object> enumValues;
+    @Nullable
+    private Pattern pattern;
+    @Nullable
+    private String format;
+    @Nullable
+    private BigDecimal minimum;
+    @NonNull
+    private List<Node> allOf = Collections.emptyList();
+    @NonNull
+    private List<Node> anyOf = Collections.emptyList();
+    @NonNull
+    private List<Node> oneOf = Collections.emptyList();
+
+    /**
+     * Follow {@code $ref}, which replaces the other keywords in draft-07.
+     */
+    @NonNull
+    private Node resolve() {
+      Node retval = this;
+      while (retval.ref != null) {
+        Node target = retval.resolved;
+        if (target == null) {
+          target = ObjectUtils.notNull(retval.compiler).lookup(ObjectUtils.notNull(retval.ref));
+          retval.resolved = target;
+        }
+        retval = target;
+      }
+      return retval;
+    }
+  }
+
+  /**
+   * Compiles a schema into nodes, compiling each referenced definition once.
+   */
+  private static final class Compiler {
+    @NonNull
+    private final JSONObject schema;
+    @NonNull
+    private final Map<String, Node> definitions = new LinkedHashMap<>();
+
+    private Compiler(@NonNull JSONObject schema) {
+      this.schema = schema;
+    }
+
+    @NonNull
+    private Node lookup(@NonNull String ref) {
+      Node retval = definitions.get(ref);
+      if (retval == null) {
+        if (!ref.startsWith("#")) {
+          throw new IllegalArgumentException("Unsupported schema reference: " + ref);
+        }
+        Object target = new JSONPointer(ref).queryFrom(schema);
+        if (!(target instanceof JSONObject)) {
+          throw new IllegalArgumentException("Unresolvable schema reference: " + ref);
+        }
+        // register before compiling, to support recursive definitions
+        retval = new Node();
+        definitions.put(ref, retval);
+        compile((JSONObject) target, retval);
+      }
+      return retval;
+    }
+
+    @NonNull
+    private Node compile(@NonNull Object schema) {
+      Node retval = new Node();
+      // boolean schemas are not used by the OSCAL schemas, and are treated as
+      // matching any value
+      if (schema instanceof JSONObject) {
+        compile((JSONObject) schema, retval);
+      }
+      return retval;
+    }
+
+    @SuppressWarnings({
+        "PMD.CyclomaticComplexity", "PMD.CognitiveComplexity", "PMD.NPathComplexity" // one branch per keyword
+    })
+    private void compile(@NonNull JSONObject object, @NonNull Node node) {
+      if (object.has("$ref")) {
+        node.ref = object.getString("$ref");
+        node.compiler = this;
+        return;
+      }
+
+      Object type = object.opt("type");
+      if (type instanceof String) {
+        node.types = Set.of((String) type);
+      } else if (type instanceof JSONArray) {
+        Set<String> types = new HashSet<>();
+        for (Object item : (JSONArray) type) {
+          types.add((String) item);
+        }
+        node.types = types;
+      }
+
+      JSONObject properties = object.optJSONObject("properties");
+      if (properties != null) {
+        Map<String, Node> compiled = new LinkedHashMap<>();
+        for (String name : properties.keySet()) {
+          compiled.put(name, compile(ObjectUtils.notNull(properties.get(name))));
+        }
+        node.properties = compiled;
+      }
+
+      Object additionalProperties = object.opt("additionalProperties");
+      if (additionalProperties instanceof Boolean) {
+        node.additionalPropertiesAllowed = (Boolean) additionalProperties;
+      } else if (additionalProperties != null) {
+        node.additionalProperties = compile(additionalProperties);
+      }
+
+      JSONArray required = object.optJSONArray("required");
+      if (required != null) {
+        List<String> names = new ArrayList<>(required.length());
+        for (Object name : required) {
+          names.add((String) name);
+        }
+        node.required = names;
+      }
+
+      if (object.has("items")) {
+        node.items = compile(ObjectUtils.notNull(object.get("items")));
+      }
+      node.minItems = object.optInt("minItems", 0);
+
+      JSONArray enumValues = object.optJSONArray("enum");
+      if (enumValues != null) {
+        Set<Object> values = new HashSet<>();
+        for (Object value : enumValues) {
+          values.add(value instanceof Number ? normalize(new BigDecimal(value.toString())) : value);
+        }
+        node.enumValues = values;
+      }
+
+      if (object.has("pattern")) {
+        node.pattern = Pattern.compile(object.getString("pattern"));
+      }
+      node.format = object.optString("format", null);
+      if (object.has("minimum")) {
+        node.minimum = object.getBigDecimal("minimum");
+      }
+
+      node.allOf = compileAll(object.optJSONArray("allOf"));
+      node.anyOf = compileAll(object.optJSONArray("anyOf"));
+      node.oneOf = compileAll(object.optJSONArray("oneOf"));
+    }
+
+    @NonNull
+    private List<Node> compileAll(@Nullable JSONArray schemas) {
+      List<Node> retval;
+      if (schemas == null) {
+        retval = Collections.emptyList();
+      } else {
+        retval = new ArrayList<>(schemas.length());
+        for (Object schema : schemas) {
+          retval.add(compile(ObjectUtils.notNull(schema)));
+        }
+      }
+      return retval;
+    }
+  }
+
+  /**
+   * The findings of a streaming validation.
+   */
+  public static final class Result implements IValidationResult, Sink {
+    @NonNull
+    private final URI documentUri;
+    private final int maxErrors;
+    @NonNull
+    private final List<JsonValidationFinding> findings = new ArrayList<>();
+    private boolean truncated;
+
+    private Result(@NonNull URI documentUri, int maxErrors) {
+      this.documentUri = documentUri;
+      this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public IConstraint.Level getHighestSeverity() {
+      return findings.isEmpty() ? IConstraint.Level.INFORMATIONAL : IConstraint.Level.ERROR;
+    }
+
+    @Override
+    public List<JsonValidationFinding> getFindings() {
+      return ObjectUtils.notNull(Collections.unmodifiableList(findings));
+    }
+
+    /**
+     * Determine if validation stopped before the end of the file, because the error
+     * limit was reached.
+     *
+     * @return {@code true} if validation stopped early, or {@code false} otherwise
+     */
+    public boolean isTruncated() {
+      return truncated;
+    }
+
+    @Override
+    public void report(Deque<String> path, String keyword, String message) {
+      ValidationException ex = new ValidationException(EmptySchema.INSTANCE, message, keyword, null);
+      // prepend the path segments in reverse to build the pointer
+      for (Iterator<String> iter = path.descendingIterator(); iter.hasNext();) {
+        ex = ex.prepend(iter.next());
+      }
+      findings.add(new JsonValidationFinding(ObjectUtils.notNull(ex), documentUri));
+      if (findings.size() >= maxErrors) {
+        truncated = true;
+        throw new StopValidationException();
+      }
+    }
+  }
+}
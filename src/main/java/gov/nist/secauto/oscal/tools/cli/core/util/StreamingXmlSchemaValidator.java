@@ -0,0 +1,245 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraint;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.metaschema.model.common.validation.XmlSchemaContentValidator.XmlValidationFinding;
+
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Checks that an XML file is well-formed and valid to a schema in a single
+ * streaming pass, by feeding SAX events to a {@link ValidatorHandler}.
+ * <p>
+ * Memory use does not depend on the size of the file, since the document is
+ * never built in memory. Validation stops once the configured number of errors
+ * has been found, which also bounds the number of findings kept.
+ */
+public class StreamingXmlSchemaValidator {
+  @NonNull
+  private final Schema schema;
+  private final int maxErrors;
+
+  /**
+   * Construct a new validator.
+   *
+   * @param schema
+   *          the compiled schema to validate against
+   * @param maxErrors
+   *          the number of errors after which validation stops
+   */
+  public StreamingXmlSchemaValidator(@NonNull Schema schema, int maxErrors) {
+    this.schema = schema;
+    this.maxErrors = maxErrors;
+  }
+
+  /**
+   * Validate the provided file.
+   *
+   * @param source
+   *          the file to validate
+   * @return the validation result
+   * @throws IOException
+   *           if an error occurred while reading the file
+   */
+  @NonNull
+  public Result validate(@NonNull Path source) throws IOException {
+    try (InputStream is = new BufferedInputStream(Files.newInputStream(source))) {
+      return validate(ObjectUtils.notNull(is), ObjectUtils.notNull(source.toUri()));
+    }
+  }
+
+  /**
+   * Validate the content of the provided stream.
+   *
+   * @param is
+   *          the content to validate
+   * @param uri
+   *          the URI of the validated document
+   * @return the validation result
+   * @throws IOException
+   *           if an error occurred while reading the stream
+   */
+  @NonNull
+  public Result validate(@NonNull InputStream is, @NonNull URI uri) throws IOException {
+    Result retval = new Result(uri, maxErrors);
+
+    ValidatorHandler validatorHandler = schema.newValidatorHandler();
+    validatorHandler.setErrorHandler(retval);
+
+    XMLReader reader = newXmlReader();
+    reader.setContentHandler(validatorHandler);
+    reader.setErrorHandler(retval);
+
+    try {
+      InputSource inputSource = new InputSource(is);
+      inputSource.setSystemId(uri.toString());
+      reader.parse(inputSource);
+    } catch (StopValidationException ex) {
+      // the error limit was reached
+    } catch (SAXParseException ex) {
+      // a well-formedness error, which has already been reported to the result
+      if (!retval.isReported(ex)) {
+        retval.add(IConstraint.Level.CRITICAL, ex);
+      }
+    } catch (SAXException ex) {
+      throw new IOException(String.format("Unexpected failure during validation of '%s'", uri), ex);
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static XMLReader newXmlReader() throws IOException {
+    SAXParserFactory factory = SAXParserFactory.newInstance();
+    factory.setNamespaceAware(true);
+    try {
+      // the document is untrusted, so do not resolve DTDs or external entities
+      factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+      factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+      factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+      factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+      return ObjectUtils.notNull(factory.newSAXParser().getXMLReader());
+    } catch (ParserConfigurationException | SAXException ex) {
+      throw new IOException("Unable to create an XML parser.", ex);
+    }
+  }
+
+  /**
+   * Thrown by the error handler to stop parsing once the error limit is reached.
+   */
+  private static final class StopValidationException
+      extends SAXException {
+    private static final long serialVersionUID = 1L;
+
+    private StopValidationException() {
+      super("The error limit was reached.");
+    }
+  }
+
+  /**
+   * The findings of a streaming validation, which is also the error handler that
+   * collects them.
+   */
+  public static final class Result implements IValidationResult, ErrorHandler {
+    @NonNull
+    private final URI documentUri;
+    private final int maxErrors;
+    @NonNull
+    private final List<XmlValidationFinding> findings = new ArrayList<>();
+    @NonNull
+    private IConstraint.Level highestSeverity = IConstraint.Level.INFORMATIONAL;
+    private int errors;
+    private boolean truncated;
+    private SAXParseException lastReported;
+
+    private Result(@NonNull URI documentUri, int maxErrors) {
+      this.documentUri = documentUri;
+      this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public IConstraint.Level getHighestSeverity() {
+      return highestSeverity;
+    }
+
+    @Override
+    public List<XmlValidationFinding> getFindings() {
+      return ObjectUtils.notNull(Collections.unmodifiableList(findings));
+    }
+
+    /**
+     * Determine if validation stopped before the end of the file, because the error
+     * limit was reached.
+     *
+     * @return {@code true} if validation stopped early, or {@code false} otherwise
+     */
+    public boolean isTruncated() {
+      return truncated;
+    }
+
+    private boolean isReported(@NonNull SAXParseException ex) {
+      return lastReported == ex; // NOPMD - identity is intended
+    }
+
+    @Override
+    public void warning(SAXParseException ex) {
+      // warnings are limited too, to keep memory use bounded
+      if (findings.size() < maxErrors) {
+        add(IConstraint.Level.WARNING, ex);
+      }
+    }
+
+    @Override
+    public void error(SAXParseException ex) throws SAXException {
+      add(IConstraint.Level.ERROR, ex);
+      errors++;
+      if (errors >= maxErrors) {
+        truncated = true;
+        throw new StopValidationException();
+      }
+    }
+
+    @Override
+    public void fatalError(SAXParseException ex) throws SAXException {
+      add(IConstraint.Level.CRITICAL, ex);
+      errors++;
+      throw ex;
+    }
+
+    private void add(@NonNull IConstraint.Level severity, @NonNull SAXParseException ex) {
+      findings.add(new XmlValidationFinding(severity, ex, documentUri));
+      lastReported = ex;
+      if (highestSeverity.ordinal() < severity.ordinal()) {
+        highestSeverity = severity;
+      }
+    }
+  }
+}
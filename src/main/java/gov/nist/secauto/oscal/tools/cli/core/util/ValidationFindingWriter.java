@@ -0,0 +1,537 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import gov.nist.secauto.metaschema.model.common.constraint.ConstraintValidationFinding;
+import gov.nist.secauto.metaschema.model.common.constraint.FindingCollectingConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraint;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationFinding;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.metaschema.model.common.validation.JsonSchemaContentValidator.JsonValidationFinding;
+import gov.nist.secauto.metaschema.model.common.validation.XmlSchemaContentValidator.XmlValidationFinding;
+import gov.nist.secauto.oscal.tools.cli.core.OscalCliVersion;
+
+import org.everit.json.schema.ValidationException;
+import org.xml.sax.SAXParseException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Writes validation findings in a machine-readable format as they are found,
+ * without keeping them in memory.
+ * <p>
+ * A single writer may be shared by the threads validating different files. Each
+ * finding identifies the file it was found in.
+ */
+public abstract class ValidationFindingWriter implements Closeable {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static final String KIND_XML_SCHEMA = "xml-schema";
+  private static final String KIND_JSON_SCHEMA = "json-schema";
+  private static final String KIND_CONSTRAINT = "constraint";
+
+  @NonNull
+  private final JsonGenerator generator;
+
+  /**
+   * Create a writer of SARIF 2.1.0 logs, with a single run containing a result
+   * for each finding.
+   *
+   * @param out
+   *          the stream to write to, which is not closed by the writer
+   * @return the writer
+   * @throws IOException
+   *           if an error occurred while writing the start of the log
+   */
+  @NonNull
+  public static ValidationFindingWriter newSarifWriter(@NonNull OutputStream out) throws IOException {
+    return new SarifWriter(out);
+  }
+
+  /**
+   * Create a writer of JSON Lines, with a JSON object on its own line for each
+   * finding.
+   *
+   * @param out
+   *          the stream to write to, which is not closed by the writer
+   * @return the writer
+   * @throws IOException
+   *           if an error occurred while creating the writer
+   */
+  @NonNull
+  public static ValidationFindingWriter newJsonLinesWriter(@NonNull OutputStream out) throws IOException {
+    return new JsonLinesWriter(out);
+  }
+
+  /**
+   * Construct a new writer.
+   *
+   * @param out
+   *          the stream to write to, which is not closed by the writer
+   * @throws IOException
+   *           if an error occurred while creating the writer
+   */
+  protected ValidationFindingWriter(@NonNull OutputStream out) throws IOException {
+    this.generator = ObjectUtils.notNull(JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET));
+  }
+
+  /**
+   * Get the generator used to write JSON.
+   *
+   * @return the generator
+   */
+  @NonNull
+  protected JsonGenerator getGenerator() {
+    return generator;
+  }
+
+  /**
+   * Write a finding.
+   *
+   * @param source
+   *          the file the finding was found in
+   * @param finding
+   *          the finding
+   * @throws IOException
+   *           if an error occurred while writing
+   */
+  public void writeFinding(@NonNull Path source, @NonNull IValidationFinding finding) throws IOException {
+    Location location = Location.of(source, finding);
+    synchronized (this) {
+      writeFinding(finding, location);
+    }
+  }
+
+  /**
+   * Write a finding.
+   *
+   * @param finding
+   *          the finding
+   * @param location
+   *          the location of the finding
+   * @throws IOException
+   *           if an error occurred while writing
+   */
+  protected abstract void writeFinding(@NonNull IValidationFinding finding, @NonNull Location location)
+      throws IOException;
+
+  /**
+   * Write an error that prevented a file from being validated.
+   *
+   * @param source
+   *          the file that could not be validated
+   * @param message
+   *          the description of the error
+   * @throws IOException
+   *           if an error occurred while writing
+   */
+  public synchronized void writeError(@NonNull Path source, @NonNull String message) throws IOException {
+    writeError(ObjectUtils.notNull(source.toUri().toString()), message);
+  }
+
+  /**
+   * Write an error that prevented a file from being validated.
+   *
+   * @param uri
+   *          the URI of the file
+   * @param message
+   *          the description of the error
+   * @throws IOException
+   *           if an error occurred while writing
+   */
+  protected abstract void writeError(@NonNull String uri, @NonNull String message) throws IOException;
+
+  /**
+   * Create a constraint validation handler that writes each finding as soon as it
+   * is found.
+   *
+   * @param source
+   *          the file being validated
+   * @param retainFindings
+   *          {@code true} if the findings are also kept, so they are available
+   *          from the handler's {@link IValidationResult#getFindings()}, or
+   *          {@code false} otherwise
+   * @return the handler, which is also the validation result
+   */
+  @NonNull
+  public FindingCollectingConstraintValidationHandler newConstraintValidationHandler(
+      @NonNull Path source,
+      boolean retainFindings) {
+    return new WritingHandler(source, retainFindings);
+  }
+
+  /**
+   * Write any buffered output to the stream.
+   *
+   * @throws IOException
+   *           if an error occurred while writing
+   */
+  public synchronized void flush() throws IOException {
+    generator.flush();
+  }
+
+  /**
+   * Write the end of the output, and flush it to the stream.
+   *
+   * @throws IOException
+   *           if an error occurred while writing
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    writeEnd();
+    generator.close();
+  }
+
+  /**
+   * Write the end of the output.
+   *
+   * @throws IOException
+   *           if an error occurred while writing
+   */
+  protected abstract void writeEnd() throws IOException;
+
+  /**
+   * Writes each constraint finding as it is found, instead of or in addition to
+   * collecting it.
+   */
+  private final class WritingHandler
+      extends FindingCollectingConstraintValidationHandler {
+    @NonNull
+    private final Path source;
+    private final boolean retainFindings;
+    @NonNull
+    private IConstraint.Level highestSeverity = IConstraint.Level.INFORMATIONAL;
+
+    private WritingHandler(@NonNull Path source, boolean retainFindings) {
+      this.source = source;
+      this.retainFindings = retainFindings;
+    }
+
+    @Override
+    public IConstraint.Level getHighestSeverity() {
+      return highestSeverity;
+    }
+
+    @Override
+    protected void addFinding(ConstraintValidationFinding finding) {
+      if (retainFindings) {
+        super.addFinding(finding);
+      }
+      IConstraint.Level severity = finding.getSeverity();
+      if (severity.ordinal() > highestSeverity.ordinal()) {
+        highestSeverity = severity;
+      }
+      try {
+        writeFinding(source, finding);
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+  }
+
+  /**
+   * Where a finding was found, and what kind of check found it.
+   */
+  protected static final class Location {
+    @NonNull
+    private final String kind;
+    @NonNull
+    private final String uri;
+    @NonNull
+    private final String message;
+    @Nullable
+    private final String path;
+    private final int line;
+    private final int column;
+    @NonNull
+    private final List<String> constraintIds;
+
+    @SuppressWarnings("PMD.ExcessiveParameterList") // private
+    private Location(
+        @NonNull String kind,
+        @NonNull String uri,
+        @NonNull String message,
+        @Nullable String path,
+        int line,
+        int column,
+        @NonNull List<String> constraintIds) {
+      this.kind = kind;
+      this.uri = uri;
+      this.message = message;
+      this.path = path;
+      this.line = line;
+      this.column = column;
+      this.constraintIds = constraintIds;
+    }
+
+    @NonNull
+    private static Location of(@NonNull Path source, @NonNull IValidationFinding finding) {
+      // cached findings may not have a document URI
+      String uri = source.toUri().toString();
+      URI documentUri = finding.getDocumentUri();
+      if (documentUri != null) {
+        uri = documentUri.toString();
+      }
+      String message = finding.getMessage().toString();
+      String kind;
+      String path = null;
+      int line = -1;
+      int column = -1;
+      List<String> constraintIds = new ArrayList<>();
+      if (finding instanceof XmlValidationFinding) {
+        SAXParseException cause = ((XmlValidationFinding) finding).getCause();
+        kind = KIND_XML_SCHEMA;
+        line = cause.getLineNumber();
+        column = cause.getColumnNumber();
+      } else if (finding instanceof JsonValidationFinding) {
+        ValidationException cause = ((JsonValidationFinding) finding).getCause();
+        kind = KIND_JSON_SCHEMA;
+        // the pointer is reported separately
+        message = cause.getErrorMessage();
+        path = cause.getPointerToViolation();
+      } else if (finding instanceof ConstraintValidationFinding) {
+        ConstraintValidationFinding constraintFinding = (ConstraintValidationFinding) finding;
+        kind = KIND_CONSTRAINT;
+        path = constraintFinding.getNode().getMetapath();
+        for (IConstraint constraint : constraintFinding.getConstraints()) {
+          String id = constraint.getId();
+          if (id != null) {
+            constraintIds.add(id);
+          }
+        }
+      } else if (finding instanceof ValidationResultCache.CachedConstraintFinding) {
+        kind = KIND_CONSTRAINT;
+        path = ((ValidationResultCache.CachedConstraintFinding) finding).getPath();
+      } else {
+        throw new IllegalStateException("Unsupported finding type: " + finding.getClass().getName());
+      }
+      return new Location(kind, ObjectUtils.notNull(uri), ObjectUtils.notNull(message), path, line, column,
+          constraintIds);
+    }
+  }
+
+  /**
+   * Writes a JSON object on its own line for each finding.
+   */
+  private static final class JsonLinesWriter
+      extends ValidationFindingWriter {
+
+    private JsonLinesWriter(@NonNull OutputStream out) throws IOException {
+      super(out);
+      // each object is followed by a line break instead
+      getGenerator().setRootValueSeparator(null);
+    }
+
+    @Override
+    protected void writeFinding(IValidationFinding finding, Location location) throws IOException {
+      JsonGenerator generator = getGenerator();
+      generator.writeStartObject();
+      generator.writeStringField("uri", location.uri);
+      generator.writeStringField("kind", location.kind);
+      generator.writeStringField("severity", finding.getSeverity().name());
+      generator.writeStringField("message", location.message);
+      if (location.path != null) {
+        generator.writeStringField("path", location.path);
+      }
+      if (location.line >= 0) {
+        generator.writeNumberField("line", location.line);
+        generator.writeNumberField("column", location.column);
+      }
+      if (!location.constraintIds.isEmpty()) {
+        generator.writeArrayFieldStart("constraints");
+        for (String id : location.constraintIds) {
+          generator.writeString(id);
+        }
+        generator.writeEndArray();
+      }
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    protected void writeError(String uri, String message) throws IOException {
+      JsonGenerator generator = getGenerator();
+      generator.writeStartObject();
+      generator.writeStringField("uri", uri);
+      generator.writeStringField("kind", "error");
+      generator.writeStringField("message", message);
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    protected void writeEnd() {
+      // nothing follows the last line
+    }
+  }
+
+  /**
+   * Writes a SARIF log, with a result for each finding. Errors that prevented a
+   * file from being validated are reported as notifications of the tool's
+   * invocation, which are written once all results are written.
+   */
+  private static final class SarifWriter
+      extends ValidationFindingWriter {
+    private static final String SARIF_SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+    private static final String SARIF_VERSION = "2.1.0";
+    private static final String INFORMATION_URI = "https://github.com/usnistgov/oscal-cli";
+
+    /**
+     * The errors, which are few compared to the findings.
+     */
+    @NonNull
+    private final List<String[]> errors = new ArrayList<>();
+
+    private SarifWriter(@NonNull OutputStream out) throws IOException {
+      super(out);
+      JsonGenerator generator = getGenerator();
+      generator.writeStartObject();
+      generator.writeStringField("$schema", SARIF_SCHEMA);
+      generator.writeStringField("version", SARIF_VERSION);
+      generator.writeArrayFieldStart("runs");
+      generator.writeStartObject();
+      generator.writeObjectFieldStart("tool");
+      generator.writeObjectFieldStart("driver");
+      generator.writeStringField("name", "oscal-cli");
+      generator.writeStringField("version", new OscalCliVersion().getVersion());
+      generator.writeStringField("informationUri", INFORMATION_URI);
+      generator.writeEndObject();
+      generator.writeEndObject();
+      generator.writeArrayFieldStart("results");
+    }
+
+    @NonNull
+    private static String toLevel(@NonNull IConstraint.Level severity) {
+      String retval;
+      switch (severity) {
+      case CRITICAL:
+      case ERROR:
+        retval = "error";
+        break;
+      case WARNING:
+        retval = "warning";
+        break;
+      default:
+        retval = "note";
+        break;
+      }
+      return retval;
+    }
+
+    @Override
+    protected void writeFinding(IValidationFinding finding, Location location) throws IOException {
+      JsonGenerator generator = getGenerator();
+      generator.writeStartObject();
+      generator.writeStringField("ruleId",
+          location.constraintIds.isEmpty() ? location.kind : location.constraintIds.get(0));
+      generator.writeStringField("level", toLevel(finding.getSeverity()));
+      generator.writeObjectFieldStart("message");
+      generator.writeStringField("text", location.message);
+      generator.writeEndObject();
+      generator.writeArrayFieldStart("locations");
+      writeLocation(location.uri, location);
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+
+    private void writeLocation(@NonNull String uri, @Nullable Location location) throws IOException {
+      JsonGenerator generator = getGenerator();
+      generator.writeStartObject();
+      generator.writeObjectFieldStart("physicalLocation");
+      generator.writeObjectFieldStart("artifactLocation");
+      generator.writeStringField("uri", uri);
+      generator.writeEndObject();
+      if (location != null && location.line > 0) {
+        generator.writeObjectFieldStart("region");
+        generator.writeNumberField("startLine", location.line);
+        if (location.column > 0) {
+          generator.writeNumberField("startColumn", location.column);
+        }
+        generator.writeEndObject();
+      }
+      generator.writeEndObject();
+      if (location != null && location.path != null) {
+        generator.writeArrayFieldStart("logicalLocations");
+        generator.writeStartObject();
+        generator.writeStringField("fullyQualifiedName", location.path);
+        generator.writeEndObject();
+        generator.writeEndArray();
+      }
+      generator.writeEndObject();
+    }
+
+    @Override
+    protected void writeError(String uri, String message) {
+      errors.add(new String[] { uri, message });
+    }
+
+    @Override
+    protected void writeEnd() throws IOException {
+      JsonGenerator generator = getGenerator();
+      generator.writeEndArray();
+      generator.writeArrayFieldStart("invocations");
+      generator.writeStartObject();
+      generator.writeBooleanField("executionSuccessful", errors.isEmpty());
+      if (!errors.isEmpty()) {
+        generator.writeArrayFieldStart("toolExecutionNotifications");
+        for (String[] error : errors) {
+          generator.writeStartObject();
+          generator.writeStringField("level", "error");
+          generator.writeObjectFieldStart("message");
+          generator.writeStringField("text", error[1]);
+          generator.writeEndObject();
+          generator.writeArrayFieldStart("locations");
+          writeLocation(ObjectUtils.notNull(error[0]), null);
+          generator.writeEndArray();
+          generator.writeEndObject();
+        }
+        generator.writeEndArray();
+      }
+      generator.writeEndObject();
+      generator.writeEndArray();
+      generator.writeEndObject();
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.cli.processor.MessageExitStatus;
+import gov.nist.secauto.metaschema.model.common.constraint.FindingCollectingConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationFinding;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * Reports the outcome of validating each file as soon as the file has been
+ * validated, and summarizes the outcomes of all files once they are done.
+ * <p>
+ * Findings are either logged as text, or written by a
+ * {@link ValidationFindingWriter} as they are found. Only the number of files
+ * that were valid, invalid, or not validated due to errors is kept between
+ * files, so the memory used does not grow with the number of findings.
+ * <p>
+ * A reporter can be shared by the threads validating different files. The
+ * outcome of each file is reported as a whole, in the order the files finish.
+ */
+public class ValidationReporter {
+  private static final Logger LOGGER = LogManager.getLogger(ValidationReporter.class);
+
+  @Nullable
+  private final ValidationFindingWriter findingWriter;
+  private final int files;
+  private final boolean quiet;
+  private final boolean showStackTrace;
+  private int reported;
+  private int failed;
+  private int errors;
+  @Nullable
+  private ExitStatus lastStatus;
+
+  /**
+   * Construct a new reporter.
+   *
+   * @param findingWriter
+   *          the writer of the findings, or {@code null} to log them as text
+   * @param files
+   *          the number of files to validate
+   * @param quiet
+   *          {@code true} if only problems are reported, or {@code false} if
+   *          valid files and the summary are also reported
+   * @param showStackTrace
+   *          {@code true} if the stack trace of an error is reported, or
+   *          {@code false} otherwise
+   */
+  public ValidationReporter(
+      @Nullable ValidationFindingWriter findingWriter,
+      int files,
+      boolean quiet,
+      boolean showStackTrace) {
+    this.findingWriter = findingWriter;
+    this.files = files;
+    this.quiet = quiet;
+    this.showStackTrace = showStackTrace;
+  }
+
+  /**
+   * Create a constraint validation handler that collects the findings of a file,
+   * or writes each finding as soon as it is found when a writer is used.
+   *
+   * @param source
+   *          the file being validated
+   * @param retainFindings
+   *          {@code true} if findings that are written are also kept, so they are
+   *          available from the handler's
+   *          {@link IValidationResult#getFindings()}, or {@code false} otherwise
+   * @return the handler, which is also the validation result
+   */
+  @NonNull
+  public FindingCollectingConstraintValidationHandler newConstraintValidationHandler(
+      @NonNull Path source,
+      boolean retainFindings) {
+    ValidationFindingWriter findingWriter = this.findingWriter;
+    return findingWriter == null
+        ? new FindingCollectingConstraintValidationHandler()
+        : findingWriter.newConstraintValidationHandler(source, retainFindings);
+  }
+
+  /**
+   * Determine if the findings are written as they are found, instead of being
+   * reported with the outcome of their file.
+   *
+   * @return {@code true} if the findings are written as they are found, or
+   *         {@code false} otherwise
+   */
+  public boolean isWritingFindings() {
+    return findingWriter != null;
+  }
+
+  /**
+   * Write the findings of a result, if a writer is used.
+   *
+   * @param source
+   *          the validated file
+   * @param result
+   *          the result to write
+   * @throws UncheckedIOException
+   *           if an error occurred while writing
+   */
+  public void writeFindings(@NonNull Path source, @NonNull IValidationResult result) {
+    ValidationFindingWriter findingWriter = this.findingWriter;
+    if (findingWriter != null) {
+      try {
+        for (IValidationFinding finding : result.getFindings()) {
+          findingWriter.writeFinding(source, ObjectUtils.notNull(finding));
+        }
+        findingWriter.flush();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+    }
+  }
+
+  /**
+   * Report the outcome of validating a file.
+   *
+   * @param source
+   *          the file
+   * @param format
+   *          the format of the file, or {@code null} if it is not known
+   * @param result
+   *          the validation result, or {@code null} if the file could not be
+   *          validated
+   * @param status
+   *          the status of the file's validation
+   * @return the status
+   */
+  @NonNull
+  public synchronized ExitStatus report(
+      @NonNull Path source,
+      @Nullable Format format,
+      @Nullable IValidationResult result,
+      @NonNull ExitStatus status) {
+    reported++;
+    lastStatus = status;
+    if (format != null && LOGGER.isInfoEnabled()) {
+      LOGGER.info("Validating '{}' as {}.", source, format.name());
+    }
+
+    if (result == null) {
+      errors++;
+      if (files > 1) {
+        // with a single file, the status is reported by the caller
+        status.generateMessage(showStackTrace);
+      }
+      writeError(source, status);
+    } else {
+      if (findingWriter == null) {
+        if (LOGGER.isInfoEnabled()) {
+          LOGGER.info("Validation identified the following in file '{}'.", source);
+        }
+        ValidationResultCache.logFindings(result);
+      }
+
+      if (result.isPassing()) {
+        if (!quiet && LOGGER.isInfoEnabled()) {
+          LOGGER.info("The file '{}' is valid.", source);
+        }
+      } else {
+        failed++;
+      }
+    }
+    return status;
+  }
+
+  private void writeError(@NonNull Path source, @NonNull ExitStatus status) {
+    ValidationFindingWriter findingWriter = this.findingWriter;
+    if (findingWriter != null) {
+      String message = null;
+      if (status instanceof MessageExitStatus) {
+        message = ((MessageExitStatus) status).getMessage();
+      }
+      Throwable throwable = status.getThrowable();
+      if ((message == null || message.isEmpty()) && throwable != null) {
+        message = throwable.getLocalizedMessage();
+      }
+      try {
+        findingWriter.writeError(source,
+            message == null || message.isEmpty() ? status.getExitCode().name() : message);
+      } catch (IOException ex) {
+        if (LOGGER.isErrorEnabled()) {
+          LOGGER.error("Unable to write the validation findings. {}", ex.getLocalizedMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Get the number of files reported so far.
+   *
+   * @return the number of files
+   */
+  public synchronized int getReported() {
+    return reported;
+  }
+
+  /**
+   * Summarize the outcomes of the reported files.
+   * <p>
+   * With a single file, this is the status of the file.
+   *
+   * @return the combined status
+   */
+  @NonNull
+  public synchronized ExitStatus summarize() {
+    ExitStatus lastStatus = this.lastStatus;
+    ExitStatus retval;
+    if (files == 1 && lastStatus != null) {
+      retval = lastStatus;
+    } else {
+      if (!quiet && LOGGER.isInfoEnabled()) {
+        LOGGER.info("Validated {} files: {} valid, {} invalid, {} not validated due to errors.",
+            reported,
+            reported - failed - errors,
+            failed,
+            errors);
+      }
+
+      if (errors > 0) {
+        retval = ExitCode.PROCESSING_ERROR.exitMessage(
+            String.format("%d of %d files could not be validated.", errors, reported));
+      } else if (failed > 0) {
+        retval = ExitCode.FAIL.exit();
+      } else {
+        retval = ExitCode.OK.exit();
+      }
+    }
+    return retval;
+  }
+}
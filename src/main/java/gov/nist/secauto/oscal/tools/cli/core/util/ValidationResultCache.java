@@ -0,0 +1,563 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.cli.util.LoggingValidationHandler;
+import gov.nist.secauto.metaschema.model.common.constraint.ConstraintValidationFinding;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraint;
+import gov.nist.secauto.metaschema.model.common.util.CollectionUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationFinding;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.metaschema.model.common.validation.JsonSchemaContentValidator.JsonValidationFinding;
+import gov.nist.secauto.metaschema.model.common.validation.XmlSchemaContentValidator.XmlValidationFinding;
+import gov.nist.secauto.oscal.lib.LibOscalVersion;
+import gov.nist.secauto.oscal.lib.OscalVersion;
+import gov.nist.secauto.oscal.tools.cli.core.OscalCliVersion;
+
+import org.apache.logging.log4j.LogBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.everit.json.schema.EmptySchema;
+import org.everit.json.schema.ValidationException;
+import org.fusesource.jansi.Ansi;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.xml.sax.SAXParseException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.Nullable;
+
+/**
+ * A persistent cache of validation results, stored as one file per result in a
+ * local directory.
+ * <p>
+ * Results are keyed by the SHA-256 digest of the validated file together with a
+ * caller-provided context, which identifies everything else that affects the
+ * findings, such as the model, the options used, and the digests of any
+ * external constraint files. The versions of OSCAL, liboscal, and the CLI are
+ * also part of the key, so upgrading any of them does not reuse older results.
+ * <p>
+ * Reading an entry marks it as recently used. Once {@link #evict()} is called,
+ * the least recently used entries beyond the maximum number of entries are
+ * removed.
+ */
+public class ValidationResultCache {
+  private static final Logger LOGGER = LogManager.getLogger(ValidationResultCache.class);
+  /**
+   * The default maximum number of cached results.
+   */
+  public static final int DEFAULT_MAX_ENTRIES = 10_000;
+  /**
+   * The version of the entry format, which is changed when the format changes.
+   */
+  private static final String ENTRY_VERSION = "1";
+  private static final String ENTRY_SUFFIX = ".json";
+
+  private static final String KIND_XML = "xml";
+  private static final String KIND_JSON = "json";
+  private static final String KIND_CONSTRAINT = "constraint";
+
+  @NonNull
+  private final Path directory;
+  private final int maxEntries;
+  @NonNull
+  private final String versionKey;
+  @NonNull
+  private final AtomicLong hits = new AtomicLong();
+  @NonNull
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Construct a new cache, creating the cache directory if needed.
+   *
+   * @param directory
+   *          the directory to store results in
+   * @param maxEntries
+   *          the number of results to keep when evicting
+   * @throws IOException
+   *           if the directory could not be created
+   */
+  public ValidationResultCache(@NonNull Path directory, int maxEntries) throws IOException {
+    this.directory = ObjectUtils.notNull(Files.createDirectories(directory));
+    this.maxEntries = maxEntries;
+    this.versionKey = ENTRY_VERSION + "|" + toolVersions();
+  }
+
+  /**
+   * Identify the versions of OSCAL, liboscal, and the CLI, which all affect
+   * validation results.
+   *
+   * @return the versions
+   */
+  @NonNull
+  static String toolVersions() {
+    OscalVersion oscalVersion = new OscalVersion();
+    OscalCliVersion cliVersion = new OscalCliVersion();
+    return ObjectUtils.notNull(String.join("|",
+        oscalVersion.getVersion(),
+        oscalVersion.getGitCommit(),
+        new LibOscalVersion().getVersion(),
+        cliVersion.getVersion(),
+        cliVersion.getGitCommit()));
+  }
+
+  /**
+   * Get the number of results served from the cache.
+   *
+   * @return the number of cache hits
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Get the number of lookups that found no cached result.
+   *
+   * @return the number of cache misses
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Compute the key of the result of validating the provided file.
+   *
+   * @param source
+   *          the file to validate
+   * @param context
+   *          identifies everything other than the file's content that affects the
+   *          result
+   * @return the key
+   * @throws IOException
+   *           if an error occurred while reading the file
+   */
+  @NonNull
+  public String newKey(@NonNull Path source, @NonNull String context) throws IOException {
+    try (MappedFile file = MappedFile.open(source)) {
+      return newKey(file, context);
+    }
+  }
+
+  /**
+   * Compute the key of the result of validating the provided file, digesting a
+   * mapped file directly from its mapping.
+   *
+   * @param source
+   *          the file to validate
+   * @param context
+   *          identifies everything other than the file's content that affects the
+   *          result
+   * @return the key
+   * @throws IOException
+   *           if an error occurred while reading the file
+   */
+  @NonNull
+  public String newKey(@NonNull MappedFile source, @NonNull String context) throws IOException {
+    return Digests.sha256(
+        ObjectUtils.notNull(String.join("\n", versionKey, context, Digests.sha256(source))
+            .getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Get the cached result for the provided key.
+   * <p>
+   * An entry that cannot be read is treated as missing.
+   *
+   * @param key
+   *          the key of the result
+   * @return the cached result, or {@code null} if no result is cached
+   */
+  @Nullable
+  public CachedResult get(@NonNull String key) {
+    Path file = toFile(key);
+    CachedResult retval = null;
+    try {
+      JSONObject entry = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+      retval = toResult(entry);
+      // mark the entry as recently used
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (NoSuchFileException ex) {
+      // not cached
+    } catch (IOException | JSONException | IllegalArgumentException ex) {
+      if (LOGGER.isWarnEnabled()) {
+        LOGGER.warn("Ignoring unreadable validation cache entry '{}'. {}", file, ex.getLocalizedMessage());
+      }
+    }
+
+    if (retval == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return retval;
+  }
+
+  /**
+   * Store the provided result.
+   * <p>
+   * Results with findings that cannot be stored are not cached.
+   *
+   * @param key
+   *          the key of the result
+   * @param format
+   *          the format of the validated file
+   * @param result
+   *          the result to store
+   * @throws IOException
+   *           if an error occurred while writing the entry
+   */
+  public void put(@NonNull String key, @NonNull Format format, @NonNull IValidationResult result) throws IOException {
+    JSONArray findings = new JSONArray();
+    for (IValidationFinding finding : result.getFindings()) {
+      JSONObject json = toJson(ObjectUtils.notNull(finding));
+      if (json == null) {
+        return;
+      }
+      findings.put(json);
+    }
+
+    JSONObject entry = new JSONObject()
+        .put("format", format.name())
+        .put("findings", findings);
+
+    // write to a temporary file first, so a concurrent reader never sees a
+    // partial entry
+    Path file = toFile(key);
+    Path temp = Files.createTempFile(directory, key, ".tmp");
+    try {
+      Files.writeString(temp, entry.toString(), StandardCharsets.UTF_8);
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * Remove the least recently used entries, keeping at most the maximum number of
+   * entries.
+   *
+   * @throws IOException
+   *           if an error occurred while listing or removing entries
+   */
+  public void evict() throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+      for (Path file : stream) {
+        files.add(file);
+      }
+    }
+
+    if (files.size() > maxEntries) {
+      Map<Path, FileTime> lastUsed = files.stream()
+          .collect(Collectors.toMap(file -> file, ValidationResultCache::lastModified));
+      files.sort(Comparator.comparing(lastUsed::get));
+      int remove = files.size() - maxEntries;
+      for (Path file : files.subList(0, remove)) {
+        Files.deleteIfExists(file);
+      }
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Evicted {} validation cache entries from '{}'.", remove, directory);
+      }
+    }
+  }
+
+  @NonNull
+  private static FileTime lastModified(@NonNull Path file) {
+    try {
+      return ObjectUtils.notNull(Files.getLastModifiedTime(file));
+    } catch (IOException ex) {
+      // an entry that cannot be read is evicted first
+      return ObjectUtils.notNull(FileTime.fromMillis(0));
+    }
+  }
+
+  @NonNull
+  private Path toFile(@NonNull String key) {
+    return ObjectUtils.notNull(directory.resolve(key + ENTRY_SUFFIX));
+  }
+
+  @Nullable
+  private static JSONObject toJson(@NonNull IValidationFinding finding) {
+    JSONObject retval = new JSONObject()
+        .put("severity", finding.getSeverity().name());
+    // constraint findings may not have a document URI
+    URI documentUri = finding.getDocumentUri();
+    if (documentUri != null) {
+      retval.put("uri", documentUri.toString());
+    }
+    if (finding instanceof XmlValidationFinding) {
+      SAXParseException cause = ((XmlValidationFinding) finding).getCause();
+      retval.put("kind", KIND_XML)
+          .put("message", finding.getMessage().toString())
+          .put("line", cause.getLineNumber())
+          .put("column", cause.getColumnNumber());
+    } else if (finding instanceof JsonValidationFinding) {
+      ValidationException cause = ((JsonValidationFinding) finding).getCause();
+      retval.put("kind", KIND_JSON)
+          .put("message", cause.getErrorMessage())
+          .put("pointer", cause.getPointerToViolation())
+          .put("keyword", cause.getKeyword());
+    } else if (finding instanceof ConstraintValidationFinding) {
+      retval.put("kind", KIND_CONSTRAINT)
+          .put("message", finding.getMessage().toString())
+          .put("path", ((ConstraintValidationFinding) finding).getNode().getMetapath());
+    } else if (finding instanceof CachedConstraintFinding) {
+      retval.put("kind", KIND_CONSTRAINT)
+          .put("message", finding.getMessage().toString())
+          .put("path", ((CachedConstraintFinding) finding).getPath());
+    } else {
+      retval = null;
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static CachedResult toResult(@NonNull JSONObject entry) {
+    Format format = Format.valueOf(entry.getString("format"));
+    JSONArray array = entry.getJSONArray("findings");
+    List<IValidationFinding> findings = new ArrayList<>(array.length());
+    for (int index = 0; index < array.length(); index++) {
+      findings.add(toFinding(ObjectUtils.notNull(array.getJSONObject(index))));
+    }
+    return new CachedResult(format, findings);
+  }
+
+  @NonNull
+  private static IValidationFinding toFinding(@NonNull JSONObject json) {
+    IConstraint.Level severity = IConstraint.Level.valueOf(json.getString("severity"));
+    URI uri = json.has("uri") ? URI.create(json.getString("uri")) : null;
+    String message = json.getString("message");
+    String kind = json.getString("kind");
+
+    IValidationFinding retval;
+    switch (kind) {
+    case KIND_XML: {
+      URI documentUri = ObjectUtils.requireNonNull(uri);
+      retval = new XmlValidationFinding(
+          severity,
+          new SAXParseException(message, null, documentUri.toString(), json.getInt("line"), json.getInt("column")),
+          documentUri);
+      break;
+    }
+    case KIND_JSON:
+      retval = new JsonValidationFinding(
+          toValidationException(message, json.optString("keyword", null), json.getString("pointer")),
+          ObjectUtils.requireNonNull(uri));
+      break;
+    case KIND_CONSTRAINT:
+      retval = new CachedConstraintFinding(severity, uri, message, json.getString("path"));
+      break;
+    default:
+      throw new IllegalArgumentException("Unknown finding kind: " + kind);
+    }
+    return retval;
+  }
+
+  @NonNull
+  private static ValidationException toValidationException(
+      @NonNull String message,
+      @Nullable String keyword,
+      @NonNull String pointer) {
+    ValidationException retval = new ValidationException(EmptySchema.INSTANCE, message, keyword, null);
+    if (pointer.length() > 2) {
+      // prepend the unescaped segments in reverse, since prepending escapes them
+      List<String> segments = Arrays.asList(pointer.substring(2).split("/", -1));
+      Collections.reverse(segments);
+      for (String segment : segments) {
+        retval = retval.prepend(segment.replace("~1", "/").replace("~0", "~"));
+      }
+    }
+    return ObjectUtils.notNull(retval);
+  }
+
+  /**
+   * Log the findings of the provided result, including those of a cached result,
+   * in the same way as {@link LoggingValidationHandler}.
+   *
+   * @param result
+   *          the result to log
+   */
+  public static void logFindings(@NonNull IValidationResult result) {
+    for (IValidationFinding finding : result.getFindings()) {
+      if (finding instanceof CachedConstraintFinding) {
+        ((CachedConstraintFinding) finding).log();
+      } else {
+        LoggingValidationHandler.instance().handleValidationFindings(
+            ObjectUtils.notNull(CollectionUtil.singletonList(finding)));
+      }
+    }
+  }
+
+  /**
+   * A validation result read from the cache.
+   */
+  public static final class CachedResult implements IValidationResult {
+    @NonNull
+    private final Format format;
+    @NonNull
+    private final List<IValidationFinding> findings;
+    @NonNull
+    private final IConstraint.Level highestSeverity;
+
+    private CachedResult(@NonNull Format format, @NonNull List<IValidationFinding> findings) {
+      this.format = format;
+      this.findings = ObjectUtils.notNull(Collections.unmodifiableList(findings));
+      this.highestSeverity = ObjectUtils.notNull(findings.stream()
+          .map(IValidationFinding::getSeverity)
+          .max(Comparator.naturalOrder())
+          .orElse(IConstraint.Level.INFORMATIONAL));
+    }
+
+    /**
+     * Get the format of the validated file.
+     *
+     * @return the format
+     */
+    @NonNull
+    public Format getFormat() {
+      return format;
+    }
+
+    @Override
+    public IConstraint.Level getHighestSeverity() {
+      return highestSeverity;
+    }
+
+    @Override
+    public List<? extends IValidationFinding> getFindings() {
+      return findings;
+    }
+  }
+
+  /**
+   * A constraint finding read from the cache. Only the path of the node the
+   * finding is about is kept, since the document is not loaded.
+   */
+  public static final class CachedConstraintFinding implements IValidationFinding {
+    /**
+     * The logger used by {@link LoggingValidationHandler}, so cached findings are
+     * reported in the same way as new ones.
+     */
+    private static final Logger LOGGER = LogManager.getLogger(LoggingValidationHandler.class);
+
+    @NonNull
+    private final IConstraint.Level severity;
+    @Nullable
+    private final URI documentUri;
+    @NonNull
+    private final String message;
+    @NonNull
+    private final String path;
+
+    private CachedConstraintFinding(
+        @NonNull IConstraint.Level severity,
+        @Nullable URI documentUri,
+        @NonNull String message,
+        @NonNull String path) {
+      this.severity = severity;
+      this.documentUri = documentUri;
+      this.message = message;
+      this.path = path;
+    }
+
+    @Override
+    public IConstraint.Level getSeverity() {
+      return severity;
+    }
+
+    @Override
+    public URI getDocumentUri() {
+      return documentUri;
+    }
+
+    @Override
+    public CharSequence getMessage() {
+      return message;
+    }
+
+    @Override
+    public Throwable getCause() {
+      return null;
+    }
+
+    /**
+     * Get the Metapath of the node the finding is about.
+     *
+     * @return the path
+     */
+    @NonNull
+    public String getPath() {
+      return path;
+    }
+
+    @SuppressWarnings("PMD.GuardLogStatement") // the log builder is a no-op when the level is disabled
+    private void log() {
+      LogBuilder logBuilder;
+      Ansi preamble = Ansi.ansi().fgBright(Ansi.Color.WHITE).a('[').reset();
+      switch (severity) {
+      case CRITICAL:
+        logBuilder = LOGGER.atFatal();
+        preamble = preamble.fgRed().a("CRITICAL").reset();
+        break;
+      case ERROR:
+        logBuilder = LOGGER.atError();
+        preamble = preamble.fgBrightRed().a("ERROR").reset();
+        break;
+      case WARNING:
+        logBuilder = LOGGER.atWarn();
+        preamble = preamble.fgBrightYellow().a("WARNING").reset();
+        break;
+      default:
+        logBuilder = LOGGER.atInfo();
+        preamble = preamble.fgBrightBlue().a("INFO").reset();
+        break;
+      }
+      logBuilder.log(preamble.fgBright(Ansi.Color.WHITE).a("] ").reset().format("[%s] %s", path, message));
+    }
+  }
+}
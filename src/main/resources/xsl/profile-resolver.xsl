@@ -14,7 +14,7 @@
 
   <xsl:variable name="document-uri" select="document-uri(.)"/>
 
-  <xsl:mode name="#default"      on-no-match="shallow-copy"/>
+  <xsl:mode on-no-match="shallow-copy"/>
   
   <xsl:mode name="oscal:resolve" on-no-match="shallow-copy"/>
   
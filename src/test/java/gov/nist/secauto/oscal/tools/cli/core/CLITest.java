@@ -29,16 +29,28 @@ package gov.nist.secauto.oscal.tools.cli.core;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import gov.nist.secauto.metaschema.binding.io.Format;
 import gov.nist.secauto.metaschema.cli.processor.ExitCode;
 import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
 import gov.nist.secauto.oscal.lib.profile.resolver.ProfileResolutionException;
+import gov.nist.secauto.oscal.tools.cli.core.util.Compression;
 
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -84,6 +96,11 @@ public class CLITest {
 
     for (String cmd : commands) {
       values.add(Arguments.of(new String[] { cmd, "validate", "-h" }, ExitCode.OK, null));
+      values.add(Arguments.of(new String[] { cmd, "validate", "--threads=2",
+          "src/test/resources/cli/example_" + cmd + "_valid.*" }, ExitCode.OK, null));
+      values.add(Arguments.of(new String[] { cmd, "validate", "--threads=2",
+          "src/test/resources/cli/example_" + cmd + "_valid.xml",
+          "src/test/resources/cli/example_" + cmd + "_invalid.json" }, ExitCode.FAIL, null));
       // TODO: Update when usnistgov/oscal-cli#210 fix merged.
       values.add(Arguments.of(new String[] { cmd, "convert", "-h" }, ExitCode.INVALID_COMMAND, null));
 
@@ -112,6 +129,9 @@ public class CLITest {
           values
               .add(Arguments.of(new String[] { cmd, "resolve", "--to=" + format.name().toLowerCase(), path.toString() },
                   ExitCode.OK, null));
+          values.add(Arguments.of(
+              new String[] { cmd, "resolve", "--stats", "--to=" + format.name().toLowerCase(), path.toString() },
+              ExitCode.OK, null));
         }
       }
     }
@@ -129,4 +149,48 @@ public class CLITest {
       evaluateResult(CLI.runCli(args), expectedExitCode, expectedThrownClass);
     }
   }
+
+  @ParameterizedTest
+  @CsvSource({
+      "catalog, convert, example_catalog_valid.yml, '\"catalog\" : {'",
+      "catalog, convert, example_catalog_valid.xml, '\"catalog\" : {'",
+      "profile, convert, example_profile_valid.xml, '\"profile\" : {'" })
+  void testStandardStreams(@NonNull String cmd, @NonNull String subcommand, @NonNull String source,
+      @NonNull String expected) throws IOException {
+    InputStream in = System.in;
+    PrintStream out = System.out;
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    ExitStatus status;
+    try (InputStream is = Files.newInputStream(Paths.get("src/test/resources/cli", source))) {
+      System.setIn(is);
+      System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+      status = CLI.runCli(cmd, subcommand, "--to=json", "-", "-");
+    } finally {
+      System.setIn(in);
+      System.setOut(out);
+    }
+    evaluateResult(status, ExitCode.OK);
+    assertTrue(output.toString(StandardCharsets.UTF_8).contains(expected), "expected JSON on standard output");
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "GZIP, json",
+      "ZSTD, yaml" })
+  void testCompressed(@NonNull Compression compression, @NonNull String toFormat, @TempDir Path dir)
+      throws IOException {
+    Path source = dir.resolve("catalog.xml" + compression.getExtension());
+    try (OutputStream os = compression.newOutputStream(ObjectUtils.notNull(source))) {
+      Files.copy(Paths.get("src/test/resources/cli/example_catalog_valid.xml"), os);
+    }
+    Path destination = dir.resolve("catalog." + toFormat + compression.getExtension());
+
+    evaluateResult(CLI.runCli("catalog", "validate", source.toString()), ExitCode.OK);
+    evaluateResult(CLI.runCli("catalog", "convert", "--to=" + toFormat, source.toString(), destination.toString()),
+        ExitCode.OK);
+    evaluateResult(CLI.runCli("catalog", "validate", destination.toString()), ExitCode.OK);
+    try (InputStream is = Files.newInputStream(destination)) {
+      assertEquals(compression, Compression.detect(ObjectUtils.notNull(is)), "expected compressed output");
+    }
+  }
 }
@@ -0,0 +1,71 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.oscal;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.oscal.tools.cli.core.CLI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+class BulkConverterTest {
+
+  @Test
+  void testConvertDirectory(@TempDir Path tempDir) throws IOException {
+    Path sources = tempDir.resolve("sources");
+    Files.createDirectories(sources.resolve("nested"));
+    Files.copy(Paths.get("src/test/resources/cli/example_catalog_valid.xml"), sources.resolve("first.xml"));
+    Files.copy(Paths.get("src/test/resources/cli/example_catalog_valid.json"),
+        sources.resolve("nested/second.json"));
+    Path output = tempDir.resolve("output");
+
+    ExitStatus status = CLI.runCli("catalog", "convert", "--to=yaml", "--threads=2",
+        "--output-dir=" + output, sources.toString());
+    status.generateMessage(true);
+
+    assertAll(
+        () -> assertEquals(ExitCode.OK, status.getExitCode()),
+        () -> assertTrue(Files.readString(output.resolve("first.yml")).contains("control-1")),
+        () -> assertTrue(Files.readString(output.resolve("nested/second.yml")).contains("control-1")));
+
+    // the destinations now exist
+    assertEquals(ExitCode.PROCESSING_ERROR, CLI.runCli("catalog", "convert", "--to=yaml",
+        "--output-dir=" + output, sources.toString()).getExitCode());
+    assertEquals(ExitCode.OK, CLI.runCli("catalog", "convert", "--to=yaml", "--overwrite",
+        "--output-dir=" + output, sources.toString()).getExitCode());
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.profile;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.oscal.tools.cli.core.CLI;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+class BulkProfileResolverTest {
+
+  private static void writeProfile(Path path, String uuid, String href) throws IOException {
+    Files.createDirectories(path.getParent());
+    Files.writeString(path,
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<profile xmlns=\"http://csrc.nist.gov/ns/oscal/1.0\" uuid=\"" + uuid + "\">\n"
+            + "  <metadata>\n"
+            + "    <title>Test Profile</title>\n"
+            + "    <last-modified>2023-10-24T00:00:00.000000-00:00</last-modified>\n"
+            + "    <version>1.0</version>\n"
+            + "    <oscal-version>1.1.1</oscal-version>\n"
+            + "  </metadata>\n"
+            + "  <import href=\"" + href + "\">\n"
+            + "    <include-all/>\n"
+            + "  </import>\n"
+            + "</profile>\n",
+        StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void testProfilesImportingProfiles(@TempDir Path tempDir) throws IOException {
+    Files.copy(Paths.get("src/test/resources/cli/example_catalog_valid.xml"), tempDir.resolve("catalog.xml"));
+    Path profiles = tempDir.resolve("profiles");
+    writeProfile(profiles.resolve("baseline.xml"), "0e1e8f4a-5f8d-4c8e-9f1a-1c1e6a3b7a01", "../catalog.xml");
+    writeProfile(profiles.resolve("overlay.xml"), "0e1e8f4a-5f8d-4c8e-9f1a-1c1e6a3b7a02", "baseline.xml");
+    writeProfile(profiles.resolve("nested/tailored.xml"), "0e1e8f4a-5f8d-4c8e-9f1a-1c1e6a3b7a03", "../overlay.xml");
+    Path output = tempDir.resolve("output");
+    boolean cacheEnabled = ImportDocumentCache.instance().isEnabled();
+
+    ExitStatus status = CLI.runCli("profile", "resolve", "--to=json", "--threads=2",
+        "--output-dir=" + output, profiles.toString());
+    status.generateMessage(true);
+
+    assertAll(
+        () -> assertEquals(ExitCode.OK, status.getExitCode()),
+        () -> assertEquals(cacheEnabled, ImportDocumentCache.instance().isEnabled(), "import cache state"),
+        () -> assertTrue(Files.readString(output.resolve("baseline.json")).contains("control-1")),
+        () -> assertTrue(Files.readString(output.resolve("overlay.json")).contains("control-1")),
+        () -> assertTrue(Files.readString(output.resolve("nested/tailored.json")).contains("control-1")));
+  }
+
+  @Test
+  void testImportCycle(@TempDir Path tempDir) throws IOException {
+    writeProfile(tempDir.resolve("a.xml"), "0e1e8f4a-5f8d-4c8e-9f1a-1c1e6a3b7a04", "b.xml");
+    writeProfile(tempDir.resolve("b.xml"), "0e1e8f4a-5f8d-4c8e-9f1a-1c1e6a3b7a05", "a.xml");
+
+    ExitStatus status = CLI.runCli("profile", "resolve", "--to=json",
+        "--output-dir=" + tempDir.resolve("output"), tempDir.resolve("a.xml").toString(),
+        tempDir.resolve("b.xml").toString());
+
+    assertEquals(ExitCode.PROCESSING_ERROR, status.getExitCode());
+  }
+
+  @Test
+  void testUncheckedResolutionError(@TempDir Path tempDir) throws IOException {
+    // importing a document that is neither a catalog nor a profile fails with an
+    // unchecked exception
+    Files.copy(Paths.get("src/test/resources/cli/example_ssp_valid.xml"), tempDir.resolve("ssp.xml"));
+    Path profiles = tempDir.resolve("profiles");
+    writeProfile(profiles.resolve("broken.xml"), "0e1e8f4a-5f8d-4c8e-9f1a-1c1e6a3b7a06", "../ssp.xml");
+    Path output = tempDir.resolve("output");
+
+    ExitStatus status = CLI.runCli("profile", "resolve", "--to=json",
+        "--output-dir=" + output, profiles.toString());
+
+    assertAll(
+        () -> assertEquals(ExitCode.PROCESSING_ERROR, status.getExitCode()),
+        () -> assertFalse(Files.exists(output.resolve("broken.json"))));
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.commands.profile;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.InputSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPOutputStream;
+
+class ImportDocumentCacheTest {
+
+  private static InputSource toInputSource(Path path) {
+    return new InputSource(path.toUri().toString());
+  }
+
+  @Test
+  void testDocumentIsParsedOnce() throws IOException {
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    ImportDocumentCache cache = new ImportDocumentCache(4);
+    cache.setEnabled(true);
+    Path catalog = ObjectUtils.notNull(Paths.get("src/test/resources/cli/example_catalog_valid.xml"));
+
+    IDocumentNodeItem first = cache.load(loader, toInputSource(catalog));
+    IDocumentNodeItem second = cache.load(loader, toInputSource(catalog));
+
+    assertAll(
+        () -> assertEquals(1, cache.getMisses()),
+        () -> assertEquals(1, cache.getHits()),
+        () -> assertNotSame(first.getValue(), second.getValue()));
+  }
+
+  @Test
+  void testChangedDocumentIsReparsed(@TempDir Path tempDir) throws IOException {
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    ImportDocumentCache cache = new ImportDocumentCache(4);
+    cache.setEnabled(true);
+    Path catalog = ObjectUtils.notNull(tempDir.resolve("catalog.xml"));
+    Files.copy(Paths.get("src/test/resources/cli/example_catalog_valid.xml"), catalog,
+        StandardCopyOption.REPLACE_EXISTING);
+
+    cache.load(loader, toInputSource(catalog));
+    Files.writeString(catalog, Files.readString(catalog, StandardCharsets.UTF_8) + "\n", StandardCharsets.UTF_8);
+    cache.load(loader, toInputSource(catalog));
+
+    assertAll(
+        () -> assertEquals(2, cache.getMisses()),
+        () -> assertEquals(0, cache.getHits()));
+  }
+
+  @Test
+  void testDisabledCacheKeepsNothing() throws IOException {
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    ImportDocumentCache cache = new ImportDocumentCache(4);
+    Path catalog = ObjectUtils.notNull(Paths.get("src/test/resources/cli/example_catalog_valid.xml"));
+
+    IDocumentNodeItem first = cache.load(loader, toInputSource(catalog));
+    IDocumentNodeItem second = cache.load(loader, toInputSource(catalog));
+
+    assertAll(
+        () -> assertEquals(0, cache.getMisses()),
+        () -> assertEquals(0, cache.getHits()),
+        () -> assertNotSame(first.getValue(), second.getValue()));
+  }
+
+  @Test
+  void testCompressedDocument(@TempDir Path tempDir) throws IOException {
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    ImportDocumentCache cache = new ImportDocumentCache(4);
+    cache.setEnabled(true);
+    Path catalog = ObjectUtils.notNull(tempDir.resolve("catalog.xml.gz"));
+    try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(catalog))) {
+      Files.copy(Paths.get("src/test/resources/cli/example_catalog_valid.xml"), os);
+    }
+
+    IDocumentNodeItem first = cache.load(loader, toInputSource(catalog));
+    cache.load(loader, toInputSource(catalog));
+
+    assertAll(
+        () -> assertTrue(first.getValue() instanceof Catalog),
+        () -> assertEquals(1, cache.getMisses()),
+        () -> assertEquals(1, cache.getHits()));
+  }
+}
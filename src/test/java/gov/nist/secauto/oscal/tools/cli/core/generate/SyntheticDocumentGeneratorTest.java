@@ -0,0 +1,100 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.generate;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.oscal.tools.cli.core.CLI;
+import gov.nist.secauto.oscal.tools.cli.core.commands.ssp.SystemSecurityPlanCommand;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class SyntheticDocumentGeneratorTest {
+  private static final int SIZE = 25;
+
+  @ParameterizedTest
+  @EnumSource(SyntheticModel.class)
+  void testGeneratedDocumentsAreValid(SyntheticModel model, @TempDir Path tempDir) throws IOException {
+    for (Format format : Format.values()) {
+      Path document = SyntheticDocuments.generate(model, SIZE, format, tempDir);
+      ExitStatus status = CLI.runCli(model.getCommandName(), "validate", document.toString());
+      status.generateMessage(true);
+      assertEquals(ExitCode.OK, status.getExitCode(), document.toString());
+    }
+  }
+
+  @Test
+  void testGenerationIsDeterministic(@TempDir Path tempDir) throws IOException {
+    Path first = tempDir.resolve("first.json");
+    Path second = tempDir.resolve("second.json");
+    new SyntheticDocumentGenerator(SyntheticModel.SSP, SIZE, Format.JSON).generate(first);
+    new SyntheticDocumentGenerator(SyntheticModel.SSP, SIZE, Format.JSON).generate(second);
+
+    assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+  }
+
+  @Test
+  void testGeneratedProfileResolves(@TempDir Path tempDir) throws IOException {
+    Path profile = SyntheticDocuments.generate(SyntheticModel.PROFILE, SIZE, Format.XML, tempDir);
+    Path resolved = tempDir.resolve("resolved.json");
+
+    ExitStatus status = CLI.runCli("profile", "resolve", "--to=json", profile.toString(), resolved.toString());
+    status.generateMessage(true);
+
+    assertAll(
+        () -> assertEquals(ExitCode.OK, status.getExitCode()),
+        () -> assertTrue(Files.readString(resolved).contains("c-" + SIZE + "_prm_1")));
+  }
+
+  @Test
+  void testGenerateCommandIsHidden(@TempDir Path tempDir) {
+    Path destination = tempDir.resolve("poam.yml");
+
+    ExitStatus status = CLI.runCli("poam", "generate", "--size=" + SIZE, "--to=yaml", destination.toString());
+    status.generateMessage(true);
+
+    assertAll(
+        () -> assertEquals(ExitCode.OK, status.getExitCode()),
+        () -> assertTrue(Files.exists(destination)),
+        () -> assertFalse(new SystemSecurityPlanCommand().getSubCommands().stream()
+            .anyMatch(command -> "generate".equals(command.getName()))));
+  }
+}
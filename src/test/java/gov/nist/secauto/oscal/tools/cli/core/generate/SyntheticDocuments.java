@@ -0,0 +1,78 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.generate;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+/**
+ * Generates synthetic documents for tests and benchmarks.
+ */
+public final class SyntheticDocuments {
+  private SyntheticDocuments() {
+    // disable construction
+  }
+
+  /**
+   * Generate a synthetic document, along with the documents it imports, into a
+   * directory. Documents that already exist in the directory are reused.
+   *
+   * @param model
+   *          the model of the document to generate
+   * @param size
+   *          the number of items to generate
+   * @param format
+   *          the format to generate
+   * @param directory
+   *          the directory to generate into
+   * @return the path of the generated document
+   * @throws IOException
+   *           if an error occurred while generating a document
+   */
+  @NonNull
+  public static Path generate(
+      @NonNull SyntheticModel model,
+      int size,
+      @NonNull Format format,
+      @NonNull Path directory) throws IOException {
+    SyntheticModel importedModel = model.getImportedModel();
+    if (importedModel != null) {
+      generate(importedModel, size, format, directory);
+    }
+
+    Path retval = directory.resolve(model.getFileName(size) + format.getDefaultExtension());
+    if (!Files.exists(retval)) {
+      new SyntheticDocumentGenerator(model, size, format).generate(retval);
+    }
+    return retval;
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.operations;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.xml.transform.Templates;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class XMLOperationsTest {
+  @Test
+  void testTemplatesAreCompiledOnce() throws IOException, TransformerException {
+    URL stylesheet = ObjectUtils.requireNonNull(XMLOperations.class.getResource("/xsl/oscal-for-bootstrap-html.xsl"));
+
+    Templates first = XMLOperations.getTemplates(stylesheet);
+    long misses = XMLOperations.getTemplatesCacheMisses();
+    long hits = XMLOperations.getTemplatesCacheHits();
+
+    Templates second = XMLOperations.getTemplates(stylesheet);
+
+    assertAll(
+        () -> assertSame(first, second, "expected the cached stylesheet"),
+        () -> assertEquals(misses, XMLOperations.getTemplatesCacheMisses(), "unexpected recompilation"),
+        () -> assertEquals(hits + 1, XMLOperations.getTemplatesCacheHits(), "expected a cache hit"));
+  }
+
+  @Test
+  void testRenderCatalogHTML(@TempDir Path tempDir) throws IOException, TransformerException {
+    File input = Paths.get("src/test/resources/cli/example_catalog_valid.xml").toFile();
+    File first = tempDir.resolve("first.html").toFile();
+    File second = tempDir.resolve("second.html").toFile();
+
+    XMLOperations.renderCatalogHTML(input, first);
+    long misses = XMLOperations.getTemplatesCacheMisses();
+    XMLOperations.renderCatalogHTML(input, second);
+
+    assertAll(
+        () -> assertTrue(first.length() > 0, "expected rendered output"),
+        () -> assertEquals(first.length(), second.length(), "expected identical output"),
+        () -> assertEquals(misses, XMLOperations.getTemplatesCacheMisses(), "unexpected recompilation"));
+  }
+
+  @Test
+  void testRenderCatalogHTMLFromStream(@TempDir Path tempDir) throws IOException, TransformerException {
+    Path input = Paths.get("src/test/resources/cli/example_catalog_valid.xml");
+    File file = tempDir.resolve("file.html").toFile();
+    XMLOperations.renderCatalogHTML(input.toFile(), file);
+
+    ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    try (InputStream is = Files.newInputStream(input)) {
+      XMLOperations.renderCatalogHTML(
+          new StreamSource(is, input.toUri().toString()),
+          new StreamResult(stream));
+    }
+
+    assertEquals(file.length(), stream.size(), "expected identical output");
+  }
+
+  @Test
+  void testRenderProfileHTML(@TempDir Path tempDir) throws IOException, TransformerException {
+    // the bundled resolver only follows an import that refers to the catalog
+    // directly, instead of through a back-matter resource
+    Path resources = Paths.get("src/test/resources/cli");
+    Files.copy(resources.resolve("example_catalog_valid.xml"), tempDir.resolve("example_catalog_valid.xml"));
+    File input = tempDir.resolve("profile.xml").toFile();
+    Files.writeString(input.toPath(),
+        Files.readString(resources.resolve("example_profile_valid.xml"), StandardCharsets.UTF_8)
+            .replace("href=\"#fa585705-f386-4e3d-98d9-69a39fb26a0b\"", "href=\"example_catalog_valid.xml\""),
+        StandardCharsets.UTF_8);
+
+    File streamed = tempDir.resolve("streamed.html").toFile();
+    XMLOperations.renderProfileHTML(input, streamed);
+
+    // resolve and render in two passes through an intermediate file, which is how
+    // profiles were rendered before the passes were connected
+    File resolved = tempDir.resolve("resolved.xml").toFile();
+    File twoPass = tempDir.resolve("two-pass.html").toFile();
+    XMLOperations.render(new StreamSource(input), new StreamResult(resolved),
+        XMLOperations.getTemplates(
+            ObjectUtils.requireNonNull(XMLOperations.class.getResource("/xsl/profile-resolver.xsl"))));
+    XMLOperations.render(new StreamSource(resolved), new StreamResult(twoPass),
+        XMLOperations.getTemplates(
+            ObjectUtils.requireNonNull(XMLOperations.class.getResource("/xsl/oscal-for-bootstrap-html.xsl"))));
+
+    String html = Files.readString(streamed.toPath(), StandardCharsets.UTF_8);
+    assertAll(
+        () -> assertTrue(html.contains("Control 1"), "expected the resolved controls"),
+        () -> assertEquals(Files.readString(twoPass.toPath(), StandardCharsets.UTF_8), html,
+            "expected the same output as rendering in two passes"));
+  }
+
+  @Test
+  void testRenderWithCallerStylesheet(@TempDir Path tempDir) throws IOException, TransformerException {
+    File input = Paths.get("src/test/resources/cli/example_catalog_valid.xml").toFile();
+    String systemId = tempDir.resolve("transform.xsl").toUri().toString();
+    long misses = XMLOperations.getTemplatesCacheMisses();
+
+    // the same identifier is used for different stylesheets, which must not be
+    // served from a cache
+    String first = renderWithStylesheet(input, tempDir.resolve("first.txt"), systemId, "first");
+    String second = renderWithStylesheet(input, tempDir.resolve("second.txt"), systemId, "second");
+
+    assertAll(
+        () -> assertEquals("first", first),
+        () -> assertEquals("second", second),
+        () -> assertEquals(misses, XMLOperations.getTemplatesCacheMisses(), "unexpected cache use"));
+  }
+
+  @NonNull
+  private static String renderWithStylesheet(@NonNull File input, @NonNull Path output, @NonNull String systemId,
+      @NonNull String text) throws IOException, TransformerException {
+    String stylesheet = "<xsl:stylesheet version=\"3.0\" xmlns:xsl=\"http://www.w3.org/1999/XSL/Transform\">"
+        + "<xsl:output method=\"text\"/>"
+        + "<xsl:template match=\"/\">" + text + "</xsl:template>"
+        + "</xsl:stylesheet>";
+    try (InputStream is = new ByteArrayInputStream(stylesheet.getBytes(StandardCharsets.UTF_8))) {
+      XMLOperations.render(input, output.toFile(), new StreamSource(is, systemId));
+    }
+    return Files.readString(output, StandardCharsets.UTF_8);
+  }
+}
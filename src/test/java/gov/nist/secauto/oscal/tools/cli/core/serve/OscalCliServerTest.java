@@ -0,0 +1,271 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.serve;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.oscal.tools.cli.core.CLI;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+class OscalCliServerTest {
+  private static OscalCliServer server;
+
+  @BeforeAll
+  static void startServer() throws IOException {
+    server = new OscalCliServer(0, 2, 4);
+    server.start();
+  }
+
+  @AfterAll
+  static void stopServer() {
+    server.stop();
+  }
+
+  private static Result run(String... args) throws IOException {
+    return runIn(Paths.get("").toAbsolutePath(), args);
+  }
+
+  private static Result runIn(Path cwd, String... args) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ByteArrayOutputStream err = new ByteArrayOutputStream();
+    String token = OscalCliClient.readToken(server.getPort());
+    assertNotNull(token);
+    int exitCode = OscalCliClient.run(
+        server.getPort(),
+        token,
+        cwd,
+        List.of(args),
+        new PrintStream(out, true, StandardCharsets.UTF_8),
+        new PrintStream(err, true, StandardCharsets.UTF_8));
+    return new Result(exitCode, out.toByteArray(), err.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testValidate() throws IOException {
+    Result valid = run("catalog", "validate", "src/test/resources/cli/example_catalog_valid.xml");
+    Result invalid = run("catalog", "validate", "src/test/resources/cli/example_catalog_invalid.json");
+    Result quiet = run("-q", "catalog", "validate", "src/test/resources/cli/example_catalog_valid.xml");
+    assertAll(
+        () -> assertEquals(ExitCode.OK.getStatusCode(), valid.exitCode),
+        () -> assertTrue(valid.stderr.contains("is valid"), valid.stderr),
+        () -> assertEquals(ExitCode.FAIL.getStatusCode(), invalid.exitCode),
+        () -> assertEquals(ExitCode.OK.getStatusCode(), quiet.exitCode),
+        () -> assertFalse(quiet.stderr.contains("is valid"), quiet.stderr));
+  }
+
+  @Test
+  void testValidateOnWorkerThreads() throws IOException {
+    // each file is reported by the worker thread that validates it
+    Result result = run("catalog", "validate", "--threads=2",
+        "src/test/resources/cli/example_catalog_valid.xml",
+        "src/test/resources/cli/example_catalog_valid.json");
+    assertAll(
+        () -> assertEquals(ExitCode.OK.getStatusCode(), result.exitCode),
+        () -> assertTrue(result.stderr.contains("example_catalog_valid.xml' is valid"), result.stderr),
+        () -> assertTrue(result.stderr.contains("example_catalog_valid.json' is valid"), result.stderr));
+  }
+
+  @Test
+  void testResolveToStdout() throws IOException {
+    Result result = run("profile", "resolve", "--to=json", "src/test/resources/cli/example_profile_valid.xml");
+    assertAll(
+        () -> assertEquals(ExitCode.OK.getStatusCode(), result.exitCode),
+        () -> assertTrue(result.stdout.contains("\"catalog\""), result.stdout));
+  }
+
+  @Test
+  void testCompressedStdout() throws IOException {
+    Result result = run("catalog", "convert", "--to=json", "--compress=gzip",
+        "src/test/resources/cli/example_catalog_valid.xml", "-");
+    assertEquals(ExitCode.OK.getStatusCode(), result.exitCode, result.stderr);
+    try (InputStream is = new GZIPInputStream(new ByteArrayInputStream(result.stdoutBytes))) {
+      String json = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+      assertTrue(json.contains("\"catalog\""), json);
+    }
+  }
+
+  @Test
+  void testStdinIsRejected() throws IOException {
+    Result result = run("catalog", "validate", "-");
+    assertAll(
+        () -> assertNotEquals(ExitCode.OK.getStatusCode(), result.exitCode),
+        () -> assertTrue(result.stderr.contains("Standard input cannot be read"), result.stderr));
+  }
+
+  @Test
+  void testServeIsRejected() throws IOException {
+    assertEquals(ExitCode.RUNTIME_ERROR.getStatusCode(), run("serve").exitCode);
+  }
+
+  /**
+   * Send a raw request to the run endpoint, so that headers the JDK clients
+   * restrict can be provided.
+   *
+   * @param headers
+   *          the request headers
+   * @return the response status code
+   */
+  private static int post(String... headers) throws IOException {
+    JSONObject json = new JSONObject();
+    json.put("cwd", Paths.get("").toAbsolutePath().toString());
+    json.put("args", new JSONArray(List.of("--version")));
+    byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+    StringBuilder request
+        = new StringBuilder(64).append("POST ").append(OscalCliServer.RUN_PATH).append(" HTTP/1.1\r\n");
+    for (String header : headers) {
+      request.append(header).append("\r\n");
+    }
+    request.append("Content-Length: ").append(body.length).append("\r\nConnection: close\r\n\r\n");
+
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+      OutputStream os = socket.getOutputStream();
+      os.write(request.toString().getBytes(StandardCharsets.US_ASCII));
+      os.write(body);
+      os.flush();
+      BufferedReader reader
+          = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+      return Integer.parseInt(reader.readLine().split(" ")[1]);
+    }
+  }
+
+  @Test
+  void testRequestChecks() throws IOException {
+    String host = "Host: localhost:" + server.getPort();
+    String json = "Content-Type: application/json";
+    String auth = "Authorization: Bearer " + OscalCliClient.readToken(server.getPort());
+    assertAll(
+        () -> assertEquals(HttpURLConnection.HTTP_OK, post(host, json, auth)),
+        () -> assertEquals(HttpURLConnection.HTTP_OK, post("Host: [::1]", json, auth)),
+        () -> assertEquals(HttpURLConnection.HTTP_UNAUTHORIZED, post(host, json)),
+        () -> assertEquals(HttpURLConnection.HTTP_UNAUTHORIZED, post(host, json, "Authorization: Bearer wrong")),
+        () -> assertEquals(HttpURLConnection.HTTP_FORBIDDEN, post(host, json, auth, "Origin: https://example.com")),
+        () -> assertEquals(HttpURLConnection.HTTP_FORBIDDEN, post("Host: example.com:" + server.getPort(), json, auth)),
+        () -> assertEquals(HttpURLConnection.HTTP_UNSUPPORTED_TYPE, post(host, "Content-Type: text/plain", auth)));
+  }
+
+  @Test
+  void testTokenFileIsOwnerOnly() throws IOException {
+    Path tokenFile = OscalCliServer.getTokenFile(server.getPort());
+    assumeTrue(tokenFile.getFileSystem().supportedFileAttributeViews().contains("posix"));
+    assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(tokenFile)));
+  }
+
+  @Test
+  void testRelativePathsAreResolvedAgainstClientDirectory() throws IOException {
+    Result result = runIn(Paths.get("src/test/resources/cli").toAbsolutePath(),
+        "catalog", "validate", "example_catalog_valid.xml");
+    assertEquals(ExitCode.OK.getStatusCode(), result.exitCode, result.stderr);
+  }
+
+  @Test
+  void testPathArguments() {
+    Path cwd = Paths.get("/work").toAbsolutePath();
+    List<String> args = PathArguments.resolve(cwd, List.of(
+        "catalog", "convert", "--to", "json", "in/catalog.xml", "--overwrite", "out", "https://example.com/a.xml"),
+        CLI.newCommandHandlers());
+    List<String> validateArgs = PathArguments.resolve(cwd, List.of(
+        "catalog", "validate", "--output-file", "report", "--threads=2", "-c", "extra", "catalogs", "-"),
+        CLI.newCommandHandlers());
+    assertAll(
+        () -> assertEquals(List.of(
+            "catalog", "convert", "--to=json", "--overwrite", "--",
+            cwd.resolve("in/catalog.xml").toString(),
+            cwd.resolve("out").toString(),
+            "https://example.com/a.xml"), args),
+        () -> assertEquals(List.of(
+            "catalog", "validate",
+            "--output-file=" + cwd.resolve("report"),
+            "--threads=2",
+            "-c" + cwd.resolve("extra"),
+            "--",
+            cwd.resolve("catalogs").toString(),
+            "-"), validateArgs),
+        () -> assertEquals(List.of("catalog", "convert", "--unknown", "in.xml"),
+            PathArguments.resolve(cwd, List.of("catalog", "convert", "--unknown", "in.xml"),
+                CLI.newCommandHandlers())));
+  }
+
+  @Test
+  void testInvalidClientPort() {
+    try {
+      System.setProperty("oscal-cli.port", "9000");
+      assertEquals(9000, OscalCliClient.getPort());
+      System.setProperty("oscal-cli.port", "not-a-port");
+      assertThrows(IllegalArgumentException.class, OscalCliClient::getPort);
+      System.setProperty("oscal-cli.port", "70000");
+      assertThrows(IllegalArgumentException.class, OscalCliClient::getPort);
+    } finally {
+      System.clearProperty("oscal-cli.port");
+    }
+  }
+
+  private static final class Result {
+    private final int exitCode;
+    private final byte[] stdoutBytes;
+    private final String stdout;
+    private final String stderr;
+
+    private Result(int exitCode, byte[] stdoutBytes, String stderr) {
+      this.exitCode = exitCode;
+      this.stdoutBytes = stdoutBytes;
+      this.stdout = new String(stdoutBytes, StandardCharsets.UTF_8);
+      this.stderr = stderr;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+
+class CompressionTest {
+  private static final Path SOURCE = Paths.get("src/test/resources/cli/example_catalog_valid.xml");
+
+  @NonNull
+  private static byte[] compress(@NonNull Compression compression, @NonNull byte[] content) throws IOException {
+    ByteArrayOutputStream retval = new ByteArrayOutputStream();
+    try (OutputStream os = compression.compress(retval)) {
+      os.write(content);
+    }
+    return ObjectUtils.notNull(retval.toByteArray());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Compression.class)
+  void testRoundTrip(@NonNull Compression compression) throws IOException {
+    byte[] expected = Files.readAllBytes(SOURCE);
+    byte[] compressed = compress(compression, ObjectUtils.notNull(expected));
+
+    byte[] actual;
+    try (InputStream is = Compression.decompressing(new ByteArrayInputStream(compressed))) {
+      actual = is.readAllBytes();
+    }
+    assertAll(
+        () -> assertEquals(compression, Compression.detect(new ByteArrayInputStream(compressed))),
+        () -> assertArrayEquals(expected, actual));
+  }
+
+  @Test
+  void testEmpty() throws IOException {
+    try (InputStream is = Compression.decompressing(new ByteArrayInputStream(new byte[0]))) {
+      assertEquals(-1, is.read());
+    }
+  }
+
+  @Test
+  void testExtensions() {
+    assertAll(
+        () -> assertEquals(Compression.GZIP, Compression.forFile(ObjectUtils.notNull(Paths.get("dir/catalog.xml.gz")))),
+        () -> assertEquals(Compression.ZSTD, Compression.forFile(ObjectUtils.notNull(Paths.get("catalog.JSON.ZST")))),
+        () -> assertEquals(Compression.NONE, Compression.forFile(ObjectUtils.notNull(Paths.get("catalog.yaml")))),
+        () -> assertEquals("catalog.xml", Compression.removeExtension("catalog.xml.gz")),
+        () -> assertEquals("catalog.yaml", Compression.removeExtension("catalog.yaml")),
+        () -> assertEquals(Compression.NONE, Compression.forDestination(null, null)),
+        () -> assertEquals(Compression.ZSTD,
+            Compression.forDestination(null, ObjectUtils.notNull(Paths.get("catalog.json.zst")))),
+        () -> assertEquals(Compression.NONE,
+            Compression.forDestination(Compression.NONE, ObjectUtils.notNull(Paths.get("catalog.json.zst")))),
+        () -> assertEquals(Compression.GZIP, Compression.forName("GZIP")),
+        () -> assertThrows(IllegalArgumentException.class, () -> Compression.forName("lz4")));
+  }
+
+  @ParameterizedTest
+  @ValueSource(longs = { 0, Long.MAX_VALUE })
+  void testMappedFile(long threshold, @TempDir Path dir) throws IOException {
+    Path file = ObjectUtils.notNull(dir.resolve("catalog.xml.zst"));
+    try (OutputStream os = Compression.ZSTD.newOutputStream(file)) {
+      Files.copy(SOURCE, os);
+    }
+
+    MappedFile input = MappedFile.open(file, threshold);
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+    byte[] actual;
+    try (InputStream is = input.newInputStream()) {
+      actual = is.readAllBytes();
+    }
+    assertAll(
+        () -> assertEquals(Compression.ZSTD, input.getCompression()),
+        () -> assertEquals(Format.XML, input.detectFormat(loader)),
+        () -> assertArrayEquals(Files.readAllBytes(SOURCE), actual));
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import gov.nist.secauto.metaschema.model.common.MetaschemaException;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraintSet;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+
+class ConstraintRegistryTest {
+  private static final Path CONSTRAINTS = Paths.get("src/test/resources/constraints/catalog-remarks-constraints.xml");
+
+  @Test
+  void testConstraintSetLoadedOnce() throws IOException, MetaschemaException {
+    ConstraintRegistry registry = ConstraintRegistry.instance();
+
+    IConstraintSet constraintSet = registry.getConstraintSet(ObjectUtils.notNull(CONSTRAINTS));
+    assertSame(constraintSet, registry.getConstraintSet(ObjectUtils.notNull(CONSTRAINTS.toAbsolutePath())));
+
+    Set<IConstraintSet> constraintSets = ObjectUtils.notNull(Set.of(constraintSet));
+    assertSame(registry.getBindingContext(constraintSets), registry.getBindingContext(constraintSets));
+    assertSame(OscalBindingContext.instance(), registry.getBindingContext(ObjectUtils.notNull(Set.of())));
+  }
+
+  @Test
+  void testChangedConstraintSetLoadedAgain(@TempDir Path tempDir) throws IOException, MetaschemaException {
+    ConstraintRegistry registry = ConstraintRegistry.instance();
+
+    Path copy = ObjectUtils.notNull(tempDir.resolve("constraints.xml"));
+    Files.copy(CONSTRAINTS, copy);
+    IConstraintSet original = registry.getConstraintSet(copy);
+
+    String changed = Files.readString(copy, StandardCharsets.UTF_8).replace("exists(remarks)", "exists(title)");
+    Files.writeString(copy, changed, StandardCharsets.UTF_8);
+    IConstraintSet reloaded = registry.getConstraintSet(copy);
+
+    assertNotSame(original, reloaded);
+    assertNotSame(
+        registry.getBindingContext(ObjectUtils.notNull(Set.of(original))),
+        registry.getBindingContext(ObjectUtils.notNull(Set.of(reloaded))));
+  }
+}
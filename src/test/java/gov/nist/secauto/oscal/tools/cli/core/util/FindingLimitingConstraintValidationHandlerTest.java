@@ -0,0 +1,109 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.model.common.constraint.ConstraintValidationFinding;
+import gov.nist.secauto.metaschema.model.common.constraint.FindingCollectingConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationFinding;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class FindingLimitingConstraintValidationHandlerTest {
+  private static final Path SOURCE = Paths.get("src/test/resources/cli/example_catalog_constraints_invalid.xml");
+
+  @ParameterizedTest
+  @ValueSource(ints = { 1, 4 })
+  void testMaxFindings(int threads) throws IOException {
+    List<? extends IValidationFinding> all = validate(threads);
+
+    FindingCollectingConstraintValidationHandler delegate = new FindingCollectingConstraintValidationHandler();
+    FindingLimitingConstraintValidationHandler handler
+        = new FindingLimitingConstraintValidationHandler(delegate, 2, Integer.MAX_VALUE, false);
+    assertThrows(FindingLimitingConstraintValidationHandler.LimitReachedException.class,
+        () -> ParallelConstraintValidator.validateWithConstraints(OscalBindingContext.instance(),
+            ObjectUtils.notNull(SOURCE), threads, null, handler));
+    // the findings before the limit are the same as a full validation
+    assertEquals(summarize(all.subList(0, 2)), summarize(delegate.getFindings()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 1, 4 })
+  void testFailFast(int threads) {
+    FindingCollectingConstraintValidationHandler delegate = new FindingCollectingConstraintValidationHandler();
+    FindingLimitingConstraintValidationHandler handler
+        = new FindingLimitingConstraintValidationHandler(delegate, Integer.MAX_VALUE, Integer.MAX_VALUE, true);
+    assertThrows(FindingLimitingConstraintValidationHandler.LimitReachedException.class,
+        () -> ParallelConstraintValidator.validateWithConstraints(OscalBindingContext.instance(),
+            ObjectUtils.notNull(SOURCE), threads, null, handler));
+    assertEquals(1, delegate.getFindings().size());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = { 1, 4 })
+  void testMaxFindingsPerConstraint(int threads) throws IOException {
+    List<? extends IValidationFinding> all = validate(threads);
+    long constraints = all.stream()
+        .map(finding -> ((ConstraintValidationFinding) finding).getConstraints())
+        .distinct()
+        .count();
+
+    FindingCollectingConstraintValidationHandler delegate = new FindingCollectingConstraintValidationHandler();
+    FindingLimitingConstraintValidationHandler handler
+        = new FindingLimitingConstraintValidationHandler(delegate, Integer.MAX_VALUE, 1, false);
+    ParallelConstraintValidator.validateWithConstraints(OscalBindingContext.instance(), ObjectUtils.notNull(SOURCE),
+        threads, null, handler);
+    assertAll(
+        () -> assertTrue(constraints < all.size()),
+        () -> assertEquals(constraints, delegate.getFindings().size()),
+        () -> assertEquals(all.size() - constraints, handler.getSuppressedFindings()));
+  }
+
+  private static List<? extends IValidationFinding> validate(int threads) throws IOException {
+    return ParallelConstraintValidator.validateWithConstraints(OscalBindingContext.instance(),
+        ObjectUtils.notNull(SOURCE), threads).getFindings();
+  }
+
+  private static List<String> summarize(List<? extends IValidationFinding> findings) {
+    return findings.stream()
+        .map(finding -> ((ConstraintValidationFinding) finding).getNode().getMetapath() + " " + finding.getMessage())
+        .collect(Collectors.toList());
+  }
+}
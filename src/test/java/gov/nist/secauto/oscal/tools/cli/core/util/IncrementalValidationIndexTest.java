@@ -0,0 +1,148 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.model.common.constraint.ConstraintValidationFinding;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class IncrementalValidationIndexTest {
+  private static final Path SOURCE = Paths.get("src/test/resources/cli/example_catalog_constraints_invalid.xml");
+
+  @Test
+  void testSameFindingsAsFullValidation(@TempDir Path tempDir) throws IOException {
+    Path indexDir = ObjectUtils.notNull(tempDir.resolve("index"));
+    Path source = ObjectUtils.notNull(tempDir.resolve("catalog.xml"));
+    Files.copy(SOURCE, source);
+
+    // the first validation has nothing to reuse
+    IncrementalValidationIndex index = validateAndCompare(indexDir, source, 1);
+    assertEquals(0, index.getHits());
+
+    // nothing changed, so every reusable node is reused
+    index = validateAndCompare(indexDir, source, 1);
+    assertTrue(index.getHits() > 0, "hits");
+    assertEquals(0, index.getMisses());
+
+    // each change is validated against the index of the previous version
+    String[][] edits = {
+        // add a finding inside an unchanged control
+        { "<title>Control 3</title>", "<title>Control 3</title>\n<prop name=\"bogus-3\" value=\"x\"/>" },
+        // remove a finding
+        { "<prop name=\"bogus-15\" value=\"x\"/>", "" },
+        // add a duplicate key, which is found by an index of the whole document
+        { "<control id=\"control-2\">", "<control id=\"control-1\">" },
+        // resolve a missing reference
+        { "<link href=\"#missing-25\" rel=\"related\"/>", "<link href=\"#control-3\" rel=\"related\"/>" },
+        // break a reference to a changed control
+        { "<control id=\"control-3\">", "<control id=\"control-3a\">" }
+    };
+    for (String[] edit : edits) {
+      String content = Files.readString(source, StandardCharsets.UTF_8);
+      assertTrue(content.contains(edit[0]), edit[0]);
+      Files.writeString(source, content.replace(edit[0], edit[1]), StandardCharsets.UTF_8);
+
+      index = validateAndCompare(indexDir, source, 4);
+      assertTrue(index.getHits() > 0, "hits: " + edit[0]);
+      assertTrue(index.getMisses() > 0, "misses: " + edit[0]);
+    }
+  }
+
+  @Test
+  void testIndexWithDifferentContextIsIgnored(@TempDir Path tempDir) throws IOException {
+    Path file = ObjectUtils.notNull(tempDir.resolve("catalog.idx"));
+    OscalBindingContext bindingContext = OscalBindingContext.instance();
+
+    IncrementalValidationIndex index = new IncrementalValidationIndex(file, "first");
+    ParallelConstraintValidator.validateWithConstraints(bindingContext, ObjectUtils.notNull(SOURCE), 1, index);
+    index.save();
+
+    index = new IncrementalValidationIndex(file, "second");
+    ParallelConstraintValidator.validateWithConstraints(bindingContext, ObjectUtils.notNull(SOURCE), 1, index);
+    assertEquals(0, index.getHits());
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "., true",
+      "prop[@name='label'], true",
+      "part//prop/@value, true",
+      "count(link[@rel='related']) > 0, true",
+      "prop[has-oscal-namespace('http://csrc.nist.gov/ns/oscal')]/@name, true",
+      "/catalog, false",
+      "//control, false",
+      "count(//control) = 1, false",
+      "../@id, false",
+      "ancestor::control, false",
+      "@href = $id, false",
+      "doc(@href), false"
+  })
+  void testLocalExpressions(String metapath, boolean local) {
+    assertEquals(local, IncrementalValidationIndex.isLocalExpression(ObjectUtils.notNull(metapath)));
+  }
+
+  private static IncrementalValidationIndex validateAndCompare(
+      Path indexDir,
+      Path source,
+      int threads) throws IOException {
+    OscalBindingContext bindingContext = OscalBindingContext.instance();
+    IncrementalValidationIndex retval = IncrementalValidationIndex.open(indexDir, source, "context");
+    IValidationResult result
+        = ParallelConstraintValidator.validateWithConstraints(bindingContext, source, threads, retval);
+    retval.save();
+
+    assertEquals(summarize(bindingContext.validateWithConstraints(source)), summarize(result));
+    return retval;
+  }
+
+  private static List<String> summarize(IValidationResult result) {
+    return result.getFindings().stream()
+        .map(finding -> {
+          ConstraintValidationFinding constraintFinding = (ConstraintValidationFinding) finding;
+          return constraintFinding.getSeverity() + " " + constraintFinding.getNode().getMetapath() + " "
+              + constraintFinding.getMessage();
+        })
+        .collect(Collectors.toList());
+  }
+}
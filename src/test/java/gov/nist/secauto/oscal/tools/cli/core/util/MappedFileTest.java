@@ -0,0 +1,186 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+class MappedFileTest {
+  private static final Path SOURCE = Paths.get("src/test/resources/cli/example_catalog_valid.xml");
+
+  @Test
+  void testThreshold() throws IOException {
+    assertAll(
+        () -> assertTrue(MappedFile.open(ObjectUtils.notNull(SOURCE), 0).isMapped()),
+        () -> assertFalse(MappedFile.open(ObjectUtils.notNull(SOURCE), Long.MAX_VALUE).isMapped()),
+        () -> assertEquals(Files.size(SOURCE), MappedFile.open(ObjectUtils.notNull(SOURCE), 0).getSize()));
+  }
+
+  @Test
+  void testRead() throws IOException {
+    MappedFile file = MappedFile.open(ObjectUtils.notNull(SOURCE), 0);
+    byte[] expected = Files.readAllBytes(SOURCE);
+
+    ByteArrayOutputStream single = new ByteArrayOutputStream();
+    try (InputStream is = file.newInputStream()) {
+      int value;
+      while ((value = is.read()) != -1) {
+        single.write(value);
+      }
+    }
+
+    byte[] skipped;
+    try (InputStream is = file.newInputStream()) {
+      assertEquals(100, is.skip(100));
+      skipped = is.readAllBytes();
+    }
+
+    byte[] all;
+    try (InputStream is = file.newInputStream()) {
+      all = is.readAllBytes();
+    }
+
+    assertAll(
+        () -> assertArrayEquals(expected, all),
+        () -> assertArrayEquals(expected, single.toByteArray()),
+        () -> assertEquals(expected.length - 100, skipped.length),
+        () -> assertEquals(Digests.sha256(expected), Digests.sha256(file)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(longs = { 0, Long.MAX_VALUE })
+  void testClose(long threshold) throws IOException {
+    byte[] expected = Files.readAllBytes(SOURCE);
+    byte[] all;
+    MappedFile file = MappedFile.open(ObjectUtils.notNull(SOURCE), threshold);
+    try (InputStream is = file.newInputStream()) {
+      file.close();
+      // an open stream can still be read
+      all = is.readAllBytes();
+    }
+
+    assertAll(
+        () -> assertArrayEquals(expected, all),
+        () -> assertThrows(IOException.class, file::newInputStream),
+        () -> assertThrows(IOException.class, () -> Digests.sha256(file)));
+  }
+
+  @ParameterizedTest
+  @ValueSource(longs = { 0, Long.MAX_VALUE })
+  void testLoad(long threshold) throws IOException {
+    MappedFile file = MappedFile.open(ObjectUtils.notNull(SOURCE), threshold);
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+
+    Format format = file.detectFormat(loader);
+    IDocumentNodeItem document = file.loadAsNodeItem(loader, format);
+    assertAll(
+        () -> assertEquals(Format.XML, format),
+        () -> assertEquals(SOURCE.toUri(), document.getDocumentUri()),
+        () -> assertTrue(document.getValue() instanceof Catalog),
+        () -> assertTrue(file.load(loader, Catalog.class).getUuid() != null));
+  }
+
+  @Test
+  void testBuffered() throws IOException {
+    byte[] expected = Files.readAllBytes(SOURCE);
+    URI uri = URI.create("file:/stdin");
+    MappedFile file = MappedFile.read(new ByteArrayInputStream(expected), ObjectUtils.notNull(Paths.get("-")), uri);
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+
+    byte[] all;
+    try (InputStream is = file.newInputStream()) {
+      all = is.readAllBytes();
+    }
+
+    IDocumentNodeItem document = file.loadAsNodeItem(loader, file.detectFormat(loader));
+    assertAll(
+        () -> assertTrue(file.isBuffered()),
+        () -> assertFalse(file.isMapped()),
+        () -> assertEquals(expected.length, file.getSize()),
+        () -> assertArrayEquals(expected, all),
+        () -> assertEquals(Digests.sha256(expected), Digests.sha256(file)),
+        () -> assertEquals(uri, document.getDocumentUri()));
+  }
+
+  @Test
+  void testCompressed(@TempDir Path dir) throws IOException {
+    Path file = ObjectUtils.notNull(dir.resolve("catalog.xml.gz"));
+    try (OutputStream os = Compression.GZIP.newOutputStream(file)) {
+      Files.copy(SOURCE, os);
+    }
+    byte[] expected = Files.readAllBytes(SOURCE);
+    long compressedSize = Files.size(file);
+
+    // decompressed once into memory
+    MappedFile small = MappedFile.open(file, Long.MAX_VALUE);
+    // held compressed, and decompressed from the file each time it is read
+    MappedFile large = MappedFile.open(file, compressedSize + 1);
+
+    byte[] smallContent;
+    try (InputStream is = small.newInputStream()) {
+      smallContent = is.readAllBytes();
+    }
+    byte[] largeContent;
+    try (InputStream is = large.newInputStream()) {
+      largeContent = is.readAllBytes();
+    }
+    assertAll(
+        () -> assertEquals(Compression.GZIP, small.getCompression()),
+        () -> assertEquals(Compression.GZIP, large.getCompression()),
+        () -> assertTrue(small.isResident()),
+        () -> assertFalse(large.isResident()),
+        () -> assertArrayEquals(expected, smallContent),
+        () -> assertArrayEquals(expected, largeContent),
+        () -> assertEquals(Digests.sha256(expected), Digests.sha256(small)));
+  }
+}
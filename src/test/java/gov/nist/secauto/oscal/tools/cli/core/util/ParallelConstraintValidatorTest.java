@@ -0,0 +1,99 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gov.nist.secauto.metaschema.model.common.IMetaschema;
+import gov.nist.secauto.metaschema.model.common.constraint.ConstraintValidationFinding;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IMetaschemaNodeItem;
+import gov.nist.secauto.metaschema.model.common.metapath.item.INodeItemFactory;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class ParallelConstraintValidatorTest {
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "example_catalog_valid.xml",
+      "example_catalog_constraints_invalid.xml",
+      "example_catalog_invalid.json",
+      "example_profile_invalid.xml",
+      "example_ssp_valid.xml",
+      "example_ssp_invalid.json",
+      "example_poam_invalid.yml"
+  })
+  void testSameFindingsAsSequentialValidator(String file) throws IOException {
+    Path source = ObjectUtils.notNull(Paths.get("src/test/resources/cli", file));
+    OscalBindingContext bindingContext = OscalBindingContext.instance();
+
+    List<String> expected = summarize(bindingContext.validateWithConstraints(source));
+    for (int threads : new int[] { 1, 4 }) {
+      assertEquals(
+          expected,
+          summarize(ParallelConstraintValidator.validateWithConstraints(bindingContext, source, threads)),
+          "threads: " + threads);
+    }
+  }
+
+  @Test
+  void testMetaschemaNodeItem() {
+    OscalBindingContext bindingContext = OscalBindingContext.instance();
+    IMetaschema metaschema = ObjectUtils.requireNonNull(bindingContext.getClassBinding(Catalog.class))
+        .getContainingMetaschema();
+    IMetaschemaNodeItem item = INodeItemFactory.instance().newMetaschemaNodeItem(metaschema);
+
+    for (int threads : new int[] { 1, 4 }) {
+      assertEquals(
+          List.of(),
+          summarize(ParallelConstraintValidator.validate(bindingContext, item, threads)),
+          "threads: " + threads);
+    }
+  }
+
+  private static List<String> summarize(IValidationResult result) {
+    return result.getFindings().stream()
+        .map(finding -> {
+          ConstraintValidationFinding constraintFinding = (ConstraintValidationFinding) finding;
+          return constraintFinding.getSeverity() + " " + constraintFinding.getNode().getMetapath() + " "
+              + constraintFinding.getMessage();
+        })
+        .collect(Collectors.toList());
+  }
+}
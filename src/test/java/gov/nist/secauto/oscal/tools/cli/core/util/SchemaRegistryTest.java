@@ -0,0 +1,82 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import gov.nist.secauto.metaschema.binding.io.xml.XmlUtil;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.JsonSchemaContentValidator;
+import gov.nist.secauto.metaschema.model.common.validation.XmlSchemaContentValidator;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.junit.jupiter.api.Test;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class SchemaRegistryTest {
+
+  @Test
+  void testSchemasAreCompiledOnce() throws IOException, SAXException {
+    Object key = new Object();
+    AtomicInteger xmlLoads = new AtomicInteger();
+    AtomicInteger jsonLoads = new AtomicInteger();
+    SchemaRegistry.XmlSchemaSupplier xmlSchema = () -> {
+      xmlLoads.incrementAndGet();
+      return ObjectUtils.notNull(List.of(XmlUtil.getStreamSource(
+          ObjectUtils.requireNonNull(OscalBindingContext.class.getResource("/schema/xml/oscal-catalog_schema.xsd")))));
+    };
+    SchemaRegistry.JsonSchemaSupplier jsonSchema = () -> {
+      jsonLoads.incrementAndGet();
+      return JsonSchemaContentValidator.toJsonObject(
+          ObjectUtils.requireNonNull(
+              OscalBindingContext.class.getResourceAsStream("/schema/json/oscal-catalog_schema.json")));
+    };
+
+    SchemaRegistry registry = SchemaRegistry.instance();
+    XmlSchemaContentValidator xmlValidator = registry.getXmlSchemaValidator(key, xmlSchema);
+    JsonSchemaContentValidator jsonValidator = registry.getJsonSchemaValidator(key, jsonSchema);
+
+    assertAll(
+        () -> assertSame(xmlValidator, registry.getXmlSchemaValidator(key, xmlSchema)),
+        () -> assertSame(jsonValidator, registry.getJsonSchemaValidator(key, jsonSchema)),
+        () -> assertEquals(1, xmlLoads.get()),
+        () -> assertEquals(1, jsonLoads.get()),
+        () -> assertEquals(true,
+            xmlValidator.validate(ObjectUtils.notNull(Paths.get("src/test/resources/cli/example_catalog_valid.xml")))
+                .isPassing()),
+        () -> assertEquals(false,
+            xmlValidator.validate(ObjectUtils.notNull(Paths.get("src/test/resources/cli/example_catalog_invalid.xml")))
+                .isPassing()));
+  }
+}
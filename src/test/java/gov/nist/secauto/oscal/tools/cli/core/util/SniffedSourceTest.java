@@ -0,0 +1,132 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.IBoundLoader;
+import gov.nist.secauto.metaschema.model.common.metapath.item.IDocumentNodeItem;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+import gov.nist.secauto.oscal.lib.model.Catalog;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+class SniffedSourceTest {
+  private static final URI DOCUMENT_URI = URI.create("file:/stdin");
+
+  @ParameterizedTest
+  @CsvSource({
+      "src/test/resources/cli/example_catalog_valid.xml, XML",
+      "src/test/resources/cli/example_catalog_valid.json, JSON",
+      "src/test/resources/cli/example_catalog_valid.yml, YAML" })
+  void testDetectAndLoad(String file, Format expected) throws IOException {
+    byte[] content = Files.readAllBytes(Paths.get(file));
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+
+    CountingInputStream is = new CountingInputStream(new ByteArrayInputStream(content));
+    Format format;
+    IDocumentNodeItem document;
+    try (SniffedSource source = SniffedSource.of(is, DOCUMENT_URI)) {
+      format = source.detectFormat(loader);
+      document = source.loadAsNodeItem(loader, format);
+    }
+    assertAll(
+        () -> assertEquals(expected, format),
+        () -> assertEquals(DOCUMENT_URI, document.getDocumentUri()),
+        () -> assertTrue(document.getValue() instanceof Catalog),
+        // the stream was only read once
+        () -> assertEquals(content.length, is.getCount()));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "src/test/resources/cli/example_catalog_valid.xml",
+      "src/test/resources/cli/example_catalog_valid.yml" })
+  void testLoad(String file) throws IOException {
+    Path path = Paths.get(file);
+    IBoundLoader loader = OscalBindingContext.instance().newBoundLoader();
+
+    Catalog catalog;
+    try (SniffedSource source = SniffedSource.open(MappedFile.open(path, 0))) {
+      catalog = source.load(loader, Catalog.class);
+    }
+    assertNotNull(catalog.getUuid());
+  }
+
+  /**
+   * Counts the bytes read from a stream that does not support marks, like a pipe.
+   */
+  private static final class CountingInputStream
+      extends FilterInputStream {
+    private long count;
+
+    private CountingInputStream(InputStream is) {
+      super(is);
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int retval = super.read();
+      if (retval != -1) {
+        count++;
+      }
+      return retval;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      int retval = super.read(bytes, offset, length);
+      if (retval > 0) {
+        count += retval;
+      }
+      return retval;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.binding.io.yaml.YamlOperations;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.metaschema.model.common.validation.JsonSchemaContentValidator;
+import gov.nist.secauto.metaschema.model.common.validation.JsonSchemaContentValidator.JsonValidationFinding;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+class StreamingJsonSchemaValidatorTest {
+  private static JSONObject schema;
+  private static JsonSchemaContentValidator treeValidator;
+  private static StreamingJsonSchemaValidator streamingValidator;
+
+  @BeforeAll
+  static void compileSchema() {
+    schema = JsonSchemaContentValidator.toJsonObject(
+        ObjectUtils.requireNonNull(
+            OscalBindingContext.class.getResourceAsStream("/schema/json/oscal-catalog_schema.json")));
+    treeValidator = new JsonSchemaContentValidator(ObjectUtils.notNull(schema));
+    streamingValidator = new StreamingJsonSchemaValidator(ObjectUtils.notNull(schema));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "example_catalog_valid.json, JSON",
+      "example_catalog_invalid.json, JSON",
+      "example_catalog_valid.yml, YAML",
+      "example_catalog_invalid.yml, YAML"
+  })
+  void testSameLocationsAsTreeValidator(String file, Format format) throws IOException {
+    Path source = ObjectUtils.notNull(Paths.get("src/test/resources/cli", file));
+    IValidationResult expected = Format.YAML.equals(format)
+        ? treeValidator.validate(YamlOperations.yamlToJson(YamlOperations.parseYaml(source)),
+            ObjectUtils.notNull(source.toUri()))
+        : treeValidator.validate(source);
+    StreamingJsonSchemaValidator.Result actual = streamingValidator.validate(source, format, Integer.MAX_VALUE);
+
+    assertAll(
+        () -> assertEquals(expected.isPassing(), actual.isPassing()),
+        () -> assertEquals(pointers(expected), pointers(actual)),
+        () -> assertEquals(false, actual.isTruncated()));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "example_catalog_invalid.json, JSON",
+      "example_catalog_invalid.yml, YAML"
+  })
+  void testStopsAtMaxErrors(String file, Format format) throws IOException {
+    StreamingJsonSchemaValidator.Result result = streamingValidator.validate(
+        ObjectUtils.notNull(Paths.get("src/test/resources/cli", file)), format, 1);
+
+    assertAll(
+        () -> assertEquals(false, result.isPassing()),
+        () -> assertEquals(true, result.isTruncated()),
+        () -> assertEquals(1, result.getFindings().size()));
+  }
+
+  private static Set<String> pointers(IValidationResult result) {
+    return result.getFindings().stream()
+        .map(finding -> ((JsonValidationFinding) finding).getCause().getPointerToViolation())
+        .collect(Collectors.toSet());
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import gov.nist.secauto.metaschema.binding.io.xml.XmlUtil;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraint;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+class StreamingXmlSchemaValidatorTest {
+  private static Schema schema;
+
+  @BeforeAll
+  static void compileSchema() throws IOException, SAXException {
+    schema = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI).newSchema(XmlUtil.getStreamSource(
+        ObjectUtils.requireNonNull(OscalBindingContext.class.getResource("/schema/xml/oscal-catalog_schema.xsd"))));
+  }
+
+  @Test
+  void testValidAndInvalid() throws IOException {
+    StreamingXmlSchemaValidator.Result valid = new StreamingXmlSchemaValidator(ObjectUtils.notNull(schema),
+        Integer.MAX_VALUE).validate(ObjectUtils.notNull(Paths.get("src/test/resources/cli/example_catalog_valid.xml")));
+    StreamingXmlSchemaValidator.Result invalid = new StreamingXmlSchemaValidator(ObjectUtils.notNull(schema),
+        Integer.MAX_VALUE)
+            .validate(ObjectUtils.notNull(Paths.get("src/test/resources/cli/example_catalog_invalid.xml")));
+
+    assertAll(
+        () -> assertEquals(true, valid.isPassing()),
+        () -> assertEquals(false, invalid.isPassing()),
+        () -> assertEquals(false, invalid.isTruncated()));
+  }
+
+  @Test
+  void testStopsAtMaxErrors(@TempDir Path tempDir) throws IOException {
+    StringBuilder builder = new StringBuilder(
+        "<catalog xmlns=\"http://csrc.nist.gov/ns/oscal/1.0\">");
+    for (int i = 0; i < 100; i++) {
+      builder.append("<unknown/>");
+    }
+    builder.append("</catalog>");
+    Path source = ObjectUtils.notNull(tempDir.resolve("errors.xml"));
+    Files.writeString(source, builder, StandardCharsets.UTF_8);
+
+    StreamingXmlSchemaValidator.Result result
+        = new StreamingXmlSchemaValidator(ObjectUtils.notNull(schema), 3).validate(source);
+
+    assertAll(
+        () -> assertEquals(false, result.isPassing()),
+        () -> assertEquals(true, result.isTruncated()),
+        () -> assertEquals(3, result.getFindings().size()));
+  }
+
+  @Test
+  void testNotWellFormed(@TempDir Path tempDir) throws IOException {
+    Path source = ObjectUtils.notNull(tempDir.resolve("malformed.xml"));
+    Files.writeString(source, "<catalog xmlns=\"http://csrc.nist.gov/ns/oscal/1.0\"><metadata></catalog>",
+        StandardCharsets.UTF_8);
+
+    StreamingXmlSchemaValidator.Result result
+        = new StreamingXmlSchemaValidator(ObjectUtils.notNull(schema), Integer.MAX_VALUE).validate(source);
+
+    assertEquals(IConstraint.Level.CRITICAL, result.getHighestSeverity());
+  }
+}
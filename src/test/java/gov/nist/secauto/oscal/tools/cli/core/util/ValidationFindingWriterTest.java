@@ -0,0 +1,111 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import gov.nist.secauto.metaschema.model.common.constraint.FindingCollectingConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class ValidationFindingWriterTest {
+  private static final Path SOURCE = Paths.get("src/test/resources/cli/example_catalog_constraints_invalid.xml");
+
+  @Test
+  void testJsonLines() throws IOException {
+    IValidationResult expected = OscalBindingContext.instance().validateWithConstraints(ObjectUtils.notNull(SOURCE));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    FindingCollectingConstraintValidationHandler handler;
+    try (ValidationFindingWriter writer = ValidationFindingWriter.newJsonLinesWriter(out)) {
+      handler = writer.newConstraintValidationHandler(ObjectUtils.notNull(SOURCE), false);
+      ParallelConstraintValidator.validateWithConstraints(OscalBindingContext.instance(), ObjectUtils.notNull(SOURCE),
+          2, null, handler);
+      writer.writeError(ObjectUtils.notNull(SOURCE), "failed");
+    }
+
+    List<JSONObject> lines = out.toString(StandardCharsets.UTF_8).lines()
+        .map(JSONObject::new)
+        .collect(Collectors.toList());
+    JSONObject finding = lines.get(0);
+    JSONObject error = lines.get(lines.size() - 1);
+    assertAll(
+        // the findings were written, not retained
+        () -> assertTrue(handler.getFindings().isEmpty()),
+        () -> assertFalse(handler.isPassing()),
+        () -> assertEquals(expected.getHighestSeverity(), handler.getHighestSeverity()),
+        () -> assertEquals(expected.getFindings().size() + 1, lines.size()),
+        () -> assertEquals("constraint", finding.getString("kind")),
+        () -> assertEquals(SOURCE.toUri().toString(), finding.getString("uri")),
+        () -> assertTrue(finding.has("path")),
+        () -> assertEquals("error", error.getString("kind")),
+        () -> assertEquals("failed", error.getString("message")));
+  }
+
+  @Test
+  void testSarif() throws IOException {
+    IValidationResult expected = OscalBindingContext.instance().validateWithConstraints(ObjectUtils.notNull(SOURCE));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ValidationFindingWriter writer = ValidationFindingWriter.newSarifWriter(out)) {
+      FindingCollectingConstraintValidationHandler handler
+          = writer.newConstraintValidationHandler(ObjectUtils.notNull(SOURCE), true);
+      ParallelConstraintValidator.validateWithConstraints(OscalBindingContext.instance(), ObjectUtils.notNull(SOURCE),
+          1, null, handler);
+      assertEquals(expected.getFindings().size(), handler.getFindings().size());
+    }
+
+    JSONObject log = new JSONObject(out.toString(StandardCharsets.UTF_8));
+    JSONObject run = log.getJSONArray("runs").getJSONObject(0);
+    JSONArray results = run.getJSONArray("results");
+    JSONObject result = results.getJSONObject(0);
+    assertAll(
+        () -> assertEquals("2.1.0", log.getString("version")),
+        () -> assertEquals("oscal-cli", run.getJSONObject("tool").getJSONObject("driver").getString("name")),
+        () -> assertEquals(expected.getFindings().size(), results.length()),
+        () -> assertEquals("error", result.getString("level")),
+        () -> assertEquals(SOURCE.toUri().toString(), result.getJSONArray("locations").getJSONObject(0)
+            .getJSONObject("physicalLocation").getJSONObject("artifactLocation").getString("uri")),
+        () -> assertTrue(run.getJSONArray("invocations").getJSONObject(0).getBoolean("executionSuccessful")));
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.cli.processor.ExitCode;
+import gov.nist.secauto.metaschema.cli.processor.ExitStatus;
+import gov.nist.secauto.metaschema.model.common.constraint.FindingCollectingConstraintValidationHandler;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+class ValidationReporterTest {
+  private static final Path SOURCE = ObjectUtils.notNull(Paths.get("source.xml"));
+
+  @Test
+  void testSingleFileStatus() {
+    ValidationReporter reporter = new ValidationReporter(null, 1, true, false);
+    ExitStatus status = ExitCode.IO_ERROR.exitMessage("Unable to read the file.");
+    reporter.report(SOURCE, null, null, status);
+
+    assertSame(status, reporter.summarize());
+  }
+
+  @Test
+  void testSummary() {
+    ValidationReporter reporter = new ValidationReporter(null, 3, true, false);
+    reporter.report(SOURCE, Format.XML, new FindingCollectingConstraintValidationHandler(), ExitCode.OK.exit());
+    reporter.report(SOURCE, Format.XML, new FindingCollectingConstraintValidationHandler(), ExitCode.OK.exit());
+
+    ExitStatus passing = reporter.summarize();
+    reporter.report(SOURCE, null, null, ExitCode.PROCESSING_ERROR.exit());
+    ExitStatus error = reporter.summarize();
+
+    assertAll(
+        () -> assertEquals(ExitCode.OK, passing.getExitCode()),
+        () -> assertEquals(ExitCode.PROCESSING_ERROR, error.getExitCode()),
+        () -> assertEquals(3, reporter.getReported()));
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Portions of this software was developed by employees of the National Institute
+ * of Standards and Technology (NIST), an agency of the Federal Government and is
+ * being made available as a public service. Pursuant to title 17 United States
+ * Code Section 105, works of NIST employees are not subject to copyright
+ * protection in the United States. This software may be subject to foreign
+ * copyright. Permission in the United States and in foreign countries, to the
+ * extent that NIST may hold copyright, to use, copy, modify, create derivative
+ * works, and distribute this software and its documentation without fee is hereby
+ * granted on a non-exclusive basis, provided that this notice and disclaimer
+ * of warranty appears in all copies.
+ *
+ * THE SOFTWARE IS PROVIDED 'AS IS' WITHOUT ANY WARRANTY OF ANY KIND, EITHER
+ * EXPRESSED, IMPLIED, OR STATUTORY, INCLUDING, BUT NOT LIMITED TO, ANY WARRANTY
+ * THAT THE SOFTWARE WILL CONFORM TO SPECIFICATIONS, ANY IMPLIED WARRANTIES OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE, AND FREEDOM FROM
+ * INFRINGEMENT, AND ANY WARRANTY THAT THE DOCUMENTATION WILL CONFORM TO THE
+ * SOFTWARE, OR ANY WARRANTY THAT THE SOFTWARE WILL BE ERROR FREE.  IN NO EVENT
+ * SHALL NIST BE LIABLE FOR ANY DAMAGES, INCLUDING, BUT NOT LIMITED TO, DIRECT,
+ * INDIRECT, SPECIAL OR CONSEQUENTIAL DAMAGES, ARISING OUT OF, RESULTING FROM,
+ * OR IN ANY WAY CONNECTED WITH THIS SOFTWARE, WHETHER OR NOT BASED UPON WARRANTY,
+ * CONTRACT, TORT, OR OTHERWISE, WHETHER OR NOT INJURY WAS SUSTAINED BY PERSONS OR
+ * PROPERTY OR OTHERWISE, AND WHETHER OR NOT LOSS WAS SUSTAINED FROM, OR AROSE OUT
+ * OF THE RESULTS OF, OR USE OF, THE SOFTWARE OR SERVICES PROVIDED HEREUNDER.
+ */
+
+package gov.nist.secauto.oscal.tools.cli.core.util;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import gov.nist.secauto.metaschema.binding.io.Format;
+import gov.nist.secauto.metaschema.model.common.constraint.ConstraintValidationFinding;
+import gov.nist.secauto.metaschema.model.common.constraint.IConstraint;
+import gov.nist.secauto.metaschema.model.common.util.ObjectUtils;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationFinding;
+import gov.nist.secauto.metaschema.model.common.validation.IValidationResult;
+import gov.nist.secauto.metaschema.model.common.validation.JsonSchemaContentValidator.JsonValidationFinding;
+import gov.nist.secauto.metaschema.model.common.validation.XmlSchemaContentValidator.XmlValidationFinding;
+import gov.nist.secauto.oscal.lib.OscalBindingContext;
+
+import org.everit.json.schema.EmptySchema;
+import org.everit.json.schema.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXParseException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+class ValidationResultCacheTest {
+  private static final Path SOURCE = Paths.get("src/test/resources/cli/example_catalog_constraints_invalid.xml");
+
+  @Test
+  void testConstraintFindingsRoundTrip(@TempDir Path cacheDir) throws IOException {
+    ValidationResultCache cache = new ValidationResultCache(ObjectUtils.notNull(cacheDir), 10);
+    IValidationResult result = OscalBindingContext.instance().validateWithConstraints(ObjectUtils.notNull(SOURCE));
+
+    String key = cache.newKey(ObjectUtils.notNull(SOURCE), "context");
+    assertNull(cache.get(key));
+    cache.put(key, Format.XML, result);
+
+    ValidationResultCache.CachedResult cached = cache.get(key);
+    assertNotNull(cached);
+    assertAll(
+        () -> assertEquals(Format.XML, cached.getFormat()),
+        () -> assertEquals(result.getHighestSeverity(), cached.getHighestSeverity()),
+        () -> assertEquals(
+            result.getFindings().stream()
+                .map(finding -> ((ConstraintValidationFinding) finding).getNode().getMetapath() + " "
+                    + finding.getMessage())
+                .collect(Collectors.toList()),
+            cached.getFindings().stream()
+                .map(finding -> ((ValidationResultCache.CachedConstraintFinding) finding).getPath() + " "
+                    + finding.getMessage())
+                .collect(Collectors.toList())),
+        () -> assertEquals(1, cache.getHits()),
+        () -> assertEquals(1, cache.getMisses()));
+  }
+
+  @Test
+  void testSchemaFindingsRoundTrip(@TempDir Path cacheDir) throws IOException {
+    ValidationResultCache cache = new ValidationResultCache(ObjectUtils.notNull(cacheDir), 10);
+    URI uri = ObjectUtils.notNull(SOURCE.toUri());
+    ValidationException jsonCause = new ValidationException(EmptySchema.INSTANCE, "bad value", "type", null)
+        .prepend("a/b")
+        .prepend("0")
+        .prepend("groups");
+    List<IValidationFinding> findings = List.of(
+        new XmlValidationFinding(
+            IConstraint.Level.ERROR,
+            new SAXParseException("unexpected element", null, uri.toString(), 12, 34),
+            uri),
+        new JsonValidationFinding(ObjectUtils.notNull(jsonCause), uri));
+
+    String key = cache.newKey(ObjectUtils.notNull(SOURCE), "context");
+    cache.put(key, Format.JSON, new TestResult(findings));
+    ValidationResultCache.CachedResult cached = cache.get(key);
+    assertNotNull(cached);
+
+    XmlValidationFinding xml = (XmlValidationFinding) cached.getFindings().get(0);
+    JsonValidationFinding json = (JsonValidationFinding) cached.getFindings().get(1);
+    assertAll(
+        () -> assertFalse(cached.isPassing()),
+        () -> assertEquals("unexpected element", xml.getMessage()),
+        () -> assertEquals(12, xml.getCause().getLineNumber()),
+        () -> assertEquals(34, xml.getCause().getColumnNumber()),
+        () -> assertEquals(uri, xml.getDocumentUri()),
+        () -> assertEquals(jsonCause.getPointerToViolation(), json.getCause().getPointerToViolation()),
+        () -> assertEquals(jsonCause.getMessage(), json.getMessage()));
+  }
+
+  @Test
+  void testKeyAndEviction(@TempDir Path cacheDir) throws IOException {
+    ValidationResultCache cache = new ValidationResultCache(ObjectUtils.notNull(cacheDir), 1);
+    String first = cache.newKey(ObjectUtils.notNull(SOURCE), "first");
+    String second = cache.newKey(ObjectUtils.notNull(SOURCE), "second");
+    assertNotEquals(first, second);
+
+    cache.put(first, Format.XML, IValidationResult.PASSING_RESULT);
+    cache.put(second, Format.XML, IValidationResult.PASSING_RESULT);
+    // make the second entry the least recently used
+    Files.setLastModifiedTime(cacheDir.resolve(second + ".json"), FileTime.fromMillis(0));
+
+    cache.evict();
+    assertAll(
+        () -> assertNotNull(cache.get(first)),
+        () -> assertNull(cache.get(second)));
+  }
+
+  private static final class TestResult implements IValidationResult {
+    private final List<IValidationFinding> findings;
+
+    private TestResult(List<IValidationFinding> findings) {
+      this.findings = findings;
+    }
+
+    @Override
+    public IConstraint.Level getHighestSeverity() {
+      return IConstraint.Level.ERROR;
+    }
+
+    @Override
+    public List<? extends IValidationFinding> getFindings() {
+      return findings;
+    }
+  }
+}